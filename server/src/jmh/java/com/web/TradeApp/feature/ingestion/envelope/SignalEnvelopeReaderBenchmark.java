@@ -0,0 +1,86 @@
+package com.web.TradeApp.feature.ingestion.envelope;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares {@link SignalEnvelopeReader} with the previous
+ * String + trim + Base64 + readTree path on a realistic queue message.
+ *
+ * ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SignalEnvelopeReaderBenchmark {
+
+    // Same shape as what the webhook function puts on the queue
+    private static final String MESSAGE = """
+            {"webhookToken":"Jc0bq2sN3m9Zt8Kp1xWvQ4rLhY7aFgUe","receivedAt":1718000000000,
+            "headers":{"content-type":"application/json","user-agent":"python-requests/2.31.0"},
+            "payload":{"secret_key":"f3K9wQ2mZr7TbX1vN8cLpH4sJ6yD0gAeU5oRiWkqMnVtBzYxCaEdFhGjKlPoIuSa",
+            "action":"long","symbol":"BTC","price":67321.45,"confidence":0.8731,
+            "timestamp":"2024-06-10T06:13:20.123456","strategy":"ema_cross_v2",
+            "indicators":{"ema_fast":67210.2,"ema_slow":66985.7,"rsi":61.4}}}
+            """;
+
+    @Param({ "plain", "base64" })
+    private String encoding;
+
+    private ObjectMapper objectMapper;
+    private SignalEnvelopeReader reader;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        reader = new SignalEnvelopeReader(objectMapper);
+        byte[] json = MESSAGE.getBytes(StandardCharsets.UTF_8);
+        body = "base64".equals(encoding) ? Base64.getEncoder().encode(json) : json;
+    }
+
+    @Benchmark
+    public SignalEnvelope streaming() throws IOException {
+        return reader.read(body);
+    }
+
+    @Benchmark
+    public SignalEnvelope readTree() throws IOException {
+        // Previous path: BinaryData.toString() then getDecodedMessageBody()
+        String raw = new String(body, StandardCharsets.UTF_8);
+        String json = raw;
+        if (!raw.trim().startsWith("{")) {
+            String decoded = new String(Base64.getDecoder().decode(raw), StandardCharsets.UTF_8);
+            if (decoded.trim().startsWith("{")) {
+                json = decoded;
+            }
+        }
+
+        JsonNode root = objectMapper.readTree(json);
+        JsonNode payload = root.path("payload");
+        return new SignalEnvelope(
+                root.path("webhookToken").asText(null),
+                root.path("receivedAt").asLong(0),
+                payload.path("secret_key").asText(null),
+                payload.path("action").asText("").toUpperCase(),
+                payload.path("symbol").asText(null),
+                payload.has("price") ? payload.get("price").asDouble() : null,
+                payload.has("confidence") ? payload.get("confidence").asDouble() : null,
+                payload.path("timestamp").asText(),
+                json);
+    }
+}
@@ -0,0 +1,59 @@
+package com.web.TradeApp.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.web.TradeApp.feature.common.http.ResilientHttpClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${coingecko.http.connect-timeout:2s}")
+    private Duration connectTimeout;
+
+    @Value("${coingecko.http.request-timeout:5s}")
+    private Duration requestTimeout;
+
+    @Value("${coingecko.http.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${coingecko.http.retry-backoff:250ms}")
+    private Duration retryBackoff;
+
+    @Value("${coingecko.http.rate-limit-per-minute:30}")
+    private long rateLimitPerMinute;
+
+    @Value("${coingecko.http.rate-limit-burst:5}")
+    private long rateLimitBurst;
+
+    @Value("${coingecko.http.rate-limit-wait:2s}")
+    private Duration rateLimitWait;
+
+    @Value("${coingecko.http.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${coingecko.http.open-duration:30s}")
+    private Duration openDuration;
+
+    @Bean
+    public ResilientHttpClient coinGeckoHttpClient(MeterRegistry meterRegistry) {
+        return ResilientHttpClient.builder()
+                .name("coingecko")
+                .connectTimeout(connectTimeout)
+                .requestTimeout(requestTimeout)
+                .maxRetries(maxRetries)
+                .retryBackoff(retryBackoff)
+                .rateLimitPerMinute(rateLimitPerMinute)
+                .rateLimitBurst(rateLimitBurst)
+                .rateLimitWait(rateLimitWait)
+                .failureThreshold(failureThreshold)
+                .openDuration(openDuration)
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+}
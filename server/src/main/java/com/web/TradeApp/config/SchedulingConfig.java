@@ -0,0 +1,26 @@
+package com.web.TradeApp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+@Configuration
+public class SchedulingConfig {
+
+    public static final String SNAPSHOT_JOB_EXECUTOR = "snapshotJobExecutor";
+
+    /**
+     * Runs the snapshot jobs (@Async on their @Scheduled method) off the
+     * scheduler threads: the trigger returns at once, so the next one fires on
+     * time and the job's overlap guard skips it while a run is still going,
+     * and price refreshes / metric flushes never wait behind a run.
+     */
+    @Bean(SNAPSHOT_JOB_EXECUTOR)
+    public SimpleAsyncTaskExecutor snapshotJobExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("snapshot-job-");
+        executor.setVirtualThreads(true);
+        // A run in progress on shutdown finishes its current batches
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+}
@@ -0,0 +1,258 @@
+package com.web.TradeApp.config.schema;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Startup check of the hot queries: asks the database for the plan of each
+ * one (EXPLAIN on MySQL, SHOWPLAN_XML on SQL Server, nothing is executed) and
+ * warns when a plan reads a whole table or index instead of seeking. Catches
+ * a missing or dropped index (see db/migration) before the table grows.
+ *
+ * Tables under min-rows are ignored: on small tables the optimizer scans on
+ * purpose. Never fails the startup.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class QueryPlanAdvisor {
+
+    private static final String NIL_UUID = "00000000-0000-0000-0000-000000000000";
+
+    /**
+     * Native equivalents of the repository queries on the hot paths. {id} and
+     * {now} are replaced by vendor literals: plans are estimated for a single
+     * owner and a recent time window, like the real calls.
+     */
+    private static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("findManualTransactions", """
+                    SELECT * FROM transactions
+                    WHERE wallet_id = {id} AND source = 'MANUAL' AND created_at >= {now}
+                    ORDER BY created_at DESC"""),
+            new HotQuery("findBotTrades", """
+                    SELECT * FROM bot_trades
+                    WHERE bot_subscription_id = {id} AND created_at >= {now}
+                    ORDER BY created_at DESC"""),
+            new HotQuery("findLastSignalTime", """
+                    SELECT MAX(signal_timestamp) FROM bot_signals WHERE bot_id = {id}"""),
+            new HotQuery("deleteBySignalTimestampBefore", """
+                    DELETE FROM bot_signals WHERE signal_timestamp < {now}"""),
+            new HotQuery("findByBotIdAndActiveTrue", """
+                    SELECT * FROM bot_subscriptions WHERE bot_id = {id} AND is_active = 1"""),
+            new HotQuery("findByUserIdAndBotId", """
+                    SELECT * FROM bot_subscriptions WHERE user_id = {id} AND bot_id = {id}"""),
+            new HotQuery("subscription snapshot baseline", """
+                    SELECT pnl, net_investment, total_equity FROM subscription_snapshot
+                    WHERE bot_subscription_id = {id} AND recorded_at >= {now}
+                    ORDER BY recorded_at ASC"""),
+            new HotQuery("subscription snapshot rollup", """
+                    SELECT bot_subscription_id, recorded_at, total_equity, pnl, net_investment
+                    FROM subscription_snapshot WHERE recorded_at >= {now}"""),
+            new HotQuery("wallet snapshot baseline", """
+                    SELECT pnl, net_investment, total_equity FROM wallet_snapshots
+                    WHERE wallet_id = {id} AND recorded_at >= {now}
+                    ORDER BY recorded_at ASC"""),
+            new HotQuery("wallet snapshot rollup", """
+                    SELECT wallet_id, recorded_at, total_equity, pnl, net_investment
+                    FROM wallet_snapshots WHERE recorded_at >= {now}"""),
+            // Bot detail page (live metrics): one bot, first page
+            new HotQuery("findLiveBotMetrics", SnapshotMetricsRepository.LIVE_BOT_METRICS_SQL
+                    .replace(":compareTime", "{now}")
+                    .replace(":allTime", "0")
+                    .replace(":namePattern", "'%'")
+                    .replace(":anyBot", "0")
+                    .replace(":botId", "{id}")
+                    .replace(":sortBy", "''")
+                    .replace(":first", "1")
+                    .replace(":afterValue", "0")
+                    .replace(":afterId", "{id}")));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${query-plan-advisor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${query-plan-advisor.min-rows:10000}")
+    private long minRows;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void check() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                checkAll(connection);
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("⚠️ Query plan check skipped: {}", e.getMessage());
+        }
+    }
+
+    private void checkAll(Connection connection) throws SQLException {
+        String product = connection.getMetaData().getDatabaseProductName();
+        Vendor vendor = Vendor.of(product);
+        if (vendor == null) {
+            log.debug("Query plan check not supported on {}", product);
+            return;
+        }
+
+        int warnings = 0;
+        for (HotQuery query : HOT_QUERIES) {
+            String sql = vendor.bind(query.sql());
+            try {
+                for (Scan scan : vendor == Vendor.MYSQL ? explainMySql(connection, sql) : explainSqlServer(connection, sql)) {
+                    if (scan.rows() >= minRows) {
+                        warnings++;
+                        log.warn("⚠️ Hot query {} scans {} (~{} rows, {}): missing index?",
+                                query.name(), scan.table(), scan.rows(), scan.operator());
+                    }
+                }
+            } catch (SQLException e) {
+                log.warn("⚠️ No plan for hot query {}: {}", query.name(), e.getMessage());
+            }
+        }
+        log.info("🔎 Query plan check: {} hot queries, {} scan warnings", HOT_QUERIES.size(), warnings);
+    }
+
+    /**
+     * type ALL = full table scan, index = full index scan
+     */
+    private static List<Scan> explainMySql(Connection connection, String sql) throws SQLException {
+        List<Scan> scans = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                String type = rs.getString("type");
+                if ("ALL".equals(type) || "index".equals(type)) {
+                    scans.add(new Scan(rs.getString("table"), rs.getLong("rows"), type));
+                }
+            }
+        }
+        return scans;
+    }
+
+    /**
+     * Table Scan / Clustered Index Scan / Index Scan operators of the estimated
+     * plan, with the cardinality of the scanned table.
+     */
+    private static List<Scan> explainSqlServer(Connection connection, String sql) throws SQLException {
+        String planXml = null;
+        try (Statement statement = connection.createStatement()) {
+            // SHOWPLAN must be alone in its batch, and is reset before the
+            // connection goes back to the pool
+            statement.execute("SET SHOWPLAN_XML ON");
+            try {
+                if (statement.execute(sql)) {
+                    try (ResultSet rs = statement.getResultSet()) {
+                        if (rs.next()) {
+                            planXml = rs.getString(1);
+                        }
+                    }
+                }
+            } finally {
+                statement.execute("SET SHOWPLAN_XML OFF");
+            }
+        }
+        return planXml != null ? parseShowPlan(planXml) : List.of();
+    }
+
+    private static List<Scan> parseShowPlan(String planXml) throws SQLException {
+        List<Scan> scans = new ArrayList<>();
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            NodeList relOps = factory.newDocumentBuilder()
+                    .parse(new InputSource(new StringReader(planXml)))
+                    .getElementsByTagName("RelOp");
+            for (int i = 0; i < relOps.getLength(); i++) {
+                Element relOp = (Element) relOps.item(i);
+                String operator = relOp.getAttribute("PhysicalOp");
+                if (!operator.endsWith("Scan")) {
+                    continue;
+                }
+                String table = scannedTable(relOp);
+                if (table != null) {
+                    String cardinality = relOp.getAttribute("TableCardinality");
+                    String rows = cardinality.isEmpty() ? relOp.getAttribute("EstimateRows") : cardinality;
+                    scans.add(new Scan(table, rows.isEmpty() ? 0 : (long) Double.parseDouble(rows), operator));
+                }
+            }
+        } catch (Exception e) {
+            throw new SQLException("Unreadable SHOWPLAN_XML", e);
+        }
+        return scans;
+    }
+
+    // RelOp > TableScan | IndexScan > Object[@Table]
+    private static String scannedTable(Element relOp) {
+        for (Node child = relOp.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element access
+                    && ("TableScan".equals(access.getTagName()) || "IndexScan".equals(access.getTagName()))) {
+                NodeList objects = access.getElementsByTagName("Object");
+                if (objects.getLength() > 0) {
+                    return ((Element) objects.item(0)).getAttribute("Table").replace("[", "").replace("]", "");
+                }
+            }
+        }
+        return null;
+    }
+
+    private record HotQuery(String name, String sql) {
+    }
+
+    private record Scan(String table, long rows, String operator) {
+    }
+
+    private enum Vendor {
+        MYSQL("UUID_TO_BIN('" + NIL_UUID + "')", "NOW(6)"),
+        SQLSERVER("CAST('" + NIL_UUID + "' AS uniqueidentifier)", "SYSDATETIMEOFFSET()");
+
+        private final String idLiteral;
+        private final String nowLiteral;
+
+        Vendor(String idLiteral, String nowLiteral) {
+            this.idLiteral = idLiteral;
+            this.nowLiteral = nowLiteral;
+        }
+
+        static Vendor of(String productName) {
+            if (productName.startsWith("MySQL")) {
+                return MYSQL;
+            }
+            if (productName.startsWith("Microsoft SQL Server")) {
+                return SQLSERVER;
+            }
+            return null;
+        }
+
+        String bind(String sql) {
+            return sql.replace("{id}", idLiteral).replace("{now}", nowLiteral);
+        }
+    }
+}
@@ -48,6 +48,7 @@ public class SecurityConfig {
         };
         private final String[] ADMIN = {
                         "/admin", "/admin/**",
+                        "/actuator/**",
         };
 
         @Value("${application.security.jwt.secret-key}")
@@ -19,6 +19,7 @@ import com.web.TradeApp.feature.coin.entity.Wallet;
 import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
 import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.coin.service.CoinSymbolRegistry;
 import com.web.TradeApp.feature.user.auth.constant.AuthProvider;
 import com.web.TradeApp.feature.user.auth.constant.Role;
 import com.web.TradeApp.feature.user.entity.User;
@@ -37,6 +38,7 @@ public class DataSeeder {
     private final WalletRepository walletRepository;
     private final CoinRepository coinRepository;
     private final CoinHoldingRepository coinHoldingRepository;
+    private final CoinSymbolRegistry coinSymbolRegistry;
 
     private final TransactionTemplate transactionTemplate;
 
@@ -120,6 +122,9 @@ public class DataSeeder {
                 wallet.setNetInvestment(adminInvestment);
                 walletRepository.save(wallet);
 
+                // Make the seeded coins resolvable once the seeding commits
+                coinSymbolRegistry.refreshAfterCommit();
+
                 return null;
             });
 
@@ -1,6 +1,7 @@
 package com.web.TradeApp.exception;
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
@@ -115,6 +116,36 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    // Malformed request values checked in the services: keyset cursors, timeframe / sort names
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ProblemDetail handleIllegalArgument(IllegalArgumentException ex) {
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+        problem.setTitle("Bad Request");
+        problem.setDetail(ex.getMessage());
+        problem.setProperty("timestamp", Instant.now());
+        return problem;
+    }
+
+    // Versioned entity changed by a concurrent request (paths without retry)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ProblemDetail handleOptimisticLock(OptimisticLockingFailureException ex) {
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.CONFLICT);
+        problem.setTitle("Conflict");
+        problem.setDetail("The resource was modified by another request, please try again");
+        problem.setProperty("timestamp", Instant.now());
+        return problem;
+    }
+
+    // No fresh market price (CoinGecko down or rate limited): trades must not use a stale one
+    @ExceptionHandler(PriceUnavailableException.class)
+    public ProblemDetail handlePriceUnavailable(PriceUnavailableException ex) {
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        problem.setTitle("Price Unavailable");
+        problem.setDetail(ex.getMessage());
+        problem.setProperty("timestamp", Instant.now());
+        return problem;
+    }
+
     @ExceptionHandler(DisabledException.class)
     public ProblemDetail handleDisabledAccount(DisabledException ex) {
         ex.printStackTrace();
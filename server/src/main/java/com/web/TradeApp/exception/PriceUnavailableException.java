@@ -0,0 +1,11 @@
+package com.web.TradeApp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PriceUnavailableException extends RuntimeException {
+    public PriceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,46 @@
+package com.web.TradeApp.feature.admin.entity;
+
+import java.math.BigDecimal;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One stripe of the exchange treasury (the admin side of every trade).
+ *
+ * Instead of a single admin Wallet/CoinHolding row per asset, the balance is
+ * split into N shard rows; trades pick a shard by hash so concurrent trades
+ * update different rows. The total of an asset is the sum of its shards.
+ */
+@Entity
+@Table(name = "treasury_shards", uniqueConstraints = {
+        @UniqueConstraint(name = "ux_treasury_asset_shard", columnNames = { "asset", "shard_index" })
+})
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class TreasuryShard extends BaseEntity {
+
+    // "USDT" for cash, otherwise the coin symbol (BTC, ETH, ...)
+    @Column(name = "asset", nullable = false, length = 20)
+    private String asset;
+
+    @Column(name = "shard_index", nullable = false)
+    private int shardIndex;
+
+    @Column(name = "balance", nullable = false, precision = 19, scale = 8)
+    private BigDecimal balance;
+}
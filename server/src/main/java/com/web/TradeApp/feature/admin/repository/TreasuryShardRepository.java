@@ -0,0 +1,64 @@
+package com.web.TradeApp.feature.admin.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.admin.entity.TreasuryShard;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface TreasuryShardRepository extends JpaRepository<TreasuryShard, UUID> {
+
+    /*
+     * Atomic credit, no read-modify-write: concurrent trades on the same shard
+     * can't lose updates
+     */
+    @Modifying
+    @Query("""
+            UPDATE TreasuryShard s SET s.balance = s.balance + :amount
+            WHERE s.asset = :asset AND s.shardIndex = :shard
+            """)
+    int credit(@Param("asset") String asset, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+
+    /*
+     * Atomic conditional debit: updates 0 rows if the shard can't cover the amount
+     */
+    @Modifying
+    @Query("""
+            UPDATE TreasuryShard s SET s.balance = s.balance - :amount
+            WHERE s.asset = :asset AND s.shardIndex = :shard AND s.balance >= :amount
+            """)
+    int debit(@Param("asset") String asset, @Param("shard") int shard, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT COALESCE(SUM(s.balance), 0) FROM TreasuryShard s WHERE s.asset = :asset")
+    BigDecimal sumBalance(@Param("asset") String asset);
+
+    // [shardIndex, balance] rows, read straight from the DB (not from the persistence context)
+    @Query("SELECT s.shardIndex, s.balance FROM TreasuryShard s WHERE s.asset = :asset ORDER BY s.shardIndex ASC")
+    List<Object[]> findShardBalances(@Param("asset") String asset);
+
+    /*
+     * Rebalancer: locks every shard of an asset (always in shard order, so two
+     * lockers can't deadlock each other)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM TreasuryShard s WHERE s.asset = :asset ORDER BY s.shardIndex ASC")
+    List<TreasuryShard> lockByAsset(@Param("asset") String asset);
+
+    @Query("SELECT s.shardIndex FROM TreasuryShard s WHERE s.asset = :asset")
+    List<Integer> findShardIndexes(@Param("asset") String asset);
+
+    @Query("SELECT DISTINCT s.asset FROM TreasuryShard s")
+    List<String> findAllAssets();
+
+    boolean existsByAsset(String asset);
+}
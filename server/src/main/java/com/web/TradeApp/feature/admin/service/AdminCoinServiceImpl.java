@@ -9,17 +9,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.web.TradeApp.exception.IdInvalidException;
+import com.web.TradeApp.exception.InsufficientBalanceException;
 import com.web.TradeApp.feature.admin.dto.CoinDepositRequest;
 import com.web.TradeApp.feature.admin.dto.CoinDepositResponse;
 import com.web.TradeApp.feature.admin.dto.CoinWithdrawRequest;
 import com.web.TradeApp.feature.admin.dto.CoinWithdrawResponse;
 import com.web.TradeApp.feature.coin.dto.CoinInfoResponse;
 import com.web.TradeApp.feature.coin.entity.Coin;
-import com.web.TradeApp.feature.coin.entity.CoinHolding;
-import com.web.TradeApp.feature.coin.entity.Wallet;
-import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
 import com.web.TradeApp.feature.coin.repository.CoinRepository;
-import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
 import com.web.TradeApp.feature.common.response.ResultPaginationResponse;
 import com.web.TradeApp.feature.history.entity.InventoryHistory;
 import com.web.TradeApp.feature.history.repository.InventoryHistoryRepository;
@@ -33,10 +30,8 @@ import lombok.extern.slf4j.Slf4j;
 public class AdminCoinServiceImpl implements AdminCoinService {
 
         private final CoinRepository coinRepository;
-        private final CoinHoldingRepository coinHoldingRepository;
         private final InventoryHistoryRepository historyRepository;
-        private final AdminServiceImpl adminService; // Use the new helper
-        private final CoinGeckoClient coinGeckoClient; // Assuming this exists
+        private final TreasuryService treasuryService;
 
         // =========================================================================
         // COIN MANAGEMENT (MINT / BURN)
@@ -45,34 +40,16 @@ public class AdminCoinServiceImpl implements AdminCoinService {
         @Override
         @Transactional
         public CoinDepositResponse depositCoin(CoinDepositRequest request) {
-                // 1. Get Admin Wallet
-                Wallet adminWallet = adminService.getAdminWallet();
-
-                // 2. Validate Coin via External API (Optional but good safety)
-                if (!coinGeckoClient.isExists(request.getCoinGeckoId())) {
-                        throw new IllegalArgumentException("Invalid coinGeckoId: " + request.getCoinGeckoId());
-                }
-
-                // 3. Find Coin Definition (or create if logic allows, assuming exists here)
+                // 1. Find Coin Definition (only listed coins can be minted)
                 Coin coin = coinRepository.findByCoinGeckoId(request.getCoinGeckoId())
                                 .orElseThrow(() -> new IdInvalidException(
                                                 "Coin not found in DB: " + request.getCoinGeckoId()));
 
-                // 4. Find or Create Admin's Holding for this Coin
-                CoinHolding adminHolding = coinHoldingRepository
-                                .findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
-                                .orElseGet(() -> CoinHolding.builder()
-                                                .wallet(adminWallet)
-                                                .coin(coin)
-                                                .amount(BigDecimal.ZERO)
-                                                .averageBuyPrice(BigDecimal.ZERO) // Admin gets it for free/minted
-                                                .build());
-
-                // 5. Add Quantity (Minting)
-                adminHolding.setAmount(adminHolding.getAmount().add(request.getQuantity()));
-                coinHoldingRepository.save(adminHolding);
-
-                // 6. Log History
+                // 2. Add Quantity to the treasury (Minting)
+                // The admin CoinHolding is a mirror, the rebalancer syncs it
+                treasuryService.credit(coin.getSymbol(), request.getQuantity(), null);
+
+                // 3. Log History
                 saveHistory(coin, InventoryHistory.ActionType.DEPOSIT, request.getQuantity(), request.getNote());
 
                 return CoinDepositResponse.builder()
@@ -81,34 +58,31 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                                 .symbol(coin.getSymbol())
                                 .name(coin.getName())
                                 .depositedQuantity(request.getQuantity())
-                                .newQuantity(adminHolding.getAmount()) // Return holding amount
+                                .newQuantity(treasuryService.balanceOf(coin.getSymbol())) // Return treasury total
                                 .build();
         }
 
         @Override
         @Transactional
         public CoinWithdrawResponse withdrawCoin(CoinWithdrawRequest request) {
-                // 1. Get Admin Wallet & Coin
-                Wallet adminWallet = adminService.getAdminWallet();
-
+                // 1. Get Coin
                 Coin coin = coinRepository.findByCoinGeckoId(request.getCoinGeckoId())
                                 .orElseThrow(() -> new IdInvalidException(
                                                 "Coin not found: " + request.getCoinGeckoId()));
 
-                CoinHolding adminHolding = coinHoldingRepository
-                                .findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
-                                .orElseThrow(() -> new IllegalArgumentException(
-                                                "Admin has no holding of " + request.getCoinGeckoId()));
-
                 // 2. Check Sufficient Balance
-                if (adminHolding.getAmount().compareTo(request.getQuantity()) < 0) {
+                BigDecimal available = treasuryService.balanceOf(coin.getSymbol());
+                if (available.compareTo(request.getQuantity()) < 0) {
                         throw new IllegalArgumentException(
-                                        "Insufficient Admin Funds. Has: " + adminHolding.getAmount());
+                                        "Insufficient Admin Funds. Has: " + available);
                 }
 
-                // 3. Subtract Quantity (Burning)
-                adminHolding.setAmount(adminHolding.getAmount().subtract(request.getQuantity()));
-                coinHoldingRepository.save(adminHolding);
+                // 3. Subtract Quantity from the treasury (Burning)
+                try {
+                        treasuryService.debit(coin.getSymbol(), request.getQuantity(), null);
+                } catch (InsufficientBalanceException e) {
+                        throw new IllegalArgumentException("Insufficient Admin Funds (changed concurrently)");
+                }
 
                 // 4. Log History
                 saveHistory(coin, InventoryHistory.ActionType.WITHDRAW, request.getQuantity().negate(),
@@ -118,7 +92,7 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                                 .id(coin.getId())
                                 .coinGeckoId(coin.getCoinGeckoId())
                                 .withdrewQuantity(request.getQuantity())
-                                .newQuantity(adminHolding.getAmount())
+                                .newQuantity(treasuryService.balanceOf(coin.getSymbol()))
                                 .build();
         }
 
@@ -176,12 +150,11 @@ public class AdminCoinServiceImpl implements AdminCoinService {
         @Override
         public ResultPaginationResponse getAllCoins(Pageable pageable) {
                 // Note: This iterates COIN definitions.
-                // To show Admin Quantity, we must fetch the Admin's CoinHolding for each coin.
+                // To show Admin Quantity, we sum the treasury shards of each coin.
                 // This can be N+1 issue if not careful. For admin panel, N+1 is usually
                 // acceptable (low traffic).
 
                 Page<Coin> pageCoins = this.coinRepository.findAll(pageable);
-                Wallet adminWallet = adminService.getAdminWallet();
 
                 ResultPaginationResponse res = new ResultPaginationResponse();
                 ResultPaginationResponse.PageMeta meta = new ResultPaginationResponse.PageMeta();
@@ -194,18 +167,16 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                 res.setMeta(meta);
 
                 List<CoinInfoResponse> listCoin = pageCoins.getContent().stream()
-                                .map(coin -> toCoinInfoDto(coin, adminWallet.getId()))
+                                .map(this::toCoinInfoDto)
                                 .toList();
 
                 res.setResult(listCoin);
                 return res;
         }
 
-        private CoinInfoResponse toCoinInfoDto(Coin c, java.util.UUID adminWalletId) {
-                // Fetch Admin's specific holding for this coin
-                BigDecimal adminQuantity = coinHoldingRepository.findByWalletIdAndCoinId(adminWalletId, c.getId())
-                                .map(CoinHolding::getAmount)
-                                .orElse(BigDecimal.ZERO);
+        private CoinInfoResponse toCoinInfoDto(Coin c) {
+                // Admin quantity = treasury total for this coin
+                BigDecimal adminQuantity = treasuryService.balanceOf(c.getSymbol());
 
                 return CoinInfoResponse.builder()
                                 .id(c.getId())
@@ -15,16 +15,18 @@ import lombok.RequiredArgsConstructor;
 public class AdminServiceImpl implements AdminService {
     private final WalletRepository walletRepo;
 
-    private UUID cachedAdminWalletId;
+    private volatile UUID cachedAdminWalletId;
     private static final String ADMIN_USERNAME = DataSeeder.uniqueAdminUsername;
 
     @Override
     public Wallet getAdminWallet() {
         if (cachedAdminWalletId == null) {
-            // Fallback if @PostConstruct failed or ran before seeder
-            return walletRepo.findByUser_Username(ADMIN_USERNAME)
+            // First call (seeder has run by then): resolve by username once, then by id
+            Wallet wallet = walletRepo.findByUser_Username(ADMIN_USERNAME)
                     .orElseThrow(() -> new RuntimeException(
                             "CRITICAL: System Admin Wallet not found. Check DataSeeder."));
+            cachedAdminWalletId = wallet.getId();
+            return wallet;
         }
         return walletRepo.findById(cachedAdminWalletId)
                 .orElseThrow(() -> new RuntimeException(
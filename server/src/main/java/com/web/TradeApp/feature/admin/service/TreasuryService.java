@@ -0,0 +1,21 @@
+package com.web.TradeApp.feature.admin.service;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public interface TreasuryService {
+
+    String CASH_ASSET = "USDT";
+
+    // Adds to the treasury; routingKey (e.g. user id) picks the shard
+    void credit(String asset, BigDecimal amount, UUID routingKey);
+
+    // Takes from the treasury, throws InsufficientBalanceException if all shards together can't cover it
+    void debit(String asset, BigDecimal amount, UUID routingKey);
+
+    // Total over all shards
+    BigDecimal balanceOf(String asset);
+
+    // Spreads every asset evenly over its shards and syncs the admin wallet mirror
+    void rebalance();
+}
@@ -0,0 +1,293 @@
+package com.web.TradeApp.feature.admin.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.exception.InsufficientBalanceException;
+import com.web.TradeApp.feature.admin.entity.TreasuryShard;
+import com.web.TradeApp.feature.admin.repository.TreasuryShardRepository;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sharded (striped) treasury ledger.
+ *
+ * The admin wallet used to be the counterparty row of every trade, so all
+ * trades serialized on it. Now every asset is split into N shard rows:
+ * - credit/debit are single atomic UPDATEs on the shard picked by hash of the
+ * routing key (user id), so concurrent trades mostly touch different rows;
+ * - a debit that its shard can't cover tries the other shards (in one global
+ * order), then splits the amount over several of them;
+ * - the rebalancer periodically spreads each asset evenly over its shards and
+ * writes the totals to the admin Wallet/CoinHolding, which are now a
+ * read-only mirror (snapshots, admin screens).
+ *
+ * On first start the shards are bootstrapped from the admin wallet. Shards are
+ * only ever created outside a trade (bootstrap, then every rebalance for coins
+ * listed later or a raised treasury.shards): creating them inside credit()
+ * needed a second connection while the trade held its own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TreasuryServiceImpl implements TreasuryService {
+
+    private final TreasuryShardRepository shardRepo;
+    private final AdminService adminService;
+    private final CoinRepository coinRepo;
+    private final CoinHoldingRepository holdingRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${treasury.shards:8}")
+    private int shardCount;
+
+    // Assets known to have all their shards, skips the existence check of the rebalancer
+    private final Set<String> readyAssets = ConcurrentHashMap.newKeySet();
+
+    @Override
+    @Transactional
+    public void credit(String asset, BigDecimal amount, UUID routingKey) {
+        if (amount.signum() <= 0)
+            return;
+        if (shardRepo.credit(asset, shardOf(routingKey), amount) == 1)
+            return;
+
+        // Home shard missing (treasury.shards raised, the rebalancer creates it): any existing shard will do
+        for (Object[] row : shardRepo.findShardBalances(asset)) {
+            if (shardRepo.credit(asset, (Integer) row[0], amount) == 1)
+                return;
+        }
+        throw new IllegalStateException("No treasury shard for " + asset);
+    }
+
+    @Override
+    @Transactional
+    public void debit(String asset, BigDecimal amount, UUID routingKey) {
+        if (amount.signum() <= 0)
+            return;
+
+        // 1. Home shard covers it (the common case after a rebalance)
+        int home = shardOf(routingKey);
+        if (shardRepo.debit(asset, home, amount) == 1)
+            return;
+
+        // The fallbacks read the balances once and only UPDATE shards that can
+        // contribute (a failed conditional UPDATE keeps its row lock until commit),
+        // always in the same order: highest balance first, ties by index. Two
+        // fallback debits then lock shards in the same sequence; a deadlock left
+        // by the home shard is retried by OptimisticRetryExecutor.
+        List<Object[]> shards = new ArrayList<>(shardRepo.findShardBalances(asset));
+        shards.sort(Comparator.<Object[], BigDecimal>comparing(row -> (BigDecimal) row[1]).reversed()
+                .thenComparing(row -> (Integer) row[0]));
+
+        // 2. Another shard covers it alone
+        for (Object[] row : shards) {
+            int shard = (Integer) row[0];
+            if (shard != home && ((BigDecimal) row[1]).compareTo(amount) >= 0
+                    && shardRepo.debit(asset, shard, amount) == 1)
+                return;
+        }
+
+        // 3. Split over several shards; partial debits roll back with the transaction
+        BigDecimal remaining = amount;
+        for (Object[] row : shards) {
+            int shard = (Integer) row[0];
+            BigDecimal available = (BigDecimal) row[1];
+            if (available.signum() <= 0)
+                continue;
+            BigDecimal take = available.min(remaining);
+            if (shardRepo.debit(asset, shard, take) == 1) {
+                remaining = remaining.subtract(take);
+                if (remaining.signum() == 0)
+                    return;
+            }
+        }
+
+        log.error("🚨 LIQUIDITY: Treasury has not enough {} to cover {}", asset, amount);
+        throw new InsufficientBalanceException("System Liquidity Error: Insufficient treasury " + asset);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BigDecimal balanceOf(String asset) {
+        return shardRepo.sumBalance(asset);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${treasury.rebalance-interval:60000}", initialDelayString = "${treasury.rebalance-interval:60000}")
+    public void rebalance() {
+        // Coins listed since the last run (no-op once an asset has all its shards)
+        ensureListedAssets(Map.of());
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        // One transaction per asset: shard locks of an asset are held only briefly
+        for (String asset : shardRepo.findAllAssets()) {
+            try {
+                txTemplate.executeWithoutResult(status -> rebalanceAsset(asset));
+            } catch (Exception e) {
+                log.error("❌ Treasury rebalance failed for {}: {}", asset, e.getMessage());
+            }
+        }
+    }
+
+    private void rebalanceAsset(String asset) {
+        List<TreasuryShard> shards = shardRepo.lockByAsset(asset);
+        BigDecimal total = shards.stream().map(TreasuryShard::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // Even split, rounding remainder stays on shard 0
+        BigDecimal share = total.divide(BigDecimal.valueOf(shards.size()), 8, RoundingMode.DOWN);
+        BigDecimal remainder = total.subtract(share.multiply(BigDecimal.valueOf(shards.size())));
+        for (TreasuryShard shard : shards) {
+            shard.setBalance(shard.getShardIndex() == 0 ? share.add(remainder) : share);
+        }
+
+        syncMirror(asset, total);
+    }
+
+    /**
+     * Writes the treasury total to the admin Wallet (USDT) or admin CoinHolding.
+     */
+    private void syncMirror(String asset, BigDecimal total) {
+        Wallet adminWallet = adminService.getAdminWallet();
+        if (CASH_ASSET.equals(asset)) {
+            adminWallet.setBalance(total);
+            return;
+        }
+
+        Coin coin = coinRepo.findBySymbol(asset).orElse(null);
+        if (coin == null) {
+            log.warn("⚠️ Treasury asset {} has no coin definition, mirror not updated", asset);
+            return;
+        }
+        CoinHolding holding = holdingRepo.findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
+                .orElseGet(() -> CoinHolding.builder()
+                        .wallet(adminWallet)
+                        .coin(coin)
+                        .amount(BigDecimal.ZERO)
+                        .averageBuyPrice(BigDecimal.ZERO)
+                        .build());
+        holding.setAmount(total);
+        holdingRepo.save(holding);
+    }
+
+    /**
+     * First start: move the admin wallet balances into the shards (all on shard
+     * 0, the rebalance right after spreads them). Runs after the data seeders.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            // 1. Admin wallet balances of the assets that have no shards yet
+            Map<String, BigDecimal> initialBalances = txTemplate.execute(status -> {
+                Map<String, BigDecimal> balances = new HashMap<>();
+                Wallet adminWallet = adminService.getAdminWallet();
+                if (!shardRepo.existsByAsset(CASH_ASSET)) {
+                    balances.put(CASH_ASSET, adminWallet.getBalance());
+                }
+                for (CoinHolding holding : holdingRepo.findByWallet_User_Id(adminWallet.getUser().getId())) {
+                    String asset = holding.getCoin().getSymbol();
+                    if (!shardRepo.existsByAsset(asset)) {
+                        balances.put(asset, holding.getAmount());
+                    }
+                }
+                return balances;
+            });
+            // 2. Shards of every asset, outside that transaction
+            ensureListedAssets(initialBalances);
+        } catch (Exception e) {
+            log.error("❌ Treasury bootstrap failed: {}", e.getMessage());
+            return;
+        }
+        rebalance();
+        log.info("🏦 Treasury ready: {} shards per asset", shardCount);
+    }
+
+    /**
+     * Creates the missing shards of the cash asset and of every listed coin,
+     * plus any other asset of initialBalances (admin holdings).
+     */
+    private void ensureListedAssets(Map<String, BigDecimal> initialBalances) {
+        Set<String> assets = new LinkedHashSet<>();
+        assets.add(CASH_ASSET);
+        assets.addAll(coinRepo.findAllSymbols());
+        assets.addAll(initialBalances.keySet());
+        for (String asset : assets) {
+            ensureShards(asset, initialBalances.getOrDefault(asset, BigDecimal.ZERO));
+        }
+    }
+
+    /**
+     * Creates the missing shards of an asset (new asset, or treasury.shards
+     * raised), the initial balance goes to shard 0 if it is missing.
+     *
+     * Insert-if-absent: every shard is inserted in its own transaction and a
+     * duplicate key means another instance created it first. Must not run inside
+     * a transaction: each insert takes its own connection, and on MySQL a failed
+     * UPDATE of a missing shard holds a gap lock that would block these inserts.
+     */
+    private void ensureShards(String asset, BigDecimal initialBalance) {
+        if (readyAssets.contains(asset))
+            return;
+        Set<Integer> existing = new HashSet<>(shardRepo.findShardIndexes(asset));
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        int created = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            if (existing.contains(shard))
+                continue;
+            TreasuryShard row = TreasuryShard.builder()
+                    .asset(asset)
+                    .shardIndex(shard)
+                    .balance(shard == 0 ? initialBalance : BigDecimal.ZERO)
+                    .build();
+            try {
+                txTemplate.executeWithoutResult(status -> shardRepo.saveAndFlush(row));
+                created++;
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently (ux_treasury_asset_shard)
+            }
+        }
+        if (created > 0)
+            log.info("🏦 Created {} treasury shards for {}", created, asset);
+        readyAssets.add(asset);
+    }
+
+    private int shardOf(UUID routingKey) {
+        if (routingKey == null)
+            return ThreadLocalRandom.current().nextInt(shardCount);
+        return Math.floorMod(routingKey.hashCode(), shardCount);
+    }
+}
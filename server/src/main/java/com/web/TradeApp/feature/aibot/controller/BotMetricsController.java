@@ -2,6 +2,7 @@ package com.web.TradeApp.feature.aibot.controller;
 
 import java.util.UUID;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,12 +11,12 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 
 import com.web.TradeApp.feature.aibot.dto.Bot.BotGridItemDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.SubscriptionMetrics;
+import com.web.TradeApp.feature.aibot.service.subscription.BotMetricsResponseCache;
 import com.web.TradeApp.feature.aibot.service.subscription.ModularMetricsServiceImpl;
 import com.web.TradeApp.feature.common.Annotation.ApiMessage;
 import com.web.TradeApp.feature.common.response.ResultPaginationResponse;
@@ -32,6 +33,7 @@ import lombok.RequiredArgsConstructor;
 public class BotMetricsController {
 
     private final ModularMetricsServiceImpl pnlService;
+    private final BotMetricsResponseCache responseCache;
 
     /**
      * Get all bots metrics với pagination, search và sorting
@@ -39,6 +41,8 @@ public class BotMetricsController {
      * @param timeframe "current" | "1d" | "7d" (default: current)
      * @param sortBy    "pnl" | "roi" | "copied" (default: pnl)
      * @param search    Search by bot name (optional)
+     * @param cursor    Keyset cursor for infinite scroll (optional, "" for the
+     *                  first page, then meta.nextCursor); page is ignored
      * @param pageable  Pagination params (page, size)
      * @return Paginated bot grid items
      * 
@@ -46,6 +50,7 @@ public class BotMetricsController {
      *         - GET /metrics/bots?timeframe=1d&sortBy=pnl&page=0&size=10
      *         - GET /metrics/bots?timeframe=7d&sortBy=roi&search=BTC&page=0&size=20
      *         - GET /metrics/bots?sortBy=copied
+     *         - GET /metrics/bots?sortBy=roi&cursor=&size=20
      */
     @GetMapping("/bots")
     @ApiMessage("Bots metrics fetched successfully")
@@ -53,22 +58,14 @@ public class BotMetricsController {
             @RequestParam(defaultValue = "current") String timeframe,
             @RequestParam(defaultValue = "pnl") String sortBy,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
             @PageableDefault(size = 10, page = 0) Pageable pageable) {
 
-        Page<BotGridItemDTO> botsPage = pnlService.getAllBotsWithPagination(
-                timeframe, sortBy, search, pageable);
-
-        ResultPaginationResponse response = new ResultPaginationResponse();
-        ResultPaginationResponse.PageMeta meta = new ResultPaginationResponse.PageMeta();
-        meta.setPage(botsPage.getNumber() + 1);
-        meta.setPageSize(botsPage.getSize());
-        meta.setPages(botsPage.getTotalPages());
-        meta.setTotal(botsPage.getTotalElements());
-
-        response.setMeta(meta);
-        response.setResult(botsPage.getContent());
-
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+        // Infinite scroll: cursor present (empty for the first page) -> keyset page
+        if (cursor != null) {
+            return cachedResponse(responseCache.scroll(timeframe, sortBy, search, cursor, pageable.getPageSize()));
+        }
+        return cachedResponse(responseCache.grid(timeframe, sortBy, search, pageable));
     }
 
     /**
@@ -86,8 +83,7 @@ public class BotMetricsController {
             @PathVariable UUID botId,
             @RequestParam(defaultValue = "current") String timeframe) {
 
-        BotGridItemDTO metrics = pnlService.getSingleBotMetrics(botId, timeframe);
-        return ResponseEntity.status(HttpStatus.OK).body(metrics);
+        return cachedResponse(responseCache.bot(botId, timeframe));
     }
 
     /**
@@ -105,8 +101,7 @@ public class BotMetricsController {
             @PathVariable UUID botId,
             @RequestParam(defaultValue = "7d") String timeframe) {
 
-        com.web.TradeApp.feature.aibot.dto.Bot.BotDetailDTO detail = pnlService.getBotDetailWithChart(botId, timeframe);
-        return ResponseEntity.status(HttpStatus.OK).body(detail);
+        return cachedResponse(responseCache.detail(botId, timeframe));
     }
 
     /**
@@ -128,4 +123,15 @@ public class BotMetricsController {
         SubscriptionMetrics metrics = pnlService.getSubscriptionMetrics(subscriptionId, timeframe);
         return ResponseEntity.status(HttpStatus.OK).body(metrics);
     }
+
+    /**
+     * 200 with the cached body and its ETag; Spring turns it into a 304 when
+     * If-None-Match matches. no-cache lets browsers keep the body and revalidate.
+     */
+    private static <T> ResponseEntity<T> cachedResponse(BotMetricsResponseCache.Cached<T> cached) {
+        return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(CacheControl.noCache())
+                .eTag(cached.etag())
+                .body(cached.value());
+    }
 }
@@ -26,6 +26,7 @@ import com.web.TradeApp.feature.aibot.dto.BotSubscription.SubItemDTO;
 import com.web.TradeApp.feature.aibot.service.subscription.BotSubscriptionService;
 import com.web.TradeApp.feature.aibot.service.subscription.ModularMetricsService;
 import com.web.TradeApp.feature.common.Annotation.ApiMessage;
+import com.web.TradeApp.feature.common.response.CursorPage;
 import com.web.TradeApp.feature.common.response.ResultPaginationResponse;
 import com.web.TradeApp.feature.common.response.ResultPaginationResponse.PageMeta;
 import com.web.TradeApp.utils.SecurityUtil;
@@ -75,10 +76,25 @@ public class BotSubController {
     @ApiMessage("Get user subscriptions successfully")
     public ResponseEntity<ResultPaginationResponse> getAllSubscriptions(
             @RequestParam(name = "sortBy", defaultValue = "pnl") String sortBy,
+            @RequestParam(name = "cursor", required = false) String cursor,
             @PageableDefault(size = 10, page = 0) Pageable pageable) {
         UUID userId = SecurityUtil.getCurrentUserId()
                 .orElseThrow(() -> new RuntimeException("User not authenticated"));
 
+        // Infinite scroll: cursor present (empty for the first page) -> keyset page
+        if (cursor != null) {
+            CursorPage<SubItemDTO> scroll = metricsService.scrollUserSubscriptions(userId, sortBy, cursor,
+                    pageable.getPageSize());
+
+            ResultPaginationResponse response = new ResultPaginationResponse();
+            PageMeta meta = new PageMeta();
+            meta.setPageSize(pageable.getPageSize());
+            meta.setNextCursor(scroll.nextCursor());
+            response.setMeta(meta);
+            response.setResult(scroll.items());
+            return ResponseEntity.ok(response);
+        }
+
         Page<SubItemDTO> subscriptions = metricsService.getAllUserSubscriptions(userId, sortBy, pageable);
 
         // Build simple pagination response
@@ -0,0 +1,21 @@
+package com.web.TradeApp.feature.aibot.event;
+
+import java.time.Instant;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published once the Batch Snapshot Job has written every batch of a run.
+ */
+@Getter
+public class SnapshotBatchCompletedEvent extends ApplicationEvent {
+    private final int snapshotCount;
+    private final Instant completedAt;
+
+    public SnapshotBatchCompletedEvent(Object source, int snapshotCount, Instant completedAt) {
+        super(source);
+        this.snapshotCount = snapshotCount;
+        this.completedAt = completedAt;
+    }
+}
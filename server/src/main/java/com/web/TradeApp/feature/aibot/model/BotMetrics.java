@@ -0,0 +1,99 @@
+package com.web.TradeApp.feature.aibot.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Materialized grid metrics of a bot (one row per bot), aggregated over the
+ * active subscriptions from subscription_metrics.
+ *
+ * Sorting columns of the bot grid are indexed so a page is a single indexed,
+ * DB-paginated query.
+ */
+@Entity
+@Table(name = "bot_metrics", indexes = {
+        @Index(name = "idx_bot_metrics_pnl", columnList = "total_pnl"),
+        @Index(name = "idx_bot_metrics_pnl_1d", columnList = "total_pnl_1d"),
+        @Index(name = "idx_bot_metrics_pnl_7d", columnList = "total_pnl_7d"),
+        @Index(name = "idx_bot_metrics_roi", columnList = "average_roi"),
+        @Index(name = "idx_bot_metrics_roi_1d", columnList = "average_roi_1d"),
+        @Index(name = "idx_bot_metrics_roi_7d", columnList = "average_roi_7d"),
+        @Index(name = "idx_bot_metrics_subscribers", columnList = "active_subscribers")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BotMetrics extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bot_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Bot bot;
+
+    @Column(name = "active_subscribers", nullable = false)
+    @Builder.Default
+    private int activeSubscribers = 0;
+
+    @Column(name = "total_net_investment", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal totalNetInvestment = BigDecimal.ZERO;
+
+    @Column(name = "total_equity", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal totalEquity = BigDecimal.ZERO;
+
+    @Column(name = "total_pnl", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal totalPnl = BigDecimal.ZERO;
+
+    @Column(name = "total_pnl_1d", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal totalPnl1d = BigDecimal.ZERO;
+
+    @Column(name = "total_pnl_7d", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal totalPnl7d = BigDecimal.ZERO;
+
+    @Column(name = "average_roi", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal averageRoi = BigDecimal.ZERO;
+
+    @Column(name = "average_roi_1d", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal averageRoi1d = BigDecimal.ZERO;
+
+    @Column(name = "average_roi_7d", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal averageRoi7d = BigDecimal.ZERO;
+
+    @Column(name = "max_drawdown", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal maxDrawdown = BigDecimal.ZERO;
+
+    @Column(name = "max_drawdown_pct", nullable = false, precision = 18, scale = 6)
+    @Builder.Default
+    private BigDecimal maxDrawdownPct = BigDecimal.ZERO;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+}
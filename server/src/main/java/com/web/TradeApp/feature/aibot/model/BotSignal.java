@@ -11,6 +11,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -22,7 +23,14 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "bot_signals")
+@Table(name = "bot_signals", indexes = {
+        // Idempotency guard: Azure Queue may deliver the same message twice
+        @Index(name = "ux_bot_signals_idempotency", columnList = "idempotency_key", unique = true),
+        // Last signal of a bot
+        @Index(name = "idx_bot_signals_bot_time", columnList = "bot_id, signal_timestamp"),
+        // Retention cleanup
+        @Index(name = "idx_bot_signals_time", columnList = "signal_timestamp")
+})
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -68,4 +76,8 @@ public class BotSignal extends BaseEntity {
     @Column(name = "processed_at")
     private Instant processedAt;
 
+    // SHA-256 of (bot id, signal timestamp, action, price), see SignalDeduplicator
+    @Column(name = "idempotency_key", length = 64)
+    private String idempotencyKey;
+
 }
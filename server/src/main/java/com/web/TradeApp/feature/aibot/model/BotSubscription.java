@@ -12,10 +12,18 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.web.TradeApp.feature.common.entity.BaseEntity;
+import com.web.TradeApp.feature.position.PositionBookListener;
 
 @Entity
-@Table(name = "bot_subscriptions")
+@EntityListeners(PositionBookListener.class) // Live positions follow every committed write
+@Table(name = "bot_subscriptions", indexes = {
+        // Active subscribers of a bot (fan-out, bot metrics)
+        @Index(name = "idx_bot_subscriptions_bot_active", columnList = "bot_id, is_active"),
+        @Index(name = "idx_bot_subscriptions_user_bot", columnList = "user_id, bot_id")
+})
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -84,4 +92,11 @@ public class BotSubscription extends BaseEntity {
     @Column(name = "max_daily_loss_percentage", columnDefinition = "DECIMAL(5,2)")
     private Double maxDailyLossPercentage;
 
+    // Optimistic lock: a fill and a manual deposit/withdraw racing on the bot
+    // wallet fail instead of overwriting each other (retried by OptimisticRetryExecutor)
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
 }
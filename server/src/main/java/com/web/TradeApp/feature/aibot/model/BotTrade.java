@@ -12,7 +12,12 @@ import java.math.BigDecimal;
 import com.web.TradeApp.feature.common.entity.BaseTrade;
 
 @Entity
-@Table(name = "bot_trades")
+@Table(name = "bot_trades", indexes = {
+        // Trade history of a subscription, sorted by time
+        @Index(name = "idx_bot_trades_subscription_time", columnList = "bot_subscription_id, created_at"),
+        // Foreign key check of the signal retention delete
+        @Index(name = "idx_bot_trades_signal", columnList = "bot_signal_id")
+})
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,42 @@
+package com.web.TradeApp.feature.aibot.model;
+
+import java.time.Instant;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Progress of the snapshot rollup job, one row per snapshot table.
+ *
+ * Only moved forward once every chunk of a window has committed, so a run that
+ * fails half-way is redone from the same point and the raw snapshots behind
+ * it are the only ones the job may prune.
+ */
+@Entity
+@Table(name = "snapshot_rollup_watermarks", uniqueConstraints = {
+        @UniqueConstraint(name = "ux_rollup_watermark_source", columnNames = { "source" })
+})
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class SnapshotRollupWatermark extends BaseEntity {
+
+    // "subscription" / "wallet"
+    @Column(name = "source", nullable = false, length = 40)
+    private String source;
+
+    // End (exclusive) of the last window rolled up completely
+    @Column(name = "rolled_up_to", nullable = false)
+    private Instant rolledUpTo;
+}
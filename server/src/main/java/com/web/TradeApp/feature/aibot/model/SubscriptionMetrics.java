@@ -0,0 +1,104 @@
+package com.web.TradeApp.feature.aibot.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running metrics of one subscription, updated from each new snapshot (and
+ * marked to market on each fill) instead of re-scanning subscription_snapshot.
+ *
+ * PnL/ROI per timeframe follow the snapshot queries: latest snapshot compared
+ * to the first snapshot of the window (all-time, last 1d, last 7d). Drawdown is
+ * the running minimum of (equity - netInvestment) over every snapshot and fill.
+ */
+@Entity
+@Table(name = "subscription_metrics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SubscriptionMetrics extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bot_subscription_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BotSubscription subscription;
+
+    // First snapshot ever: the all-time baseline never moves
+    @Column(name = "base_pnl", nullable = false, precision = 18, scale = 6)
+    private BigDecimal basePnl;
+
+    @Column(name = "base_net_investment", nullable = false, precision = 18, scale = 6)
+    private BigDecimal baseNetInvestment;
+
+    // First snapshot of the 1d / 7d windows, moved forward by every snapshot batch
+    @Column(name = "base_pnl_1d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal basePnl1d;
+
+    @Column(name = "base_net_investment_1d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal baseNetInvestment1d;
+
+    @Column(name = "base_pnl_7d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal basePnl7d;
+
+    @Column(name = "base_net_investment_7d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal baseNetInvestment7d;
+
+    @Column(name = "latest_equity", nullable = false, precision = 18, scale = 6)
+    private BigDecimal latestEquity;
+
+    @Column(name = "pnl", nullable = false, precision = 18, scale = 6)
+    private BigDecimal pnl;
+
+    @Column(name = "pnl_1d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal pnl1d;
+
+    @Column(name = "pnl_7d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal pnl7d;
+
+    @Column(name = "roi", nullable = false, precision = 18, scale = 6)
+    private BigDecimal roi;
+
+    @Column(name = "roi_1d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal roi1d;
+
+    @Column(name = "roi_7d", nullable = false, precision = 18, scale = 6)
+    private BigDecimal roi7d;
+
+    @Column(name = "max_drawdown", nullable = false, precision = 18, scale = 6)
+    private BigDecimal maxDrawdown;
+
+    @Column(name = "max_drawdown_pct", nullable = false, precision = 18, scale = 6)
+    private BigDecimal maxDrawdownPct;
+
+    // recordedAt of the last snapshot folded in (fills don't move it)
+    @Column(name = "last_recorded_at", nullable = false)
+    private Instant lastRecordedAt;
+
+    // Optimistic lock: the snapshot job and a fill folding into the same row
+    // fail instead of overwriting each other (retried by OptimisticRetryExecutor)
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+}
@@ -21,7 +21,10 @@ import lombok.Setter;
 @Entity
 @Table(name = "subscription_snapshot", indexes = {
         // Index để tối ưu query lịch sử PnL theo thời gian
-        @Index(name = "idx_sub_snapshot_time", columnList = "bot_subscription_id, recorded_at")
+        // (covers pnl, net_investment, total_equity, see db/migration V2)
+        @Index(name = "idx_sub_snapshot_time", columnList = "bot_subscription_id, recorded_at"),
+        // Rollup and retention range scans
+        @Index(name = "idx_sub_snapshot_recorded", columnList = "recorded_at")
 })
 @Getter
 @Setter
@@ -0,0 +1,44 @@
+package com.web.TradeApp.feature.aibot.model;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Hourly / daily rollup of subscription_snapshot. Daily rows are kept forever,
+ * hourly rows and raw snapshots only for their retention window.
+ */
+@Entity
+@Table(name = "subscription_snapshot_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_sub_rollup_bucket", columnNames = { "bot_subscription_id", "resolution",
+                "bucket_start" })
+}, indexes = {
+        // Watermark and retention scans
+        @Index(name = "idx_sub_rollup_resolution_time", columnList = "resolution, bucket_start")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class SubscriptionSnapshotRollup extends BaseSnapshotRollup {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "bot_subscription_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BotSubscription botSubscription;
+}
@@ -0,0 +1,37 @@
+package com.web.TradeApp.feature.aibot.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.aibot.model.BotMetrics;
+
+@Repository
+public interface BotMetricsRepository extends JpaRepository<BotMetrics, UUID>, JpaSpecificationExecutor<BotMetrics> {
+
+    /**
+     * One page of the bot grid, sorted by the Pageable (metrics columns are
+     * indexed). namePattern is a lower-cased LIKE pattern, null for no filter.
+     */
+    @Query(value = """
+            SELECT m FROM BotMetrics m JOIN FETCH m.bot b
+            WHERE (:namePattern IS NULL OR LOWER(b.name) LIKE :namePattern)
+            """, countQuery = """
+            SELECT COUNT(m) FROM BotMetrics m JOIN m.bot b
+            WHERE (:namePattern IS NULL OR LOWER(b.name) LIKE :namePattern)
+            """)
+    Page<BotMetrics> findGrid(@Param("namePattern") String namePattern, Pageable pageable);
+
+    Optional<BotMetrics> findByBotId(UUID botId);
+
+    List<BotMetrics> findAllByBotIdIn(Collection<UUID> botIds);
+}
@@ -1,15 +1,47 @@
 package com.web.TradeApp.feature.aibot.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.web.TradeApp.feature.aibot.model.Bot;
 
 @Repository
 public interface BotRepository extends JpaRepository<Bot, UUID>, JpaSpecificationExecutor<Bot> {
     Optional<Bot> findByApiKey(String apiKey);
+
+    List<Bot> findAllByApiKeyIn(Collection<String> apiKeys);
+
+    @Query("SELECT b.id FROM Bot b")
+    List<UUID> findAllIds();
+
+    // Coins the snapshot job needs a price for (bots with at least one active subscription)
+    @Query("""
+            SELECT DISTINCT b.coinSymbol FROM Bot b
+            WHERE EXISTS (SELECT 1 FROM BotSubscription s WHERE s.bot = b AND s.active = true)
+            """)
+    List<String> findActiveCoinSymbols();
+
+    /**
+     * Moves last_signal_at forward to the timestamp of a signal about to be
+     * fanned out. Updates 0 rows when a later signal of the bot was already
+     * fanned out (delivered out of order), on any instance.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE Bot b SET b.lastSignalAt = :signalAt
+            WHERE b.id = :botId AND (b.lastSignalAt IS NULL OR b.lastSignalAt <= :signalAt)
+            """)
+    int advanceLastSignalAt(@Param("botId") UUID botId, @Param("signalAt") Instant signalAt);
 }
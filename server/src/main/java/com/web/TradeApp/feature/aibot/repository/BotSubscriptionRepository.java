@@ -1,9 +1,12 @@
 package com.web.TradeApp.feature.aibot.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
@@ -29,19 +32,27 @@ public interface BotSubscriptionRepository extends JpaRepository<BotSubscription
             """)
     Double sumAllocatedCapital(@Param("botId") UUID botId);
 
+    // Used in the fan-out phase (Signal Listener) to find who to execute trades for
+    List<BotSubscription> findByBotIdAndActiveTrue(UUID botId);
+
     /**
-     * Calculate total net investment of bot from all active subscriptions
-     * This sums the current netInvestment field from BotSubscription entities
+     * Same as above with the Bot fetched eagerly: the fan-out executes trades on
+     * other threads, outside the session that loaded the subscriptions
      */
     @Query("""
-            SELECT COALESCE(SUM(bs.netInvestment), 0)
-            FROM BotSubscription bs
+            SELECT bs FROM BotSubscription bs
+            JOIN FETCH bs.bot
             WHERE bs.bot.id = :botId AND bs.active = true
             """)
-    java.math.BigDecimal calcBotTotalInvestment(@Param("botId") UUID botId);
+    List<BotSubscription> findByBotIdAndActiveTrueWithBot(@Param("botId") UUID botId);
 
-    // Used in the fan-out phase (Signal Listener) to find who to execute trades for
-    List<BotSubscription> findByBotIdAndActiveTrue(UUID botId);
+    // Position book load: the coin of the bot is needed outside the session
+    @Query("""
+            SELECT bs FROM BotSubscription bs
+            JOIN FETCH bs.bot
+            WHERE bs.id = :id
+            """)
+    Optional<BotSubscription> findByIdWithBot(@Param("id") UUID id);
 
     // Optional: Find specific subscription for a user/bot pair
     Optional<BotSubscription> findByUserIdAndBotId(UUID userId, UUID botId);
@@ -69,9 +80,84 @@ public interface BotSubscriptionRepository extends JpaRepository<BotSubscription
             """)
     List<BotSubscription> findByIdGreaterThanAndActiveTrueWithBotOrderByIdAsc(@Param("id") UUID id, Pageable pageable);
 
+    // Page of the snapshot job read again when its transaction is retried
+    @Query("""
+            SELECT bs FROM BotSubscription bs
+            JOIN FETCH bs.bot
+            WHERE bs.id IN :ids AND bs.active = true
+            ORDER BY bs.id ASC
+            """)
+    List<BotSubscription> findByIdInAndActiveTrueWithBot(@Param("ids") Collection<UUID> ids);
+
     // Find all active subscriptions for a specific bot
     List<BotSubscription> findAllByBotIdAndActiveTrue(UUID botId);
 
     // Find all subscriptions for a specific user
     List<BotSubscription> findAllByUserId(UUID userId);
+
+    // ============================================================================
+    // USER SUBSCRIPTION LIST - sorted and paginated in the DB on subscription_metrics
+    // Returns [0] = BotSubscription (bot fetched), [1] = SubscriptionMetrics or null
+    // (no snapshot yet, counts as 0). id breaks ties so the order is stable; pass
+    // the last row as (afterValue, afterId) for the next keyset page, nulls for
+    // the first page / offset paging.
+    // findUserPageBy* (offset paging) also count the rows, findUserScrollBy*
+    // (keyset, same query) only read the page.
+    // ============================================================================
+
+    String USER_PAGE_BY_PNL = """
+            SELECT s, m FROM BotSubscription s JOIN FETCH s.bot b
+            LEFT JOIN SubscriptionMetrics m ON m.subscription = s
+            WHERE s.userId = :userId
+              AND (:afterId IS NULL
+                OR COALESCE(m.pnl, 0) < :afterValue
+                OR (COALESCE(m.pnl, 0) = :afterValue AND s.id > :afterId))
+            ORDER BY COALESCE(m.pnl, 0) DESC, s.id ASC
+            """;
+
+    String USER_PAGE_BY_EQUITY = """
+            SELECT s, m FROM BotSubscription s JOIN FETCH s.bot b
+            LEFT JOIN SubscriptionMetrics m ON m.subscription = s
+            WHERE s.userId = :userId
+              AND (:afterId IS NULL
+                OR COALESCE(m.latestEquity, 0) < :afterValue
+                OR (COALESCE(m.latestEquity, 0) = :afterValue AND s.id > :afterId))
+            ORDER BY COALESCE(m.latestEquity, 0) DESC, s.id ASC
+            """;
+
+    String USER_PAGE_BY_BOT_NAME = """
+            SELECT s, m FROM BotSubscription s JOIN FETCH s.bot b
+            LEFT JOIN SubscriptionMetrics m ON m.subscription = s
+            WHERE s.userId = :userId
+              AND (:afterId IS NULL
+                OR b.name > :afterValue
+                OR (b.name = :afterValue AND s.id > :afterId))
+            ORDER BY b.name ASC, s.id ASC
+            """;
+
+    String USER_COUNT = "SELECT COUNT(s) FROM BotSubscription s WHERE s.userId = :userId";
+
+    @Query(value = USER_PAGE_BY_PNL, countQuery = USER_COUNT)
+    Page<Object[]> findUserPageByPnl(@Param("userId") UUID userId, @Param("afterValue") BigDecimal afterValue,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(USER_PAGE_BY_PNL)
+    List<Object[]> findUserScrollByPnl(@Param("userId") UUID userId, @Param("afterValue") BigDecimal afterValue,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(value = USER_PAGE_BY_EQUITY, countQuery = USER_COUNT)
+    Page<Object[]> findUserPageByEquity(@Param("userId") UUID userId, @Param("afterValue") BigDecimal afterValue,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(USER_PAGE_BY_EQUITY)
+    List<Object[]> findUserScrollByEquity(@Param("userId") UUID userId, @Param("afterValue") BigDecimal afterValue,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(value = USER_PAGE_BY_BOT_NAME, countQuery = USER_COUNT)
+    Page<Object[]> findUserPageByBotName(@Param("userId") UUID userId, @Param("afterValue") String afterValue,
+            @Param("afterId") UUID afterId, Pageable pageable);
+
+    @Query(USER_PAGE_BY_BOT_NAME)
+    List<Object[]> findUserScrollByBotName(@Param("userId") UUID userId, @Param("afterValue") String afterValue,
+            @Param("afterId") UUID afterId, Pageable pageable);
 }
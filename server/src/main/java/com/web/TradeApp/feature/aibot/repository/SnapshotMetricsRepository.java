@@ -2,9 +2,11 @@ package com.web.TradeApp.feature.aibot.repository;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,101 +16,118 @@ import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshot;
 
 /**
  * Repository using JPQL queries for database portability (MySQL & MSSQL)
- * Each metric has its own query - service layer aggregates the results
+ * Each subscription metric has its own query - service layer aggregates the
+ * results. Bot metrics come from one set-based native query in portable SQL.
  */
 @Repository
 public interface SnapshotMetricsRepository extends JpaRepository<SubscriptionSnapshot, UUID> {
-  /**
-   * 1. Calculate total PnL of bot by timeframe
-   * Uses subqueries to get latest and compare snapshots, then sums the
-   * differences
-   */
-  @Query("""
-      SELECT COALESCE(SUM(latest.pnl - COALESCE(compare.pnl, 0)), 0)
-      FROM SubscriptionSnapshot latest
-      LEFT JOIN SubscriptionSnapshot compare ON compare.botSubscription.id = latest.botSubscription.id
-        AND compare.recordedAt = (
-          SELECT MIN(ss2.recordedAt) FROM SubscriptionSnapshot ss2
-          WHERE ss2.botSubscription.id = latest.botSubscription.id
-            AND ss2.recordedAt >= :compareTime
-        )
-      WHERE latest.botSubscription.bot.id = :botId
-        AND latest.botSubscription.active = true
-        AND latest.recordedAt = (
-          SELECT MAX(ss3.recordedAt) FROM SubscriptionSnapshot ss3
-          WHERE ss3.botSubscription.id = latest.botSubscription.id
-        )
-      """)
-  BigDecimal calcBotPnl(@Param("botId") UUID botId, @Param("compareTime") Instant compareTime);
-
-  /**
-   * 3. Calculate average ROI of bot by timeframe
-   */
-  @Query("""
-      SELECT COALESCE(AVG(
-        CASE WHEN COALESCE(compare.netInvestment, latest.netInvestment) > 0
-          THEN ((latest.pnl - COALESCE(compare.pnl, 0)) / COALESCE(compare.netInvestment, latest.netInvestment)) * 100
-          ELSE 0
-        END
-      ), 0)
-      FROM SubscriptionSnapshot latest
-      LEFT JOIN SubscriptionSnapshot compare ON compare.botSubscription.id = latest.botSubscription.id
-        AND compare.recordedAt = (
-          SELECT MIN(ss2.recordedAt) FROM SubscriptionSnapshot ss2
-          WHERE ss2.botSubscription.id = latest.botSubscription.id
-            AND ss2.recordedAt >= :compareTime
-        )
-      WHERE latest.botSubscription.bot.id = :botId
-        AND latest.botSubscription.active = true
-        AND latest.recordedAt = (
-          SELECT MAX(ss3.recordedAt) FROM SubscriptionSnapshot ss3
-          WHERE ss3.botSubscription.id = latest.botSubscription.id
-        )
-      """)
-  BigDecimal calcBotRoi(@Param("botId") UUID botId, @Param("compareTime") Instant compareTime);
-
-  /**
-   * 4. Calculate max drawdown of bot (all-time)
-   */
-  @Query("""
-      SELECT COALESCE(MIN(ss.totalEquity - ss.netInvestment), 0)
-      FROM SubscriptionSnapshot ss
-      WHERE ss.botSubscription.bot.id = :botId
-        AND ss.botSubscription.active = true
-      """)
-  BigDecimal calcBotMaxDrawdown(@Param("botId") UUID botId);
-
-  /**
-   * 5. Calculate max drawdown percentage of bot (all-time)
-   */
-  @Query("""
-      SELECT COALESCE(MIN(
-        CASE WHEN ss.netInvestment > 0
-          THEN ((ss.totalEquity - ss.netInvestment) / ss.netInvestment) * 100
-          ELSE 0
-        END
-      ), 0)
-      FROM SubscriptionSnapshot ss
-      WHERE ss.botSubscription.bot.id = :botId
-        AND ss.botSubscription.active = true
-      """)
-  BigDecimal calcBotMaxDrawdownPct(@Param("botId") UUID botId);
+  // Shared with QueryPlanAdvisor, which checks its plan on startup
+  String LIVE_BOT_METRICS_SQL = """
+      WITH scoped_subs AS (
+        SELECT bs.id, bs.bot_id, bs.net_investment
+        FROM bot_subscriptions bs
+        JOIN bots b ON b.id = bs.bot_id
+        WHERE bs.is_active = 1
+          AND LOWER(b.name) LIKE :namePattern AND (:anyBot = 1 OR bs.bot_id = :botId)
+      ),
+      latest_snap AS (
+        SELECT t.bot_subscription_id, t.total_equity, t.net_investment, t.pnl
+        FROM (
+          SELECT ss.bot_subscription_id, ss.total_equity, ss.net_investment, ss.pnl,
+            ROW_NUMBER() OVER (PARTITION BY ss.bot_subscription_id ORDER BY ss.recorded_at DESC) AS rn
+          FROM scoped_subs sc
+          JOIN subscription_snapshot ss ON ss.bot_subscription_id = sc.id
+        ) t
+        WHERE t.rn = 1
+      ),
+      compare_snap AS (
+        SELECT t.bot_subscription_id, t.net_investment, t.pnl
+        FROM (
+          SELECT ss.bot_subscription_id, ss.net_investment, ss.pnl,
+            ROW_NUMBER() OVER (PARTITION BY ss.bot_subscription_id ORDER BY ss.recorded_at ASC) AS rn
+          FROM scoped_subs sc
+          JOIN subscription_snapshot ss ON ss.bot_subscription_id = sc.id
+          WHERE ss.recorded_at >= :compareTime
+        ) t
+        WHERE t.rn = 1
+      ),
+      sub_rows AS (
+        SELECT sc.bot_id, sc.id AS sub_id, sc.net_investment AS sub_net_investment,
+          l.bot_subscription_id AS snap_sub_id, l.total_equity, l.net_investment, l.pnl,
+          CASE WHEN :allTime = 1 THEN COALESCE(m.base_pnl, c.pnl) ELSE c.pnl END AS base_pnl,
+          CASE WHEN :allTime = 1 THEN COALESCE(m.base_net_investment, c.net_investment)
+            ELSE c.net_investment END AS base_net_investment,
+          m.max_drawdown, m.max_drawdown_pct
+        FROM scoped_subs sc
+        LEFT JOIN latest_snap l ON l.bot_subscription_id = sc.id
+        LEFT JOIN compare_snap c ON c.bot_subscription_id = sc.id
+        LEFT JOIN subscription_metrics m ON m.bot_subscription_id = sc.id
+      ),
+      grid AS (
+        SELECT b.id AS bot_id,
+          COUNT(s.sub_id) AS active_subscribers,
+          COALESCE(SUM(s.sub_net_investment), 0) AS total_net_investment,
+          COALESCE(SUM(s.total_equity), 0) AS total_equity,
+          COALESCE(SUM(s.pnl - COALESCE(s.base_pnl, 0)), 0) AS total_pnl,
+          COALESCE(AVG(
+            CASE WHEN s.snap_sub_id IS NULL THEN NULL
+              WHEN COALESCE(s.base_net_investment, s.net_investment) > 0
+                THEN ((s.pnl - COALESCE(s.base_pnl, 0)) / COALESCE(s.base_net_investment, s.net_investment)) * 100
+              ELSE 0
+            END
+          ), 0) AS average_roi,
+          COALESCE(MIN(s.max_drawdown), 0) AS max_drawdown,
+          COALESCE(MIN(s.max_drawdown_pct), 0) AS max_drawdown_pct
+        FROM bots b
+        LEFT JOIN sub_rows s ON s.bot_id = b.id
+        WHERE LOWER(b.name) LIKE :namePattern AND (:anyBot = 1 OR b.id = :botId)
+        GROUP BY b.id
+      ),
+      ranked AS (
+        SELECT g.*,
+          CASE :sortBy
+            WHEN 'pnl' THEN g.total_pnl
+            WHEN 'roi' THEN g.average_roi
+            WHEN 'copied' THEN g.active_subscribers
+            ELSE 0
+          END AS sort_value
+        FROM grid g
+      )
+      SELECT r.bot_id, r.active_subscribers, r.total_net_investment, r.total_equity, r.total_pnl,
+        r.average_roi, r.max_drawdown, r.max_drawdown_pct, r.sort_value
+      FROM ranked r
+      WHERE :first = 1
+        OR r.sort_value < :afterValue
+        OR (r.sort_value = :afterValue AND r.bot_id > :afterId)
+      ORDER BY r.sort_value DESC, r.bot_id ASC
+      """;
 
   /**
-   * 6. Calculate total equity of bot
-   * Sums the latest total equity from all active subscriptions
+   * 1. Metrics of bots for a timeframe in ONE pass (one row per bot), ranked
+   * and paged in the DB (pass the Pageable's limit / offset).
+   * ROW_NUMBER picks, per subscription, the latest snapshot and the compare
+   * snapshot (first one at or after compareTime). The bot filters are applied
+   * in scoped_subs, before the window: only snapshots of the selected bots'
+   * active subscriptions are read (idx_sub_snapshot_time), so a single bot
+   * costs its own snapshots, not the whole table. Drawdown and the all-time
+   * baseline (allTime = 1) come from subscription_metrics: raw snapshots are
+   * pruned after the retention period. Only active subscriptions count, bots
+   * without any get zeros. CTEs and window functions run on MySQL 8+ and SQL
+   * Server alike.
+   * Filters: namePattern ('%' for all), anyBot = 0 to keep botId only.
+   * Order: sort value DESC, bot id ASC, sortBy = 'pnl' | 'roi' | 'copied'
+   * (anything else: bot id only). Keyset: first = 0 returns the rows after
+   * (afterValue, afterId).
+   * Returns List of Object[] where [0] = bot id, [1] = active subscribers,
+   * [2] = total net investment, [3] = total equity, [4] = total PnL,
+   * [5] = average ROI, [6] = max drawdown, [7] = max drawdown %,
+   * [8] = sort value
    */
-  @Query("""
-      SELECT COALESCE(SUM(ss.totalEquity), 0)
-      FROM SubscriptionSnapshot ss
-      WHERE ss.botSubscription.bot.id = :botId
-        AND ss.botSubscription.active = true
-        AND ss.recordedAt = (
-          SELECT MAX(ss2.recordedAt) FROM SubscriptionSnapshot ss2
-          WHERE ss2.botSubscription.id = ss.botSubscription.id
-        )
-      """)
-  BigDecimal calcBotTotalEquity(@Param("botId") UUID botId);
+  @Query(value = LIVE_BOT_METRICS_SQL, nativeQuery = true)
+  List<Object[]> findLiveBotMetrics(@Param("compareTime") Instant compareTime, @Param("allTime") int allTime,
+      @Param("namePattern") String namePattern, @Param("anyBot") int anyBot, @Param("botId") UUID botId,
+      @Param("sortBy") String sortBy, @Param("first") int first, @Param("afterValue") BigDecimal afterValue,
+      @Param("afterId") UUID afterId, Pageable pageable);
 
   // ============================================================================
   // SUBSCRIPTION METRICS - Queries for metrics of a single subscription
@@ -213,33 +232,106 @@ public interface SnapshotMetricsRepository extends JpaRepository<SubscriptionSna
   BigDecimal getLatestTotalEquity(@Param("subscriptionId") UUID subscriptionId);
 
   /**
-   * 14. Get chart data (PnL over time) for bot by timeframe
-   * Returns all snapshots - aggregation handled in service layer
-   * Returns List of Object[] where [0] = Instant recordedAt, [1] = BigDecimal
-   * totalPnl
+   * 14. Get chart data (PnL over time) for bot by timeframe, grouped into
+   * buckets of bucketSeconds (see ChartSeries). A bucket's value is the sum
+   * over subscriptions of their average PnL in the bucket, so a subscription
+   * started or stopped within a bucket does not skew it.
+   * Returns List of Object[] where [0] = bucket number (epoch seconds /
+   * bucketSeconds), [1] = totalPnl
    */
   @Query("""
-      SELECT ss.recordedAt, SUM(ss.pnl)
-      FROM SubscriptionSnapshot ss
-      WHERE ss.botSubscription.bot.id = :botId
-        AND ss.botSubscription.active = true
-        AND ss.recordedAt >= :fromTime
-      GROUP BY ss.recordedAt
-      ORDER BY ss.recordedAt ASC
+      SELECT s.bucket, SUM(s.pnl)
+      FROM (
+        SELECT b.bucket AS bucket, AVG(b.pnl) AS pnl
+        FROM (
+          SELECT FLOOR(EXTRACT(EPOCH FROM ss.recordedAt) / :bucketSeconds) AS bucket,
+                 ss.pnl AS pnl, ss.botSubscription.id AS subscriptionId
+          FROM SubscriptionSnapshot ss
+          WHERE ss.botSubscription.bot.id = :botId
+            AND ss.botSubscription.active = true
+            AND ss.recordedAt >= :fromTime
+        ) b
+        GROUP BY b.bucket, b.subscriptionId
+      ) s
+      GROUP BY s.bucket
+      ORDER BY s.bucket ASC
       """)
-  List<Object[]> getBotChartData(@Param("botId") UUID botId, @Param("fromTime") Instant fromTime);
+  List<Object[]> getBotChartData(@Param("botId") UUID botId, @Param("fromTime") Instant fromTime,
+      @Param("bucketSeconds") long bucketSeconds);
 
   /**
-   * 15. Get chart data (PnL over time) for a single subscription by timeframe
-   * Returns List of Object[] where [0] = Instant recordedAt, [1] = BigDecimal pnl
+   * 15. Get chart data (PnL over time) for a single subscription by timeframe,
+   * average PnL per bucket of bucketSeconds
+   * Returns List of Object[] where [0] = bucket number, [1] = pnl
    */
   @Query("""
-      SELECT ss.recordedAt, ss.pnl
-      FROM SubscriptionSnapshot ss
-      WHERE ss.botSubscription.id = :subscriptionId
-        AND ss.recordedAt >= :fromTime
-      ORDER BY ss.recordedAt ASC
+      SELECT b.bucket, AVG(b.pnl)
+      FROM (
+        SELECT FLOOR(EXTRACT(EPOCH FROM ss.recordedAt) / :bucketSeconds) AS bucket, ss.pnl AS pnl
+        FROM SubscriptionSnapshot ss
+        WHERE ss.botSubscription.id = :subscriptionId
+          AND ss.recordedAt >= :fromTime
+      ) b
+      GROUP BY b.bucket
+      ORDER BY b.bucket ASC
       """)
   List<Object[]> getSubscriptionChartData(@Param("subscriptionId") UUID subscriptionId,
+      @Param("fromTime") Instant fromTime, @Param("bucketSeconds") long bucketSeconds);
+
+  // ============================================================================
+  // INCREMENTAL METRICS - Batch queries used to maintain subscription_metrics
+  // ============================================================================
+
+  /**
+   * 16. First snapshot at or after fromTime of each subscription (the compare
+   * snapshot of the timeframe queries above)
+   * Returns List of Object[] where [0] = UUID subscriptionId, [1] = BigDecimal
+   * pnl, [2] = BigDecimal netInvestment
+   */
+  @Query("""
+      SELECT ss.botSubscription.id, ss.pnl, ss.netInvestment
+      FROM SubscriptionSnapshot ss
+      WHERE ss.botSubscription.id IN :subscriptionIds
+        AND ss.recordedAt = (
+          SELECT MIN(ss2.recordedAt) FROM SubscriptionSnapshot ss2
+          WHERE ss2.botSubscription.id = ss.botSubscription.id
+            AND ss2.recordedAt >= :fromTime
+        )
+      """)
+  List<Object[]> findBaselines(@Param("subscriptionIds") Collection<UUID> subscriptionIds,
       @Param("fromTime") Instant fromTime);
+
+  /**
+   * 17. All-time drawdown of each subscription (queries 10 and 11 for many
+   * subscriptions at once)
+   * Returns List of Object[] where [0] = UUID subscriptionId, [1] = BigDecimal
+   * maxDrawdown, [2] = BigDecimal maxDrawdownPct
+   */
+  @Query("""
+      SELECT ss.botSubscription.id,
+        MIN(ss.totalEquity - ss.netInvestment),
+        MIN(
+          CASE WHEN ss.netInvestment > 0
+            THEN ((ss.totalEquity - ss.netInvestment) / ss.netInvestment) * 100
+            ELSE 0
+          END
+        )
+      FROM SubscriptionSnapshot ss
+      WHERE ss.botSubscription.id IN :subscriptionIds
+      GROUP BY ss.botSubscription.id
+      """)
+  List<Object[]> findDrawdowns(@Param("subscriptionIds") Collection<UUID> subscriptionIds);
+
+  /**
+   * 18. Latest snapshot of each subscription
+   */
+  @Query("""
+      SELECT ss FROM SubscriptionSnapshot ss
+      WHERE ss.botSubscription.id IN :subscriptionIds
+        AND ss.recordedAt = (
+          SELECT MAX(ss2.recordedAt) FROM SubscriptionSnapshot ss2
+          WHERE ss2.botSubscription.id = ss.botSubscription.id
+        )
+      """)
+  List<SubscriptionSnapshot> findLatest(@Param("subscriptionIds") Collection<UUID> subscriptionIds);
 }
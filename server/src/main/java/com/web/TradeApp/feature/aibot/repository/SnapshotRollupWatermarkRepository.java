@@ -0,0 +1,15 @@
+package com.web.TradeApp.feature.aibot.repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.aibot.model.SnapshotRollupWatermark;
+
+@Repository
+public interface SnapshotRollupWatermarkRepository extends JpaRepository<SnapshotRollupWatermark, UUID> {
+
+    Optional<SnapshotRollupWatermark> findBySource(String source);
+}
@@ -0,0 +1,50 @@
+package com.web.TradeApp.feature.aibot.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.aibot.model.SubscriptionMetrics;
+
+@Repository
+public interface SubscriptionMetricsRepository extends JpaRepository<SubscriptionMetrics, UUID> {
+
+    Optional<SubscriptionMetrics> findBySubscriptionId(UUID subscriptionId);
+
+    List<SubscriptionMetrics> findAllBySubscriptionIdIn(Collection<UUID> subscriptionIds);
+
+    /**
+     * Bot-level aggregates over the ACTIVE subscriptions of the given bots
+     * (same scope as the snapshot metric queries).
+     * Returns Object[]: [0] botId, [1] active subscribers, [2] net investment,
+     * [3] equity, [4..6] PnL all/1d/7d, [7..9] average ROI all/1d/7d,
+     * [10] max drawdown, [11] max drawdown %
+     */
+    @Query("""
+            SELECT s.bot.id, COUNT(s), SUM(s.netInvestment), SUM(m.latestEquity),
+              SUM(m.pnl), SUM(m.pnl1d), SUM(m.pnl7d),
+              AVG(m.roi), AVG(m.roi1d), AVG(m.roi7d),
+              MIN(m.maxDrawdown), MIN(m.maxDrawdownPct)
+            FROM BotSubscription s
+            LEFT JOIN SubscriptionMetrics m ON m.subscription = s
+            WHERE s.bot.id IN :botIds AND s.active = true
+            GROUP BY s.bot.id
+            """)
+    List<Object[]> aggregateByBot(@Param("botIds") Collection<UUID> botIds);
+
+    // Subscriptions with snapshots but no metrics row yet (e.g. created before this table)
+    @Query("""
+            SELECT s.id FROM BotSubscription s
+            WHERE NOT EXISTS (SELECT 1 FROM SubscriptionMetrics m WHERE m.subscription = s)
+              AND EXISTS (SELECT 1 FROM SubscriptionSnapshot ss WHERE ss.botSubscription = s)
+            ORDER BY s.id
+            """)
+    List<UUID> findIdsWithoutMetrics(Pageable pageable);
+}
@@ -0,0 +1,105 @@
+package com.web.TradeApp.feature.aibot.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshotRollup;
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup.Resolution;
+
+@Repository
+public interface SubscriptionSnapshotRollupRepository extends JpaRepository<SubscriptionSnapshotRollup, UUID> {
+
+    // ============================================================================
+    // ROLLUP JOB
+    // ============================================================================
+
+    @Query("SELECT MIN(ss.recordedAt) FROM SubscriptionSnapshot ss")
+    Instant findFirstRecordedAt();
+
+    @Query("""
+            SELECT DISTINCT ss.botSubscription.id FROM SubscriptionSnapshot ss
+            WHERE ss.recordedAt >= :from AND ss.recordedAt < :to
+            """)
+    List<UUID> findSubscriptionIdsBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Raw snapshots to roll up, in time order.
+     * Returns Object[]: [0] subscriptionId, [1] recordedAt, [2] totalEquity,
+     * [3] pnl, [4] netInvestment
+     */
+    @Query("""
+            SELECT ss.botSubscription.id, ss.recordedAt, ss.totalEquity, ss.pnl, ss.netInvestment
+            FROM SubscriptionSnapshot ss
+            WHERE ss.botSubscription.id IN :subscriptionIds
+              AND ss.recordedAt >= :from AND ss.recordedAt < :to
+            ORDER BY ss.recordedAt ASC
+            """)
+    List<Object[]> findSamples(@Param("subscriptionIds") Collection<UUID> subscriptionIds,
+            @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("""
+            SELECT r FROM SubscriptionSnapshotRollup r
+            WHERE r.botSubscription.id IN :subscriptionIds
+              AND r.resolution = :resolution
+              AND r.bucketStart >= :from AND r.bucketStart < :to
+            ORDER BY r.bucketStart ASC
+            """)
+    List<SubscriptionSnapshotRollup> findBuckets(@Param("subscriptionIds") Collection<UUID> subscriptionIds,
+            @Param("resolution") Resolution resolution, @Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Raw snapshots older than the horizon, except the first snapshot of each
+     * subscription (all-time PnL / ROI baseline).
+     */
+    @Query("""
+            SELECT ss.id FROM SubscriptionSnapshot ss
+            WHERE ss.recordedAt < :horizon
+              AND ss.recordedAt > (
+                SELECT MIN(ss2.recordedAt) FROM SubscriptionSnapshot ss2
+                WHERE ss2.botSubscription = ss.botSubscription
+              )
+            """)
+    List<UUID> findExpiredSnapshotIds(@Param("horizon") Instant horizon, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM SubscriptionSnapshotRollup r WHERE r.resolution = :resolution AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") Resolution resolution, @Param("before") Instant before);
+
+    // ============================================================================
+    // CHARTS - windows longer than the raw retention
+    // Returns List of Object[] where [0] = Instant bucketStart, [1] = PnL at close
+    // ============================================================================
+
+    @Query("""
+            SELECT r.bucketStart, SUM(r.closePnl)
+            FROM SubscriptionSnapshotRollup r
+            WHERE r.botSubscription.bot.id = :botId
+              AND r.botSubscription.active = true
+              AND r.resolution = :resolution
+              AND r.bucketStart >= :fromTime
+            GROUP BY r.bucketStart
+            ORDER BY r.bucketStart ASC
+            """)
+    List<Object[]> getBotChartData(@Param("botId") UUID botId, @Param("resolution") Resolution resolution,
+            @Param("fromTime") Instant fromTime);
+
+    @Query("""
+            SELECT r.bucketStart, r.closePnl
+            FROM SubscriptionSnapshotRollup r
+            WHERE r.botSubscription.id = :subscriptionId
+              AND r.resolution = :resolution
+              AND r.bucketStart >= :fromTime
+            ORDER BY r.bucketStart ASC
+            """)
+    List<Object[]> getSubscriptionChartData(@Param("subscriptionId") UUID subscriptionId,
+            @Param("resolution") Resolution resolution, @Param("fromTime") Instant fromTime);
+}
@@ -16,6 +16,7 @@ import com.web.TradeApp.feature.aibot.mapper.BotMapper;
 import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.repository.BotRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.ingestion.auth.BotCredentialCache;
 import com.web.TradeApp.utils.SecurityUtil;
 
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ public class BotServiceImpl implements BotService {
     private final BotSubscriptionRepository botSubscriptionRepository;
     private final BotMapper botMapper;
     private final SecurityUtil securityUtil;
+    private final BotCredentialCache credentialCache;
 
     // 1. Inject the value from YAML
     // If it's missing, it defaults to http://localhost:8080
@@ -57,6 +59,9 @@ public class BotServiceImpl implements BotService {
         savedBot.setApiUrl(webhookUrl);
         botRepository.save(savedBot);
 
+        // Token may have been negative-cached by an earlier garbage request
+        credentialCache.invalidateBot(savedBot.getId(), generatedWebHookToken);
+
         // 6. Return the credentials and webhook URL to the admin panel
         return new BotSecretResponse(
                 savedBot.getId(),
@@ -99,6 +104,7 @@ public class BotServiceImpl implements BotService {
         // Update fields using MapStruct
         botMapper.updateEntity(bot, request);
         Bot updatedBot = botRepository.save(bot);
+        credentialCache.invalidateBot(updatedBot.getId(), updatedBot.getApiKey());
 
         return botMapper.toResponse(updatedBot, null);
     }
@@ -113,6 +119,7 @@ public class BotServiceImpl implements BotService {
         // ensure they are set to ON DELETE CASCADE, (delete others bot table as well)
         // if it not works, manually delete related entities
         botRepository.deleteById(botId);
+        credentialCache.invalidateBot(botId, null);
     }
 
     @Override
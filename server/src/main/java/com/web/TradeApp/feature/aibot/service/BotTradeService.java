@@ -1,11 +1,19 @@
 package com.web.TradeApp.feature.aibot.service;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import com.web.TradeApp.feature.aibot.enums.BotAction;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 
 public interface BotTradeService {
     void executeBuy(BotSubscription sub, BigDecimal price);
 
     void executeSell(BotSubscription sub, BigDecimal price);
+
+    // Executes one signal for a chunk of subscriptions of the same bot in one transaction
+    BulkTradeResult executeBatch(List<BotSubscription> chunk, BotAction action, BigDecimal price);
+
+    record BulkTradeResult(int filled, int skipped) {
+    }
 }
@@ -2,11 +2,14 @@ package com.web.TradeApp.feature.aibot.service;
 
 import com.web.TradeApp.exception.IdInvalidException;
 import com.web.TradeApp.exception.InsufficientBalanceException;
-import com.web.TradeApp.feature.admin.service.AdminService;
+import com.web.TradeApp.feature.admin.service.TreasuryService;
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 import com.web.TradeApp.feature.aibot.model.BotTrade;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
 import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.service.subscription.BotMetricsService;
 import com.web.TradeApp.feature.coin.entity.Coin;
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
 import com.web.TradeApp.feature.coin.entity.Transaction;
@@ -16,6 +19,7 @@ import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.repository.TransactionRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
 import com.web.TradeApp.feature.common.entity.BaseTrade;
+import com.web.TradeApp.feature.common.retry.OptimisticRetryExecutor;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +28,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -36,7 +46,9 @@ public class BotTradeServiceImpl implements BotTradeService {
         private final TransactionRepository transactionRepo;
         private final BotSubscriptionRepository subRepo;
         private final BotTradeRepository botTradeRepo;
-        private final AdminService adminService;
+        private final TreasuryService treasuryService;
+        private final OptimisticRetryExecutor retryExecutor;
+        private final BotMetricsService botMetricsService;
 
         // Minimum trade value in USDT to prevent dust attacks or illogical trades
         private static final BigDecimal MIN_TRADE_VALUE_USDT = BigDecimal.valueOf(5.0);
@@ -50,8 +62,12 @@ public class BotTradeServiceImpl implements BotTradeService {
          * 2. Check Wallet Balance & Min Trade Value.
          * 3. Apply Fees: Final BTC = (Gross USDT / Price) * (1 - SysFee) * (1 - BotFee)
          */
-        @Transactional
         public void executeBuy(BotSubscription sub, BigDecimal price) {
+                // One transaction per attempt, retried on a concurrent update of the same wallet/holding/sub
+                retryExecutor.run("bot-buy", () -> buyOnce(reload(sub), price));
+        }
+
+        private void buyOnce(BotSubscription sub, BigDecimal price) {
                 // 1. Validate Input
                 if (price.compareTo(BigDecimal.ZERO) <= 0)
                         return;
@@ -59,7 +75,6 @@ public class BotTradeServiceImpl implements BotTradeService {
                 // get wallet of that user
                 Wallet userWallet = walletRepo.findByUserId(sub.getUserId())
                                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
-                Wallet adminWallet = adminService.getAdminWallet();
 
                 // 2. Calculate Gross Amount to Spend (USDT)
                 // Formula: Allocation Amount (e.g. 100) * Trade % (e.g. 0.1)
@@ -100,13 +115,12 @@ public class BotTradeServiceImpl implements BotTradeService {
                                 .setScale(8, RoundingMode.DOWN);
 
                 // 6. Execute Transfer
-                // A. USDT: User -> Admin
+                // A. USDT: User -> Treasury
                 userWallet.setBalance(userWallet.getBalance().subtract(grossUsdtToSpend));
-                adminWallet.setBalance(adminWallet.getBalance().add(grossUsdtToSpend));
                 walletRepo.save(userWallet);
-                walletRepo.save(adminWallet);
+                treasuryService.credit(TreasuryService.CASH_ASSET, grossUsdtToSpend, sub.getUserId());
 
-                // B. COIN: Admin -> User
+                // B. COIN: Treasury -> User
                 // B.1. Add Coin to user
                 CoinHolding userHolding = getOrCreateHolding(userWallet, coin);
                 BigDecimal newTotalQty = userHolding.getAmount().add(finalQuantity);
@@ -122,16 +136,8 @@ public class BotTradeServiceImpl implements BotTradeService {
                 }
                 coinHoldingRepo.save(userHolding);
 
-                // B.2.Deduct Coin from Admin
-                CoinHolding adminHolding = getOrCreateHolding(adminWallet, coin);
-
-                // Check if Admin actually has enough coin (optional safety)
-                if (adminHolding.getAmount().compareTo(finalQuantity) < 0) {
-                        log.error("🚨 LIQUIDITY CRISIS: Admin wallet empty for {}", coin.getSymbol());
-                        throw new RuntimeException("System Maintenance: Insufficient Liquidity");
-                }
-                adminHolding.setAmount(adminHolding.getAmount().subtract(finalQuantity));
-                coinHoldingRepo.save(adminHolding);
+                // B.2. Deduct Coin from Treasury (fails if the treasury can't cover it)
+                takeCoinFromTreasury(coin, finalQuantity, sub.getUserId());
 
                 // 7. UPDATE VIRTUAL BALANCES OF BOT (The "Sub-Wallet" Logic)
                 // Decrease USDT Allocation
@@ -139,23 +145,54 @@ public class BotTradeServiceImpl implements BotTradeService {
                 // Increase Coin Allocation
                 sub.setBotWalletCoin(sub.getBotWalletCoin().add(finalQuantity));
                 subRepo.save(sub);
+                botMetricsService.onFills(List.of(sub), price);
 
                 // 8. Save Records
                 saveTransaction(userWallet, coin, BaseTrade.TradeType.BUY, finalQuantity, price, grossUsdtToSpend);
-                saveBotTrade(sub, BaseTrade.TradeType.BUY, finalQuantity, price, grossUsdtToSpend, grossUsdtToSpend);
+                saveBotTrade(sub, userWallet, coin, BaseTrade.TradeType.BUY, finalQuantity, price, grossUsdtToSpend,
+                                grossUsdtToSpend);
 
                 log.info("✅ BUY: User {} | Spent {} USDT | Got {} {}", sub.getUserId(), grossUsdtToSpend, finalQuantity,
                                 coin.getSymbol());
         }
 
+        private void takeCoinFromTreasury(Coin coin, BigDecimal quantity, UUID routingKey) {
+                try {
+                        treasuryService.debit(coin.getSymbol(), quantity, routingKey);
+                } catch (InsufficientBalanceException e) {
+                        log.error("🚨 LIQUIDITY CRISIS: Treasury empty for {}", coin.getSymbol());
+                        throw new RuntimeException("System Maintenance: Insufficient Liquidity");
+                }
+        }
+
+        private void payUsdtFromTreasury(BigDecimal amount, UUID routingKey) {
+                try {
+                        treasuryService.debit(TreasuryService.CASH_ASSET, amount, routingKey);
+                } catch (InsufficientBalanceException e) {
+                        log.error("🚨 CRITICAL: Treasury Insufficient USDT to pay User for SELL!");
+                        throw new InsufficientBalanceException("System Liquidity Error: Cannot Process Sell");
+                }
+        }
+
+        // The caller's instance is detached (loaded by the fan-out) and its version goes
+        // stale as soon as a concurrent update wins: every attempt works on a fresh copy
+        private BotSubscription reload(BotSubscription sub) {
+                return subRepo.findById(sub.getId())
+                                .orElseThrow(() -> new IdInvalidException("Subscription not found: " + sub.getId()));
+        }
+
         private CoinHolding getOrCreateHolding(Wallet wallet, Coin coin) {
                 return coinHoldingRepo.findByWalletIdAndCoinId(wallet.getId(), coin.getId())
-                                .orElse(CoinHolding.builder()
-                                                .wallet(wallet)
-                                                .coin(coin)
-                                                .amount(BigDecimal.ZERO)
-                                                .averageBuyPrice(BigDecimal.ZERO)
-                                                .build());
+                                .orElse(newHolding(wallet, coin));
+        }
+
+        private static CoinHolding newHolding(Wallet wallet, Coin coin) {
+                return CoinHolding.builder()
+                                .wallet(wallet)
+                                .coin(coin)
+                                .amount(BigDecimal.ZERO)
+                                .averageBuyPrice(BigDecimal.ZERO)
+                                .build();
         }
 
         /**
@@ -166,15 +203,18 @@ public class BotTradeServiceImpl implements BotTradeService {
          * (e.g. 2 BTC * 10% = 0.2 BTC)
          * 2. Apply Fees: Final USDT = (0.2 * Price) * (1 - SysFee) * (1 - BotFee)
          */
-        @Transactional
         public void executeSell(BotSubscription sub, BigDecimal price) {
+                // One transaction per attempt, retried on a concurrent update of the same wallet/holding/sub
+                retryExecutor.run("bot-sell", () -> sellOnce(reload(sub), price));
+        }
+
+        private void sellOnce(BotSubscription sub, BigDecimal price) {
                 if (price.compareTo(BigDecimal.ZERO) <= 0)
                         return;
 
                 // 1. Fetch Wallets
                 Wallet userWallet = walletRepo.findByUserId(sub.getUserId())
                                 .orElseThrow(() -> new IdInvalidException("User Wallet not found"));
-                Wallet adminWallet = adminService.getAdminWallet();
 
                 Coin coin = coinRepo.findBySymbol(sub.getBot().getCoinSymbol())
                                 .orElseThrow(() -> new IdInvalidException("Coin not found"));
@@ -218,47 +258,214 @@ public class BotTradeServiceImpl implements BotTradeService {
 
                 // 5. TRANSFERS (Counterparty Logic)
 
-                // A. COIN: User -> Admin
-                userHolding.setAmount(userHolding.getAmount().subtract(quantityToSell));
-                coinHoldingRepo.save(userHolding);
-
-                CoinHolding adminHolding = getOrCreateHolding(adminWallet, coin);
-                adminHolding.setAmount(adminHolding.getAmount().add(quantityToSell));
-                coinHoldingRepo.save(adminHolding);
-
-                // B. USDT: Admin -> User
-                // Check Admin Liquidity
-                if (adminWallet.getBalance().compareTo(finalUsdt) < 0) {
-                        log.error("🚨 CRITICAL: Admin Wallet Insufficient USDT to pay User for SELL!");
-                        throw new InsufficientBalanceException("System Liquidity Error: Cannot Process Sell");
-                }
-
-                adminWallet.setBalance(adminWallet.getBalance().subtract(finalUsdt));
+                // Treasury moves always USDT first, then coin (same shard lock order everywhere)
+                // A. USDT: Treasury -> User (fails if the treasury can't cover it)
+                payUsdtFromTreasury(finalUsdt, sub.getUserId());
                 userWallet.setBalance(userWallet.getBalance().add(finalUsdt));
-
-                walletRepo.save(adminWallet);
                 walletRepo.save(userWallet);
 
+                // B. COIN: User -> Treasury
+                userHolding.setAmount(userHolding.getAmount().subtract(quantityToSell));
+                coinHoldingRepo.save(userHolding);
+                treasuryService.credit(coin.getSymbol(), quantityToSell, sub.getUserId());
+
                 // 6. UPDATE VIRTUAL BALANCES
                 // Decrease Virtual Coin
                 sub.setBotWalletCoin(sub.getBotWalletCoin().subtract(quantityToSell));
                 // Increase Virtual USDT (Re-invest logic)
                 sub.setBotWalletBalance(sub.getBotWalletBalance().add(finalUsdt));
                 BotSubscription savedBotSub = subRepo.save(sub);
+                botMetricsService.onFills(List.of(savedBotSub), price);
 
                 // 7. Save Records
                 // Fee = Raw Value - Final Value Received
                 BigDecimal totalFee = rawUsdtValue.subtract(finalUsdt);
                 saveTransaction(userWallet, coin, BaseTrade.TradeType.SELL, quantityToSell, price, totalFee);
-                saveBotTrade(savedBotSub, BaseTrade.TradeType.SELL, quantityToSell, price, finalUsdt, totalFee);
+                saveBotTrade(savedBotSub, userWallet, coin, BaseTrade.TradeType.SELL, quantityToSell, price, finalUsdt,
+                                totalFee);
 
                 log.info("✅ SELL: User {} | Sold {} {} | Got {} USDT", sub.getUserId(), quantityToSell,
                                 coin.getSymbol(), finalUsdt);
         }
 
+        /**
+         * BULK EXECUTION
+         * Executes one signal for a whole chunk of subscriptions of the same bot in
+         * a single transaction, with the same formulas as executeBuy/executeSell.
+         * * Round trips per chunk instead of per subscriber:
+         * 1. Reload subscriptions, wallets and holdings with 3 IN queries.
+         * 2. Compute every fill in memory.
+         * 3. Apply the treasury side once, as an aggregate.
+         * 4. Flush: wallet/holding/subscription UPDATEs and transaction/trade INSERTs
+         * go out as JDBC batches (hibernate.jdbc.batch_size).
+         * * All or nothing: any exception rolls back the chunk and the caller falls
+         * back to the per-subscriber path.
+         */
+        @Override
+        @Transactional
+        public BulkTradeResult executeBatch(List<BotSubscription> chunk, BotAction action, BigDecimal price) {
+                if (chunk.isEmpty() || price.compareTo(BigDecimal.ZERO) <= 0)
+                        return new BulkTradeResult(0, chunk.size());
+
+                // All subscriptions of a chunk follow the same bot
+                Bot bot = chunk.get(0).getBot();
+                Coin coin = coinRepo.findBySymbol(bot.getCoinSymbol())
+                                .orElseThrow(() -> new IdInvalidException("Coin not found: " + bot.getCoinSymbol()));
+
+                // 1. Preload (managed entities, changes are flushed on commit)
+                List<BotSubscription> subs = subRepo.findAllById(
+                                chunk.stream().map(BotSubscription::getId).toList());
+                Map<UUID, Wallet> walletsByUser = walletRepo.findAllByUserIdInWithUser(
+                                subs.stream().map(BotSubscription::getUserId).toList())
+                                .stream()
+                                .collect(Collectors.toMap(w -> w.getUser().getId(), Function.identity()));
+                Map<UUID, CoinHolding> holdingsByWallet = coinHoldingRepo.findAllByWalletIdInAndCoinId(
+                                walletsByUser.values().stream().map(Wallet::getId).toList(), coin.getId())
+                                .stream()
+                                .collect(Collectors.toMap(h -> h.getWallet().getId(), Function.identity()));
+
+                // 2. Fill every subscription in memory
+                BulkFills fills = action == BotAction.BUY
+                                ? fillBuys(subs, bot, coin, price, walletsByUser, holdingsByWallet)
+                                : fillSells(subs, bot, coin, price, walletsByUser, holdingsByWallet);
+                if (fills.filled == 0)
+                        return new BulkTradeResult(0, chunk.size());
+
+                // 3. Treasury side, once for the whole chunk (USDT first, then coin)
+                // Routed by the chunk's first subscription so parallel chunks hit different shards
+                UUID routingKey = chunk.get(0).getId();
+                if (action == BotAction.BUY) {
+                        treasuryService.credit(TreasuryService.CASH_ASSET, fills.usdtToAdmin, routingKey);
+                        takeCoinFromTreasury(coin, fills.coinToUsers, routingKey);
+                } else {
+                        payUsdtFromTreasury(fills.usdtToUsers, routingKey);
+                        treasuryService.credit(coin.getSymbol(), fills.coinToAdmin, routingKey);
+                }
+
+                // 4. Persist new rows (updates of loaded rows are flushed by dirty checking)
+                coinHoldingRepo.saveAll(fills.newHoldings);
+                transactionRepo.saveAll(fills.transactions);
+                botTradeRepo.saveAll(fills.botTrades);
+                botMetricsService.onFills(subs, price);
+
+                log.info("✅ BULK {}: {} filled, {} skipped | Bot {} | Price {}", action, fills.filled,
+                                chunk.size() - fills.filled, bot.getName(), price);
+                return new BulkTradeResult(fills.filled, chunk.size() - fills.filled);
+        }
+
+        private BulkFills fillBuys(List<BotSubscription> subs, Bot bot, Coin coin, BigDecimal price,
+                        Map<UUID, Wallet> walletsByUser, Map<UUID, CoinHolding> holdingsByWallet) {
+                BulkFills fills = new BulkFills();
+                for (BotSubscription sub : subs) {
+                        Wallet userWallet = walletsByUser.get(sub.getUserId());
+                        if (userWallet == null) {
+                                log.warn("🚫 BUY Skipped: Wallet not found for user {}", sub.getUserId());
+                                continue;
+                        }
+
+                        // Same rules as executeBuy
+                        BigDecimal grossUsdtToSpend = sub.getBotWalletBalance()
+                                        .multiply(sub.getTradePercentage())
+                                        .setScale(6, RoundingMode.DOWN);
+                        if (grossUsdtToSpend.compareTo(MIN_TRADE_VALUE_USDT) <= 0)
+                                continue;
+                        if (userWallet.getBalance().compareTo(grossUsdtToSpend) < 0) {
+                                log.warn("💰 Insufficient Wallet Funds: User {} has {} but needs {}",
+                                                sub.getUserId(), userWallet.getBalance(), grossUsdtToSpend);
+                                continue;
+                        }
+
+                        BigDecimal rawQuantity = grossUsdtToSpend.divide(price, 10, RoundingMode.DOWN);
+                        BigDecimal afterSysFee = rawQuantity.multiply(BigDecimal.ONE.subtract(coin.getFee()));
+                        BigDecimal finalQuantity = afterSysFee.multiply(BigDecimal.ONE.subtract(bot.getFee()))
+                                        .setScale(8, RoundingMode.DOWN);
+
+                        userWallet.setBalance(userWallet.getBalance().subtract(grossUsdtToSpend));
+
+                        CoinHolding userHolding = holdingsByWallet.computeIfAbsent(userWallet.getId(), id -> {
+                                CoinHolding created = newHolding(userWallet, coin);
+                                fills.newHoldings.add(created);
+                                return created;
+                        });
+                        BigDecimal newTotalQty = userHolding.getAmount().add(finalQuantity);
+                        userHolding.setAmount(newTotalQty);
+                        BigDecimal currentCost = userHolding.getAmount().multiply(userHolding.getAverageBuyPrice());
+                        BigDecimal newTotalCost = currentCost.add(grossUsdtToSpend);
+                        if (newTotalQty.compareTo(BigDecimal.ZERO) > 0) {
+                                userHolding.setAverageBuyPrice(newTotalCost.divide(newTotalQty, 8, RoundingMode.HALF_UP));
+                        }
+
+                        sub.setBotWalletBalance(sub.getBotWalletBalance().subtract(grossUsdtToSpend));
+                        sub.setBotWalletCoin(sub.getBotWalletCoin().add(finalQuantity));
+
+                        fills.usdtToAdmin = fills.usdtToAdmin.add(grossUsdtToSpend);
+                        fills.coinToUsers = fills.coinToUsers.add(finalQuantity);
+                        fills.transactions.add(buildTransaction(userWallet, coin, BaseTrade.TradeType.BUY, finalQuantity,
+                                        price, grossUsdtToSpend));
+                        fills.botTrades.add(buildBotTrade(sub, userWallet, coin, BaseTrade.TradeType.BUY, finalQuantity,
+                                        price, grossUsdtToSpend, grossUsdtToSpend));
+                        fills.filled++;
+                }
+                return fills;
+        }
+
+        private BulkFills fillSells(List<BotSubscription> subs, Bot bot, Coin coin, BigDecimal price,
+                        Map<UUID, Wallet> walletsByUser, Map<UUID, CoinHolding> holdingsByWallet) {
+                BulkFills fills = new BulkFills();
+                for (BotSubscription sub : subs) {
+                        Wallet userWallet = walletsByUser.get(sub.getUserId());
+                        CoinHolding userHolding = userWallet != null ? holdingsByWallet.get(userWallet.getId()) : null;
+                        if (userHolding == null) {
+                                log.warn("🚫 SELL Skipped: No holding found to sell for user {}", sub.getUserId());
+                                continue;
+                        }
+
+                        // Same rules as executeSell
+                        BigDecimal quantityToSell = sub.getBotWalletCoin()
+                                        .multiply(sub.getTradePercentage())
+                                        .setScale(8, RoundingMode.DOWN);
+                        if (quantityToSell.compareTo(BigDecimal.ZERO) <= 0)
+                                continue;
+                        if (userHolding.getAmount().compareTo(quantityToSell) < 0) {
+                                log.warn("⚠️ Mismatch: User {} virtual alloc says sell {}, but real holding is only {}. Adjusting.",
+                                                sub.getUserId(), quantityToSell, userHolding.getAmount());
+                                quantityToSell = userHolding.getAmount();
+                        }
+
+                        BigDecimal rawUsdtValue = quantityToSell.multiply(price);
+                        if (rawUsdtValue.compareTo(MIN_TRADE_VALUE_USDT) <= 0)
+                                continue;
+
+                        BigDecimal afterSysFee = rawUsdtValue.multiply(BigDecimal.ONE.subtract(coin.getFee()));
+                        BigDecimal finalUsdt = afterSysFee.multiply(BigDecimal.ONE.subtract(bot.getFee()))
+                                        .setScale(6, RoundingMode.DOWN);
+
+                        userHolding.setAmount(userHolding.getAmount().subtract(quantityToSell));
+                        userWallet.setBalance(userWallet.getBalance().add(finalUsdt));
+
+                        sub.setBotWalletCoin(sub.getBotWalletCoin().subtract(quantityToSell));
+                        sub.setBotWalletBalance(sub.getBotWalletBalance().add(finalUsdt));
+
+                        BigDecimal totalFee = rawUsdtValue.subtract(finalUsdt);
+                        fills.usdtToUsers = fills.usdtToUsers.add(finalUsdt);
+                        fills.coinToAdmin = fills.coinToAdmin.add(quantityToSell);
+                        fills.transactions.add(buildTransaction(userWallet, coin, BaseTrade.TradeType.SELL, quantityToSell,
+                                        price, totalFee));
+                        fills.botTrades.add(buildBotTrade(sub, userWallet, coin, BaseTrade.TradeType.SELL, quantityToSell,
+                                        price, finalUsdt, totalFee));
+                        fills.filled++;
+                }
+                return fills;
+        }
+
         private void saveTransaction(Wallet w, Coin c, BaseTrade.TradeType type, BigDecimal qty, BigDecimal price,
                         BigDecimal feeOrNotional) {
-                Transaction tx = Transaction.builder()
+                transactionRepo.save(buildTransaction(w, c, type, qty, price, feeOrNotional));
+        }
+
+        private Transaction buildTransaction(Wallet w, Coin c, BaseTrade.TradeType type, BigDecimal qty,
+                        BigDecimal price, BigDecimal feeOrNotional) {
+                return Transaction.builder()
                                 .wallet(w)
                                 .coin(c)
                                 .type(type)
@@ -268,20 +475,21 @@ public class BotTradeServiceImpl implements BotTradeService {
                                 .notionalValue(qty.multiply(price))
                                 .feeTradeApplied(type == BaseTrade.TradeType.SELL ? feeOrNotional : BigDecimal.ZERO)
                                 .build();
-                transactionRepo.save(tx);
         }
 
-        private void saveBotTrade(BotSubscription sub, BaseTrade.TradeType type, BigDecimal qty, BigDecimal price,
-                        BigDecimal notional, BigDecimal feeOrNotional) {
-                BotTrade trade = BotTrade.builder()
+        private void saveBotTrade(BotSubscription sub, Wallet userWallet, Coin coin, BaseTrade.TradeType type,
+                        BigDecimal qty, BigDecimal price, BigDecimal notional, BigDecimal feeOrNotional) {
+                botTradeRepo.save(buildBotTrade(sub, userWallet, coin, type, qty, price, notional, feeOrNotional));
+        }
+
+        private BotTrade buildBotTrade(BotSubscription sub, Wallet userWallet, Coin coin, BaseTrade.TradeType type,
+                        BigDecimal qty, BigDecimal price, BigDecimal notional, BigDecimal feeOrNotional) {
+                return BotTrade.builder()
                                 .bot(sub.getBot())
                                 .botSubscription(sub)
-                                // Now we must fetch the User Wallet again or pass it down to ensure BaseTrade
-                                // fields are populated
-                                // Ideally, pass userWallet from executeBuy() into this method to avoid
-                                // re-fetching
-                                .wallet(walletRepo.findByUserId(sub.getUserId()).orElseThrow())
-                                .coin(coinRepo.findBySymbol(sub.getBot().getCoinSymbol()).orElse(null))
+                                // Wallet and coin are passed down by the caller, no re-fetching
+                                .wallet(userWallet)
+                                .coin(coin)
                                 .type(type)
                                 .quantity(qty)
                                 .priceAtExecution(price)
@@ -289,6 +497,20 @@ public class BotTradeServiceImpl implements BotTradeService {
                                 .feeBotApplied(BigDecimal.ZERO)
                                 .feeTradeApplied(type == BaseTrade.TradeType.SELL ? feeOrNotional : BigDecimal.ZERO)
                                 .build();
-                botTradeRepo.save(trade);
         }
-}
\ No newline at end of file
+
+        /**
+         * In-memory result of filling one chunk: aggregates for the admin side and
+         * the rows to insert.
+         */
+        private static final class BulkFills {
+                int filled;
+                BigDecimal usdtToAdmin = BigDecimal.ZERO;
+                BigDecimal coinToUsers = BigDecimal.ZERO;
+                BigDecimal usdtToUsers = BigDecimal.ZERO;
+                BigDecimal coinToAdmin = BigDecimal.ZERO;
+                final List<CoinHolding> newHoldings = new ArrayList<>();
+                final List<Transaction> transactions = new ArrayList<>();
+                final List<BotTrade> botTrades = new ArrayList<>();
+        }
+}
@@ -0,0 +1,9 @@
+package com.web.TradeApp.feature.aibot.service;
+
+public interface SnapshotRollupService {
+    /**
+     * Rolls subscription and wallet snapshots up into hourly / daily rollups,
+     * then prunes raw snapshots and hourly rollups past their retention
+     */
+    void rollupAndPrune();
+}
@@ -0,0 +1,395 @@
+package com.web.TradeApp.feature.aibot.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.feature.aibot.model.SnapshotRollupWatermark;
+import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshotRollup;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
+import com.web.TradeApp.feature.aibot.repository.SnapshotRollupWatermarkRepository;
+import com.web.TradeApp.feature.aibot.repository.SubscriptionSnapshotRollupRepository;
+import com.web.TradeApp.feature.coin.entity.WalletSnapshotRollup;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.coin.repository.WalletSnapshotRepository;
+import com.web.TradeApp.feature.coin.repository.WalletSnapshotRollupRepository;
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup;
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup.Resolution;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compacts subscription_snapshot and wallet_snapshots (one row per owner every
+ * snapshot interval, forever) into tiered rollups:
+ *
+ * - hourly rollups from the raw snapshots, daily rollups from the hourly ones.
+ * Each run rebuilds every bucket from the hour of the watermark (it may have
+ * been incomplete) to now, so the open hour / day stays current. The
+ * watermark (snapshot_rollup_watermarks) only moves once every chunk of the
+ * window has committed: a failed run is redone from the same hour.
+ * - raw snapshots older than raw-retention-days are deleted once rolled up
+ * (before the hour of the watermark), except the first snapshot of each owner
+ * (all-time PnL / ROI baseline); hourly rollups older than
+ * hourly-retention-days are deleted (before the day of the watermark); daily
+ * rollups are kept.
+ *
+ * Windows up to 30 days (1d/7d metrics, 5m/1h charts) keep reading the raw
+ * snapshots, all-time charts read the daily rollups. All-time drawdown comes
+ * from the running minimums in subscription_metrics / wallet_metrics.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SnapshotRollupServiceImpl implements SnapshotRollupService {
+
+    // Raw snapshots must cover the longest raw-backed window (30 days) plus a day
+    private static final int MIN_RAW_RETENTION_DAYS = 31;
+
+    private final SubscriptionSnapshotRollupRepository subRollupRepo;
+    private final SnapshotMetricsRepository subSnapshotRepo;
+    private final BotSubscriptionRepository subscriptionRepo;
+    private final WalletSnapshotRollupRepository walletRollupRepo;
+    private final WalletSnapshotRepository walletSnapshotRepo;
+    private final WalletRepository walletRepo;
+    private final SnapshotRollupWatermarkRepository watermarkRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${snapshot.batch-size:100}")
+    private int batchSize;
+
+    @Value("${snapshot.transaction-timeout:30}")
+    private int transactionTimeout;
+
+    // Backfill of an existing history is spread over several runs
+    @Value("${rollup.max-hours-per-run:168}")
+    private int maxHoursPerRun;
+
+    @Value("${rollup.raw-retention-days:35}")
+    private int rawRetentionDays;
+
+    @Value("${rollup.hourly-retention-days:180}")
+    private int hourlyRetentionDays;
+
+    @Value("${rollup.prune-batch-size:1000}")
+    private int pruneBatchSize;
+
+    @Scheduled(fixedRateString = "${rollup.interval:3600000}", initialDelayString = "${rollup.initial-delay:60000}")
+    @Override
+    public void rollupAndPrune() {
+        log.info("🗜️ Starting Snapshot Rollup Job...");
+        Instant now = Instant.now();
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        txTemplate.setTimeout(transactionTimeout);
+
+        for (RollupSource<?> source : List.of(new SubscriptionSource(), new WalletSource())) {
+            try {
+                rollup(source, now, txTemplate);
+                prune(source, now, txTemplate);
+            } catch (Exception e) {
+                // Next run starts again from the watermark
+                log.error("❌ Rollup of {} snapshots failed", source.name(), e);
+            }
+        }
+        log.info("✅ Snapshot Rollup Job Finished.");
+    }
+
+    private <R extends BaseSnapshotRollup> void rollup(RollupSource<R> source, Instant now,
+            TransactionTemplate txTemplate) {
+        // 1. Window: from the hour of the watermark (or the first snapshot ever) to now
+        Instant watermark = watermark(source);
+        Instant start = watermark != null ? watermark : source.firstRecordedAt();
+        if (start == null) {
+            return; // No snapshots yet
+        }
+        Instant from = start.truncatedTo(ChronoUnit.HOURS);
+        Instant to = min(now, from.plus(maxHoursPerRun, ChronoUnit.HOURS));
+        Instant dayFrom = from.truncatedTo(ChronoUnit.DAYS);
+
+        // 2. Owners with snapshots in the window, one transaction per chunk
+        List<UUID> ownerIds = source.ownerIdsBetween(from, to);
+        int buckets = 0;
+        for (int i = 0; i < ownerIds.size(); i += batchSize) {
+            List<UUID> chunk = ownerIds.subList(i, Math.min(i + batchSize, ownerIds.size()));
+            Integer saved = txTemplate.execute(status -> rollupChunk(source, chunk, from, to, dayFrom));
+            buckets += saved != null ? saved : 0;
+        }
+
+        // 3. Every chunk committed (a failure above propagates): the window is done
+        txTemplate.executeWithoutResult(status -> advanceWatermark(source, to));
+        log.info("🗜️ Rolled up {} {} buckets for {} owners in [{}, {})", buckets, source.name(), ownerIds.size(),
+                from, to);
+    }
+
+    private <R extends BaseSnapshotRollup> int rollupChunk(RollupSource<R> source, List<UUID> ownerIds,
+            Instant from, Instant to, Instant dayFrom) {
+        // 1. Hours, rebuilt from the raw snapshots
+        Map<BucketKey, R> existingHours = index(source, source.buckets(ownerIds, Resolution.HOUR, from, to));
+        Map<BucketKey, R> hours = new LinkedHashMap<>();
+        for (Object[] row : source.samples(ownerIds, from, to)) {
+            UUID ownerId = (UUID) row[0];
+            Instant recordedAt = toInstant(row[1]);
+            R hour = rebuilt(source, existingHours, hours, ownerId, Resolution.HOUR,
+                    recordedAt.truncatedTo(ChronoUnit.HOURS));
+            hour.add(recordedAt, (BigDecimal) row[2], (BigDecimal) row[3], (BigDecimal) row[4]);
+        }
+        source.saveAll(hours.values());
+
+        // 2. Days, rebuilt from all their hours (the query flushes the hours saved above)
+        Map<BucketKey, R> existingDays = index(source, source.buckets(ownerIds, Resolution.DAY, dayFrom, to));
+        Map<BucketKey, R> days = new LinkedHashMap<>();
+        for (R hour : source.buckets(ownerIds, Resolution.HOUR, dayFrom, to)) {
+            R day = rebuilt(source, existingDays, days, source.ownerId(hour), Resolution.DAY,
+                    hour.getBucketStart().truncatedTo(ChronoUnit.DAYS));
+            day.merge(hour);
+        }
+        source.saveAll(days.values());
+
+        return hours.size() + days.size();
+    }
+
+    private <R extends BaseSnapshotRollup> void prune(RollupSource<R> source, Instant now,
+            TransactionTemplate txTemplate) {
+        Instant watermark = watermark(source);
+        if (watermark == null) {
+            return;
+        }
+        // Never drop snapshots the next run rebuilds its first hour from
+        Instant horizon = min(now.minus(Math.max(rawRetentionDays, MIN_RAW_RETENTION_DAYS), ChronoUnit.DAYS),
+                watermark.truncatedTo(ChronoUnit.HOURS));
+
+        int deleted = 0;
+        while (true) {
+            List<UUID> ids = source.expiredSnapshotIds(horizon, PageRequest.of(0, pruneBatchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            txTemplate.executeWithoutResult(status -> source.deleteSnapshots(ids));
+            deleted += ids.size();
+        }
+
+        // Nor the hours the next run rebuilds its first day from
+        Instant hourHorizon = min(now.minus(hourlyRetentionDays, ChronoUnit.DAYS),
+                watermark.truncatedTo(ChronoUnit.DAYS));
+        Integer deletedHours = txTemplate.execute(
+                status -> source.deleteRollupsOlderThan(Resolution.HOUR, hourHorizon));
+        log.info("🧹 Pruned {} raw {} snapshots before {} and {} hourly rollups", deleted, source.name(), horizon,
+                deletedHours);
+    }
+
+    // End of the last window rolled up completely, null before the first run
+    private Instant watermark(RollupSource<?> source) {
+        return watermarkRepo.findBySource(source.name())
+                .map(SnapshotRollupWatermark::getRolledUpTo)
+                .orElse(null);
+    }
+
+    private void advanceWatermark(RollupSource<?> source, Instant to) {
+        SnapshotRollupWatermark watermark = watermarkRepo.findBySource(source.name())
+                .orElseGet(() -> SnapshotRollupWatermark.builder().source(source.name()).build());
+        watermark.setRolledUpTo(to);
+        watermarkRepo.save(watermark);
+    }
+
+    private static <R extends BaseSnapshotRollup> Map<BucketKey, R> index(RollupSource<R> source, List<R> rollups) {
+        Map<BucketKey, R> byKey = new HashMap<>();
+        for (R rollup : rollups) {
+            byKey.put(new BucketKey(source.ownerId(rollup), rollup.getBucketStart()), rollup);
+        }
+        return byKey;
+    }
+
+    // Bucket to rebuild: emptied the first time this run touches it
+    private static <R extends BaseSnapshotRollup> R rebuilt(RollupSource<R> source, Map<BucketKey, R> existing,
+            Map<BucketKey, R> touched, UUID ownerId, Resolution resolution, Instant bucketStart) {
+        return touched.computeIfAbsent(new BucketKey(ownerId, bucketStart), key -> {
+            R rollup = existing.get(key);
+            if (rollup == null) {
+                return source.newRollup(ownerId, resolution, bucketStart);
+            }
+            rollup.reset();
+            return rollup;
+        });
+    }
+
+    private static Instant toInstant(Object value) {
+        return value instanceof java.sql.Timestamp timestamp ? timestamp.toInstant() : (Instant) value;
+    }
+
+    private static Instant min(Instant a, Instant b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private record BucketKey(UUID ownerId, Instant bucketStart) {
+    }
+
+    /**
+     * Queries of one snapshot table and its rollup table
+     */
+    private interface RollupSource<R extends BaseSnapshotRollup> {
+        String name();
+
+        Instant firstRecordedAt();
+
+        List<UUID> ownerIdsBetween(Instant from, Instant to);
+
+        // [0] ownerId, [1] recordedAt, [2] equity, [3] pnl, [4] netInvestment, in time order
+        List<Object[]> samples(Collection<UUID> ownerIds, Instant from, Instant to);
+
+        List<R> buckets(Collection<UUID> ownerIds, Resolution resolution, Instant from, Instant to);
+
+        UUID ownerId(R rollup);
+
+        R newRollup(UUID ownerId, Resolution resolution, Instant bucketStart);
+
+        void saveAll(Collection<R> rollups);
+
+        List<UUID> expiredSnapshotIds(Instant horizon, Pageable pageable);
+
+        void deleteSnapshots(List<UUID> ids);
+
+        int deleteRollupsOlderThan(Resolution resolution, Instant before);
+    }
+
+    private final class SubscriptionSource implements RollupSource<SubscriptionSnapshotRollup> {
+        @Override
+        public String name() {
+            return "subscription";
+        }
+
+        @Override
+        public Instant firstRecordedAt() {
+            return subRollupRepo.findFirstRecordedAt();
+        }
+
+        @Override
+        public List<UUID> ownerIdsBetween(Instant from, Instant to) {
+            return subRollupRepo.findSubscriptionIdsBetween(from, to);
+        }
+
+        @Override
+        public List<Object[]> samples(Collection<UUID> ownerIds, Instant from, Instant to) {
+            return subRollupRepo.findSamples(ownerIds, from, to);
+        }
+
+        @Override
+        public List<SubscriptionSnapshotRollup> buckets(Collection<UUID> ownerIds, Resolution resolution,
+                Instant from, Instant to) {
+            return subRollupRepo.findBuckets(ownerIds, resolution, from, to);
+        }
+
+        @Override
+        public UUID ownerId(SubscriptionSnapshotRollup rollup) {
+            return rollup.getBotSubscription().getId();
+        }
+
+        @Override
+        public SubscriptionSnapshotRollup newRollup(UUID ownerId, Resolution resolution, Instant bucketStart) {
+            return SubscriptionSnapshotRollup.builder()
+                    .botSubscription(subscriptionRepo.getReferenceById(ownerId))
+                    .resolution(resolution)
+                    .bucketStart(bucketStart)
+                    .build();
+        }
+
+        @Override
+        public void saveAll(Collection<SubscriptionSnapshotRollup> rollups) {
+            subRollupRepo.saveAll(rollups);
+        }
+
+        @Override
+        public List<UUID> expiredSnapshotIds(Instant horizon, Pageable pageable) {
+            return subRollupRepo.findExpiredSnapshotIds(horizon, pageable);
+        }
+
+        @Override
+        public void deleteSnapshots(List<UUID> ids) {
+            subSnapshotRepo.deleteAllByIdInBatch(ids);
+        }
+
+        @Override
+        public int deleteRollupsOlderThan(Resolution resolution, Instant before) {
+            return subRollupRepo.deleteOlderThan(resolution, before);
+        }
+    }
+
+    private final class WalletSource implements RollupSource<WalletSnapshotRollup> {
+        @Override
+        public String name() {
+            return "wallet";
+        }
+
+        @Override
+        public Instant firstRecordedAt() {
+            return walletRollupRepo.findFirstRecordedAt();
+        }
+
+        @Override
+        public List<UUID> ownerIdsBetween(Instant from, Instant to) {
+            return walletRollupRepo.findWalletIdsBetween(from, to);
+        }
+
+        @Override
+        public List<Object[]> samples(Collection<UUID> ownerIds, Instant from, Instant to) {
+            return walletRollupRepo.findSamples(ownerIds, from, to);
+        }
+
+        @Override
+        public List<WalletSnapshotRollup> buckets(Collection<UUID> ownerIds, Resolution resolution, Instant from,
+                Instant to) {
+            return walletRollupRepo.findBuckets(ownerIds, resolution, from, to);
+        }
+
+        @Override
+        public UUID ownerId(WalletSnapshotRollup rollup) {
+            return rollup.getWallet().getId();
+        }
+
+        @Override
+        public WalletSnapshotRollup newRollup(UUID ownerId, Resolution resolution, Instant bucketStart) {
+            return WalletSnapshotRollup.builder()
+                    .wallet(walletRepo.getReferenceById(ownerId))
+                    .resolution(resolution)
+                    .bucketStart(bucketStart)
+                    .build();
+        }
+
+        @Override
+        public void saveAll(Collection<WalletSnapshotRollup> rollups) {
+            walletRollupRepo.saveAll(rollups);
+        }
+
+        @Override
+        public List<UUID> expiredSnapshotIds(Instant horizon, Pageable pageable) {
+            return walletRollupRepo.findExpiredSnapshotIds(horizon, pageable);
+        }
+
+        @Override
+        public void deleteSnapshots(List<UUID> ids) {
+            walletSnapshotRepo.deleteAllByIdInBatch(ids);
+        }
+
+        @Override
+        public int deleteRollupsOlderThan(Resolution resolution, Instant before) {
+            return walletRollupRepo.deleteOlderThan(resolution, before);
+        }
+    }
+}
@@ -2,30 +2,45 @@ package com.web.TradeApp.feature.aibot.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.web.TradeApp.config.SchedulingConfig;
+import com.web.TradeApp.feature.aibot.event.SnapshotBatchCompletedEvent;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshot;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
 import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
+import com.web.TradeApp.feature.aibot.service.subscription.BotMetricsService;
 import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
+import com.web.TradeApp.feature.common.retry.OptimisticRetryExecutor;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -38,23 +53,80 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
     private final SnapshotMetricsRepository snapshotRepo;
     private final CoinGeckoClient marketPriceService;
     private final PlatformTransactionManager transactionManager;
+    private final BotMetricsService botMetricsService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BotRepository botRepo;
+    private final MeterRegistry meterRegistry;
+    private final OptimisticRetryExecutor retryExecutor;
 
     @Value("${snapshot.batch-size:100}")
     private int batchSize;
 
+    // Interval of the job: live feed prices are averaged (VWAP) over it
+    @Value("${snapshot.interval:300000}")
+    private long intervalMillis;
+
     @Value("${snapshot.transaction-timeout:30}")
     private int transactionTimeout;
 
+    // Pages computed and written at once, 0 = DB pool size - 2
+    @Value("${snapshot.workers:0}")
+    private int workers;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int dbPoolSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Timer jobTimer;
+    private Counter rowsCounter;
+    private Counter skippedRuns;
+
+    @PostConstruct
+    void initMetrics() {
+        jobTimer = Timer.builder("snapshot.job.duration")
+                .description("Duration of a snapshot job run")
+                .tag("job", "subscription")
+                .register(meterRegistry);
+        rowsCounter = meterRegistry.counter("snapshot.job.rows", "job", "subscription");
+        skippedRuns = meterRegistry.counter("snapshot.job.skipped", "job", "subscription");
+    }
+
+    @Async(SchedulingConfig.SNAPSHOT_JOB_EXECUTOR)
     @Scheduled(fixedRateString = "${snapshot.interval:300000}") // Default: Every 5 minutes (300000ms)
     public void captureSubscriptions() {
+        // Overlap guard: runs are async (see SchedulingConfig), a run longer than
+        // the interval must not start a second one
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⏭️ Previous Batch Snapshot Job still running, skipping this run");
+            skippedRuns.increment();
+            return;
+        }
+        try {
+            runPipeline();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Pipeline of one run:
+     * 1. Prices of every coin with active subscribers, fetched ONCE for the run
+     * (VWAP over the interval for coins with a live price feed).
+     * 2. Producer (this thread): reads keyset pages of active subscriptions.
+     * 3. Workers (virtual threads, at most N pages in flight): compute the
+     * snapshots of a page and write them in their own transaction (JDBC batched
+     * inserts, see hibernate.jdbc.batch_size) while the producer reads on.
+     */
+    private void runPipeline() {
         log.info("🚀 Starting Batch Snapshot Job...");
+        long startNanos = System.nanoTime();
+
+        // ✅ Single timestamp for the entire run: every subscription of a run shares recordedAt
+        Instant runTimestamp = Instant.now();
 
-        // Start with the lowest possible UUID (NIL UUID) for keyset pagination
-        // This ensures we fetch everything > 0000... (which is effectively all valid v4
-        // UUIDs)
-        UUID lastId = UUID.fromString("00000000-0000-0000-0000-000000000000");
-        int totalProcessed = 0;
-        boolean hasNextBatch = true;
+        // 1. Prices once per run (instead of one API call per batch)
+        Map<String, BigDecimal> priceMap = fetchPrices(botRepo.findActiveCoinSymbols());
 
         // Configure TransactionTemplate for manual control
         TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
@@ -62,75 +134,94 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
         txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         txTemplate.setTimeout(transactionTimeout); // Fail fast if DB is locked
 
-        while (hasNextBatch) {
-            // Capture the current lastId in a final variable for use inside the lambda
-            final UUID batchStartId = lastId;
-
-            // 1. Fetch Data (Read-Only, outside transaction for speed)
-            // Using JOIN FETCH to eagerly load Bot entities to avoid
-            // LazyInitializationException
-            Pageable limit = PageRequest.of(0, batchSize);
-            List<BotSubscription> batch = subscriptionRepo.findByIdGreaterThanAndActiveTrueWithBotOrderByIdAsc(lastId,
-                    limit);
-
-            if (batch.isEmpty()) {
-                hasNextBatch = false;
-                break;
-            }
-
-            // 2. Process & Save (Inside Transaction Boundary)
-            // This lambda runs inside a short, isolated DB transaction
-            Integer savedCount = txTemplate.execute(status -> {
-                try {
-                    return processAndSaveBatch(batch);
-                } catch (Exception e) {
-                    log.error("❌ Batch failed for range > {}. Rolling back this batch only.", batchStartId, e);
-                    status.setRollbackOnly(); // Rollback only this chunk of 100
-                    return 0;
+        // Leave a few connections for HTTP requests and the other jobs
+        int concurrency = workers > 0 ? workers : Math.max(1, dbPoolSize - 2);
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger totalProcessed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors
+                .newThreadPerTaskExecutor(Thread.ofVirtual().name("snapshot-", 0).factory())) {
+            // Start with the lowest possible UUID (NIL UUID) for keyset pagination
+            UUID lastId = UUID.fromString("00000000-0000-0000-0000-000000000000");
+            while (true) {
+                // 2. Fetch Data (Read-Only, outside transaction for speed)
+                // Using JOIN FETCH to eagerly load Bot entities to avoid
+                // LazyInitializationException
+                Pageable limit = PageRequest.of(0, batchSize);
+                List<BotSubscription> batch = subscriptionRepo.findByIdGreaterThanAndActiveTrueWithBotOrderByIdAsc(
+                        lastId, limit);
+                if (batch.isEmpty()) {
+                    break;
                 }
-            });
+                final UUID batchStartId = lastId;
+                lastId = batch.get(batch.size() - 1).getId();
+
+                // Back-pressure: wait for a worker when N pages are in flight
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        // 3. Process & Save (Inside Transaction Boundary). A fill updating the
+                        // same metrics rows meanwhile (@Version) retries the page, re-read
+                        AtomicBoolean firstAttempt = new AtomicBoolean(true);
+                        Integer savedCount = retryExecutor.execute("snapshot-batch", txTemplate,
+                                () -> processAndSaveBatch(firstAttempt.getAndSet(false) ? batch : reload(batch),
+                                        priceMap, runTimestamp));
+                        totalProcessed.addAndGet(savedCount != null ? savedCount : 0);
+                    } catch (Exception e) {
+                        // Rolled back: only this chunk, the next run writes it
+                        log.error("❌ Batch failed for range > {}. Rolling back this batch only.", batchStartId, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } // close() waits for the last pages
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        jobTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowsCounter.increment(totalProcessed.get());
+        log.info("✅ Job Finished. Processed {} snapshots in {} ms ({} rows/s, {} workers).", totalProcessed.get(),
+                elapsedMillis, elapsedMillis > 0 ? totalProcessed.get() * 1000L / elapsedMillis : totalProcessed.get(),
+                concurrency);
+        // Every batch is committed: caches of snapshot-derived data can move on
+        eventPublisher.publishEvent(new SnapshotBatchCompletedEvent(this, totalProcessed.get(), Instant.now()));
+    }
 
-            // 3. Update Cursor
-            // Move the pointer to the last ID we processed
-            lastId = batch.get(batch.size() - 1).getId();
-            totalProcessed += (savedCount != null ? savedCount : 0);
+    private Map<String, BigDecimal> fetchPrices(List<String> coinSymbols) {
+        if (coinSymbols.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<String, BigDecimal> priceMap = marketPriceService.getBatchPrices(coinSymbols,
+                    Duration.ofMillis(intervalMillis));
+            log.debug("📊 Fetched {} bot coin prices in one batch API call", priceMap.size());
+            return priceMap;
+        } catch (Exception e) {
+            // Every snapshot of the run is skipped (no price), the next run tries again
+            log.error("❌ Failed to fetch batch prices: {}", e.getMessage());
+            return Map.of();
         }
+    }
 
-        log.info("✅ Job Finished. Processed {} snapshots.", totalProcessed);
+    // Balances as of now: a fill may have moved them since the page was read
+    private List<BotSubscription> reload(List<BotSubscription> batch) {
+        return subscriptionRepo.findByIdInAndActiveTrueWithBot(batch.stream().map(BotSubscription::getId).toList());
     }
 
     /**
      * This helper method is called INSIDE the TransactionTemplate.
      * All DB writes here are atomic for this specific batch.
      */
-    private int processAndSaveBatch(List<BotSubscription> subs) {
+    private int processAndSaveBatch(List<BotSubscription> subs, Map<String, BigDecimal> priceMap,
+            Instant runTimestamp) {
         List<SubscriptionSnapshot> snapshots = new ArrayList<>();
 
-        // ✅ Use single timestamp for entire batch to prevent flickering
-        // All snapshots in this batch will have identical recordedAt
-        Instant batchTimestamp = Instant.now();
-
-        // OPTIMIZATION: Collect all unique coin symbols from all subscriptions FIRST
-        Set<String> allCoinSymbols = subs.stream()
-                .map(sub -> sub.getBot().getCoinSymbol())
-                .collect(Collectors.toSet());
-
-        // Fetch ALL prices in ONE API call (instead of N individual calls)
-        Map<String, BigDecimal> priceMap = new HashMap<>();
-        if (!allCoinSymbols.isEmpty()) {
-            try {
-                priceMap = marketPriceService.getBatchPrices(new ArrayList<>(allCoinSymbols));
-                log.debug("📊 Fetched {} bot coin prices in one batch API call", priceMap.size());
-            } catch (Exception e) {
-                log.error("❌ Failed to fetch batch prices: {}", e.getMessage());
-            }
-        }
-
         // Now process each subscription using the pre-fetched prices
         for (BotSubscription sub : subs) {
             try {
-                // Business Logic with pre-fetched prices and batch timestamp
-                SubscriptionSnapshot snapshot = processSingleSubscription(sub, priceMap, batchTimestamp);
+                // Business Logic with pre-fetched prices and run timestamp
+                SubscriptionSnapshot snapshot = processSingleSubscription(sub, priceMap, runTimestamp);
                 if (snapshot != null) {
                     snapshots.add(snapshot);
                 }
@@ -143,6 +234,8 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
         // Bulk Insert
         if (!snapshots.isEmpty()) {
             snapshotRepo.saveAll(snapshots);
+            // Running metrics move with the snapshots (same transaction)
+            botMetricsService.onSnapshotsSaved(snapshots);
         }
 
         return snapshots.size();
@@ -153,7 +246,7 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
      * 
      * @param sub            Bot subscription to process
      * @param priceMap       Pre-fetched coin prices (coinGeckoId -> price)
-     * @param batchTimestamp Timestamp for this entire batch (prevents flickering)
+     * @param batchTimestamp Timestamp for this entire run (prevents flickering)
      */
     private SubscriptionSnapshot processSingleSubscription(BotSubscription sub, Map<String, BigDecimal> priceMap,
             Instant batchTimestamp) {
@@ -164,7 +257,7 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
         BigDecimal currentPrice = marketPriceService.getPriceFromMap(symbol, priceMap);
 
         if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) <= 0) {
-            log.warn("No price available for bot coin symbol: {} (check SYMBOL_TO_ID_MAP)", symbol);
+            log.warn("No price available for bot coin symbol: {} (is the coin listed?)", symbol);
             return null;
         }
 
@@ -0,0 +1,201 @@
+package com.web.TradeApp.feature.aibot.service.subscription;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.feature.aibot.dto.Bot.BotDetailDTO;
+import com.web.TradeApp.feature.aibot.dto.Bot.BotGridItemDTO;
+import com.web.TradeApp.feature.aibot.event.SnapshotBatchCompletedEvent;
+import com.web.TradeApp.feature.common.response.CursorPage;
+import com.web.TradeApp.feature.common.response.ResultPaginationResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Response cache of the public /metrics/bots endpoints (grid, single bot,
+ * bot detail), keyed by their request parameters.
+ *
+ * The data only moves when the Batch Snapshot Job runs, so a run completing
+ * (SnapshotBatchCompletedEvent) flushes the pending bot_metrics updates, drops
+ * every entry and precomputes the default first page of the grid. In between,
+ * requests are served from memory with a content ETag; Spring answers a
+ * matching If-None-Match with 304.
+ *
+ * Fills and subscription changes reach the cached pages with the next run.
+ * Concurrent misses of the same key share one load. Exposes
+ * "bot.metrics.response.cache" counters (tag result=hit|miss).
+ */
+@Component
+@Slf4j
+public class BotMetricsResponseCache {
+
+    // Default request of the marketplace page (see BotMetricsController)
+    private static final String DEFAULT_TIMEFRAME = "current";
+    private static final String DEFAULT_SORT = "pnl";
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private final ModularMetricsService metricsService;
+    private final BotMetricsService botMetricsService;
+    private final ObjectMapper objectMapper;
+
+    // Replaced as a whole on invalidation, loads still running land in the dropped map
+    private volatile Map<Object, CompletableFuture<Cached<?>>> entries = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    // Arbitrary search strings must not grow the cache without bound
+    @Value("${bot-metrics.response-cache.max-entries:2000}")
+    private int maxEntries;
+
+    public BotMetricsResponseCache(ModularMetricsService metricsService, BotMetricsService botMetricsService,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.metricsService = metricsService;
+        this.botMetricsService = botMetricsService;
+        this.objectMapper = objectMapper;
+        this.hits = meterRegistry.counter("bot.metrics.response.cache", "result", "hit");
+        this.misses = meterRegistry.counter("bot.metrics.response.cache", "result", "miss");
+    }
+
+    public Cached<ResultPaginationResponse> grid(String timeframe, String sortBy, String search, Pageable pageable) {
+        String normalizedSearch = search != null && !search.trim().isEmpty() ? search.trim().toLowerCase() : null;
+        GridKey key = new GridKey(timeframe.toLowerCase(), sortBy.toLowerCase(), normalizedSearch,
+                pageable.getPageNumber(), pageable.getPageSize());
+        return get(key, () -> toPaginationResponse(
+                metricsService.getAllBotsWithPagination(timeframe, sortBy, normalizedSearch, pageable)));
+    }
+
+    // Keyset page of the grid (infinite scroll), meta carries nextCursor instead of totals
+    public Cached<ResultPaginationResponse> scroll(String timeframe, String sortBy, String search, String cursor,
+            int size) {
+        String normalizedSearch = search != null && !search.trim().isEmpty() ? search.trim().toLowerCase() : null;
+        ScrollKey key = new ScrollKey(timeframe.toLowerCase(), sortBy.toLowerCase(), normalizedSearch, cursor, size);
+        return get(key, () -> toScrollResponse(
+                metricsService.scrollBots(timeframe, sortBy, normalizedSearch, cursor, size), size));
+    }
+
+    public Cached<BotGridItemDTO> bot(UUID botId, String timeframe) {
+        return get(new BotKey(botId, timeframe.toLowerCase(), false),
+                () -> metricsService.getSingleBotMetrics(botId, timeframe));
+    }
+
+    public Cached<BotDetailDTO> detail(UUID botId, String timeframe) {
+        return get(new BotKey(botId, timeframe.toLowerCase(), true),
+                () -> metricsService.getBotDetailWithChart(botId, timeframe));
+    }
+
+    @EventListener
+    public void onSnapshotBatchCompleted(SnapshotBatchCompletedEvent event) {
+        // bot_metrics first, so the fresh entries are built from this run's data
+        botMetricsService.flushDirty();
+        entries = new ConcurrentHashMap<>();
+
+        try {
+            grid(DEFAULT_TIMEFRAME, DEFAULT_SORT, null, PageRequest.of(0, DEFAULT_PAGE_SIZE));
+            log.debug("🗂️ Bot metrics cache reset after {} snapshots, default page precomputed",
+                    event.getSnapshotCount());
+        } catch (Exception e) {
+            log.warn("⚠️ Precomputing the default bot grid page failed: {}", e.getMessage());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Cached<T> get(Object key, Supplier<T> loader) {
+        Map<Object, CompletableFuture<Cached<?>>> current = entries;
+        CompletableFuture<Cached<?>> existing = current.get(key);
+        if (existing == null && current.size() >= maxEntries) {
+            misses.increment();
+            return load(loader);
+        }
+
+        CompletableFuture<Cached<?>> mine = new CompletableFuture<>();
+        if (existing == null) {
+            existing = current.putIfAbsent(key, mine);
+        }
+        if (existing != null) {
+            hits.increment();
+            try {
+                return (Cached<T>) existing.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        misses.increment();
+        try {
+            Cached<T> cached = load(loader);
+            mine.complete(cached);
+            return cached;
+        } catch (RuntimeException e) {
+            // Errors are not cached: the next request tries again
+            current.remove(key, mine);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private <T> Cached<T> load(Supplier<T> loader) {
+        T value = loader.get();
+        try {
+            return new Cached<>(value, "\"" + DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(value)) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize bot metrics response", e);
+        }
+    }
+
+    private static ResultPaginationResponse toPaginationResponse(Page<BotGridItemDTO> botsPage) {
+        ResultPaginationResponse response = new ResultPaginationResponse();
+        ResultPaginationResponse.PageMeta meta = new ResultPaginationResponse.PageMeta();
+        meta.setPage(botsPage.getNumber() + 1);
+        meta.setPageSize(botsPage.getSize());
+        meta.setPages(botsPage.getTotalPages());
+        meta.setTotal(botsPage.getTotalElements());
+
+        response.setMeta(meta);
+        response.setResult(botsPage.getContent());
+        return response;
+    }
+
+    private static ResultPaginationResponse toScrollResponse(CursorPage<BotGridItemDTO> scroll, int size) {
+        ResultPaginationResponse response = new ResultPaginationResponse();
+        ResultPaginationResponse.PageMeta meta = new ResultPaginationResponse.PageMeta();
+        meta.setPageSize(size);
+        meta.setNextCursor(scroll.nextCursor());
+
+        response.setMeta(meta);
+        response.setResult(scroll.items());
+        return response;
+    }
+
+    /**
+     * A response body and its ETag (quoted, strong). Never mutate the value:
+     * it is shared by every request of the key.
+     */
+    public record Cached<T>(T value, String etag) {
+    }
+
+    private record GridKey(String timeframe, String sortBy, String search, int page, int size) {
+    }
+
+    private record ScrollKey(String timeframe, String sortBy, String search, String cursor, int size) {
+    }
+
+    private record BotKey(UUID botId, String timeframe, boolean detail) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.web.TradeApp.feature.aibot.service.subscription;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshot;
+
+public interface BotMetricsService {
+    /**
+     * Folds freshly saved snapshots into subscription_metrics. Must run in the
+     * transaction that saved them.
+     */
+    void onSnapshotsSaved(List<SubscriptionSnapshot> snapshots);
+
+    /**
+     * Marks the metrics of freshly filled subscriptions to market at the fill
+     * price. Must run in the fill transaction, after the bot wallets changed.
+     */
+    void onFills(List<BotSubscription> subs, BigDecimal price);
+
+    /**
+     * Schedules a re-aggregation of the bot's row in bot_metrics (fills,
+     * subscription created / updated / paused).
+     */
+    void markDirty(UUID botId);
+
+    void flushDirty();
+}
@@ -0,0 +1,324 @@
+package com.web.TradeApp.feature.aibot.service.subscription;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotMetrics;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.model.SubscriptionMetrics;
+import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshot;
+import com.web.TradeApp.feature.aibot.repository.BotMetricsRepository;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
+import com.web.TradeApp.feature.aibot.repository.SubscriptionMetricsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the materialized metrics behind the bot grid up to date.
+ *
+ * - subscription_metrics: every snapshot batch updates the rows of its
+ * subscriptions in the same transaction (window baselines, running drawdown,
+ * PnL/ROI against the all-time / 1d / 7d baselines), with a few IN queries per
+ * batch instead of re-scanning subscription_snapshot. Fills mark the rows of
+ * the filled subscriptions to market at the fill price in the fill transaction.
+ * Both rewrite whole rows: the row's @Version makes the later commit fail and
+ * retry (OptimisticRetryExecutor) instead of losing the other's update.
+ * - bot_metrics: bots touched by a snapshot batch, a fill or a subscription
+ * change are marked dirty (after commit) and re-aggregated from
+ * subscription_metrics every flush-interval, one GROUP BY per flush.
+ *
+ * 1d/7d windows are evaluated when the snapshot is written, so they lag at most
+ * one snapshot interval behind a live query.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class BotMetricsServiceImpl implements BotMetricsService {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final int SCALE = 6;
+    // Keeps IN lists well below the MSSQL parameter limit
+    private static final int FLUSH_CHUNK = 500;
+
+    private final SubscriptionMetricsRepository subMetricsRepo;
+    private final BotMetricsRepository botMetricsRepo;
+    private final SnapshotMetricsRepository snapshotRepo;
+    private final BotRepository botRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    // Bots whose bot_metrics row is out of date
+    private final Set<UUID> dirtyBots = ConcurrentHashMap.newKeySet();
+
+    @Value("${bot-metrics.backfill-batch-size:100}")
+    private int backfillBatchSize;
+
+    @Override
+    public void onSnapshotsSaved(List<SubscriptionSnapshot> snapshots) {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        List<UUID> subIds = snapshots.stream().map(s -> s.getBotSubscription().getId()).toList();
+        Map<UUID, SubscriptionMetrics> existing = subMetricsRepo.findAllBySubscriptionIdIn(subIds).stream()
+                .collect(Collectors.toMap(m -> m.getSubscription().getId(), Function.identity()));
+
+        // 1. Window baselines (the query auto-flushes the new snapshots, so each sub has one)
+        Instant now = Instant.now();
+        Map<UUID, Baseline> base1d = baselines(subIds, now.minus(1, ChronoUnit.DAYS));
+        Map<UUID, Baseline> base7d = baselines(subIds, now.minus(7, ChronoUnit.DAYS));
+
+        // 2. First time we see a subscription: all-time baseline and drawdown from its history
+        List<UUID> newIds = subIds.stream().filter(id -> !existing.containsKey(id)).toList();
+        Map<UUID, Baseline> baseAll = newIds.isEmpty() ? Map.of() : baselines(newIds, Instant.EPOCH);
+        Map<UUID, Object[]> history = newIds.isEmpty() ? Map.of()
+                : snapshotRepo.findDrawdowns(newIds).stream()
+                        .collect(Collectors.toMap(r -> (UUID) r[0], Function.identity(), (a, b) -> a));
+
+        // 3. Fold each snapshot into its running metrics
+        List<SubscriptionMetrics> toSave = new ArrayList<>();
+        for (SubscriptionSnapshot snap : snapshots) {
+            UUID subId = snap.getBotSubscription().getId();
+            SubscriptionMetrics metrics = existing.get(subId);
+            if (metrics == null) {
+                Baseline first = baseAll.getOrDefault(subId, Baseline.of(snap));
+                Object[] past = history.get(subId);
+                BigDecimal drawdown = snap.getTotalEquity().subtract(snap.getNetInvestment());
+                metrics = SubscriptionMetrics.builder()
+                        .subscription(snap.getBotSubscription())
+                        .basePnl(first.pnl())
+                        .baseNetInvestment(first.netInvestment())
+                        .maxDrawdown(past != null ? decimal(past[1]) : drawdown)
+                        .maxDrawdownPct(past != null ? decimal(past[2]) : percent(drawdown, snap.getNetInvestment()))
+                        .build();
+            } else if (snap.getRecordedAt().isBefore(metrics.getLastRecordedAt())) {
+                continue; // Already folded a newer snapshot
+            }
+
+            Baseline day = base1d.getOrDefault(subId, Baseline.of(snap));
+            Baseline week = base7d.getOrDefault(subId, Baseline.of(snap));
+            metrics.setBasePnl1d(day.pnl());
+            metrics.setBaseNetInvestment1d(day.netInvestment());
+            metrics.setBasePnl7d(week.pnl());
+            metrics.setBaseNetInvestment7d(week.netInvestment());
+            metrics.setLastRecordedAt(snap.getRecordedAt());
+            fold(metrics, snap.getTotalEquity(), snap.getNetInvestment());
+            toSave.add(metrics);
+
+            markDirty(snap.getBotSubscription().getBot().getId());
+        }
+        subMetricsRepo.saveAll(toSave);
+    }
+
+    @Override
+    public void onFills(List<BotSubscription> subs, BigDecimal price) {
+        if (subs.isEmpty()) {
+            return;
+        }
+        Map<UUID, BotSubscription> byId = subs.stream()
+                .collect(Collectors.toMap(BotSubscription::getId, Function.identity(), (a, b) -> a));
+        // No row yet (no snapshot so far): the next snapshot batch creates it
+        List<SubscriptionMetrics> rows = subMetricsRepo.findAllBySubscriptionIdIn(byId.keySet());
+        for (SubscriptionMetrics metrics : rows) {
+            BotSubscription sub = byId.get(metrics.getSubscription().getId());
+            BigDecimal equity = sub.getBotWalletBalance().add(sub.getBotWalletCoin().multiply(price))
+                    .setScale(SCALE, RoundingMode.HALF_UP);
+            fold(metrics, equity, sub.getNetInvestment());
+        }
+        subMetricsRepo.saveAll(rows);
+        markDirty(subs.get(0).getBot().getId());
+    }
+
+    /**
+     * Marked after commit, so the next flush always reads the committed change.
+     */
+    @Override
+    public void markDirty(UUID botId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirtyBots.add(botId);
+                }
+            });
+        } else {
+            dirtyBots.add(botId);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${bot-metrics.flush-interval:5000}", initialDelayString = "${bot-metrics.flush-interval:5000}")
+    public void flushDirty() {
+        if (dirtyBots.isEmpty()) {
+            return;
+        }
+        // Bots marked again while we aggregate stay in the set for the next flush
+        List<UUID> botIds = new ArrayList<>(dirtyBots);
+        dirtyBots.removeAll(botIds);
+
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < botIds.size(); from += FLUSH_CHUNK) {
+            List<UUID> chunk = botIds.subList(from, Math.min(from + FLUSH_CHUNK, botIds.size()));
+            try {
+                txTemplate.executeWithoutResult(status -> refreshBots(chunk));
+            } catch (Exception e) {
+                // e.g. two instances inserting the same new row: the next flush updates it
+                dirtyBots.addAll(chunk);
+                log.warn("⚠️ Bot metrics refresh of {} bots failed, retrying next flush: {}", chunk.size(),
+                        e.getMessage());
+            }
+        }
+        log.debug("📊 Refreshed metrics of {} bots", botIds.size());
+    }
+
+    /**
+     * Builds rows for subscriptions that have snapshots but no metrics yet (first
+     * start with this table), then aggregates every bot once.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        try {
+            TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+            int backfilled = 0;
+            while (true) {
+                Integer count = txTemplate.execute(status -> {
+                    List<UUID> ids = subMetricsRepo.findIdsWithoutMetrics(PageRequest.of(0, backfillBatchSize));
+                    if (ids.isEmpty()) {
+                        return 0;
+                    }
+                    onSnapshotsSaved(latestPerSubscription(snapshotRepo.findLatest(ids)));
+                    return ids.size();
+                });
+                if (count == null || count == 0) {
+                    break;
+                }
+                backfilled += count;
+            }
+            if (backfilled > 0) {
+                log.info("📊 Backfilled metrics of {} subscriptions", backfilled);
+            }
+
+            dirtyBots.addAll(botRepo.findAllIds());
+            flushDirty();
+        } catch (Exception e) {
+            log.error("❌ Bot metrics bootstrap failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void refreshBots(Collection<UUID> botIds) {
+        Map<UUID, Object[]> aggregates = subMetricsRepo.aggregateByBot(botIds).stream()
+                .collect(Collectors.toMap(r -> (UUID) r[0], Function.identity()));
+        Map<UUID, BotMetrics> rows = botMetricsRepo.findAllByBotIdIn(botIds).stream()
+                .collect(Collectors.toMap(m -> m.getBot().getId(), Function.identity(), (a, b) -> a, HashMap::new));
+
+        List<UUID> missing = botIds.stream().filter(id -> !rows.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            // Deleted bots are simply not found
+            for (Bot bot : botRepo.findAllById(missing)) {
+                rows.put(bot.getId(), BotMetrics.builder().bot(bot).build());
+            }
+        }
+
+        Instant now = Instant.now();
+        for (Map.Entry<UUID, BotMetrics> entry : rows.entrySet()) {
+            apply(entry.getValue(), aggregates.get(entry.getKey()), now);
+        }
+        botMetricsRepo.saveAll(rows.values());
+    }
+
+    // row == null: the bot has no active subscription
+    private static void apply(BotMetrics metrics, Object[] row, Instant now) {
+        metrics.setActiveSubscribers(row != null ? ((Number) row[1]).intValue() : 0);
+        metrics.setTotalNetInvestment(row != null ? decimal(row[2]) : BigDecimal.ZERO);
+        metrics.setTotalEquity(row != null ? decimal(row[3]) : BigDecimal.ZERO);
+        metrics.setTotalPnl(row != null ? decimal(row[4]) : BigDecimal.ZERO);
+        metrics.setTotalPnl1d(row != null ? decimal(row[5]) : BigDecimal.ZERO);
+        metrics.setTotalPnl7d(row != null ? decimal(row[6]) : BigDecimal.ZERO);
+        metrics.setAverageRoi(row != null ? decimal(row[7]) : BigDecimal.ZERO);
+        metrics.setAverageRoi1d(row != null ? decimal(row[8]) : BigDecimal.ZERO);
+        metrics.setAverageRoi7d(row != null ? decimal(row[9]) : BigDecimal.ZERO);
+        metrics.setMaxDrawdown(row != null ? decimal(row[10]) : BigDecimal.ZERO);
+        metrics.setMaxDrawdownPct(row != null ? decimal(row[11]) : BigDecimal.ZERO);
+        metrics.setRefreshedAt(now);
+    }
+
+    // Marks the subscription at a new equity against its stored baselines
+    private static void fold(SubscriptionMetrics metrics, BigDecimal equity, BigDecimal netInvestment) {
+        BigDecimal pnl = equity.subtract(netInvestment);
+        metrics.setMaxDrawdown(metrics.getMaxDrawdown().min(pnl));
+        metrics.setMaxDrawdownPct(metrics.getMaxDrawdownPct().min(percent(pnl, netInvestment)));
+
+        metrics.setLatestEquity(equity);
+        metrics.setPnl(pnl.subtract(metrics.getBasePnl()));
+        metrics.setPnl1d(pnl.subtract(metrics.getBasePnl1d()));
+        metrics.setPnl7d(pnl.subtract(metrics.getBasePnl7d()));
+        metrics.setRoi(percent(metrics.getPnl(), metrics.getBaseNetInvestment()));
+        metrics.setRoi1d(percent(metrics.getPnl1d(), metrics.getBaseNetInvestment1d()));
+        metrics.setRoi7d(percent(metrics.getPnl7d(), metrics.getBaseNetInvestment7d()));
+    }
+
+    private Map<UUID, Baseline> baselines(Collection<UUID> subIds, Instant fromTime) {
+        Map<UUID, Baseline> result = new HashMap<>();
+        for (Object[] row : snapshotRepo.findBaselines(subIds, fromTime)) {
+            result.putIfAbsent((UUID) row[0], new Baseline(decimal(row[1]), decimal(row[2])));
+        }
+        return result;
+    }
+
+    // Two snapshots of a subscription can share the latest recordedAt
+    private static List<SubscriptionSnapshot> latestPerSubscription(List<SubscriptionSnapshot> snapshots) {
+        Map<UUID, SubscriptionSnapshot> bySub = new LinkedHashMap<>();
+        for (SubscriptionSnapshot snap : snapshots) {
+            bySub.putIfAbsent(snap.getBotSubscription().getId(), snap);
+        }
+        return List.copyOf(bySub.values());
+    }
+
+    // Same rule as the snapshot queries: 0 when there is no positive base
+    private static BigDecimal percent(BigDecimal value, BigDecimal base) {
+        if (base == null || base.compareTo(BigDecimal.ZERO) <= 0) {
+            return BigDecimal.ZERO;
+        }
+        return value.multiply(HUNDRED).divide(base, SCALE, RoundingMode.HALF_UP);
+    }
+
+    // SUM/MIN come back as BigDecimal, AVG as Double depending on the dialect
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal decimal = value instanceof BigDecimal bd ? bd : new BigDecimal(value.toString());
+        return decimal.setScale(SCALE, RoundingMode.HALF_UP);
+    }
+
+    private record Baseline(BigDecimal pnl, BigDecimal netInvestment) {
+        static Baseline of(SubscriptionSnapshot snap) {
+            return new Baseline(snap.getPnl(), snap.getNetInvestment());
+        }
+    }
+}
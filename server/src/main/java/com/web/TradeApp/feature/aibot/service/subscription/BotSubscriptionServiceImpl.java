@@ -2,11 +2,9 @@ package com.web.TradeApp.feature.aibot.service.subscription;
 
 import java.math.BigDecimal;
 import java.time.Instant;
-import java.util.List;
 import java.util.UUID;
 
 import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.web.TradeApp.exception.IdInvalidException;
@@ -14,7 +12,6 @@ import com.web.TradeApp.exception.InsufficientBalanceException;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotCopyRequest;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotSubscriptionResponse;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotUpdateRequest;
-import com.web.TradeApp.feature.aibot.enums.BotAction;
 import com.web.TradeApp.feature.aibot.mapper.BotSubMapper;
 import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.model.BotSignal;
@@ -28,7 +25,7 @@ import com.web.TradeApp.feature.coin.entity.Wallet;
 import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
 import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
-import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
+import com.web.TradeApp.feature.coin.service.MarketPriceCache;
 import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
 
 import jakarta.transaction.Transactional;
@@ -47,11 +44,16 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
     private final BotSubMapper botSubMapper;
     private final CoinRepository coinRepo;
     private final CoinHoldingRepository holdingRepo;
-    private final CoinGeckoClient coinGeckoClient;
+    private final MarketPriceCache marketPriceCache;
+    private final SignalFanOutExecutor fanOutExecutor;
+    private final BotMetricsService botMetricsService;
 
-    @Async
+    /**
+     * Runs on the ingestion thread that stored the signal; the fan-out itself
+     * is queued on the {@link SignalFanOutExecutor} so ingestion never waits
+     * for trades.
+     */
     @EventListener
-    @Transactional
     @Override
     public void onSignalReceived(SignalReceivedEvent event) {
         BotSignal signal = event.getSignal();
@@ -60,48 +62,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
 
     @Override
     public void processSubscriptions(BotSignal signal) {
-        Bot bot = signal.getBot();
-        // 1. Validate Price
-        // We use the price from the SIGNAL (Python Bot) for consistency.
-        if (signal.getPrice() == null || signal.getPrice() <= 0) {
-            log.error("🚫 Signal Ignored: Invalid Price for Bot {}", bot.getName());
-            return;
-        }
-        BigDecimal executionPrice = BigDecimal.valueOf(signal.getPrice());
-
-        log.info("📢 Starting Fan-Out for Bot: {} | Action: {} | Price: {}",
-                bot.getName(), signal.getAction(), executionPrice);
-
-        // 2. Fetch Active Subscriptions
-        List<BotSubscription> subscriptions = subRepo.findByBotIdAndActiveTrue(bot.getId());
-        if (subscriptions.isEmpty()) {
-            log.info("ℹ️ No active subscribers for bot {}", bot.getName());
-            return;
-        }
-        int successCount = 0;
-        int failCount = 0;
-
-        for (BotSubscription sub : subscriptions) {
-            try {
-                processSingleSubscription(sub, signal.getAction(), executionPrice);
-                successCount++;
-            } catch (Exception e) {
-                failCount++;
-                log.error("❌ Failed to copy trade for User ID: {} | Error: {}", sub.getUserId(), e.getMessage());
-                // We continue loop so other users are not affected
-            }
-        }
-
-        log.info("✅ Fan-Out Complete. Success: {} | Failed: {}", successCount, failCount);
-    }
-
-    private void processSingleSubscription(BotSubscription sub, BotAction action, BigDecimal price) {
-        // Delegate the transactional heavy lifting to SimulationTradeService
-        if (action == BotAction.BUY) {
-            botTradeService.executeBuy(sub, price);
-        } else if (action == BotAction.SELL) {
-            botTradeService.executeSell(sub, price);
-        }
+        fanOutExecutor.submit(signal);
     }
 
     @Override
@@ -131,6 +92,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         sub.setNetInvestment(netInvestment);
 
         BotSubscription savedSub = subRepo.save(sub);
+        botMetricsService.markDirty(bot.getId());
 
         log.info("✅ Bot copied successfully: User={}, Bot={}, Net Investment={}",
                 userId, bot.getId(), netInvestment);
@@ -169,6 +131,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         sub.setNetInvestment(newNetInvestment);
 
         BotSubscription updatedSub = subRepo.save(sub);
+        botMetricsService.markDirty(sub.getBot().getId());
 
         log.info("✅ Bot subscription updated: Sub={}, Net Investment: {} → {} (Change: {})",
                 botSubId, oldNetInvestment, newNetInvestment, netInvestmentChange);
@@ -239,7 +202,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         Coin coin = coinRepo.findBySymbol(coinSymbol)
                 .orElseThrow(() -> new IdInvalidException("Coin not found: " + coinSymbol));
 
-        BigDecimal currentPrice = coinGeckoClient.getCurrentPrice(coin.getCoinGeckoId());
+        BigDecimal currentPrice = marketPriceCache.getPrice(coin.getCoinGeckoId());
 
         // Tính giá trị coin quy đổi ra USDT
         BigDecimal coinValueInUsdt = botWalletCoin.multiply(currentPrice);
@@ -270,6 +233,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
             sub.setStoppedAt(null); // Clear stop time if resuming
         }
         BotSubscription savedSub = subRepo.save(sub);
+        botMetricsService.markDirty(sub.getBot().getId());
         return botSubMapper.toResponse(savedSub);
     }
 
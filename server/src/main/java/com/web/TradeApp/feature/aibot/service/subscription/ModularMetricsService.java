@@ -10,6 +10,7 @@ import com.web.TradeApp.feature.aibot.dto.Bot.BotGridItemDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotSubOverviewDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.SubDetailsMetricsDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.SubItemDTO;
+import com.web.TradeApp.feature.common.response.CursorPage;
 
 public interface ModularMetricsService {
         Page<BotGridItemDTO> getAllBotsWithPagination(
@@ -18,6 +19,18 @@ public interface ModularMetricsService {
                         String searchName,
                         Pageable pageable);
 
+        /**
+         * Keyset (cursor) variant of getAllBotsWithPagination for infinite
+         * scroll. cursor is the nextCursor of the previous page, null for the
+         * first one.
+         */
+        CursorPage<BotGridItemDTO> scrollBots(
+                        String timeframe,
+                        String sortBy,
+                        String searchName,
+                        String cursor,
+                        int size);
+
         BotGridItemDTO getSingleBotMetrics(UUID botId, String timeframe);
 
         Page<SubItemDTO> getAllUserSubscriptions(
@@ -25,6 +38,12 @@ public interface ModularMetricsService {
                         String sortBy,
                         Pageable pageable);
 
+        CursorPage<SubItemDTO> scrollUserSubscriptions(
+                        UUID userId,
+                        String sortBy,
+                        String cursor,
+                        int size);
+
         SubDetailsMetricsDTO getSubscriptionMetrics(UUID subscriptionId, String timeframe);
 
         BotDetailDTO getBotDetailWithChart(UUID botId, String timeframe);
@@ -1,48 +1,89 @@
 package com.web.TradeApp.feature.aibot.service.subscription;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.web.TradeApp.exception.IdInvalidException;
+import com.web.TradeApp.exception.PriceUnavailableException;
 import com.web.TradeApp.feature.aibot.dto.Bot.BotDetailDTO;
 import com.web.TradeApp.feature.aibot.dto.Bot.BotGridItemDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotSubOverviewDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.SubDetailsMetricsDTO;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.SubItemDTO;
 import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotMetrics;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.model.SubscriptionMetrics;
+import com.web.TradeApp.feature.aibot.repository.BotMetricsRepository;
 import com.web.TradeApp.feature.aibot.repository.BotRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
 import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
+import com.web.TradeApp.feature.aibot.repository.SubscriptionMetricsRepository;
+import com.web.TradeApp.feature.aibot.repository.SubscriptionSnapshotRollupRepository;
+import com.web.TradeApp.feature.common.chart.ChartSeries;
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup.Resolution;
+import com.web.TradeApp.feature.common.response.CursorPage;
+import com.web.TradeApp.feature.common.response.KeysetCursor;
+import com.web.TradeApp.feature.position.PositionBook;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service tính toán metrics theo kiến trúc modular
- * Mỗi metric được tính bằng một query riêng biệt
- * Service layer tổng hợp kết quả lại thành DTO
+ * Bot metrics (grid, detail) được đọc từ bảng bot_metrics đã tổng hợp sẵn
+ * (xem BotMetricsServiceImpl), hoặc với bot-metrics.source=live từ một query
+ * set-based duy nhất cho mọi bot; metrics của subscription và chart data vẫn
+ * được tính bằng các query riêng biệt trên subscription_snapshot
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class ModularMetricsServiceImpl implements ModularMetricsService {
 
+    // Placeholder of the unused id parameters of the live query
+    private static final UUID NIL_ID = new UUID(0, 0);
+
     private final SnapshotMetricsRepository metricsRepo;
     private final BotSubscriptionRepository subscriptionRepo;
     private final BotRepository botRepo;
+    private final BotMetricsRepository botMetricsRepo;
+    private final SubscriptionMetricsRepository subMetricsRepo;
+    private final SubscriptionSnapshotRollupRepository rollupRepo;
+    private final PositionBook positionBook;
+
+    // Upper bound of points per chart series (LTTB beyond)
+    @Value("${chart.max-points:300}")
+    private int chartMaxPoints;
+
+    // "materialized": bot_metrics table | "live": one set-based query over the snapshots per request
+    @Value("${bot-metrics.source:materialized}")
+    private String metricsSource;
 
     /**
      * Get bots list with pagination, search and sorting
@@ -60,70 +101,48 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
             String searchName,
             Pageable pageable) {
 
-        Instant compareTime = getCompareTime(timeframe);
+        // 1. Filter by name (optional)
+        String namePattern = searchName != null && !searchName.trim().isEmpty()
+                ? "%" + searchName.trim().toLowerCase() + "%"
+                : null;
 
-        // 1. Get all bots (can filter by name)
-        List<Bot> allBots;
-        if (searchName != null && !searchName.trim().isEmpty()) {
-            Specification<Bot> spec = (root, query, cb) -> cb.like(cb.lower(root.get("name")),
-                    "%" + searchName.toLowerCase() + "%");
-            allBots = botRepo.findAll(spec);
-        } else {
-            allBots = botRepo.findAll();
+        if (isLive()) {
+            return liveBotGrid(timeframe, sortBy, namePattern, pageable);
         }
 
-        // 2. Tính metrics cho từng bot (gọi nhiều queries riêng biệt)
-        List<BotGridItemDTO> botGridItems = new ArrayList<>();
-        for (Bot bot : allBots) {
-            UUID botId = bot.getId();
-
-            try {
-                // Gọi từng query riêng để tính từng metric
-                Long activeSubscribers = subscriptionRepo.countByBotIdAndActiveTrue(botId);
-                BigDecimal totalPnl = metricsRepo.calcBotPnl(botId, compareTime);
-                BigDecimal averageRoi = metricsRepo.calcBotRoi(botId, compareTime);
-                BigDecimal maxDrawdown = metricsRepo.calcBotMaxDrawdown(botId);
-                BigDecimal maxDrawdownPct = metricsRepo.calcBotMaxDrawdownPct(botId);
-                BigDecimal totalInvestment = subscriptionRepo.calcBotTotalInvestment(botId);
-                BigDecimal totalEquity = metricsRepo.calcBotTotalEquity(botId);
-
-                // Tạo DTO
-                BotGridItemDTO dto = BotGridItemDTO.builder()
-                        .botId(botId.toString())
-                        .name(bot.getName())
-                        .coinSymbol(bot.getCoinSymbol())
-                        .tradingPair(bot.getTradingPair())
-                        .activeSubscribers(activeSubscribers != null ? activeSubscribers.intValue() : 0)
-                        .totalPnl(totalPnl != null ? totalPnl : BigDecimal.ZERO)
-                        .averageRoi(averageRoi != null ? averageRoi : BigDecimal.ZERO)
-                        .maxDrawdown(maxDrawdown != null ? maxDrawdown : BigDecimal.ZERO)
-                        .maxDrawdownPercent(maxDrawdownPct != null ? maxDrawdownPct : BigDecimal.ZERO)
-                        .totalNetInvestment(totalInvestment != null ? totalInvestment : BigDecimal.ZERO)
-                        .totalEquity(totalEquity != null ? totalEquity : BigDecimal.ZERO)
-                        .build();
-
-                botGridItems.add(dto);
-
-            } catch (Exception e) {
-                log.error("Error calculating metrics for bot {}: {}", botId, e.getMessage());
-                // Skip bot nếu có lỗi
-            }
-        }
+        // 2. Sorting + pagination in the DB over the materialized bot_metrics
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(),
+                gridSort(sortBy, timeframe));
 
-        // 3. Sorting
-        List<BotGridItemDTO> sortedBots = sortBots(botGridItems, sortBy);
+        return botMetricsRepo.findGrid(namePattern, page)
+                .map(metrics -> toGridItem(metrics.getBot(), metrics, timeframe));
+    }
 
-        // 4. Pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), sortedBots.size());
+    /**
+     * Same grid computed from the snapshots by one set-based query, ranked and
+     * paged in the DB (see SnapshotMetricsRepository.findLiveBotMetrics).
+     */
+    private Page<BotGridItemDTO> liveBotGrid(String timeframe, String sortBy, String namePattern,
+            Pageable pageable) {
+        List<Object[]> rows = liveRows(timeframe, sortBy, namePattern, null, null,
+                PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()));
+        long total = namePattern != null ? botRepo.count(nameLike(namePattern)) : botRepo.count();
+        return new PageImpl<>(toLiveItems(rows, timeframe), pageable, total);
+    }
 
-        if (start > sortedBots.size()) {
-            return new PageImpl<>(new ArrayList<>(), pageable, sortedBots.size());
+    // Live source: keyset over (sort value DESC, bot id ASC), like the materialized grid
+    private CursorPage<BotGridItemDTO> liveBotScroll(String timeframe, String sortBy, String namePattern,
+            KeysetCursor after, int size) {
+        // One extra row tells whether there is a next page
+        List<Object[]> rows = liveRows(timeframe, sortBy, namePattern, null, after, PageRequest.of(0, size + 1));
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Object[] last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(decimal(last[8]).toPlainString(), toUuid(last[0])).encode();
         }
-
-        List<BotGridItemDTO> pageContent = sortedBots.subList(start, end);
-
-        return new PageImpl<>(pageContent, pageable, sortedBots.size());
+        return new CursorPage<>(toLiveItems(rows, timeframe), nextCursor);
     }
 
     /**
@@ -134,29 +153,50 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
         Bot bot = botRepo.findById(botId)
                 .orElseThrow(() -> new IdInvalidException("Bot not found: " + botId));
 
-        Instant compareTime = getCompareTime(timeframe);
+        return toGridItem(bot, botMetrics(bot, timeframe), timeframe);
+    }
 
-        Long activeSubscribers = subscriptionRepo.countByBotIdAndActiveTrue(botId);
-        BigDecimal totalPnl = metricsRepo.calcBotPnl(botId, compareTime);
-        BigDecimal averageRoi = metricsRepo.calcBotRoi(botId, compareTime);
-        BigDecimal maxDrawdown = metricsRepo.calcBotMaxDrawdown(botId);
-        BigDecimal maxDrawdownPct = metricsRepo.calcBotMaxDrawdownPct(botId);
-        BigDecimal totalInvestment = subscriptionRepo.calcBotTotalInvestment(botId);
-        BigDecimal totalEquity = metricsRepo.calcBotTotalEquity(botId);
+    /**
+     * Keyset page of the bot grid (infinite scroll): rows strictly after the
+     * cursor in (sort column DESC, id ASC) order, so deep pages cost the same
+     * as the first one and the ranking stays stable between requests.
+     */
+    @Override
+    public CursorPage<BotGridItemDTO> scrollBots(String timeframe, String sortBy, String searchName, String cursor,
+            int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        String namePattern = searchName != null && !searchName.trim().isEmpty()
+                ? "%" + searchName.trim().toLowerCase() + "%"
+                : null;
+        if (isLive()) {
+            return liveBotScroll(timeframe, sortBy, namePattern, after, size);
+        }
 
-        return BotGridItemDTO.builder()
-                .botId(botId.toString())
-                .name(bot.getName())
-                .coinSymbol(bot.getCoinSymbol())
-                .tradingPair(bot.getTradingPair())
-                .activeSubscribers(activeSubscribers != null ? activeSubscribers.intValue() : 0)
-                .totalPnl(totalPnl != null ? totalPnl : BigDecimal.ZERO)
-                .averageRoi(averageRoi != null ? averageRoi : BigDecimal.ZERO)
-                .maxDrawdown(maxDrawdown != null ? maxDrawdown : BigDecimal.ZERO)
-                .maxDrawdownPercent(maxDrawdownPct != null ? maxDrawdownPct : BigDecimal.ZERO)
-                .totalNetInvestment(totalInvestment != null ? totalInvestment : BigDecimal.ZERO)
-                .totalEquity(totalEquity != null ? totalEquity : BigDecimal.ZERO)
-                .build();
+        String column = gridColumn(sortBy, timeframe);
+        Specification<BotMetrics> spec = (root, query, cb) -> {
+            Join<BotMetrics, Bot> bot = fetchBot(root, query);
+            List<Predicate> predicates = new ArrayList<>();
+            if (namePattern != null) {
+                predicates.add(cb.like(cb.lower(bot.get("name")), namePattern));
+            }
+            if (after != null) {
+                predicates.add(afterCursor(cb, root, column, after));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        // One extra row tells whether there is a next page
+        List<BotMetrics> rows = botMetricsRepo.findBy(spec,
+                q -> q.sortBy(gridSort(sortBy, timeframe)).limit(size + 1).all());
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            BotMetrics last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(column != null ? sortValue(last, column) : "", last.getId()).encode();
+        }
+        return new CursorPage<>(rows.stream()
+                .map(metrics -> toGridItem(metrics.getBot(), metrics, timeframe))
+                .toList(), nextCursor);
     }
 
     /**
@@ -168,47 +208,80 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
             String sortBy,
             Pageable pageable) {
 
-        List<BotSubscription> subscriptions = subscriptionRepo.findAllByUserId(userId);
+        // Sorted and paginated in the DB; only this page of DTOs is built
+        Pageable page = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return findUserSubscriptions(userId, sortBy, page).map(ModularMetricsServiceImpl::toSubItem);
+    }
 
-        List<SubItemDTO> subItems = new ArrayList<>();
-        for (BotSubscription sub : subscriptions) {
-            try {
-                Bot bot = sub.getBot();
-
-                // Get latest metrics from snapshot
-                BigDecimal totalEquity = metricsRepo.getLatestTotalEquity(sub.getId());
-                BigDecimal pnl = metricsRepo.calcSubPnl(sub.getId(), Instant.EPOCH); // All-time PnL
-
-                SubItemDTO dto = SubItemDTO.builder()
-                        .subscriptionId(sub.getId().toString())
-                        .botName(bot.getName())
-                        .tradingPair(
-                                bot.getTradingPair() != null ? bot.getTradingPair() : bot.getCoinSymbol() + "/USDT")
-                        .coin(bot.getCoinSymbol())
-                        .isActive(sub.isActive())
-                        .totalEquity(totalEquity != null ? totalEquity : BigDecimal.ZERO)
-                        .pnl(pnl != null ? pnl : BigDecimal.ZERO)
-                        .build();
-
-                subItems.add(dto);
-            } catch (Exception e) {
-                log.error("Error building SubItemDTO for subscription {}: {}", sub.getId(), e.getMessage());
-            }
-        }
+    /**
+     * Keyset page of a user's subscriptions (infinite scroll), same ordering as
+     * getAllUserSubscriptions with the subscription id as tie-breaker.
+     */
+    @Override
+    public CursorPage<SubItemDTO> scrollUserSubscriptions(UUID userId, String sortBy, String cursor, int size) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        UUID afterId = after != null ? after.id() : null;
+        // One extra row tells whether there is a next page (no COUNT: the client only scrolls)
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<Object[]> rows = switch (sortBy.toLowerCase()) {
+            case "equity" -> subscriptionRepo.findUserScrollByEquity(userId, cursorDecimal(after), afterId, limit);
+            case "bot" -> subscriptionRepo.findUserScrollByBotName(userId,
+                    after != null ? after.value() : null, afterId, limit);
+            default -> subscriptionRepo.findUserScrollByPnl(userId, cursorDecimal(after), afterId, limit);
+        };
 
-        // 3. Sort
-        List<SubItemDTO> sortedSubs = sortSubscriptions(subItems, sortBy);
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            Object[] last = rows.get(size - 1);
+            BotSubscription sub = (BotSubscription) last[0];
+            SubscriptionMetrics metrics = (SubscriptionMetrics) last[1];
+            String value = switch (sortBy.toLowerCase()) {
+                case "equity" -> (metrics != null ? metrics.getLatestEquity() : BigDecimal.ZERO).toPlainString();
+                case "bot" -> sub.getBot().getName();
+                default -> (metrics != null ? metrics.getPnl() : BigDecimal.ZERO).toPlainString();
+            };
+            nextCursor = new KeysetCursor(value, sub.getId()).encode();
+        }
+        return new CursorPage<>(rows.stream().map(ModularMetricsServiceImpl::toSubItem).toList(), nextCursor);
+    }
 
-        // 4. Pagination
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), sortedSubs.size());
+    // "pnl" (default) | "equity" | "bot", offset paging
+    private Page<Object[]> findUserSubscriptions(UUID userId, String sortBy, Pageable page) {
+        return switch (sortBy.toLowerCase()) {
+            case "equity" -> subscriptionRepo.findUserPageByEquity(userId, null, null, page);
+            case "bot" -> subscriptionRepo.findUserPageByBotName(userId, null, null, page);
+            default -> subscriptionRepo.findUserPageByPnl(userId, null, null, page);
+        };
+    }
 
-        if (start > sortedSubs.size()) {
-            return new PageImpl<>(new ArrayList<>(), pageable, sortedSubs.size());
+    // Numeric sort value of a cursor, null for the first page
+    private static BigDecimal cursorDecimal(KeysetCursor after) {
+        if (after == null) {
+            return null;
         }
+        try {
+            return new BigDecimal(after.value());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + after.value());
+        }
+    }
 
-        List<SubItemDTO> pageContent = sortedSubs.subList(start, end);
-        return new PageImpl<>(pageContent, pageable, sortedSubs.size());
+    // row = [BotSubscription, SubscriptionMetrics or null]
+    private static SubItemDTO toSubItem(Object[] row) {
+        BotSubscription sub = (BotSubscription) row[0];
+        SubscriptionMetrics metrics = (SubscriptionMetrics) row[1];
+        Bot bot = sub.getBot();
+
+        return SubItemDTO.builder()
+                .subscriptionId(sub.getId().toString())
+                .botName(bot.getName())
+                .tradingPair(bot.getTradingPair() != null ? bot.getTradingPair() : bot.getCoinSymbol() + "/USDT")
+                .coin(bot.getCoinSymbol())
+                .isActive(sub.isActive())
+                .totalEquity(metrics != null ? metrics.getLatestEquity() : BigDecimal.ZERO)
+                .pnl(metrics != null ? metrics.getPnl() : BigDecimal.ZERO) // All-time PnL
+                .build();
     }
 
     /**
@@ -224,26 +297,41 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
         Instant compareTime = getCompareTime(timeframe);
 
         // 2. Calculate metrics
-        BigDecimal pnl = metricsRepo.calcSubPnl(subscriptionId, compareTime);
-        BigDecimal roi = metricsRepo.calcSubRoi(subscriptionId, compareTime);
-        BigDecimal maxDrawdown = metricsRepo.calcSubMaxDrawdown(subscriptionId);
-        BigDecimal maxDrawdownPct = metricsRepo.calcSubMaxDrawdownPct(subscriptionId);
-        BigDecimal netInvestment = metricsRepo.getLatestNetInvestment(subscriptionId);
-        BigDecimal totalEquity = metricsRepo.getLatestTotalEquity(subscriptionId);
+        // All-time drawdown: running minimum of subscription_metrics, history scan only without a row
+        SubscriptionMetrics running = subMetricsRepo.findBySubscriptionId(subscriptionId).orElse(null);
+        BigDecimal maxDrawdown = running != null ? running.getMaxDrawdown()
+                : metricsRepo.calcSubMaxDrawdown(subscriptionId);
+        BigDecimal maxDrawdownPct = running != null ? running.getMaxDrawdownPct()
+                : metricsRepo.calcSubMaxDrawdownPct(subscriptionId);
+        // Live equity / PnL / ROI from the position book, latest snapshot without a price
+        BigDecimal pnl;
+        BigDecimal roi;
+        BigDecimal netInvestment;
+        BigDecimal totalEquity;
+        LiveMetrics live = liveMetrics(subscriptionId, timeframe, running);
+        if (live != null) {
+            pnl = live.pnl();
+            roi = live.roi();
+            netInvestment = live.netInvestment();
+            totalEquity = live.equity();
+        } else {
+            pnl = metricsRepo.calcSubPnl(subscriptionId, compareTime);
+            roi = metricsRepo.calcSubRoi(subscriptionId, compareTime);
+            netInvestment = metricsRepo.getLatestNetInvestment(subscriptionId);
+            totalEquity = metricsRepo.getLatestTotalEquity(subscriptionId);
+        }
 
         // 3. Get chart data
-        List<Object[]> rawChartData = metricsRepo.getSubscriptionChartData(subscriptionId, compareTime);
-        List<SubDetailsMetricsDTO.SubChartDataPoint> chartData = rawChartData.stream()
-                .map(row -> {
-                    Instant timestamp = row[0] instanceof java.sql.Timestamp
-                            ? ((java.sql.Timestamp) row[0]).toInstant()
-                            : (Instant) row[0];
-
-                    return SubDetailsMetricsDTO.SubChartDataPoint.builder()
-                            .timestamp(timestamp)
-                            .pnl((BigDecimal) row[1])
-                            .build();
-                })
+        long bucketSeconds = ChartSeries.bucketSeconds(compareTime);
+        List<Object[]> rawChartData = ChartSeries.isDaily(bucketSeconds)
+                ? rollupRepo.getSubscriptionChartData(subscriptionId, Resolution.DAY, compareTime)
+                : metricsRepo.getSubscriptionChartData(subscriptionId, compareTime, bucketSeconds);
+        List<SubDetailsMetricsDTO.SubChartDataPoint> chartData = ChartSeries
+                .fromBuckets(rawChartData, bucketSeconds, chartMaxPoints).stream()
+                .map(point -> SubDetailsMetricsDTO.SubChartDataPoint.builder()
+                        .timestamp(point.timestamp())
+                        .pnl(point.value())
+                        .build())
                 .collect(Collectors.toList());
 
         // 4. Build detailed DTO
@@ -286,38 +374,20 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
 
         Instant compareTime = getCompareTime(timeframe);
 
-        // 1. Tính các metrics (reuse existing queries)
-        Long activeSubscribers = subscriptionRepo.countByBotIdAndActiveTrue(botId);
-        BigDecimal totalPnl = metricsRepo.calcBotPnl(botId, compareTime);
-        BigDecimal averageRoi = metricsRepo.calcBotRoi(botId, compareTime);
-        BigDecimal maxDrawdown = metricsRepo.calcBotMaxDrawdown(botId);
-        BigDecimal maxDrawdownPct = metricsRepo.calcBotMaxDrawdownPct(botId);
-        BigDecimal totalNetInvestment = subscriptionRepo.calcBotTotalInvestment(botId);
-        BigDecimal totalEquity = metricsRepo.calcBotTotalEquity(botId);
-
-        // 2. Get chart data and aggregate by second to eliminate flickering
-        List<Object[]> rawChartData = metricsRepo.getBotChartData(botId, compareTime);
-
-        // Group by timestamp truncated to seconds (eliminate microsecond differences)
-        java.util.Map<Long, BigDecimal> aggregatedData = new java.util.LinkedHashMap<>();
-        for (Object[] row : rawChartData) {
-            Instant timestamp = row[0] instanceof java.sql.Timestamp
-                    ? ((java.sql.Timestamp) row[0]).toInstant()
-                    : (Instant) row[0];
-            BigDecimal pnl = (BigDecimal) row[1];
-
-            // Truncate to seconds (remove milliseconds/microseconds)
-            long secondsEpoch = timestamp.getEpochSecond();
-
-            // Aggregate PnL for same second
-            aggregatedData.merge(secondsEpoch, pnl, BigDecimal::add);
-        }
+        // 1. Metrics of the bot (materialized row or live query)
+        BotGridItemDTO metrics = toGridItem(bot, botMetrics(bot, timeframe), timeframe);
+
+        // 2. Get chart data, bucketed in the DB (one point per bucket, at most chartMaxPoints)
+        long bucketSeconds = ChartSeries.bucketSeconds(compareTime);
+        List<Object[]> rawChartData = ChartSeries.isDaily(bucketSeconds)
+                ? rollupRepo.getBotChartData(botId, Resolution.DAY, compareTime)
+                : metricsRepo.getBotChartData(botId, compareTime, bucketSeconds);
 
-        // Convert back to ChartDataPoint list
-        List<com.web.TradeApp.feature.aibot.dto.Bot.ChartDataPoint> chartData = aggregatedData.entrySet().stream()
-                .map(entry -> com.web.TradeApp.feature.aibot.dto.Bot.ChartDataPoint.builder()
-                        .timestamp(Instant.ofEpochSecond(entry.getKey()))
-                        .totalPnl(entry.getValue())
+        List<com.web.TradeApp.feature.aibot.dto.Bot.ChartDataPoint> chartData = ChartSeries
+                .fromBuckets(rawChartData, bucketSeconds, chartMaxPoints).stream()
+                .map(point -> com.web.TradeApp.feature.aibot.dto.Bot.ChartDataPoint.builder()
+                        .timestamp(point.timestamp())
+                        .totalPnl(point.value())
                         .build())
                 .collect(Collectors.toList());
 
@@ -331,47 +401,270 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
                 .category(bot.getCategory() != null ? bot.getCategory().name() : null)
                 .status(bot.getStatus() != null ? bot.getStatus().name() : null)
                 .fee(bot.getFee() != null ? bot.getFee() : BigDecimal.ZERO)
-                .activeSubscribers(activeSubscribers != null ? activeSubscribers.intValue() : 0)
-                .totalPnl(totalPnl != null ? totalPnl : BigDecimal.ZERO)
-                .averageRoi(averageRoi != null ? averageRoi : BigDecimal.ZERO)
-                .maxDrawdown(maxDrawdown != null ? maxDrawdown : BigDecimal.ZERO)
-                .maxDrawdownPercent(maxDrawdownPct != null ? maxDrawdownPct : BigDecimal.ZERO)
-                .totalNetInvestment(totalNetInvestment != null ? totalNetInvestment : BigDecimal.ZERO)
-                .totalEquity(totalEquity != null ? totalEquity : BigDecimal.ZERO)
+                .activeSubscribers(metrics.getActiveSubscribers())
+                .totalPnl(metrics.getTotalPnl())
+                .averageRoi(metrics.getAverageRoi())
+                .maxDrawdown(metrics.getMaxDrawdown())
+                .maxDrawdownPercent(metrics.getMaxDrawdownPercent())
+                .totalNetInvestment(metrics.getTotalNetInvestment())
+                .totalEquity(metrics.getTotalEquity())
                 .chartData(chartData)
                 .build();
     }
 
-    private List<BotGridItemDTO> sortBots(List<BotGridItemDTO> bots, String sortBy) {
-        return switch (sortBy.toLowerCase()) {
-            case "pnl" -> bots.stream()
-                    .sorted(Comparator.comparing(BotGridItemDTO::getTotalPnl).reversed())
-                    .collect(Collectors.toList());
-            case "roi" -> bots.stream()
-                    .sorted(Comparator.comparing(BotGridItemDTO::getAverageRoi).reversed())
-                    .collect(Collectors.toList());
-            case "copied" -> bots.stream()
-                    .sorted(Comparator.comparing(BotGridItemDTO::getActiveSubscribers).reversed())
-                    .collect(Collectors.toList());
-            default -> bots; // No sorting
+    /**
+     * Maps a bot and its bot_metrics row (null if not aggregated yet) to the
+     * grid DTO, picking the PnL/ROI columns of the timeframe.
+     */
+    private BotGridItemDTO toGridItem(Bot bot, BotMetrics metrics, String timeframe) {
+        if (metrics == null) {
+            metrics = BotMetrics.builder().bot(bot).build();
+        }
+        BigDecimal totalPnl = switch (timeframe.toLowerCase()) {
+            case "1d" -> metrics.getTotalPnl1d();
+            case "7d" -> metrics.getTotalPnl7d();
+            case "current" -> metrics.getTotalPnl();
+            default -> throw new IllegalArgumentException("Invalid timeframe: " + timeframe);
+        };
+        BigDecimal averageRoi = switch (timeframe.toLowerCase()) {
+            case "1d" -> metrics.getAverageRoi1d();
+            case "7d" -> metrics.getAverageRoi7d();
+            default -> metrics.getAverageRoi();
         };
+
+        return BotGridItemDTO.builder()
+                .botId(bot.getId().toString())
+                .name(bot.getName())
+                .coinSymbol(bot.getCoinSymbol())
+                .tradingPair(bot.getTradingPair())
+                .activeSubscribers(metrics.getActiveSubscribers())
+                .totalPnl(totalPnl)
+                .averageRoi(averageRoi)
+                .maxDrawdown(metrics.getMaxDrawdown())
+                .maxDrawdownPercent(metrics.getMaxDrawdownPct())
+                .totalNetInvestment(metrics.getTotalNetInvestment())
+                .totalEquity(metrics.getTotalEquity())
+                .build();
+    }
+
+    private boolean isLive() {
+        return "live".equalsIgnoreCase(metricsSource);
+    }
+
+    // Metrics row of one bot, null if not aggregated yet
+    private BotMetrics botMetrics(Bot bot, String timeframe) {
+        if (isLive()) {
+            List<Object[]> rows = liveRows(timeframe, "", null, bot.getId(), null, PageRequest.of(0, 1));
+            return rows.isEmpty() ? null : toLiveMetrics(bot, rows.get(0));
+        }
+        return botMetricsRepo.findByBotId(bot.getId()).orElse(null);
+    }
+
+    /**
+     * Rows of findLiveBotMetrics in grid order.
+     *
+     * @param botId null for every bot matching namePattern
+     * @param after null for the first page
+     */
+    private List<Object[]> liveRows(String timeframe, String sortBy, String namePattern, UUID botId,
+            KeysetCursor after, Pageable page) {
+        BigDecimal afterValue = BigDecimal.ZERO;
+        if (after != null) {
+            try {
+                afterValue = new BigDecimal(after.value());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor for sort " + sortBy);
+            }
+        }
+        return metricsRepo.findLiveBotMetrics(getCompareTime(timeframe),
+                "current".equalsIgnoreCase(timeframe) ? 1 : 0,
+                namePattern != null ? namePattern : "%",
+                botId == null ? 1 : 0, botId != null ? botId : NIL_ID,
+                sortBy.toLowerCase(),
+                after == null ? 1 : 0, afterValue, after != null ? after.id() : NIL_ID,
+                page);
+    }
+
+    // Page of live rows as grid items, in the rows' order (bots deleted meanwhile are dropped)
+    private List<BotGridItemDTO> toLiveItems(List<Object[]> rows, String timeframe) {
+        Map<UUID, Bot> bots = botRepo.findAllById(rows.stream().map(row -> toUuid(row[0])).toList()).stream()
+                .collect(Collectors.toMap(Bot::getId, Function.identity()));
+        List<BotGridItemDTO> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Bot bot = bots.get(toUuid(row[0]));
+            if (bot != null) {
+                items.add(toGridItem(bot, toLiveMetrics(bot, row), timeframe));
+            }
+        }
+        return items;
+    }
+
+    private static Specification<Bot> nameLike(String namePattern) {
+        return (root, query, cb) -> cb.like(cb.lower(root.get("name")), namePattern);
+    }
+
+    /**
+     * Wraps a row of findLiveBotMetrics (already for the requested timeframe)
+     * as an unsaved BotMetrics, so both sources share toGridItem.
+     */
+    private static BotMetrics toLiveMetrics(Bot bot, Object[] row) {
+        if (row == null) {
+            return null;
+        }
+        BigDecimal pnl = decimal(row[4]);
+        BigDecimal roi = decimal(row[5]);
+        return BotMetrics.builder()
+                .bot(bot)
+                .activeSubscribers(((Number) row[1]).intValue())
+                .totalNetInvestment(decimal(row[2]))
+                .totalEquity(decimal(row[3]))
+                .totalPnl(pnl).totalPnl1d(pnl).totalPnl7d(pnl)
+                .averageRoi(roi).averageRoi1d(roi).averageRoi7d(roi)
+                .maxDrawdown(decimal(row[6]))
+                .maxDrawdownPct(decimal(row[7]))
+                .build();
     }
 
-    private List<SubItemDTO> sortSubscriptions(List<SubItemDTO> subs, String sortBy) {
+    private static BigDecimal decimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal bd ? bd : new BigDecimal(value.toString());
+    }
+
+    // Native results carry the id as the driver returns it (BINARY(16) on MySQL, string on MSSQL)
+    private static UUID toUuid(Object value) {
+        if (value instanceof UUID uuid) {
+            return uuid;
+        }
+        if (value instanceof byte[] bytes) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            return new UUID(buffer.getLong(), buffer.getLong());
+        }
+        return UUID.fromString(value.toString());
+    }
+
+    // Sort on the indexed bot_metrics column of the timeframe, id as tie-breaker for stable pages
+    private Sort gridSort(String sortBy, String timeframe) {
+        String column = gridColumn(sortBy, timeframe);
+        Sort tieBreaker = Sort.by("id");
+        return column == null ? tieBreaker : Sort.by(Sort.Direction.DESC, column).and(tieBreaker);
+    }
+
+    private String gridColumn(String sortBy, String timeframe) {
+        String suffix = switch (timeframe.toLowerCase()) {
+            case "1d" -> "1d";
+            case "7d" -> "7d";
+            case "current" -> "";
+            default -> throw new IllegalArgumentException("Invalid timeframe: " + timeframe);
+        };
         return switch (sortBy.toLowerCase()) {
-            case "pnl" -> subs.stream()
-                    .sorted(Comparator.comparing(SubItemDTO::getPnl).reversed())
-                    .collect(Collectors.toList());
-            case "equity" -> subs.stream()
-                    .sorted(Comparator.comparing(SubItemDTO::getTotalEquity).reversed())
-                    .collect(Collectors.toList());
-            case "bot" -> subs.stream()
-                    .sorted(Comparator.comparing(SubItemDTO::getBotName))
-                    .collect(Collectors.toList());
-            default -> subs; // No sorting
+            case "pnl" -> "totalPnl" + suffix;
+            case "roi" -> "averageRoi" + suffix;
+            case "copied" -> "activeSubscribers";
+            default -> null; // No sorting
+        };
+    }
+
+    // Value of the gridColumn for the cursor
+    private static String sortValue(BotMetrics metrics, String column) {
+        return switch (column) {
+            case "totalPnl" -> metrics.getTotalPnl().toPlainString();
+            case "totalPnl1d" -> metrics.getTotalPnl1d().toPlainString();
+            case "totalPnl7d" -> metrics.getTotalPnl7d().toPlainString();
+            case "averageRoi" -> metrics.getAverageRoi().toPlainString();
+            case "averageRoi1d" -> metrics.getAverageRoi1d().toPlainString();
+            case "averageRoi7d" -> metrics.getAverageRoi7d().toPlainString();
+            case "activeSubscribers" -> String.valueOf(metrics.getActiveSubscribers());
+            default -> throw new IllegalArgumentException("Unknown sort column: " + column);
         };
     }
 
+    // (column < value) OR (column = value AND id > cursor id), matching gridSort
+    private static Predicate afterCursor(CriteriaBuilder cb, Root<BotMetrics> root, String column,
+            KeysetCursor after) {
+        Predicate afterId = cb.greaterThan(root.get("id"), after.id());
+        if (column == null) {
+            return afterId;
+        }
+        try {
+            if ("activeSubscribers".equals(column)) {
+                Path<Integer> path = root.get(column);
+                Integer value = Integer.valueOf(after.value());
+                return cb.or(cb.lessThan(path, value), cb.and(cb.equal(path, value), afterId));
+            }
+            Path<BigDecimal> path = root.get(column);
+            BigDecimal value = new BigDecimal(after.value());
+            return cb.or(cb.lessThan(path, value), cb.and(cb.equal(path, value), afterId));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor for sort " + column);
+        }
+    }
+
+    // Fetch join for the page query, plain join for the count query
+    @SuppressWarnings("unchecked")
+    private static Join<BotMetrics, Bot> fetchBot(Root<BotMetrics> root, CriteriaQuery<?> query) {
+        if (Long.class != query.getResultType() && long.class != query.getResultType()) {
+            return (Join<BotMetrics, Bot>) root.<BotMetrics, Bot>fetch("bot");
+        }
+        return root.join("bot");
+    }
+
+    /**
+     * Equity at current prices (position book), PnL / ROI against the baseline
+     * of the timeframe: the first snapshot at or after the compare time, as
+     * calcSubPnl / calcSubRoi. subscription_metrics already keeps those
+     * baselines, the snapshot query is only for subscriptions without a row.
+     * Null when the coin has no price.
+     */
+    private LiveMetrics liveMetrics(UUID subscriptionId, String timeframe, SubscriptionMetrics running) {
+        try {
+            PositionBook.Position position = positionBook.subscription(subscriptionId);
+            if (position == null) {
+                return null;
+            }
+            BigDecimal equity = positionBook.equity(position);
+            BigDecimal livePnl = equity.subtract(position.netInvestment());
+
+            BigDecimal basePnl;
+            BigDecimal baseNetInvestment;
+            if (running != null) {
+                switch (timeframe.toLowerCase()) {
+                    case "1d" -> {
+                        basePnl = running.getBasePnl1d();
+                        baseNetInvestment = running.getBaseNetInvestment1d();
+                    }
+                    case "7d" -> {
+                        basePnl = running.getBasePnl7d();
+                        baseNetInvestment = running.getBaseNetInvestment7d();
+                    }
+                    default -> {
+                        basePnl = running.getBasePnl();
+                        baseNetInvestment = running.getBaseNetInvestment();
+                    }
+                }
+            } else {
+                List<Object[]> baseline = metricsRepo.findBaselines(List.of(subscriptionId),
+                        getCompareTime(timeframe));
+                basePnl = baseline.isEmpty() ? BigDecimal.ZERO : (BigDecimal) baseline.get(0)[1];
+                baseNetInvestment = baseline.isEmpty() ? position.netInvestment() : (BigDecimal) baseline.get(0)[2];
+            }
+
+            BigDecimal pnl = livePnl.subtract(basePnl);
+            BigDecimal roi = baseNetInvestment.signum() > 0
+                    ? pnl.multiply(BigDecimal.valueOf(100)).divide(baseNetInvestment, 4, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            return new LiveMetrics(equity, position.netInvestment(), pnl, roi);
+        } catch (PriceUnavailableException e) {
+            log.debug("No live price for subscription {}, using the latest snapshot: {}", subscriptionId,
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    private record LiveMetrics(BigDecimal equity, BigDecimal netInvestment, BigDecimal pnl, BigDecimal roi) {
+    }
+
     private Instant getCompareTime(String timeframe) {
         return switch (timeframe.toLowerCase()) {
             case "1d" -> Instant.now().minus(1, ChronoUnit.DAYS);
@@ -403,9 +696,12 @@ public class ModularMetricsServiceImpl implements ModularMetricsService {
             UUID subId = randomSub.getId();
             Instant compareTime = Instant.EPOCH; // Current metrics (all-time)
 
-            BigDecimal currentPnl = metricsRepo.calcSubPnl(subId, compareTime);
-            BigDecimal currentRoi = metricsRepo.calcSubRoi(subId, compareTime);
-            BigDecimal maxDrawdown = metricsRepo.calcSubMaxDrawdownPct(subId);
+            SubscriptionMetrics running = subMetricsRepo.findBySubscriptionId(subId).orElse(null);
+            LiveMetrics live = liveMetrics(subId, "current", running);
+            BigDecimal currentPnl = live != null ? live.pnl() : metricsRepo.calcSubPnl(subId, compareTime);
+            BigDecimal currentRoi = live != null ? live.roi() : metricsRepo.calcSubRoi(subId, compareTime);
+            BigDecimal maxDrawdown = running != null ? running.getMaxDrawdownPct()
+                    : metricsRepo.calcSubMaxDrawdownPct(subId);
 
             featured = com.web.TradeApp.feature.aibot.dto.BotSubscription.BotSubOverviewDTO.FeaturedSubscription
                     .builder()
@@ -0,0 +1,320 @@
+package com.web.TradeApp.feature.aibot.service.subscription;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.service.BotTradeService;
+import com.web.TradeApp.feature.aibot.service.BotTradeService.BulkTradeResult;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Executes the copy-trade fan-out of a signal to all active subscribers.
+ *
+ * - Subscribers are split into chunks; chunks run in parallel on virtual
+ * threads. A chunk is executed set-based in one transaction
+ * (BotTradeService.executeBatch); if that fails it is retried with one
+ * transaction per subscriber, so a failing subscriber never affects the others.
+ * - A semaphore caps the number of chunks running at once below the DB
+ * connection pool size, so the fan-out can't starve the rest of the app.
+ * - Signals of the same bot are chained: the fan-out of a signal starts only
+ * after the previous one of that bot finished, so a subscriber never runs two
+ * trades of the same bot at once.
+ * - The chain keeps publish order, which is not the order the bot sent its
+ * signals in: several queue consumers (and instances) publish concurrently.
+ * Before trading, bots.last_signal_at is moved forward to the signal
+ * timestamp; a signal older than the last one fanned out for its bot is
+ * dropped and counted, so each subscriber's trades follow signal time.
+ *
+ * Metrics: "signal.fanout.fill" (every fill, with p50/p99) and
+ * "signal.fanout.completion" tagged stage=first|p99|last (once per signal),
+ * all measured from the moment the signal was handed to the executor;
+ * "signal.fanout.out_of_order" for dropped signals.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SignalFanOutExecutor {
+
+    private final BotRepository botRepo;
+    private final BotSubscriptionRepository subRepo;
+    private final BotTradeService botTradeService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${fanout.chunk-size:50}")
+    private int chunkSize;
+
+    // 0 = derive from the connection pool size
+    @Value("${fanout.max-concurrency:0}")
+    private int maxConcurrency;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int dbPoolSize;
+
+    // Execute a chunk as one set-based transaction (falls back to per subscriber on failure)
+    @Value("${fanout.bulk-enabled:true}")
+    private boolean bulkEnabled;
+
+    @Value("${fanout.shutdown-timeout:30s}")
+    private Duration shutdownTimeout;
+
+    // Tail of the signal chain of every bot that has a fan-out in progress
+    private final Map<UUID, CompletableFuture<Void>> botChains = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+    private Semaphore permits;
+    private Timer fillTimer;
+    private Timer firstFillTimer;
+    private Timer p99FillTimer;
+    private Timer lastFillTimer;
+    private Counter outOfOrder;
+
+    @PostConstruct
+    void init() {
+        // Leave a few connections for HTTP requests and scheduled jobs
+        int concurrency = maxConcurrency > 0 ? maxConcurrency : Math.max(1, dbPoolSize - 2);
+        permits = new Semaphore(concurrency);
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("fanout-", 0).factory());
+
+        fillTimer = Timer.builder("signal.fanout.fill")
+                .description("Time from signal hand-off to each subscriber fill")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        firstFillTimer = completionTimer("first");
+        p99FillTimer = completionTimer("p99");
+        lastFillTimer = completionTimer("last");
+        outOfOrder = Counter.builder("signal.fanout.out_of_order")
+                .description("Signals dropped because a later signal of the bot was already fanned out")
+                .register(meterRegistry);
+
+        log.info("🚀 Fan-out executor ready: chunk size {}, max {} concurrent chunks", chunkSize, concurrency);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("⚠️ Fan-out executor stopped with trades still running");
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the fan-out of a signal behind the previous signals of the same bot.
+     * Returns immediately.
+     */
+    public CompletableFuture<Void> submit(BotSignal signal) {
+        long handedOffAt = System.nanoTime();
+        UUID botId = signal.getBot().getId();
+
+        CompletableFuture<Void> tail = botChains.compute(botId, (id, previous) -> {
+            CompletableFuture<Void> after = previous != null ? previous : CompletableFuture.completedFuture(null);
+            // handle(): a failed fan-out must not block the next signals of the bot
+            return after.handle((ignored, error) -> null)
+                    .thenRunAsync(() -> fanOut(signal, handedOffAt), executor);
+        });
+        // Drop the chain once it's idle so the map doesn't grow with every bot ever seen
+        tail.whenComplete((ignored, error) -> botChains.remove(botId, tail));
+        return tail;
+    }
+
+    private void fanOut(BotSignal signal, long handedOffAt) {
+        // The signal only carries a reference to its bot (ingestion authenticates
+        // from the credential cache), load it here
+        Bot bot = botRepo.findById(signal.getBot().getId()).orElse(null);
+        if (bot == null) {
+            log.warn("🚫 Signal Ignored: Bot {} no longer exists", signal.getBot().getId());
+            return;
+        }
+
+        // 1. Validate Price
+        // We use the price from the SIGNAL (Python Bot) for consistency.
+        if (signal.getPrice() == null || signal.getPrice() <= 0) {
+            log.error("🚫 Signal Ignored: Invalid Price for Bot {}", bot.getName());
+            return;
+        }
+        BigDecimal executionPrice = BigDecimal.valueOf(signal.getPrice());
+
+        // 1.1 Enforce signal time order per bot (publish order may differ)
+        if (botRepo.advanceLastSignalAt(bot.getId(), signal.getSignalTimestamp()) == 0) {
+            outOfOrder.increment();
+            log.warn("⏪ Signal Ignored: {} {} at {} is older than the last signal fanned out for Bot {}",
+                    signal.getAction(), executionPrice, signal.getSignalTimestamp(), bot.getName());
+            return;
+        }
+
+        log.info("📢 Starting Fan-Out for Bot: {} | Action: {} | Price: {}",
+                bot.getName(), signal.getAction(), executionPrice);
+
+        // 2. Fetch Active Subscriptions (bot fetched eagerly, trades run outside this call's session)
+        List<BotSubscription> subscriptions = subRepo.findByBotIdAndActiveTrueWithBot(bot.getId());
+        if (subscriptions.isEmpty()) {
+            log.info("ℹ️ No active subscribers for bot {}", bot.getName());
+            return;
+        }
+
+        // 3. Run chunks in parallel, bounded by the permits
+        FillRecorder fills = new FillRecorder(subscriptions.size(), handedOffAt);
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < subscriptions.size(); from += chunkSize) {
+            List<BotSubscription> chunk = subscriptions.subList(from, Math.min(from + chunkSize, subscriptions.size()));
+            chunks.add(CompletableFuture.runAsync(
+                    () -> runChunk(chunk, signal.getAction(), executionPrice, fills), executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+
+        // 4. Report
+        fills.report();
+        log.info("✅ Fan-Out Complete for Bot {}. Success: {} | Failed: {} | first {} ms, p99 {} ms, last {} ms",
+                bot.getName(), fills.successCount(), fills.failCount.get(),
+                fills.firstMillis(), fills.p99Millis(), fills.lastMillis());
+    }
+
+    private void runChunk(List<BotSubscription> chunk, BotAction action, BigDecimal price, FillRecorder fills) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fills.failCount.addAndGet(chunk.size());
+            return;
+        }
+        try {
+            if (bulkEnabled && runBulk(chunk, action, price, fills)) {
+                return;
+            }
+            for (BotSubscription sub : chunk) {
+                try {
+                    processSingleSubscription(sub, action, price);
+                    fills.record(1);
+                } catch (Exception e) {
+                    fills.failCount.incrementAndGet();
+                    log.error("❌ Failed to copy trade for User ID: {} | Error: {}", sub.getUserId(), e.getMessage());
+                    // We continue loop so other users are not affected
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Whole chunk in one transaction with O(1) round trips.
+     *
+     * @return false if the chunk was rolled back and must run per subscriber
+     */
+    private boolean runBulk(List<BotSubscription> chunk, BotAction action, BigDecimal price, FillRecorder fills) {
+        try {
+            BulkTradeResult result = botTradeService.executeBatch(chunk, action, price);
+            fills.record(result.filled());
+            return true;
+        } catch (Exception e) {
+            // e.g. admin liquidity for the aggregate: per subscriber, trades succeed until it runs out.
+            // Also a version conflict with a concurrent trade: the per-subscriber path retries it
+            log.warn("⚠️ Bulk execution of {} subscriptions failed, falling back to one by one: {}",
+                    chunk.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void processSingleSubscription(BotSubscription sub, BotAction action, BigDecimal price) {
+        // Delegate the transactional heavy lifting to BotTradeService
+        if (action == BotAction.BUY) {
+            botTradeService.executeBuy(sub, price);
+        } else if (action == BotAction.SELL) {
+            botTradeService.executeSell(sub, price);
+        }
+    }
+
+    private Timer completionTimer(String stage) {
+        return Timer.builder("signal.fanout.completion")
+                .description("Time from signal hand-off to the first / p99 / last subscriber fill")
+                .tag("stage", stage)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Collects fill latencies of one signal across chunk threads.
+     */
+    private final class FillRecorder {
+        private final long[] latencies;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger failCount = new AtomicInteger();
+        private final long startNanos;
+        private long[] sorted;
+
+        FillRecorder(int capacity, long startNanos) {
+            this.latencies = new long[capacity];
+            this.startNanos = startNanos;
+        }
+
+        // A bulk chunk commits all its fills at once: they share one latency
+        void record(int fillCount) {
+            long latency = System.nanoTime() - startNanos;
+            int from = count.getAndAdd(fillCount);
+            for (int i = from; i < from + fillCount; i++) {
+                latencies[i] = latency;
+                fillTimer.record(latency, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        int successCount() {
+            return count.get();
+        }
+
+        // Called after all chunks joined, the array is safely published by join()
+        void report() {
+            sorted = Arrays.copyOf(latencies, count.get());
+            Arrays.sort(sorted);
+            if (sorted.length == 0) {
+                return;
+            }
+            firstFillTimer.record(sorted[0], TimeUnit.NANOSECONDS);
+            p99FillTimer.record(percentile(0.99), TimeUnit.NANOSECONDS);
+            lastFillTimer.record(sorted[sorted.length - 1], TimeUnit.NANOSECONDS);
+        }
+
+        long firstMillis() {
+            return sorted.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(sorted[0]);
+        }
+
+        long p99Millis() {
+            return sorted.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(percentile(0.99));
+        }
+
+        long lastMillis() {
+            return sorted.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(sorted[sorted.length - 1]);
+        }
+
+        private long percentile(double p) {
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+}
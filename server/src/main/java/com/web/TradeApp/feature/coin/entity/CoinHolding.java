@@ -2,14 +2,19 @@ package com.web.TradeApp.feature.coin.entity;
 
 import java.math.BigDecimal;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.web.TradeApp.feature.common.entity.BaseEntity;
+import com.web.TradeApp.feature.position.PositionBookListener;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -18,6 +23,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(PositionBookListener.class) // Live positions follow every committed write
 @Table(name = "coin_holdings", uniqueConstraints = {
         @UniqueConstraint(columnNames = { "wallet_id", "coin_id" })
 })
@@ -41,4 +47,11 @@ public class CoinHolding extends BaseEntity {
 
     @Column(precision = 19, scale = 8)
     private BigDecimal averageBuyPrice;
+
+    // Optimistic lock: concurrent read-modify-writes of the amount fail instead of
+    // overwriting each other (retried by OptimisticRetryExecutor)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
@@ -6,6 +6,7 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,7 +16,10 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 @Entity
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        // Manual trade history of a wallet (source = MANUAL), sorted by time
+        @Index(name = "idx_transactions_wallet_source_time", columnList = "wallet_id, source, created_at")
+})
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -4,16 +4,21 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.web.TradeApp.feature.common.entity.BaseEntity;
+import com.web.TradeApp.feature.position.PositionBookListener;
 import com.web.TradeApp.feature.user.entity.User;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -22,6 +27,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+@EntityListeners(PositionBookListener.class) // Live positions follow every committed write
 @Table(name = "wallets")
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -45,4 +51,11 @@ public class Wallet extends BaseEntity {
     @Builder.Default
     private List<CoinHolding> coinHoldings = new ArrayList<>();
 
+    // Optimistic lock: concurrent read-modify-writes of the balance fail instead of
+    // overwriting each other (retried by OptimisticRetryExecutor)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
 }
@@ -0,0 +1,53 @@
+package com.web.TradeApp.feature.coin.entity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Running all-time drawdown of a wallet, folded in by every wallet snapshot so
+ * the asset page reads one row instead of the whole snapshot history (which
+ * the rollup job prunes anyway). Kept out of wallets so the snapshot job does
+ * not bump the optimistic version trades rely on.
+ */
+@Entity
+@Table(name = "wallet_metrics")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletMetrics extends BaseEntity {
+
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "wallet_id", nullable = false, unique = true)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Wallet wallet;
+
+    // Most negative PnL ever recorded
+    @Column(name = "max_drawdown", nullable = false, precision = 19, scale = 8)
+    private BigDecimal maxDrawdown;
+
+    // Most negative PnL / netInvestment * 100 ever recorded
+    @Column(name = "max_drawdown_pct", nullable = false, precision = 19, scale = 8)
+    private BigDecimal maxDrawdownPct;
+
+    @Column(name = "last_recorded_at", nullable = false)
+    private Instant lastRecordedAt;
+}
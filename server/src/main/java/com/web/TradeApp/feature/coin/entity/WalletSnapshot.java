@@ -8,6 +8,7 @@ import com.web.TradeApp.feature.common.entity.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +20,13 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "wallet_snapshots")
+@Table(name = "wallet_snapshots", indexes = {
+        // PnL history / charts / rollup of one wallet by time
+        // (covers pnl, net_investment, total_equity, see db/migration V2)
+        @Index(name = "idx_wallet_snapshot_time", columnList = "wallet_id, recorded_at"),
+        // Rollup and retention range scans
+        @Index(name = "idx_wallet_snapshot_recorded", columnList = "recorded_at")
+})
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,43 @@
+package com.web.TradeApp.feature.coin.entity;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * Hourly / daily rollup of wallet_snapshots. Daily rows are kept forever,
+ * hourly rows and raw snapshots only for their retention window.
+ */
+@Entity
+@Table(name = "wallet_snapshot_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_rollup_bucket", columnNames = { "wallet_id", "resolution",
+                "bucket_start" })
+}, indexes = {
+        @Index(name = "idx_wallet_rollup_resolution_time", columnList = "resolution, bucket_start")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class WalletSnapshotRollup extends BaseSnapshotRollup {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "wallet_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Wallet wallet;
+}
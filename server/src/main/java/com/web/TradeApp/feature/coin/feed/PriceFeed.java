@@ -0,0 +1,25 @@
+package com.web.TradeApp.feature.coin.feed;
+
+import java.util.Collection;
+
+/**
+ * Source of market ticks pushed into the {@link TickStore}.
+ *
+ * Implementations are selected with price-feed.type (websocket | replay) and
+ * started / stopped by {@link PriceFeedManager}.
+ */
+public interface PriceFeed {
+
+    /**
+     * Starts delivering ticks of the given coin symbols (BTC, ETH...) to the
+     * listener. Must not block; delivery happens on the feed's own threads.
+     */
+    void start(Collection<String> symbols, TickListener listener);
+
+    void stop();
+
+    @FunctionalInterface
+    interface TickListener {
+        void onTick(String symbol, long epochMillis, double price, double volume);
+    }
+}
@@ -0,0 +1,52 @@
+package com.web.TradeApp.feature.coin.feed;
+
+import java.util.List;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.feature.coin.service.CoinSymbolRegistry;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts the configured {@link PriceFeed} (if any) for all listed coins and
+ * pipes its ticks into the {@link TickStore}. With price-feed.type unset no feed
+ * bean exists and prices keep coming from CoinGecko polling only.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PriceFeedManager implements SmartLifecycle {
+
+    private final List<PriceFeed> feeds;
+    private final TickStore tickStore;
+    private final CoinSymbolRegistry coinSymbolRegistry;
+
+    private volatile boolean running;
+
+    @Override
+    public void start() {
+        if (feeds.isEmpty()) {
+            return;
+        }
+        List<String> symbols = coinSymbolRegistry.symbols();
+        for (PriceFeed feed : feeds) {
+            feed.start(symbols, tickStore::record);
+            log.info("📡 Price feed {} started for {} coins", feed.getClass().getSimpleName(), symbols.size());
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        feeds.forEach(PriceFeed::stop);
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
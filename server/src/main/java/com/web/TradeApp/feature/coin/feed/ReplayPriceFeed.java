@@ -0,0 +1,87 @@
+package com.web.TradeApp.feature.coin.feed;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays recorded ticks from a CSV file (epochMillis,symbol,price[,volume],
+ * lines starting with # are comments). Used for tests and load tests without
+ * network access.
+ *
+ * speed = 1 keeps the recorded pacing, 10 plays ten times faster, 0 pushes the
+ * whole file as fast as possible. Ticks are re-stamped with the current time
+ * so the store treats them as live.
+ */
+@Component
+@ConditionalOnProperty(name = "price-feed.type", havingValue = "replay")
+@Slf4j
+public class ReplayPriceFeed implements PriceFeed {
+
+    @Value("${price-feed.replay.file}")
+    private Path file;
+
+    @Value("${price-feed.replay.speed:1}")
+    private double speed;
+
+    private volatile Thread player;
+
+    @Override
+    public void start(Collection<String> symbols, TickListener listener) {
+        Set<String> wanted = symbols.stream().map(String::toUpperCase).collect(Collectors.toSet());
+        player = Thread.ofVirtual().name("price-feed-replay").start(() -> play(wanted, listener));
+    }
+
+    @Override
+    public void stop() {
+        Thread t = player;
+        if (t != null) {
+            t.interrupt();
+        }
+    }
+
+    private void play(Set<String> wanted, TickListener listener) {
+        long played = 0;
+        long previousTime = -1;
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null && !Thread.currentThread().isInterrupted()) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] cols = line.split(",");
+                long time = Long.parseLong(cols[0].trim());
+                String symbol = cols[1].trim().toUpperCase();
+                if (!wanted.contains(symbol)) {
+                    continue;
+                }
+
+                // Keep the recorded spacing between ticks (scaled by speed)
+                if (speed > 0 && previousTime >= 0 && time > previousTime) {
+                    Thread.sleep((long) ((time - previousTime) / speed));
+                }
+                previousTime = time;
+
+                double price = Double.parseDouble(cols[2].trim());
+                double volume = cols.length > 3 ? Double.parseDouble(cols[3].trim()) : 0;
+                listener.onTick(symbol, System.currentTimeMillis(), price, volume);
+                played++;
+            }
+            log.info("📼 Price replay finished: {} ticks from {}", played, file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            log.error("❌ Price replay of {} failed after {} ticks: {}", file, played, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.web.TradeApp.feature.coin.feed;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process store of the most recent market ticks, one ring buffer per coin
+ * symbol.
+ *
+ * A ring keeps the last {@code capacity} (timestamp, price, volume) triples in
+ * primitive arrays, so recording a tick allocates nothing and reading the last
+ * price or a VWAP never does I/O. Writers take a short write lock; readers use
+ * an optimistic read and only fall back to the read lock if a tick was
+ * written meanwhile.
+ */
+@Component
+public class TickStore {
+
+    private final Map<String, Ring> rings = new ConcurrentHashMap<>();
+
+    @Value("${price-feed.ring-capacity:4096}")
+    private int capacity;
+
+    public void record(String symbol, long epochMillis, double price, double volume) {
+        if (!(price > 0)) {
+            return;
+        }
+        rings.computeIfAbsent(symbol.toUpperCase(), s -> new Ring(capacity)).add(epochMillis, price, volume);
+    }
+
+    /**
+     * Last traded price, if a tick newer than maxAge exists.
+     */
+    public OptionalDouble latest(String symbol, Duration maxAge) {
+        Ring ring = rings.get(symbol.toUpperCase());
+        return ring == null ? OptionalDouble.empty()
+                : ring.latest(System.currentTimeMillis() - maxAge.toMillis());
+    }
+
+    /**
+     * Volume weighted average price over the last window. Ticks without volume
+     * count with weight 1 (plain average).
+     */
+    public OptionalDouble vwap(String symbol, Duration window) {
+        Ring ring = rings.get(symbol.toUpperCase());
+        return ring == null ? OptionalDouble.empty()
+                : ring.vwap(System.currentTimeMillis() - window.toMillis());
+    }
+
+    private static final class Ring {
+        private final long[] timestamps;
+        private final double[] prices;
+        private final double[] volumes;
+        private final StampedLock lock = new StampedLock();
+        // Total ticks ever written; next slot = count % capacity
+        private long count;
+
+        Ring(int capacity) {
+            this.timestamps = new long[capacity];
+            this.prices = new double[capacity];
+            this.volumes = new double[capacity];
+        }
+
+        void add(long epochMillis, double price, double volume) {
+            long stamp = lock.writeLock();
+            try {
+                int slot = (int) (count % timestamps.length);
+                timestamps[slot] = epochMillis;
+                prices[slot] = price;
+                volumes[slot] = volume;
+                count++;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        OptionalDouble latest(long notBefore) {
+            long stamp = lock.tryOptimisticRead();
+            OptionalDouble result = readLatest(notBefore);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    result = readLatest(notBefore);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+            return result;
+        }
+
+        private OptionalDouble readLatest(long notBefore) {
+            long n = count;
+            if (n == 0) {
+                return OptionalDouble.empty();
+            }
+            int slot = (int) ((n - 1) % timestamps.length);
+            return timestamps[slot] >= notBefore ? OptionalDouble.of(prices[slot]) : OptionalDouble.empty();
+        }
+
+        // Scans backwards from the newest tick, so a full scan happens only with a huge window
+        OptionalDouble vwap(long notBefore) {
+            long stamp = lock.readLock();
+            try {
+                double notional = 0;
+                double weight = 0;
+                long available = Math.min(count, timestamps.length);
+                for (long i = 1; i <= available; i++) {
+                    int slot = (int) ((count - i) % timestamps.length);
+                    if (timestamps[slot] < notBefore) {
+                        break;
+                    }
+                    double w = volumes[slot] > 0 ? volumes[slot] : 1;
+                    notional += prices[slot] * w;
+                    weight += w;
+                }
+                return weight == 0 ? OptionalDouble.empty() : OptionalDouble.of(notional / weight);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+}
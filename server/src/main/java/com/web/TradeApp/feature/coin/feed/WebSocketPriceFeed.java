@@ -0,0 +1,177 @@
+package com.web.TradeApp.feature.coin.feed;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live trades from an exchange WebSocket (Binance combined trade stream
+ * format: {"stream":"btcusdt@trade","data":{"s":"BTCUSDT","p":"...","q":"...","T":...}}).
+ *
+ * Subscribes to {symbol}{quote}@trade for every listed coin, parses messages
+ * with a streaming parser and reconnects with exponential backoff when the
+ * connection drops (exchanges also close idle connections every 24h).
+ */
+@Component
+@ConditionalOnProperty(name = "price-feed.type", havingValue = "websocket")
+@Slf4j
+public class WebSocketPriceFeed implements PriceFeed {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final ScheduledExecutorService reconnector = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("price-feed-reconnect").daemon().factory());
+
+    @Value("${price-feed.websocket.url:wss://stream.binance.com:9443/stream}")
+    private String baseUrl;
+
+    // Quote asset of the traded pairs, stripped from the symbol of each tick
+    @Value("${price-feed.websocket.quote:USDT}")
+    private String quote;
+
+    @Value("${price-feed.websocket.max-backoff:60s}")
+    private Duration maxBackoff;
+
+    private volatile boolean running;
+    private volatile WebSocket webSocket;
+    private long backoffMillis;
+
+    @Override
+    public void start(Collection<String> symbols, TickListener listener) {
+        if (symbols.isEmpty()) {
+            log.warn("⚠️ Price feed not started: no coins to subscribe to");
+            return;
+        }
+        running = true;
+        String streams = symbols.stream()
+                .map(symbol -> (symbol + quote).toLowerCase() + "@trade")
+                .collect(Collectors.joining("/"));
+        connect(URI.create(baseUrl + "?streams=" + streams), listener);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        reconnector.shutdownNow();
+        WebSocket ws = webSocket;
+        if (ws != null) {
+            ws.sendClose(WebSocket.NORMAL_CLOSURE, "shutdown");
+        }
+    }
+
+    private void connect(URI uri, TickListener listener) {
+        if (!running) {
+            return;
+        }
+        httpClient.newWebSocketBuilder()
+                .buildAsync(uri, new Handler(uri, listener))
+                .whenComplete((ws, error) -> {
+                    if (error != null) {
+                        log.warn("⚠️ Price feed connection failed: {}", error.getMessage());
+                        scheduleReconnect(uri, listener);
+                    } else {
+                        webSocket = ws;
+                        backoffMillis = 0;
+                        log.info("📡 Price feed connected: {}", uri.getHost());
+                    }
+                });
+    }
+
+    private synchronized void scheduleReconnect(URI uri, TickListener listener) {
+        if (!running) {
+            return;
+        }
+        backoffMillis = backoffMillis == 0 ? 1000 : Math.min(backoffMillis * 2, maxBackoff.toMillis());
+        reconnector.schedule(() -> connect(uri, listener), backoffMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private final class Handler implements WebSocket.Listener {
+        private final URI uri;
+        private final TickListener listener;
+        // Frames of one message may arrive in several parts
+        private final StringBuilder partial = new StringBuilder();
+
+        Handler(URI uri, TickListener listener) {
+            this.uri = uri;
+            this.listener = listener;
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket ws, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                try {
+                    parse(partial);
+                } catch (Exception e) {
+                    log.debug("Ignoring unparsable price feed message: {}", e.getMessage());
+                }
+                partial.setLength(0);
+            }
+            ws.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket ws, int statusCode, String reason) {
+            log.info("📡 Price feed closed ({} {}), reconnecting", statusCode, reason);
+            scheduleReconnect(uri, listener);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket ws, Throwable error) {
+            log.warn("⚠️ Price feed error: {}", error.getMessage());
+            scheduleReconnect(uri, listener);
+        }
+
+        private void parse(CharSequence message) throws IOException {
+            String symbol = null;
+            double price = 0;
+            double volume = 0;
+            long time = 0;
+            try (JsonParser parser = jsonFactory.createParser(message.toString())) {
+                while (parser.nextToken() != null) {
+                    if (parser.currentToken() != JsonToken.FIELD_NAME) {
+                        continue;
+                    }
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    switch (field) {
+                        case "s" -> symbol = parser.getText();
+                        case "p" -> price = Double.parseDouble(parser.getText());
+                        case "q" -> volume = Double.parseDouble(parser.getText());
+                        case "T" -> time = parser.getLongValue();
+                        default -> {
+                            // "data" is an object we descend into, other values are skipped
+                        }
+                    }
+                }
+            }
+            if (symbol == null || !symbol.endsWith(quote)) {
+                return;
+            }
+            String coin = symbol.substring(0, symbol.length() - quote.length());
+            listener.onTick(coin, time > 0 ? time : System.currentTimeMillis(), price, volume);
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.web.TradeApp.feature.coin.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
@@ -14,5 +16,12 @@ public interface CoinHoldingRepository extends JpaRepository<CoinHolding, UUID>
     // Critical: Used to find if a user already owns a specific coin in their wallet
     Optional<CoinHolding> findByWalletIdAndCoinId(UUID walletId, UUID coinId);
 
+    // Bulk version of the above, used by bot trade chunks
+    List<CoinHolding> findAllByWalletIdInAndCoinId(Collection<UUID> walletIds, UUID coinId);
+
     List<CoinHolding> findByWallet_User_Id(UUID userId);
+
+    // Coins the wallet snapshot job needs a price for
+    @Query("SELECT DISTINCT h.coin.coinGeckoId FROM CoinHolding h")
+    List<String> findHeldCoinGeckoIds();
 }
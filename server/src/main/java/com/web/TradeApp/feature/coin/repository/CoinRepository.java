@@ -1,10 +1,12 @@
 package com.web.TradeApp.feature.coin.repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.web.TradeApp.feature.coin.entity.Coin;
@@ -18,4 +20,8 @@ public interface CoinRepository extends JpaRepository<Coin, UUID> {
 
     Optional<Coin> findBySymbol(String symbol);
 
+    // Treasury: every listed coin needs its shards
+    @Query("SELECT c.symbol FROM Coin c")
+    List<String> findAllSymbols();
+
 }
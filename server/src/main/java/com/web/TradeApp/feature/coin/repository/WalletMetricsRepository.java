@@ -0,0 +1,19 @@
+package com.web.TradeApp.feature.coin.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.coin.entity.WalletMetrics;
+
+@Repository
+public interface WalletMetricsRepository extends JpaRepository<WalletMetrics, UUID> {
+
+    Optional<WalletMetrics> findByWalletId(UUID walletId);
+
+    List<WalletMetrics> findAllByWalletIdIn(Collection<UUID> walletIds);
+}
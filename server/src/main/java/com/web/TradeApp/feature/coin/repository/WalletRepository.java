@@ -1,5 +1,6 @@
 package com.web.TradeApp.feature.coin.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,20 +17,35 @@ import com.web.TradeApp.feature.coin.entity.Wallet;
 public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     Optional<Wallet> findByUserId(UUID userId);
 
+    /**
+     * Bulk lookup for bot trade chunks. User is fetched in the same query
+     * (Wallet.user is eager and would otherwise cost one SELECT per wallet)
+     */
+    @Query("SELECT w FROM Wallet w JOIN FETCH w.user WHERE w.user.id IN :userIds")
+    List<Wallet> findAllByUserIdInWithUser(@Param("userIds") Collection<UUID> userIds);
+
     // Look up Wallet directly by the linked User's username
     // Spring Data JPA automatically parses "User_Username" to join the tables.
     // only for admin
     Optional<Wallet> findByUser_Username(String username);
 
     /**
-     * Keyset pagination for wallet snapshots
-     * Eagerly fetch coinHoldings to avoid LazyInitializationException
+     * Keyset pagination for wallet snapshots: ids only, so the page limit runs
+     * in SQL (a LIMIT on a collection fetch is applied in memory)
+     */
+    @Query("SELECT w.id FROM Wallet w WHERE w.id > :id ORDER BY w.id ASC")
+    List<UUID> findIdsGreaterThanOrderByIdAsc(@Param("id") UUID id, Pageable pageable);
+
+    /**
+     * One page of wallets for the snapshot job with their coin holdings (and the
+     * eager user / coin associations) in a single query
      */
     @Query("""
-            SELECT w FROM Wallet w
-            LEFT JOIN FETCH w.coinHoldings
-            WHERE w.id > :id
-            ORDER BY w.id ASC
+            SELECT DISTINCT w FROM Wallet w
+            JOIN FETCH w.user
+            LEFT JOIN FETCH w.coinHoldings h
+            LEFT JOIN FETCH h.coin
+            WHERE w.id IN :ids
             """)
-    List<Wallet> findByIdGreaterThanWithCoinHoldingsOrderByIdAsc(@Param("id") UUID id, Pageable pageable);
+    List<Wallet> findAllByIdInWithCoinHoldings(@Param("ids") Collection<UUID> ids);
 }
@@ -93,17 +93,41 @@ public interface WalletSnapshotRepository extends JpaRepository<WalletSnapshot,
     BigDecimal calcWalletMaxDrawdownPct(@Param("walletId") UUID walletId);
 
     /**
-     * Get chart data (PnL over time) for wallet by timeframe
-     * Returns List of Object[] where [0] = Instant recordedAt, [1] = BigDecimal pnl
+     * Get chart data (PnL over time) for wallet by timeframe, average PnL per
+     * bucket of bucketSeconds (see ChartSeries)
+     * Returns List of Object[] where [0] = bucket number (epoch seconds /
+     * bucketSeconds), [1] = pnl
      */
     @Query("""
-            SELECT ws.recordedAt, ws.pnl
+            SELECT b.bucket, AVG(b.pnl)
+            FROM (
+              SELECT FLOOR(EXTRACT(EPOCH FROM ws.recordedAt) / :bucketSeconds) AS bucket, ws.pnl AS pnl
+              FROM WalletSnapshot ws
+              WHERE ws.wallet.id = :walletId
+                AND ws.recordedAt >= :fromTime
+            ) b
+            GROUP BY b.bucket
+            ORDER BY b.bucket ASC
+            """)
+    List<Object[]> getWalletChartData(@Param("walletId") UUID walletId, @Param("fromTime") Instant fromTime,
+            @Param("bucketSeconds") long bucketSeconds);
+
+    /**
+     * First snapshot at or after compareTime (the compare side of calcWalletPnl /
+     * calcWalletRoi), for PnL against the live equity.
+     * Returns List of Object[] where [0] = pnl, [1] = netInvestment
+     */
+    @Query("""
+            SELECT ws.pnl, ws.netInvestment
             FROM WalletSnapshot ws
             WHERE ws.wallet.id = :walletId
-              AND ws.recordedAt >= :fromTime
-            ORDER BY ws.recordedAt ASC
+              AND ws.recordedAt = (
+                SELECT MIN(ws2.recordedAt) FROM WalletSnapshot ws2
+                WHERE ws2.wallet.id = :walletId
+                  AND ws2.recordedAt >= :compareTime
+              )
             """)
-    List<Object[]> getWalletChartData(@Param("walletId") UUID walletId, @Param("fromTime") Instant fromTime);
+    List<Object[]> findBaseline(@Param("walletId") UUID walletId, @Param("compareTime") Instant compareTime);
 
     /**
      * Get latest snapshot data for wallet
@@ -0,0 +1,82 @@
+package com.web.TradeApp.feature.coin.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.web.TradeApp.feature.coin.entity.WalletSnapshotRollup;
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup.Resolution;
+
+/**
+ * Same rollup job queries as SubscriptionSnapshotRollupRepository, for wallets
+ */
+@Repository
+public interface WalletSnapshotRollupRepository extends JpaRepository<WalletSnapshotRollup, UUID> {
+
+    @Query("SELECT MIN(ws.recordedAt) FROM WalletSnapshot ws")
+    Instant findFirstRecordedAt();
+
+    @Query("""
+            SELECT DISTINCT ws.wallet.id FROM WalletSnapshot ws
+            WHERE ws.recordedAt >= :from AND ws.recordedAt < :to
+            """)
+    List<UUID> findWalletIdsBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    /**
+     * Returns Object[]: [0] walletId, [1] recordedAt, [2] totalEquity, [3] pnl,
+     * [4] netInvestment, in time order
+     */
+    @Query("""
+            SELECT ws.wallet.id, ws.recordedAt, ws.totalEquity, ws.pnl, ws.netInvestment
+            FROM WalletSnapshot ws
+            WHERE ws.wallet.id IN :walletIds
+              AND ws.recordedAt >= :from AND ws.recordedAt < :to
+            ORDER BY ws.recordedAt ASC
+            """)
+    List<Object[]> findSamples(@Param("walletIds") Collection<UUID> walletIds, @Param("from") Instant from,
+            @Param("to") Instant to);
+
+    @Query("""
+            SELECT r FROM WalletSnapshotRollup r
+            WHERE r.wallet.id IN :walletIds
+              AND r.resolution = :resolution
+              AND r.bucketStart >= :from AND r.bucketStart < :to
+            ORDER BY r.bucketStart ASC
+            """)
+    List<WalletSnapshotRollup> findBuckets(@Param("walletIds") Collection<UUID> walletIds,
+            @Param("resolution") Resolution resolution, @Param("from") Instant from, @Param("to") Instant to);
+
+    // Raw snapshots older than the horizon, except the first snapshot of each wallet
+    @Query("""
+            SELECT ws.id FROM WalletSnapshot ws
+            WHERE ws.recordedAt < :horizon
+              AND ws.recordedAt > (
+                SELECT MIN(ws2.recordedAt) FROM WalletSnapshot ws2
+                WHERE ws2.wallet = ws.wallet
+              )
+            """)
+    List<UUID> findExpiredSnapshotIds(@Param("horizon") Instant horizon, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM WalletSnapshotRollup r WHERE r.resolution = :resolution AND r.bucketStart < :before")
+    int deleteOlderThan(@Param("resolution") Resolution resolution, @Param("before") Instant before);
+
+    /**
+     * Lowest PnL and PnL % in the daily rollups of a wallet (history the raw
+     * snapshots may no longer have). Returns Object[]: [0] min pnl, [1] min pnl %
+     */
+    @Query("""
+            SELECT MIN(r.minPnl), MIN(r.minPnlPct)
+            FROM WalletSnapshotRollup r
+            WHERE r.wallet.id = :walletId AND r.resolution = :resolution
+            """)
+    List<Object[]> findDrawdown(@Param("walletId") UUID walletId, @Param("resolution") Resolution resolution);
+}
@@ -1,68 +1,50 @@
 package com.web.TradeApp.feature.coin.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.feature.coin.feed.TickStore;
+import com.web.TradeApp.feature.common.http.ResilientHttpClient;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * CoinGecko REST API. All calls go through the shared coinGeckoHttpClient
+ * (pooled connections, timeouts, circuit breaker, rate limit sized to our
+ * CoinGecko tier), see HttpClientConfig.
+ *
+ * When a streaming price feed is configured, prices with a recent tick in the
+ * {@link TickStore} are answered from memory and only the rest hit the API.
+ */
 @Service
+@RequiredArgsConstructor
 public class CoinGeckoClient {
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final ResilientHttpClient coinGeckoHttpClient;
+    private final ObjectMapper objectMapper;
+    private final TickStore tickStore;
+    // Symbol <-> id of every listed coin (coins table)
+    private final CoinSymbolRegistry coinSymbolRegistry;
 
-    private static final String COINGECKO_BASE_URL = "https://api.coingecko.com/api/v3";
+    // Overridable so the client can run against a local HTTP stub
+    @Value("${coingecko.base-url:https://api.coingecko.com/api/v3}")
+    private String baseUrl;
 
-    private static final String COINGECKO_PRICE_URL = COINGECKO_BASE_URL + "/simple/price?ids=%s&vs_currencies=usd";
+    // Older ticks are ignored (feed disconnected) and the API is called instead
+    @Value("${price-feed.max-tick-age:30s}")
+    private Duration maxTickAge;
 
-    // Map common symbols to CoinGecko IDs
-    private static final Map<String, String> SYMBOL_TO_ID_MAP = Map.of(
-            "BTC", "bitcoin",
-            "ETH", "ethereum",
-            "BNB", "binancecoin",
-            "SOL", "solana",
-            "XRP", "ripple",
-            "ADA", "cardano",
-            "DOGE", "dogecoin");
-
-    public boolean isExists(String coinGeckoId) {
-        String url = COINGECKO_BASE_URL + "/coins/" + coinGeckoId;
-        try {
-            restTemplate.getForObject(url, Object.class);
-            return true;
-        } catch (HttpClientErrorException.NotFound e) {
-            return false;
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    public BigDecimal getCurrentPrice(String symbolOrId) {
-        try {
-            // Convert symbol to CoinGecko ID if needed
-            String coinGeckoId = SYMBOL_TO_ID_MAP.getOrDefault(symbolOrId.toUpperCase(), symbolOrId.toLowerCase());
-
-            String url = String.format(COINGECKO_PRICE_URL, coinGeckoId);
-            Map<String, Map<String, Object>> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey(coinGeckoId)) {
-                Object priceObj = response.get(coinGeckoId).get("usd");
-
-                if (priceObj instanceof Number) {
-                    return BigDecimal.valueOf(((Number) priceObj).doubleValue());
-                }
-
-                throw new RuntimeException("Invalid price format from CoinGecko: " + priceObj);
-            }
-
-            throw new RuntimeException(
-                    "Failed to fetch price for: " + symbolOrId + " (mapped to: " + coinGeckoId + ") | " + url);
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching price from CoinGecko: " + e.getMessage(), e);
-        }
-    }
+    private static final String COINGECKO_PRICE_PATH = "/simple/price?ids=%s&vs_currencies=usd";
 
     /**
      * Batch fetch prices for multiple coins in ONE API call
@@ -72,39 +54,82 @@ public class CoinGeckoClient {
      *                     ethereum)
      * @return Map of coinGeckoId -> price in USD
      */
-    @SuppressWarnings("unchecked")
     public Map<String, BigDecimal> getBatchPrices(List<String> symbolsOrIds) {
+        return getBatchPrices(symbolsOrIds, null);
+    }
+
+    /**
+     * Same as {@link #getBatchPrices(List)}, but coins with a live feed are
+     * priced at their VWAP over the last vwapWindow instead of the last tick.
+     * Used by the snapshot jobs: the price of a snapshot stands for its whole
+     * interval, not for the one trade that happened to come last.
+     *
+     * @param vwapWindow null = last tick
+     */
+    public Map<String, BigDecimal> getBatchPrices(List<String> symbolsOrIds, Duration vwapWindow) {
         if (symbolsOrIds == null || symbolsOrIds.isEmpty()) {
             return new HashMap<>();
         }
 
         try {
-            // Convert all symbols to CoinGecko IDs
-            String coinIds = symbolsOrIds.stream()
-                    .map(symbolOrId -> SYMBOL_TO_ID_MAP.getOrDefault(symbolOrId.toUpperCase(),
-                            symbolOrId.toLowerCase()))
+            Map<String, BigDecimal> prices = new HashMap<>();
+
+            // Convert all symbols to CoinGecko IDs, serving live ticks from memory
+            List<String> toFetch = new ArrayList<>();
+            for (String symbolOrId : symbolsOrIds) {
+                String coinGeckoId = coinSymbolRegistry.idOf(symbolOrId);
+                BigDecimal live = livePrice(symbolOrId, vwapWindow);
+                if (live != null) {
+                    prices.put(coinGeckoId, live);
+                } else {
+                    toFetch.add(coinGeckoId);
+                }
+            }
+            if (toFetch.isEmpty()) {
+                return prices;
+            }
+
+            String coinIds = toFetch.stream()
                     .distinct() // Remove duplicates
                     .collect(Collectors.joining(","));
 
-            String url = String.format(COINGECKO_PRICE_URL, coinIds);
-            Map<String, Map<String, Object>> response = restTemplate.getForObject(url, Map.class);
-
-            Map<String, BigDecimal> prices = new HashMap<>();
+            fetchPrices(coinIds, prices);
+            return prices;
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching batch prices from CoinGecko: " + e.getMessage(), e);
+        }
+    }
 
-            if (response != null) {
-                for (Map.Entry<String, Map<String, Object>> entry : response.entrySet()) {
-                    String coinId = entry.getKey();
-                    Object priceObj = entry.getValue().get("usd");
+    /**
+     * Prices of ALL listed coins (coinGeckoId -> USD) in at most one API call,
+     * using the id list precomputed by the registry.
+     */
+    public Map<String, BigDecimal> getAllPrices() {
+        List<String> symbols = coinSymbolRegistry.symbols();
+        Map<String, BigDecimal> prices = new HashMap<>();
+        if (symbols.isEmpty()) {
+            return prices;
+        }
 
-                    if (priceObj instanceof Number) {
-                        prices.put(coinId, BigDecimal.valueOf(((Number) priceObj).doubleValue()));
-                    }
+        try {
+            boolean allLive = true;
+            for (String symbol : symbols) {
+                BigDecimal live = livePrice(symbol, null);
+                if (live == null) {
+                    allLive = false;
+                    break;
                 }
+                prices.put(coinSymbolRegistry.idOf(symbol), live);
+            }
+            if (allLive) {
+                return prices;
             }
 
+            prices.clear();
+            fetchPrices(coinSymbolRegistry.joinedIds(), prices);
             return prices;
         } catch (Exception e) {
-            throw new RuntimeException("Error fetching batch prices from CoinGecko: " + e.getMessage(), e);
+            throw new RuntimeException("Error fetching all prices from CoinGecko: " + e.getMessage(), e);
         }
     }
 
@@ -122,8 +147,54 @@ public class CoinGeckoClient {
         }
 
         // Convert symbol to CoinGecko ID
-        String coinGeckoId = SYMBOL_TO_ID_MAP.getOrDefault(symbolOrId.toUpperCase(), symbolOrId.toLowerCase());
+        String coinGeckoId = coinSymbolRegistry.idOf(symbolOrId);
 
         return priceMap.get(coinGeckoId);
     }
+
+    /**
+     * Latest tick of the streaming feed (or its VWAP over vwapWindow), or null
+     * if there is no recent enough tick (no feed configured, feed down, or coin
+     * unknown to the feed).
+     */
+    private BigDecimal livePrice(String symbolOrId, Duration vwapWindow) {
+        String symbol = coinSymbolRegistry.symbolOf(symbolOrId);
+        if (symbol == null) {
+            return null;
+        }
+        OptionalDouble tick = tickStore.latest(symbol, maxTickAge);
+        if (tick.isEmpty()) {
+            return null;
+        }
+        if (vwapWindow != null) {
+            // The feed is live (checked above), the window only decides how much history to average
+            OptionalDouble vwap = tickStore.vwap(symbol, vwapWindow);
+            if (vwap.isPresent()) {
+                tick = vwap;
+            }
+        }
+        return BigDecimal.valueOf(tick.getAsDouble());
+    }
+
+    // One /simple/price call for a comma-joined id list, results added to prices
+    private void fetchPrices(String coinIds, Map<String, BigDecimal> prices) throws JsonProcessingException {
+        String url = baseUrl + String.format(COINGECKO_PRICE_PATH, coinIds);
+        Map<String, Map<String, Object>> response = fetchJson(url);
+
+        if (response != null) {
+            for (Map.Entry<String, Map<String, Object>> entry : response.entrySet()) {
+                String coinId = entry.getKey();
+                Object priceObj = entry.getValue().get("usd");
+
+                if (priceObj instanceof Number) {
+                    prices.put(coinId, BigDecimal.valueOf(((Number) priceObj).doubleValue()));
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> fetchJson(String url) throws JsonProcessingException {
+        return objectMapper.readValue(coinGeckoHttpClient.get(url), Map.class);
+    }
 }
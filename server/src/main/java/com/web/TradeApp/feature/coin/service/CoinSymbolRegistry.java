@@ -0,0 +1,122 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Symbol <-> CoinGecko id mapping of every listed coin, loaded from the coins
+ * table.
+ *
+ * The mapping is an immutable snapshot behind a volatile reference: lookups
+ * are a single lock-free map read, a refresh builds a new snapshot and swaps
+ * it in (copy-on-write). Refreshed on startup, after the seeder creates the
+ * coins (after commit) and periodically, which picks up coins inserted by
+ * other instances or directly in the database.
+ *
+ * Also keeps the comma-joined id list of all coins, ready for a batch price
+ * request.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class CoinSymbolRegistry {
+
+    private final CoinRepository coinRepository;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * CoinGecko id of a symbol (BTC) or id (bitcoin). Unknown values fall back
+     * to the lower-cased input, which is what CoinGecko expects for an id.
+     */
+    public String idOf(String symbolOrId) {
+        Snapshot current = current();
+        String id = current.idBySymbol().get(symbolOrId.toUpperCase());
+        return id != null ? id : symbolOrId.toLowerCase();
+    }
+
+    /**
+     * Symbol of a symbol or id, null if the coin is not listed.
+     */
+    public String symbolOf(String symbolOrId) {
+        Snapshot current = current();
+        String upper = symbolOrId.toUpperCase();
+        return current.idBySymbol().containsKey(upper) ? upper : current.symbolById().get(symbolOrId.toLowerCase());
+    }
+
+    public List<String> symbols() {
+        return current().symbols();
+    }
+
+    // "bitcoin,ethereum,..." for /simple/price?ids=
+    public String joinedIds() {
+        return current().joinedIds();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${coin.registry.refresh-interval:300000}", initialDelayString = "${coin.registry.refresh-interval:300000}")
+    public void refresh() {
+        List<Coin> coins = coinRepository.findAll();
+        Map<String, String> idBySymbol = new HashMap<>();
+        Map<String, String> symbolById = new HashMap<>();
+        for (Coin coin : coins) {
+            idBySymbol.put(coin.getSymbol().toUpperCase(), coin.getCoinGeckoId().toLowerCase());
+            symbolById.put(coin.getCoinGeckoId().toLowerCase(), coin.getSymbol().toUpperCase());
+        }
+        List<String> symbols = List.copyOf(idBySymbol.keySet());
+        String joinedIds = symbolById.keySet().stream().sorted().collect(Collectors.joining(","));
+
+        snapshot = new Snapshot(Map.copyOf(idBySymbol), Map.copyOf(symbolById), symbols, joinedIds);
+        log.debug("🪙 Coin registry loaded {} coins", coins.size());
+    }
+
+    /**
+     * Refreshes once the current transaction commits (immediately without one),
+     * so the new snapshot never contains uncommitted coins.
+     */
+    public void refreshAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh();
+                }
+            });
+        } else {
+            refresh();
+        }
+    }
+
+    // Lazy first load for callers running before ApplicationReadyEvent (e.g. lifecycle beans)
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private record Snapshot(Map<String, String> idBySymbol, Map<String, String> symbolById, List<String> symbols,
+            String joinedIds) {
+    }
+}
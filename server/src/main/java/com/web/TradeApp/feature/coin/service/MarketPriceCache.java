@@ -0,0 +1,138 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.exception.PriceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared USD price cache for all listed coins, keyed by CoinGecko id.
+ *
+ * - A scheduled job refreshes every coin of the coins table with ONE
+ * getAllPrices call and publishes the result as a new immutable map, so
+ * reads are a plain volatile read without locks.
+ * - A quote older than max-staleness is never served: the reader fetches it
+ * (e.g. a coin listed after the last refresh, or CoinGecko was down).
+ * Concurrent misses of the same coin share a single request.
+ *
+ * Exposes "market.price.cache" counters (tag result=hit|miss|coalesced).
+ */
+@Component
+@Slf4j
+public class MarketPriceCache {
+
+    private final CoinGeckoClient coinGeckoClient;
+
+    // Immutable, replaced as a whole on every update
+    private volatile Map<String, Quote> quotes = Map.of();
+    // coinGeckoId -> request in progress for a miss
+    private final Map<String, CompletableFuture<BigDecimal>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    @Value("${market.price.max-staleness:60s}")
+    private Duration maxStaleness;
+
+    public MarketPriceCache(CoinGeckoClient coinGeckoClient, MeterRegistry meterRegistry) {
+        this.coinGeckoClient = coinGeckoClient;
+        this.hits = meterRegistry.counter("market.price.cache", "result", "hit");
+        this.misses = meterRegistry.counter("market.price.cache", "result", "miss");
+        this.coalesced = meterRegistry.counter("market.price.cache", "result", "coalesced");
+    }
+
+    /**
+     * Current USD price of a coin, at most max-staleness old.
+     *
+     * @throws PriceUnavailableException if no fresh price can be obtained
+     */
+    public BigDecimal getPrice(String coinGeckoId) {
+        Quote quote = quotes.get(coinGeckoId);
+        if (quote != null && quote.isFresh(System.nanoTime(), maxStaleness)) {
+            hits.increment();
+            return quote.price();
+        }
+        return fetchCoalesced(coinGeckoId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${market.price.refresh-interval:15000}", initialDelayString = "${market.price.refresh-interval:15000}")
+    public void refreshAll() {
+        try {
+            // One request for every listed coin (id list precomputed by CoinSymbolRegistry)
+            Map<String, BigDecimal> prices = coinGeckoClient.getAllPrices();
+            publish(prices);
+            log.debug("💹 Refreshed {} market prices", prices.size());
+        } catch (Exception e) {
+            // Keep serving the previous snapshot until it goes stale
+            log.warn("⚠️ Market price refresh failed: {}", e.getMessage());
+        }
+    }
+
+    private BigDecimal fetchCoalesced(String coinGeckoId) {
+        CompletableFuture<BigDecimal> mine = new CompletableFuture<>();
+        CompletableFuture<BigDecimal> running = inFlight.putIfAbsent(coinGeckoId, mine);
+        if (running != null) {
+            // Somebody is already fetching this coin: wait for their result
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw (RuntimeException) e.getCause();
+            }
+        }
+
+        misses.increment();
+        try {
+            BigDecimal price = coinGeckoClient.getBatchPrices(List.of(coinGeckoId)).get(coinGeckoId);
+            if (price == null) {
+                throw new PriceUnavailableException("No market price for " + coinGeckoId);
+            }
+            publish(Map.of(coinGeckoId, price));
+            mine.complete(price);
+            return price;
+        } catch (PriceUnavailableException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            PriceUnavailableException error = new PriceUnavailableException(
+                    "Market price of " + coinGeckoId + " is unavailable, please try again later");
+            mine.completeExceptionally(error);
+            log.warn("⚠️ Price fetch for {} failed: {}", coinGeckoId, e.getMessage());
+            throw error;
+        } finally {
+            inFlight.remove(coinGeckoId, mine);
+        }
+    }
+
+    // Copy-on-write: readers always see a complete, consistent map
+    private synchronized void publish(Map<String, BigDecimal> prices) {
+        long now = System.nanoTime();
+        Map<String, Quote> next = new HashMap<>(quotes);
+        prices.forEach((id, price) -> next.put(id, new Quote(price, now)));
+        quotes = Map.copyOf(next);
+    }
+
+    private record Quote(BigDecimal price, long fetchedAtNanos) {
+        boolean isFresh(long now, Duration maxAge) {
+            return now - fetchedAtNanos <= maxAge.toNanos();
+        }
+    }
+}
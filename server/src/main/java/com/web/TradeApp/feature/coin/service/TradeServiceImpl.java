@@ -2,17 +2,14 @@ package com.web.TradeApp.feature.coin.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.Map;
 import java.util.UUID;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import com.web.TradeApp.exception.CoinNotFoundException;
 import com.web.TradeApp.exception.InsufficientBalanceException;
 import com.web.TradeApp.exception.InsufficientCoinException;
-import com.web.TradeApp.feature.admin.service.AdminService;
+import com.web.TradeApp.feature.admin.service.TreasuryService;
 import com.web.TradeApp.feature.coin.dto.BuyCoinRequest;
 import com.web.TradeApp.feature.coin.dto.SellCoinRequest;
 import com.web.TradeApp.feature.coin.dto.TradeResponse;
@@ -26,6 +23,7 @@ import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.repository.TransactionRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
 import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+import com.web.TradeApp.feature.common.retry.OptimisticRetryExecutor;
 
 import lombok.RequiredArgsConstructor;
 
@@ -37,26 +35,29 @@ public class TradeServiceImpl implements TradeService {
     private final CoinRepository coinRepository;
     private final CoinHoldingRepository coinHoldingRepository;
     private final TransactionRepository transactionRepository;
-    private final AdminService adminService;
+    private final TreasuryService treasuryService;
     private final TradeMapper tradeMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OptimisticRetryExecutor retryExecutor;
+    private final MarketPriceCache marketPriceCache;
 
-    private static final String COINGECKO_API_URL = "https://api.coingecko.com/api/v3/simple/price?ids=%s&vs_currencies=usd";
 
     @Override
-    @Transactional
     public TradeResponse buyCoin(UUID userId, BuyCoinRequest request) {
-        // 1. Fetch user and admin wallets
+        // One transaction per attempt, retried if a concurrent trade updated the same wallet/holding
+        return retryExecutor.execute("buy", () -> buyOnce(userId, request));
+    }
+
+    private TradeResponse buyOnce(UUID userId, BuyCoinRequest request) {
+        // 1. Fetch user wallet (the admin side is the sharded treasury)
         Wallet userWallet = walletRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
-        Wallet adminWallet = adminService.getAdminWallet();
 
         // 2. Fetch coin
         Coin coin = coinRepository.findBySymbol(request.getCoinSymbol().toUpperCase())
                 .orElseThrow(() -> new CoinNotFoundException("Coin not found: " + request.getCoinSymbol()));
 
-        // 3. Get current price from CoinGecko
-        BigDecimal currentPrice = getCurrentPrice(coin.getCoinGeckoId());
+        // 3. Get current price (shared cache, refreshed from CoinGecko)
+        BigDecimal currentPrice = marketPriceCache.getPrice(coin.getCoinGeckoId());
 
         // 4. Calculate costs
         BigDecimal notionalValue = currentPrice.multiply(request.getQuantity())
@@ -74,26 +75,25 @@ public class TradeServiceImpl implements TradeService {
         }
 
         // 6. Check admin has enough coins
-        CoinHolding adminHolding = coinHoldingRepository.findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
-                .orElseThrow(() -> new InsufficientCoinException(
-                        "Admin does not have " + coin.getSymbol() + " available"));
-
-        if (adminHolding.getAmount().compareTo(request.getQuantity()) < 0) {
+        BigDecimal treasuryCoin = treasuryService.balanceOf(coin.getSymbol());
+        if (treasuryCoin.compareTo(request.getQuantity()) < 0) {
             throw new InsufficientCoinException(
                     String.format("Insufficient admin %s. Required: %s, Available: %s",
-                            coin.getSymbol(), request.getQuantity(), adminHolding.getAmount()));
+                            coin.getSymbol(), request.getQuantity(), treasuryCoin));
         }
 
-        // 7. Transfer USDT: User -> Admin
+        // 7. Transfer USDT: User -> Admin (treasury)
         userWallet.setBalance(userWallet.getBalance().subtract(totalCost));
-        adminWallet.setBalance(adminWallet.getBalance().add(totalCost));
         walletRepository.save(userWallet);
-        walletRepository.save(adminWallet);
+        treasuryService.credit(TreasuryService.CASH_ASSET, totalCost, userId);
 
         // 8. Transfer Coin: Admin -> User
-        // 8a. Deduct from admin
-        adminHolding.setAmount(adminHolding.getAmount().subtract(request.getQuantity()));
-        coinHoldingRepository.save(adminHolding);
+        // 8a. Deduct from admin (atomic, fails if a concurrent trade took it first)
+        try {
+            treasuryService.debit(coin.getSymbol(), request.getQuantity(), userId);
+        } catch (InsufficientBalanceException e) {
+            throw new InsufficientCoinException("Admin does not have " + coin.getSymbol() + " available");
+        }
 
         // 8b. Add to user (or create holding)
         CoinHolding userHolding = getOrCreateHolding(userWallet, coin);
@@ -133,19 +133,22 @@ public class TradeServiceImpl implements TradeService {
     }
 
     @Override
-    @Transactional
     public TradeResponse sellCoin(UUID userId, SellCoinRequest request) {
-        // 1. Fetch user and admin wallets
+        // One transaction per attempt, retried if a concurrent trade updated the same wallet/holding
+        return retryExecutor.execute("sell", () -> sellOnce(userId, request));
+    }
+
+    private TradeResponse sellOnce(UUID userId, SellCoinRequest request) {
+        // 1. Fetch user wallet (the admin side is the sharded treasury)
         Wallet userWallet = walletRepository.findByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
-        Wallet adminWallet = adminService.getAdminWallet();
 
         // 2. Fetch coin
         Coin coin = coinRepository.findBySymbol(request.getCoinSymbol().toUpperCase())
                 .orElseThrow(() -> new CoinNotFoundException("Coin not found: " + request.getCoinSymbol()));
 
-        // 3. Get current price from CoinGecko
-        BigDecimal currentPrice = getCurrentPrice(coin.getCoinGeckoId());
+        // 3. Get current price (shared cache, refreshed from CoinGecko)
+        BigDecimal currentPrice = marketPriceCache.getPrice(coin.getCoinGeckoId());
 
         // 4. Check user has enough coins
         CoinHolding userHolding = coinHoldingRepository.findByWalletIdAndCoinId(userWallet.getId(), coin.getId())
@@ -165,10 +168,15 @@ public class TradeServiceImpl implements TradeService {
                 RoundingMode.HALF_UP);
         BigDecimal netProceeds = notionalValue.subtract(feeAmount);
 
-        // 6. Check admin has enough USDT to buy from user
-        if (adminWallet.getBalance().compareTo(netProceeds) < 0) {
+        // 6. Transfer USDT: Admin -> User (treasury debit fails if it can't cover it)
+        // Treasury moves always USDT first, then coin (same shard lock order everywhere)
+        try {
+            treasuryService.debit(TreasuryService.CASH_ASSET, netProceeds, userId);
+        } catch (InsufficientBalanceException e) {
             throw new RuntimeException("Admin wallet has insufficient balance to purchase coins");
         }
+        userWallet.setBalance(userWallet.getBalance().add(netProceeds));
+        walletRepository.save(userWallet);
 
         // 7. Transfer Coin: User -> Admin
         userHolding.setAmount(userHolding.getAmount().subtract(request.getQuantity()));
@@ -181,16 +189,8 @@ public class TradeServiceImpl implements TradeService {
             coinHoldingRepository.save(userHolding);
         }
 
-        // Add to admin holding (or create if doesn't exist)
-        CoinHolding adminHolding = getOrCreateHolding(adminWallet, coin);
-        adminHolding.setAmount(adminHolding.getAmount().add(request.getQuantity()));
-        coinHoldingRepository.save(adminHolding);
-
-        // 8. Transfer USDT: Admin -> User
-        adminWallet.setBalance(adminWallet.getBalance().subtract(netProceeds));
-        userWallet.setBalance(userWallet.getBalance().add(netProceeds));
-        walletRepository.save(adminWallet);
-        walletRepository.save(userWallet);
+        // Add to admin (treasury)
+        treasuryService.credit(coin.getSymbol(), request.getQuantity(), userId);
 
         // 9. Create transaction record
         Transaction transaction = Transaction.builder()
@@ -214,32 +214,6 @@ public class TradeServiceImpl implements TradeService {
         return response;
     }
 
-    /**
-     * Get current price from CoinGecko API
-     */
-    private BigDecimal getCurrentPrice(String coinGeckoId) {
-        try {
-            String url = String.format(COINGECKO_API_URL, coinGeckoId);
-            @SuppressWarnings("unchecked")
-            Map<String, Map<String, Object>> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey(coinGeckoId)) {
-                Object priceObj = response.get(coinGeckoId).get("usd");
-
-                // Handle both Integer and Double types from API
-                if (priceObj instanceof Number) {
-                    return BigDecimal.valueOf(((Number) priceObj).doubleValue());
-                }
-
-                throw new RuntimeException("Invalid price format from CoinGecko: " + priceObj);
-            }
-
-            throw new RuntimeException("Failed to fetch price for: " + coinGeckoId);
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching price from CoinGecko: " + e.getMessage(), e);
-        }
-    }
-
     /**
      * Get or create a coin holding for a wallet
      */
@@ -1,20 +1,28 @@
 package com.web.TradeApp.feature.coin.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.web.TradeApp.exception.PriceUnavailableException;
 import com.web.TradeApp.feature.coin.dto.AssetResponse;
 import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.entity.WalletMetrics;
 import com.web.TradeApp.feature.coin.entity.WalletSnapshot;
+import com.web.TradeApp.feature.coin.repository.WalletMetricsRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
 import com.web.TradeApp.feature.coin.repository.WalletSnapshotRepository;
+import com.web.TradeApp.feature.common.chart.ChartSeries;
+import com.web.TradeApp.feature.position.PositionBook;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,23 +33,41 @@ import lombok.extern.slf4j.Slf4j;
 public class WalletServiceImpl implements WalletService {
         private final WalletRepository walletRepository;
         private final WalletSnapshotRepository walletSnapshotRepository;
+        private final WalletMetricsRepository walletMetricsRepository;
+        private final PositionBook positionBook;
+
+        private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+        // Upper bound of points per chart series (LTTB beyond)
+        @Value("${chart.max-points:300}")
+        private int chartMaxPoints;
 
         @Override
         public AssetResponse getAssetTotal(UUID userId) {
                 Wallet wallet = walletRepository.findByUserId(userId)
                                 .orElseThrow(() -> new RuntimeException("Wallet not found for user: " + userId));
 
-                // Get latest snapshot data for performance metrics
-                WalletSnapshot latestSnapshot = walletSnapshotRepository.getLatestSnapshot(wallet.getId());
-
                 // Calculate timeframe for metrics (30 days ago)
                 Instant thirtyDaysAgo = Instant.now().minus(30, ChronoUnit.DAYS);
 
-                // Calculate PnL (last 30 days)
-                BigDecimal pnl = calculatePnl(wallet.getId(), thirtyDaysAgo);
-
-                // Calculate ROI (last 30 days)
-                BigDecimal roi = calculateRoi(wallet.getId(), thirtyDaysAgo);
+                // Live equity / PnL / ROI from the position book, latest snapshot without a price
+                BigDecimal totalEquity;
+                BigDecimal netInvestment;
+                BigDecimal pnl;
+                BigDecimal roi;
+                LiveMetrics live = liveMetrics(wallet.getId(), thirtyDaysAgo);
+                if (live != null) {
+                        totalEquity = live.equity();
+                        netInvestment = live.netInvestment();
+                        pnl = live.pnl();
+                        roi = live.roi();
+                } else {
+                        WalletSnapshot latestSnapshot = walletSnapshotRepository.getLatestSnapshot(wallet.getId());
+                        totalEquity = latestSnapshot != null ? latestSnapshot.getTotalEquity() : BigDecimal.ZERO;
+                        netInvestment = latestSnapshot != null ? latestSnapshot.getNetInvestment() : BigDecimal.ZERO;
+                        pnl = calculatePnl(wallet.getId(), thirtyDaysAgo);
+                        roi = calculateRoi(wallet.getId(), thirtyDaysAgo);
+                }
 
                 // Calculate Max Drawdown (all-time)
                 BigDecimal maxDrawdown = calculateMaxDrawdown(wallet.getId());
@@ -60,10 +86,8 @@ public class WalletServiceImpl implements WalletService {
                                                                 .amount(holding.getAmount())
                                                                 .build())
                                                 .collect(Collectors.toList()))
-                                // Performance metrics from latest snapshot
-                                .totalEquity(latestSnapshot != null ? latestSnapshot.getTotalEquity() : BigDecimal.ZERO)
-                                .netInvestment(latestSnapshot != null ? latestSnapshot.getNetInvestment()
-                                                : BigDecimal.ZERO)
+                                .totalEquity(totalEquity)
+                                .netInvestment(netInvestment)
                                 .pnl(pnl)
                                 .roi(roi)
                                 .maxDrawdown(maxDrawdown)
@@ -74,6 +98,43 @@ public class WalletServiceImpl implements WalletService {
                 return asset;
         }
 
+        /**
+         * Equity at current prices, PnL / ROI against the first snapshot at or after
+         * compareTime (same baseline as calcWalletPnl / calcWalletRoi). Null when a
+         * held coin has no price.
+         */
+        private LiveMetrics liveMetrics(UUID walletId, Instant compareTime) {
+                try {
+                        PositionBook.Position position = positionBook.wallet(walletId);
+                        if (position == null) {
+                                return null;
+                        }
+                        BigDecimal equity = positionBook.equity(position);
+                        // No net investment yet: the snapshot job takes the equity as baseline
+                        BigDecimal netInvestment = position.netInvestment() != null
+                                        && position.netInvestment().signum() != 0 ? position.netInvestment() : equity;
+                        BigDecimal livePnl = equity.subtract(netInvestment);
+
+                        List<Object[]> baseline = walletSnapshotRepository.findBaseline(walletId, compareTime);
+                        BigDecimal basePnl = baseline.isEmpty() ? BigDecimal.ZERO : (BigDecimal) baseline.get(0)[0];
+                        BigDecimal baseNetInvestment = baseline.isEmpty() ? netInvestment
+                                        : (BigDecimal) baseline.get(0)[1];
+
+                        BigDecimal pnl = livePnl.subtract(basePnl);
+                        BigDecimal roi = baseNetInvestment.signum() > 0
+                                        ? pnl.multiply(HUNDRED).divide(baseNetInvestment, 4, RoundingMode.HALF_UP)
+                                        : BigDecimal.ZERO;
+                        return new LiveMetrics(equity, netInvestment, pnl, roi);
+                } catch (PriceUnavailableException e) {
+                        log.debug("No live price for wallet {}, using the latest snapshot: {}", walletId,
+                                        e.getMessage());
+                        return null;
+                }
+        }
+
+        private record LiveMetrics(BigDecimal equity, BigDecimal netInvestment, BigDecimal pnl, BigDecimal roi) {
+        }
+
         /**
          * Calculate PnL for the given timeframe
          */
@@ -101,10 +162,15 @@ public class WalletServiceImpl implements WalletService {
         }
 
         /**
-         * Calculate Max Drawdown (all-time)
+         * Calculate Max Drawdown (all-time), from the running minimum when the
+         * wallet has one (see WalletSnapshotServiceImpl)
          */
         private BigDecimal calculateMaxDrawdown(UUID walletId) {
                 try {
+                        Optional<WalletMetrics> metrics = walletMetricsRepository.findByWalletId(walletId);
+                        if (metrics.isPresent()) {
+                                return metrics.get().getMaxDrawdown();
+                        }
                         BigDecimal maxDD = walletSnapshotRepository.calcWalletMaxDrawdown(walletId);
                         return maxDD != null ? maxDD : BigDecimal.ZERO;
                 } catch (Exception e) {
@@ -118,6 +184,10 @@ public class WalletServiceImpl implements WalletService {
          */
         private BigDecimal calculateMaxDrawdownPct(UUID walletId) {
                 try {
+                        Optional<WalletMetrics> metrics = walletMetricsRepository.findByWalletId(walletId);
+                        if (metrics.isPresent()) {
+                                return metrics.get().getMaxDrawdownPct();
+                        }
                         BigDecimal maxDDPct = walletSnapshotRepository.calcWalletMaxDrawdownPct(walletId);
                         return maxDDPct != null ? maxDDPct : BigDecimal.ZERO;
                 } catch (Exception e) {
@@ -131,12 +201,14 @@ public class WalletServiceImpl implements WalletService {
          */
         private List<AssetResponse.ChartDataPoint> getChartData(UUID walletId, Instant fromTime) {
                 try {
-                        List<Object[]> rawData = walletSnapshotRepository.getWalletChartData(walletId, fromTime);
-
-                        return rawData.stream()
-                                        .map(row -> AssetResponse.ChartDataPoint.builder()
-                                                        .timestamp((Instant) row[0])
-                                                        .value((BigDecimal) row[1])
+                        long bucketSeconds = ChartSeries.bucketSeconds(fromTime);
+                        List<Object[]> rawData = walletSnapshotRepository.getWalletChartData(walletId, fromTime,
+                                        bucketSeconds);
+
+                        return ChartSeries.fromBuckets(rawData, bucketSeconds, chartMaxPoints).stream()
+                                        .map(point -> AssetResponse.ChartDataPoint.builder()
+                                                        .timestamp(point.timestamp())
+                                                        .value(point.value())
                                                         .build())
                                         .collect(Collectors.toList());
                 } catch (Exception e) {
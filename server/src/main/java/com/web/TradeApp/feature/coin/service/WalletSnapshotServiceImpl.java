@@ -1,30 +1,48 @@
 package com.web.TradeApp.feature.coin.service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import com.web.TradeApp.config.SchedulingConfig;
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
 import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.entity.WalletMetrics;
 import com.web.TradeApp.feature.coin.entity.WalletSnapshot;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.coin.repository.WalletMetricsRepository;
 import com.web.TradeApp.feature.coin.repository.WalletSnapshotRepository;
+import com.web.TradeApp.feature.coin.repository.WalletSnapshotRollupRepository;
+import com.web.TradeApp.feature.common.entity.BaseSnapshotRollup.Resolution;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,92 +51,183 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class WalletSnapshotServiceImpl implements WalletSnapshotService {
 
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
     private final WalletRepository walletRepo;
+    private final CoinHoldingRepository coinHoldingRepo;
     private final WalletSnapshotRepository walletSnapshotRepo;
     private final CoinGeckoClient marketPriceService;
+    private final WalletMetricsRepository walletMetricsRepo;
+    private final WalletSnapshotRollupRepository walletRollupRepo;
     private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
 
     @Value("${snapshot.batch-size:100}")
     private int batchSize;
 
+    // Interval of the job: live feed prices are averaged (VWAP) over it
+    @Value("${snapshot.interval:300000}")
+    private long intervalMillis;
+
     @Value("${snapshot.transaction-timeout:30}")
     private int transactionTimeout;
 
+    // Pages computed and written at once, 0 = DB pool size - 2
+    @Value("${snapshot.workers:0}")
+    private int workers;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int dbPoolSize;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private Timer jobTimer;
+    private Counter rowsCounter;
+    private Counter skippedRuns;
+
+    @PostConstruct
+    void initMetrics() {
+        jobTimer = Timer.builder("snapshot.job.duration")
+                .description("Duration of a snapshot job run")
+                .tag("job", "wallet")
+                .register(meterRegistry);
+        rowsCounter = meterRegistry.counter("snapshot.job.rows", "job", "wallet");
+        skippedRuns = meterRegistry.counter("snapshot.job.skipped", "job", "wallet");
+    }
+
+    @Async(SchedulingConfig.SNAPSHOT_JOB_EXECUTOR)
     @Scheduled(fixedRateString = "${snapshot.interval:300000}") // Default: Every 5 minutes
     @Override
     public void captureWallets() {
+        // Overlap guard: runs are async (see SchedulingConfig), a run longer than
+        // the interval must not start a second one
+        if (!running.compareAndSet(false, true)) {
+            log.warn("⏭️ Previous Wallet Snapshot Job still running, skipping this run");
+            skippedRuns.increment();
+            return;
+        }
+        try {
+            runPipeline();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Same pipeline as the subscription snapshot job:
+     * 1. Prices of every held coin, fetched ONCE for the run
+     * (VWAP over the interval for coins with a live price feed).
+     * 2. Producer (this thread): keyset page of wallet ids, then the wallets
+     * of the page with their holdings in one IN query.
+     * 3. Workers (virtual threads, at most N pages in flight): compute the
+     * snapshots of a page and write them in their own transaction (JDBC batched
+     * inserts, see hibernate.jdbc.batch_size).
+     */
+    private void runPipeline() {
         log.info("💰 Starting Wallet Snapshot Job...");
+        long startNanos = System.nanoTime();
+        PhaseTimes phases = new PhaseTimes();
+
+        // Single timestamp for the run (same as the subscription job)
+        Instant runTimestamp = Instant.now();
 
-        // Start with NIL UUID for keyset pagination
-        UUID lastId = UUID.fromString("00000000-0000-0000-0000-000000000000");
-        int totalProcessed = 0;
-        boolean hasNextBatch = true;
+        // 1. Prices once per run
+        long phaseStart = System.nanoTime();
+        Map<String, BigDecimal> priceMap = fetchPrices(coinHoldingRepo.findHeldCoinGeckoIds());
+        phases.prices.addAndGet(System.nanoTime() - phaseStart);
 
         // Configure TransactionTemplate for manual control
         TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
         txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
         txTemplate.setTimeout(transactionTimeout);
 
-        while (hasNextBatch) {
-            final UUID batchStartId = lastId;
-
-            // 1. Fetch Data (Read-Only, outside transaction for speed)
-            // Using LEFT JOIN FETCH to eagerly load CoinHoldings
-            Pageable limit = PageRequest.of(0, batchSize);
-            List<Wallet> batch = walletRepo.findByIdGreaterThanWithCoinHoldingsOrderByIdAsc(lastId, limit);
-
-            if (batch.isEmpty()) {
-                hasNextBatch = false;
-                break;
-            }
-
-            // 2. Process & Save (Inside Transaction Boundary)
-            Integer savedCount = txTemplate.execute(status -> {
-                try {
-                    return processAndSaveBatch(batch);
-                } catch (Exception e) {
-                    log.error("❌ Wallet batch failed for range > {}. Rolling back this batch only.", batchStartId, e);
-                    status.setRollbackOnly();
-                    return 0;
+        // Leave a few connections for HTTP requests and the other jobs
+        int concurrency = workers > 0 ? workers : Math.max(1, dbPoolSize - 2);
+        Semaphore inFlight = new Semaphore(concurrency);
+        AtomicInteger totalProcessed = new AtomicInteger();
+
+        try (ExecutorService executor = Executors
+                .newThreadPerTaskExecutor(Thread.ofVirtual().name("wallet-snapshot-", 0).factory())) {
+            // Start with NIL UUID for keyset pagination
+            UUID lastId = UUID.fromString("00000000-0000-0000-0000-000000000000");
+            while (true) {
+                // 2. Fetch Data (Read-Only, outside transaction for speed)
+                phaseStart = System.nanoTime();
+                List<UUID> ids = walletRepo.findIdsGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
                 }
-            });
+                List<Wallet> batch = walletRepo.findAllByIdInWithCoinHoldings(ids);
+                phases.read.addAndGet(System.nanoTime() - phaseStart);
+
+                final UUID batchStartId = lastId;
+                lastId = ids.get(ids.size() - 1);
+
+                // Back-pressure: wait for a worker when N pages are in flight
+                inFlight.acquireUninterruptibly();
+                executor.execute(() -> {
+                    try {
+                        // 3. Process & Save (Inside Transaction Boundary)
+                        Integer savedCount = txTemplate.execute(status -> {
+                            try {
+                                return processAndSaveBatch(batch, priceMap, runTimestamp, phases);
+                            } catch (Exception e) {
+                                log.error("❌ Wallet batch failed for range > {}. Rolling back this batch only.",
+                                        batchStartId, e);
+                                status.setRollbackOnly();
+                                return 0;
+                            }
+                        });
+                        totalProcessed.addAndGet(savedCount != null ? savedCount : 0);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        } // close() waits for the last pages
+
+        // 4. Report (compute / write are summed over the workers)
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        jobTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        rowsCounter.increment(totalProcessed.get());
+        phases.record();
+        log.info("✅ Wallet Snapshot Job Finished. Processed {} wallet snapshots in {} ms ({} rows/s, {} workers)"
+                + " | prices {} ms, read {} ms, compute {} ms, write {} ms",
+                totalProcessed.get(), elapsedMillis,
+                elapsedMillis > 0 ? totalProcessed.get() * 1000L / elapsedMillis : totalProcessed.get(), concurrency,
+                phases.millis(phases.prices), phases.millis(phases.read), phases.millis(phases.compute),
+                phases.millis(phases.write));
+    }
 
-            // 3. Update Cursor
-            lastId = batch.get(batch.size() - 1).getId();
-            totalProcessed += (savedCount != null ? savedCount : 0);
+    private Map<String, BigDecimal> fetchPrices(List<String> coinIds) {
+        if (coinIds.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            Map<String, BigDecimal> priceMap = marketPriceService.getBatchPrices(coinIds,
+                    Duration.ofMillis(intervalMillis));
+            log.debug("📊 Fetched {} coin prices in one batch API call", priceMap.size());
+            return priceMap;
+        } catch (Exception e) {
+            log.error("❌ Failed to fetch batch prices: {}", e.getMessage());
+            return Map.of();
         }
-
-        log.info("✅ Wallet Snapshot Job Finished. Processed {} wallet snapshots.", totalProcessed);
     }
 
     /**
      * Process and save a batch of wallet snapshots
      * This method runs inside a transaction
      */
-    private int processAndSaveBatch(List<Wallet> wallets) {
+    private int processAndSaveBatch(List<Wallet> wallets, Map<String, BigDecimal> priceMap, Instant runTimestamp,
+            PhaseTimes phases) {
+        long phaseStart = System.nanoTime();
         List<WalletSnapshot> snapshots = new ArrayList<>();
 
-        // OPTIMIZATION: Collect all unique coin IDs from all wallets FIRST
-        Set<String> allCoinIds = wallets.stream()
-                .flatMap(wallet -> wallet.getCoinHoldings().stream())
-                .map(holding -> holding.getCoin().getCoinGeckoId())
-                .collect(Collectors.toSet());
-
-        // Fetch ALL prices in ONE API call (instead of N individual calls)
-        Map<String, BigDecimal> priceMap = new HashMap<>();
-        if (!allCoinIds.isEmpty()) {
-            try {
-                priceMap = marketPriceService.getBatchPrices(new ArrayList<>(allCoinIds));
-                log.debug("📊 Fetched {} coin prices in one batch API call", priceMap.size());
-            } catch (Exception e) {
-                log.error("❌ Failed to fetch batch prices: {}", e.getMessage());
-            }
-        }
-
-        // Now process each wallet using the pre-fetched prices
+        // Process each wallet using the pre-fetched prices
         for (Wallet wallet : wallets) {
             try {
-                WalletSnapshot snapshot = processSingleWallet(wallet, priceMap);
+                WalletSnapshot snapshot = processSingleWallet(wallet, priceMap, runTimestamp);
                 if (snapshot != null) {
                     snapshots.add(snapshot);
                 }
@@ -126,22 +235,73 @@ public class WalletSnapshotServiceImpl implements WalletSnapshotService {
                 log.warn("Skipping wallet {} due to calculation error: {}", wallet.getId(), e.getMessage());
             }
         }
+        phases.compute.addAndGet(System.nanoTime() - phaseStart);
 
         // Bulk Insert
+        phaseStart = System.nanoTime();
         if (!snapshots.isEmpty()) {
             walletSnapshotRepo.saveAll(snapshots);
+            updateDrawdowns(snapshots);
         }
+        phases.write.addAndGet(System.nanoTime() - phaseStart);
 
         return snapshots.size();
     }
 
+    /**
+     * Folds the new snapshots into the running all-time drawdown of each wallet
+     * (wallet_metrics), so reads never scan the snapshot history. A wallet seen
+     * for the first time starts from its history: raw snapshots plus daily
+     * rollups (raw rows may already be pruned).
+     */
+    private void updateDrawdowns(List<WalletSnapshot> snapshots) {
+        List<UUID> walletIds = snapshots.stream().map(s -> s.getWallet().getId()).toList();
+        Map<UUID, WalletMetrics> existing = walletMetricsRepo.findAllByWalletIdIn(walletIds).stream()
+                .collect(Collectors.toMap(m -> m.getWallet().getId(), Function.identity()));
+
+        List<WalletMetrics> toSave = new ArrayList<>();
+        for (WalletSnapshot snap : snapshots) {
+            BigDecimal pct = snap.getNetInvestment().compareTo(BigDecimal.ZERO) > 0
+                    ? snap.getPnl().multiply(HUNDRED).divide(snap.getNetInvestment(), 8, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+
+            WalletMetrics metrics = existing.get(snap.getWallet().getId());
+            if (metrics == null) {
+                UUID walletId = snap.getWallet().getId();
+                // History minimum (the query auto-flushes this snapshot, so it is included)
+                BigDecimal minPnl = walletSnapshotRepo.calcWalletMaxDrawdown(walletId);
+                BigDecimal minPct = walletSnapshotRepo.calcWalletMaxDrawdownPct(walletId);
+                for (Object[] rolled : walletRollupRepo.findDrawdown(walletId, Resolution.DAY)) {
+                    if (rolled[0] != null) {
+                        minPnl = minPnl.min((BigDecimal) rolled[0]);
+                        minPct = minPct.min((BigDecimal) rolled[1]);
+                    }
+                }
+                metrics = WalletMetrics.builder()
+                        .wallet(snap.getWallet())
+                        .maxDrawdown(minPnl.min(snap.getPnl()))
+                        .maxDrawdownPct(minPct.min(pct))
+                        .lastRecordedAt(snap.getRecordedAt())
+                        .build();
+            } else {
+                metrics.setMaxDrawdown(metrics.getMaxDrawdown().min(snap.getPnl()));
+                metrics.setMaxDrawdownPct(metrics.getMaxDrawdownPct().min(pct));
+                metrics.setLastRecordedAt(snap.getRecordedAt());
+            }
+            toSave.add(metrics);
+        }
+        walletMetricsRepo.saveAll(toSave);
+    }
+
     /**
      * Process a single wallet and create a snapshot using pre-fetched prices
      * 
-     * @param wallet   The wallet to process
-     * @param priceMap Pre-fetched coin prices (coinGeckoId -> price)
+     * @param wallet       The wallet to process
+     * @param priceMap     Pre-fetched coin prices (coinGeckoId -> price)
+     * @param runTimestamp Timestamp shared by every snapshot of the run
      */
-    private WalletSnapshot processSingleWallet(Wallet wallet, Map<String, BigDecimal> priceMap) {
+    private WalletSnapshot processSingleWallet(Wallet wallet, Map<String, BigDecimal> priceMap,
+            Instant runTimestamp) {
         // --- STEP 1: Get wallet USDT balance ---
         BigDecimal walletBalance = wallet.getBalance();
 
@@ -200,7 +360,7 @@ public class WalletSnapshotServiceImpl implements WalletSnapshotService {
                 .netInvestment(netInvestment)
                 .pnl(pnl)
                 .roi(roi)
-                .recordedAt(Instant.now())
+                .recordedAt(runTimestamp)
                 .build();
 
         log.debug(
@@ -209,4 +369,33 @@ public class WalletSnapshotServiceImpl implements WalletSnapshotService {
 
         return snapshot;
     }
+
+    /**
+     * Time spent per phase over one run (nanos, summed across workers)
+     */
+    private final class PhaseTimes {
+        private final AtomicLong prices = new AtomicLong();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong compute = new AtomicLong();
+        private final AtomicLong write = new AtomicLong();
+
+        void record() {
+            phaseTimer("prices").record(prices.get(), TimeUnit.NANOSECONDS);
+            phaseTimer("read").record(read.get(), TimeUnit.NANOSECONDS);
+            phaseTimer("compute").record(compute.get(), TimeUnit.NANOSECONDS);
+            phaseTimer("write").record(write.get(), TimeUnit.NANOSECONDS);
+        }
+
+        long millis(AtomicLong phase) {
+            return TimeUnit.NANOSECONDS.toMillis(phase.get());
+        }
+
+        private Timer phaseTimer(String phase) {
+            return Timer.builder("snapshot.job.phase")
+                    .description("Time spent per phase of a snapshot job run")
+                    .tag("job", "wallet")
+                    .tag("phase", phase)
+                    .register(meterRegistry);
+        }
+    }
 }
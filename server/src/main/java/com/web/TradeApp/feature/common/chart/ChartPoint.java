@@ -0,0 +1,10 @@
+package com.web.TradeApp.feature.common.chart;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One point of a downsampled chart series (bucket start, value).
+ */
+public record ChartPoint(Instant timestamp, BigDecimal value) {
+}
@@ -0,0 +1,150 @@
+package com.web.TradeApp.feature.common.chart;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chart engine of the snapshot charts (bots, subscriptions, wallets).
+ *
+ * The DB groups the snapshots into fixed time buckets (see the chart queries of
+ * SnapshotMetricsRepository / WalletSnapshotRepository), with a resolution
+ * that scales with the window: 5m up to 1 day, 1h up to 30 days, 1d beyond.
+ * If that is still more than the requested number of points, LTTB
+ * (Largest-Triangle-Three-Buckets) picks the points that keep the shape of the
+ * curve (peaks and drops survive, flat stretches are thinned out).
+ */
+public final class ChartSeries {
+
+    private static final long FIVE_MINUTES = Duration.ofMinutes(5).toSeconds();
+    private static final long ONE_HOUR = Duration.ofHours(1).toSeconds();
+    private static final long ONE_DAY = Duration.ofDays(1).toSeconds();
+
+    private ChartSeries() {
+    }
+
+    /**
+     * Bucket width (seconds) for a window starting at fromTime.
+     * Instant.EPOCH (all-time) uses daily buckets.
+     */
+    public static long bucketSeconds(Instant fromTime) {
+        Duration window = Duration.between(fromTime, Instant.now());
+        if (window.compareTo(Duration.ofDays(1).plusMinutes(1)) <= 0) {
+            return FIVE_MINUTES;
+        }
+        if (window.compareTo(Duration.ofDays(30).plusMinutes(1)) <= 0) {
+            return ONE_HOUR;
+        }
+        return ONE_DAY;
+    }
+
+    /**
+     * Daily buckets are served from the daily snapshot rollups (the raw
+     * snapshots of long windows are pruned).
+     */
+    public static boolean isDaily(long bucketSeconds) {
+        return bucketSeconds >= ONE_DAY;
+    }
+
+    /**
+     * Bucketed rows -> at most maxPoints points.
+     *
+     * @param rows          [0] = bucket number (epoch seconds / bucketSeconds)
+     *                      or bucket start (rollup tables), [1] = bucket value,
+     *                      ordered by bucket
+     * @param bucketSeconds width used by the query
+     */
+    public static List<ChartPoint> fromBuckets(List<Object[]> rows, long bucketSeconds, int maxPoints) {
+        List<ChartPoint> points = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[0] == null || row[1] == null) {
+                continue;
+            }
+            Instant start = switch (row[0]) {
+                case Instant instant -> instant;
+                case java.sql.Timestamp timestamp -> timestamp.toInstant();
+                default -> Instant.ofEpochSecond(((Number) row[0]).longValue() * bucketSeconds);
+            };
+            points.add(new ChartPoint(start, decimal(row[1])));
+        }
+        return lttb(points, maxPoints);
+    }
+
+    /**
+     * Largest-Triangle-Three-Buckets downsampling: keeps the first and last
+     * point, and from each of the (threshold - 2) buckets in between the point
+     * forming the largest triangle with the previously kept point and the
+     * average of the next bucket.
+     */
+    public static List<ChartPoint> lttb(List<ChartPoint> points, int threshold) {
+        int size = points.size();
+        if (threshold < 3 || size <= threshold) {
+            return points;
+        }
+
+        List<ChartPoint> sampled = new ArrayList<>(threshold);
+        double every = (double) (size - 2) / (threshold - 2);
+        int kept = 0;
+        sampled.add(points.get(0));
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket (the last point for the last bucket)
+            int nextStart = (int) Math.floor((i + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, size);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += x(points.get(j));
+                avgY += y(points.get(j));
+            }
+            int nextCount = nextEnd - nextStart;
+            if (nextCount > 0) {
+                avgX /= nextCount;
+                avgY /= nextCount;
+            } else {
+                avgX = x(points.get(size - 1));
+                avgY = y(points.get(size - 1));
+            }
+
+            // Point of the current bucket with the largest triangle area
+            int start = (int) Math.floor(i * every) + 1;
+            int end = (int) Math.floor((i + 1) * every) + 1;
+            double keptX = x(points.get(kept));
+            double keptY = y(points.get(kept));
+            double maxArea = -1;
+            int chosen = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((keptX - avgX) * (y(points.get(j)) - keptY)
+                        - (keptX - x(points.get(j))) * (avgY - keptY));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = j;
+                }
+            }
+            sampled.add(points.get(chosen));
+            kept = chosen;
+        }
+
+        sampled.add(points.get(size - 1));
+        return sampled;
+    }
+
+    private static double x(ChartPoint point) {
+        return point.timestamp().getEpochSecond();
+    }
+
+    private static double y(ChartPoint point) {
+        return point.value().doubleValue();
+    }
+
+    // AVG comes back as Double: back to the scale of the snapshot columns
+    private static BigDecimal decimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return new BigDecimal(value.toString()).setScale(6, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,141 @@
+package com.web.TradeApp.feature.common.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.MappedSuperclass;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.SuperBuilder;
+
+/**
+ * OHLC-style rollup of the snapshots of one owner (subscription / wallet) over
+ * one hour or one day: open / min / max / close of equity and PnL, the lowest
+ * PnL % (drawdown) and the last net investment.
+ *
+ * Rows are rebuilt from scratch (reset + add/merge in time order), so rolling
+ * the same bucket up twice gives the same row.
+ */
+@MappedSuperclass
+@Getter
+@Setter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public abstract class BaseSnapshotRollup extends BaseEntity {
+
+    public enum Resolution {
+        HOUR, DAY
+    }
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 10)
+    private Resolution resolution;
+
+    // Start of the hour / day (UTC)
+    @Column(name = "bucket_start", nullable = false)
+    private Instant bucketStart;
+
+    @Column(name = "open_equity", precision = 19, scale = 8)
+    private BigDecimal openEquity;
+
+    @Column(name = "min_equity", precision = 19, scale = 8)
+    private BigDecimal minEquity;
+
+    @Column(name = "max_equity", precision = 19, scale = 8)
+    private BigDecimal maxEquity;
+
+    @Column(name = "close_equity", precision = 19, scale = 8)
+    private BigDecimal closeEquity;
+
+    @Column(name = "open_pnl", precision = 19, scale = 8)
+    private BigDecimal openPnl;
+
+    @Column(name = "min_pnl", precision = 19, scale = 8)
+    private BigDecimal minPnl;
+
+    @Column(name = "max_pnl", precision = 19, scale = 8)
+    private BigDecimal maxPnl;
+
+    @Column(name = "close_pnl", precision = 19, scale = 8)
+    private BigDecimal closePnl;
+
+    // Lowest PnL / netInvestment * 100 of the bucket
+    @Column(name = "min_pnl_pct", precision = 19, scale = 8)
+    private BigDecimal minPnlPct;
+
+    @Column(name = "close_net_investment", precision = 19, scale = 8)
+    private BigDecimal closeNetInvestment;
+
+    @Column(name = "samples", nullable = false)
+    private int samples;
+
+    @Column(name = "last_recorded_at")
+    private Instant lastRecordedAt;
+
+    /**
+     * Empties the bucket before it is rebuilt.
+     */
+    public void reset() {
+        openEquity = minEquity = maxEquity = closeEquity = null;
+        openPnl = minPnl = maxPnl = closePnl = null;
+        minPnlPct = closeNetInvestment = null;
+        samples = 0;
+        lastRecordedAt = null;
+    }
+
+    /**
+     * Adds one raw snapshot (snapshots in time order).
+     */
+    public void add(Instant recordedAt, BigDecimal equity, BigDecimal pnl, BigDecimal netInvestment) {
+        BigDecimal pct = netInvestment.compareTo(BigDecimal.ZERO) > 0
+                ? pnl.multiply(HUNDRED).divide(netInvestment, 8, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+        fold(recordedAt, equity, equity, equity, equity, pnl, pnl, pnl, pnl, pct, netInvestment, 1);
+    }
+
+    /**
+     * Adds a finer rollup, e.g. an hour into its day (rollups in time order).
+     */
+    public void merge(BaseSnapshotRollup finer) {
+        if (finer.getSamples() == 0) {
+            return;
+        }
+        fold(finer.getLastRecordedAt(), finer.getOpenEquity(), finer.getMinEquity(), finer.getMaxEquity(),
+                finer.getCloseEquity(), finer.getOpenPnl(), finer.getMinPnl(), finer.getMaxPnl(),
+                finer.getClosePnl(), finer.getMinPnlPct(), finer.getCloseNetInvestment(), finer.getSamples());
+    }
+
+    private void fold(Instant at, BigDecimal openEq, BigDecimal minEq, BigDecimal maxEq, BigDecimal closeEq,
+            BigDecimal open, BigDecimal min, BigDecimal max, BigDecimal close, BigDecimal pct,
+            BigDecimal netInvestment, int count) {
+        if (samples == 0) {
+            openEquity = openEq;
+            minEquity = minEq;
+            maxEquity = maxEq;
+            openPnl = open;
+            minPnl = min;
+            maxPnl = max;
+            minPnlPct = pct;
+        } else {
+            minEquity = minEquity.min(minEq);
+            maxEquity = maxEquity.max(maxEq);
+            minPnl = minPnl.min(min);
+            maxPnl = maxPnl.max(max);
+            minPnlPct = minPnlPct.min(pct);
+        }
+        closeEquity = closeEq;
+        closePnl = close;
+        closeNetInvestment = netInvestment;
+        lastRecordedAt = at;
+        samples += count;
+    }
+}
@@ -0,0 +1,75 @@
+package com.web.TradeApp.feature.common.http;
+
+import java.time.Duration;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ *
+ * CLOSED: calls pass; {@code failureThreshold} failures in a row open it.
+ * OPEN: calls are rejected without touching the network for {@code openDuration}.
+ * HALF_OPEN: one trial call is let through; success closes, failure re-opens.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInProgress;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return false if the call must be rejected
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            trialInProgress = false;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (trialInProgress) {
+                    yield false;
+                }
+                trialInProgress = true;
+                yield true;
+            }
+        };
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInProgress = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        trialInProgress = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    // The call was given up before reaching the API (e.g. local rate limit): no verdict
+    public synchronized void release() {
+        trialInProgress = false;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
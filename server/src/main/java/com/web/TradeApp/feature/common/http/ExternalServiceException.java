@@ -0,0 +1,23 @@
+package com.web.TradeApp.feature.common.http;
+
+import lombok.Getter;
+
+/**
+ * Failed call to an external HTTP API. {@code statusCode} is the HTTP status,
+ * or 0 when no response was received (timeout, network error, circuit open,
+ * local rate limit).
+ */
+@Getter
+public class ExternalServiceException extends RuntimeException {
+    private final int statusCode;
+
+    public ExternalServiceException(int statusCode, String message) {
+        super(message);
+        this.statusCode = statusCode;
+    }
+
+    public ExternalServiceException(String message, Throwable cause) {
+        super(message, cause);
+        this.statusCode = 0;
+    }
+}
@@ -0,0 +1,208 @@
+package com.web.TradeApp.feature.common.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared client for one external HTTP API, on top of the JDK {@link HttpClient}
+ * (connection pool with keep-alive, HTTP/2 with fallback to 1.1).
+ *
+ * Every GET goes through, in order:
+ * 1. the circuit breaker: after failure-threshold failed calls in a row the API
+ * is considered down and calls fail fast for open-duration;
+ * 2. the token bucket: attempts (retries included) are spaced to the API quota;
+ * 3. the request with strict connect / response timeouts;
+ * 4. retries with jittered backoff for network errors, 429 and 5xx. A 429
+ * with a Retry-After header pauses the token bucket for that long, so no call
+ * of this client (the retry included) goes out before the API allows it.
+ * Other 4xx are returned to the caller as {@link ExternalServiceException}
+ * with the status and don't count as failures.
+ *
+ * Latency of every attempt is recorded in the "external.http.requests"
+ * histogram, tagged client and status. The timer of each status is built and
+ * registered once, then reused.
+ */
+@Slf4j
+public class ResilientHttpClient {
+
+    private final String name;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration rateLimitWait;
+    private final TokenBucket rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    // status ("200", "429", "IO_ERROR", ...) -> latency timer
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
+
+    @Builder
+    private ResilientHttpClient(String name, Duration connectTimeout, Duration requestTimeout, int maxRetries,
+            Duration retryBackoff, long rateLimitPerMinute, long rateLimitBurst, Duration rateLimitWait,
+            int failureThreshold, Duration openDuration, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.requestTimeout = requestTimeout;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.rateLimitWait = rateLimitWait;
+        this.rateLimiter = new TokenBucket(rateLimitBurst, rateLimitPerMinute);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        meterRegistry.gauge("external.http.circuit.open", Tags.of("client", name),
+                circuitBreaker, cb -> cb.state() == CircuitBreaker.State.CLOSED ? 0 : 1);
+    }
+
+    /**
+     * GETs a URL and returns the body of a 2xx response.
+     *
+     * @throws ExternalServiceException on any other outcome
+     */
+    public String get(String url) {
+        if (!circuitBreaker.tryAcquire()) {
+            throw new ExternalServiceException(0, name + " circuit is open, skipping call");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+
+        ExternalServiceException lastError = null;
+        boolean throttled = false;
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            // After a Retry-After the paused token bucket does the waiting
+            if (attempt > 0 && !throttled) {
+                sleepBeforeRetry(attempt);
+            }
+            throttled = false;
+            acquireToken();
+
+            long start = System.nanoTime();
+            int status = 0;
+            try {
+                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                if (status >= 200 && status < 300) {
+                    circuitBreaker.onSuccess();
+                    return response.body();
+                }
+                lastError = new ExternalServiceException(status, name + " returned HTTP " + status + " for " + url);
+                if (status == 429) {
+                    Duration retryAfter = retryAfter(response);
+                    if (retryAfter != null) {
+                        rateLimiter.pause(retryAfter);
+                        throttled = true;
+                        log.warn("🚦 {} rate limited, pausing calls for {}s", name, retryAfter.toSeconds());
+                    }
+                }
+                if (status != 429 && status < 500) {
+                    // Caller error (e.g. 404): the API itself is healthy, no retry
+                    circuitBreaker.onSuccess();
+                    throw lastError;
+                }
+            } catch (IOException e) {
+                // Includes HttpTimeoutException / HttpConnectTimeoutException
+                lastError = new ExternalServiceException(name + " call failed: " + e.getMessage(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                circuitBreaker.onFailure();
+                throw new ExternalServiceException(name + " call interrupted", e);
+            } finally {
+                record(status, System.nanoTime() - start);
+            }
+            log.debug("🔁 {} attempt {} failed: {}", name, attempt + 1, lastError.getMessage());
+        }
+
+        circuitBreaker.onFailure();
+        throw lastError;
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.state();
+    }
+
+    private void acquireToken() {
+        try {
+            if (!rateLimiter.acquire(rateLimitWait)) {
+                circuitBreaker.release();
+                throw new ExternalServiceException(0, name + " rate limit reached, try again later");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            throw new ExternalServiceException(name + " call interrupted", e);
+        }
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        long cap = retryBackoff.toMillis() << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            circuitBreaker.release();
+            throw new ExternalServiceException(name + " call interrupted", e);
+        }
+    }
+
+    /**
+     * Retry-After of a response, in seconds or as an HTTP date. Null if absent
+     * or unparsable.
+     */
+    static Duration retryAfter(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // Not seconds: HTTP date
+        }
+        try {
+            Duration wait = Duration.between(ZonedDateTime.now(),
+                    ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return wait.isNegative() ? Duration.ZERO : wait;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private void record(int status, long nanos) {
+        String statusTag = status == 0 ? "IO_ERROR" : String.valueOf(status);
+        latencyTimers.computeIfAbsent(statusTag, tag -> Timer.builder("external.http.requests")
+                .description("Latency of calls to external HTTP APIs (per attempt)")
+                .tag("client", name)
+                .tag("status", tag)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,72 @@
+package com.web.TradeApp.feature.common.http;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket rate limiter: holds up to {@code capacity} tokens and refills
+ * {@code refillPerMinute} tokens per minute. Sized to the upstream API quota so
+ * we slow ourselves down instead of collecting 429s.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long lastRefill;
+    // Set by pause(): no token is handed out before this System.nanoTime()
+    private long pausedUntil;
+
+    public TokenBucket(long capacity, long refillPerMinute) {
+        this.capacity = Math.max(1, capacity);
+        this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+        this.pausedUntil = lastRefill;
+    }
+
+    /**
+     * Takes one token, waiting at most {@code maxWait} for it.
+     *
+     * @return false if no token became available in time
+     */
+    public boolean acquire(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                long pauseLeft = pausedUntil - System.nanoTime();
+                if (pauseLeft > 0) {
+                    waitNanos = pauseLeft;
+                } else if (tokens >= 1) {
+                    tokens -= 1;
+                    return true;
+                } else {
+                    waitNanos = (long) Math.ceil((1 - tokens) / tokensPerNano);
+                }
+            }
+            if (System.nanoTime() + waitNanos > deadline) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * Empties the bucket and hands out no token for {@code duration}, e.g. when
+     * the API answered 429 with a Retry-After. Every caller waits, not only the
+     * one that got the 429.
+     */
+    public synchronized void pause(Duration duration) {
+        refill();
+        tokens = 0;
+        pausedUntil = Math.max(pausedUntil, System.nanoTime() + duration.toNanos());
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
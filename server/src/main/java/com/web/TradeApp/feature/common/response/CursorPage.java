@@ -0,0 +1,10 @@
+package com.web.TradeApp.feature.common.response;
+
+import java.util.List;
+
+/**
+ * One keyset page: the items and the cursor of the next page (null on the
+ * last page).
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+}
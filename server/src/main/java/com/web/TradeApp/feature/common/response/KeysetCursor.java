@@ -0,0 +1,37 @@
+package com.web.TradeApp.feature.common.response;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position of the last row of a keyset page: its sort value and its id (the
+ * tie-breaker), as an opaque URL-safe token. The next page continues strictly
+ * after (value, id) in the same ordering, so rows are never skipped or
+ * repeated while the client scrolls, whatever its page size.
+ */
+public record KeysetCursor(String value, UUID id) {
+
+    public String encode() {
+        String raw = value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null for a null/blank token (first page)
+     * @throws IllegalArgumentException if the token was not produced by encode()
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The value may contain '|' (bot names), the UUID never does
+            int separator = raw.lastIndexOf('|');
+            return new KeysetCursor(raw.substring(0, separator), UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+}
@@ -16,5 +16,7 @@ public class ResultPaginationResponse {
         private int pageSize;
         private int pages;
         private long total;
+        // Keyset pages only: pass back as ?cursor= to get the next page, null on the last one
+        private String nextCursor;
     }
 }
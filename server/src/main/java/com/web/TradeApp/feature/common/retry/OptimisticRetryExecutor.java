@@ -0,0 +1,128 @@
+package com.web.TradeApp.feature.common.retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.exception.ConflictException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs a read-modify-write unit of work in its own transaction and retries it
+ * when a concurrent update wins the race (@Version mismatch), or when the DB
+ * aborted it as a deadlock victim / on a lock wait timeout (e.g. two treasury
+ * debits falling back to the same shards).
+ *
+ * Every attempt is a fresh transaction, so the work must (re)load the entities
+ * it mutates instead of reusing instances from a previous attempt. Between
+ * attempts we sleep a random time in [0, min(max-backoff, base-backoff * 2^n)]
+ * ("full jitter") so the losers of a race don't collide again in lockstep.
+ * After max-attempts the conflict surfaces as a {@link ConflictException} (409).
+ *
+ * Called inside an existing transaction the work just joins it without retry:
+ * the outer transaction is already poisoned by the conflict, only its owner can
+ * retry.
+ *
+ * Metrics, tagged operation=...: "optimistic.attempts" (every attempt),
+ * "optimistic.conflicts" (attempts lost to a concurrent update) and
+ * "optimistic.exhausted" (operations that gave up).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OptimisticRetryExecutor {
+
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${retry.optimistic.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${retry.optimistic.base-backoff:10ms}")
+    private Duration baseBackoff;
+
+    @Value("${retry.optimistic.max-backoff:200ms}")
+    private Duration maxBackoff;
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        return execute(operation, new TransactionTemplate(transactionManager), work);
+    }
+
+    /**
+     * Same, with the caller's transaction settings for every attempt (timeout,
+     * propagation).
+     */
+    public <T> T execute(String operation, TransactionTemplate txTemplate, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+
+        for (int attempt = 1;; attempt++) {
+            meterRegistry.counter("optimistic.attempts", "operation", operation).increment();
+            try {
+                return txTemplate.execute(status -> work.get());
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                meterRegistry.counter("optimistic.conflicts", "operation", operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("optimistic.exhausted", "operation", operation).increment();
+                    log.warn("⚠️ {} gave up after {} concurrent update conflicts", operation, attempt);
+                    throw new ConflictException("Too many concurrent updates, please try again");
+                }
+                log.debug("🔁 {} conflicted with a concurrent update, retry {}/{}", operation, attempt,
+                        maxAttempts - 1);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoff.toMillis(), baseBackoff.toMillis() << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying a concurrent update");
+        }
+    }
+
+    // Spring translates most of them, but a commit-time flush may surface the raw JPA/Hibernate one.
+    // PessimisticLockingFailureException covers CannotAcquireLockException (deadlock, lock timeout)
+    private static boolean isConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof OptimisticLockingFailureException
+                    || t instanceof PessimisticLockingFailureException
+                    || t instanceof LockAcquisitionException
+                    || t instanceof PessimisticLockException
+                    || t instanceof OptimisticLockException
+                    || t instanceof StaleStateException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
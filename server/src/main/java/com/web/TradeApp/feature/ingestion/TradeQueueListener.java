@@ -1,72 +1,132 @@
 package com.web.TradeApp.feature.ingestion;
 
-import com.azure.storage.queue.QueueClient;
 import com.azure.storage.queue.models.QueueMessageItem;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.web.TradeApp.feature.aibot.enums.BotAction;
-import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.model.BotSignal;
 import com.web.TradeApp.feature.aibot.repository.BotRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+import com.web.TradeApp.feature.ingestion.auth.BotCredential;
+import com.web.TradeApp.feature.ingestion.auth.BotCredentialCache;
+import com.web.TradeApp.feature.ingestion.dedup.SignalDeduplicator;
+import com.web.TradeApp.feature.ingestion.envelope.SignalEnvelope;
+import com.web.TradeApp.feature.ingestion.envelope.SignalEnvelopeReader;
 import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
+import com.web.TradeApp.feature.ingestion.queue.SignalBatchHandler;
+import com.web.TradeApp.feature.ingestion.queue.SignalQueue;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
-public class TradeQueueListener {
+public class TradeQueueListener implements SignalBatchHandler {
 
     private final BotRepository botRepository;
     private final BotSignalRepository botSignalRepository;
-    private final ObjectMapper objectMapper;
-    private final QueueClient queueClient;
+    private final SignalEnvelopeReader envelopeReader;
+    private final SignalQueue signalQueue;
     private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final BotCredentialCache credentialCache;
+    private final SignalDeduplicator signalDeduplicator;
 
-    // Poll every 2 seconds
-    @Scheduled(fixedDelay = 2000)
-    @Transactional
-    public void processMessages() {
-        try {
-            // 1. RECEIVE: Get up to 5 messages at once
-            // Visibility timeout: 30s (locks message so others don't process it)
-            for (QueueMessageItem message : queueClient.receiveMessages(5, Duration.ofSeconds(30),
-                    Duration.ofSeconds(5), null)) {
-                handleSingleMessage(message);
+    /**
+     * Called by QueueDrainEngine on one of its consumer threads.
+     * 1. RECEIVE is done by the engine (up to 32 messages, 30s visibility timeout)
+     *
+     * The whole batch goes through the pipeline together:
+     * parse/validate all -> one bot lookup -> one transaction with a JDBC batch
+     * insert -> delete messages only after the commit.
+     */
+    @Override
+    public void handleBatch(List<QueueMessageItem> batch) {
+        List<ParsedMessage> parsed = new ArrayList<>(batch.size());
+        List<QueueMessageItem> rejected = new ArrayList<>();
+
+        // 2. PARSE + VALIDATE every message (no DB work yet)
+        for (QueueMessageItem message : batch) {
+            ParsedMessage parsedMessage = parseAndValidate(message);
+            if (parsedMessage != null) {
+                parsed.add(parsedMessage);
+            } else {
+                rejected.add(message);
             }
-        } catch (Exception e) {
-            // Log connection errors (e.g. internet down) but don't crash app
-            log.error("Error polling Azure Queue: {}", e.getMessage());
+        }
+
+        // 3. AUTHENTICATE: credential cache, one query for all misses of the batch
+        Map<String, BotCredential> credentialsByToken = findCredentials(parsed);
+        List<PendingSignal> pending = new ArrayList<>(parsed.size());
+        for (ParsedMessage msg : parsed) {
+            BotCredential credential = credentialsByToken.get(msg.token());
+
+            if (credential == null) {
+                log.warn("⛔ UNKNOWN BOT: Token {}", msg.token());
+                rejected.add(msg.message()); // Unknown user, remove it
+                continue;
+            }
+
+            // Secure Password Check (Prevents Timing Attacks)
+            if (!credential.matchesSecret(msg.envelope().secretKey())) {
+                log.error("🚨 SECURITY: Invalid Secret for Bot: {}", credential.name());
+                rejected.add(msg.message()); // Bad password, remove it
+                continue;
+            }
+
+            BotSignal signal = buildBotSignal(credential, msg.envelope());
+
+            // 3.1 DEDUPLICATE: redelivered messages are dropped before any DB/trade work
+            if (!signalDeduplicator.markIfNew(signal.getIdempotencyKey())) {
+                log.info("♻️ DUPLICATE: Signal already received for Bot: {}. Msg ID: {}",
+                        credential.name(), msg.message().getMessageId());
+                rejected.add(msg.message()); // Already stored, remove it
+                continue;
+            }
+
+            pending.add(new PendingSignal(msg.message(), signal));
+        }
+
+        // 4. SAVE: all signals of the batch in one transaction
+        List<PendingSignal> committed = persistSignals(pending, rejected);
+
+        // 5. DELETE FROM QUEUE (only after commit) and fan out
+        rejected.forEach(this::deleteMessage);
+        for (PendingSignal signal : committed) {
+            deleteMessage(signal.message());
+            eventPublisher.publishEvent(new SignalReceivedEvent(this, signal.signal()));
         }
     }
 
-    private void handleSingleMessage(QueueMessageItem message) {
+    /**
+     * Parses and validates one message.
+     *
+     * @return the parsed message, or null if it must be discarded
+     */
+    private ParsedMessage parseAndValidate(QueueMessageItem message) {
         try {
             // Robust decoding: Handle both Plain JSON and Base64 encoded JSON
-            String messageBody = getDecodedMessageBody(message);
-
-            log.debug("Processing Message ID: {}", message.getMessageId());
-
-            // 2. PARSE JSON
             // We parse your specific structure: { "webhookToken": "...", "payload": {
             // "secret_key": "..." } }
-            JsonNode rootNode = objectMapper.readTree(messageBody);
+            SignalEnvelope envelope = envelopeReader.read(message.getBody().toBytes());
+
+            log.debug("Processing Message ID: {}", message.getMessageId());
 
             // 2.1 TIMESTAMP VALIDATION: Check if message is older than 5 minutes
-            long receivedAt = rootNode.path("receivedAt").asLong(0);
+            long receivedAt = envelope.receivedAt();
             if (receivedAt > 0) {
                 long currentTimeMillis = System.currentTimeMillis();
                 long ageInMillis = currentTimeMillis - receivedAt;
@@ -75,120 +135,112 @@ public class TradeQueueListener {
                 if (ageInMillis > fiveMinutesInMillis) {
                     log.warn("⏰ STALE MESSAGE: Message is {} minutes old. Discarding. Msg ID: {}",
                             ageInMillis / 60000, message.getMessageId());
-                    deleteMessage(message); // Remove stale message
-                    return;
+                    return null; // Remove stale message
                 }
             } else {
                 log.warn("⚠️ MISSING TIMESTAMP: receivedAt field not found. Msg ID: {}", message.getMessageId());
                 // Continue processing if no timestamp (for backward compatibility)
             }
 
-            // Extract Credentials
-            String incomingToken = rootNode.path("webhookToken").asText(null);
-            JsonNode payloadNode = rootNode.path("payload");
-            String incomingSecret = payloadNode.path("secret_key").asText(null);
-
             // 2.2 ACTION VALIDATION: Check if action is ERROR
-            String actionStr = payloadNode.path("action").asText("").toUpperCase();
+            String actionStr = envelope.action();
             if ("ERROR".equals(actionStr)) {
                 log.warn("⚠️ ERROR ACTION: Ignoring message with ERROR action. Msg ID: {}", message.getMessageId());
-                deleteMessage(message); // Remove ERROR messages
-                return;
+                return null; // Remove ERROR messages
             }
 
             // Validate action is LONG or SHORT
             if (!"LONG".equals(actionStr) && !"SHORT".equals(actionStr)) {
                 log.warn("⚠️ INVALID ACTION: Unknown action '{}'. Expected LONG or SHORT. Msg ID: {}",
                         actionStr, message.getMessageId());
-                deleteMessage(message); // Remove invalid action messages
-                return;
+                return null; // Remove invalid action messages
             }
 
-            // 3. VALIDATION
-            if (incomingToken == null || incomingSecret == null) {
+            // 2.3 CREDENTIALS PRESENT
+            if (envelope.webhookToken() == null || envelope.secretKey() == null) {
                 log.warn("⚠️ MALFORMED: Missing token or secret. Msg ID: {}", message.getMessageId());
-                deleteMessage(message); // Remove invalid garbage
-                return;
+                return null; // Remove invalid garbage
             }
 
-            // Find the Bot by Public Key (webhookToken)
-            Bot bot = botRepository.findByApiKey(incomingToken).orElse(null);
-
-            if (bot == null) {
-                log.warn("⛔ UNKNOWN BOT: Token {}", incomingToken);
-                deleteMessage(message); // Unknown user, remove it
-                return;
-            }
-
-            // Secure Password Check (Prevents Timing Attacks)
-            if (!isSecretValid(bot.getApiSecret(), incomingSecret)) {
-                log.error("🚨 SECURITY: Invalid Secret for Bot: {}", bot.getName());
-                deleteMessage(message); // Bad password, remove it
-                return;
-            }
-
-            // 4. SUCCESS: SAVE TO DB
-            saveBotSignal(bot, payloadNode, messageBody);
-
-            // log.info("✅ Signal saved for Bot: {}", bot.getName());
-
-            // 5. DELETE FROM QUEUE (Commit)
-            deleteMessage(message);
-
+            return new ParsedMessage(message, envelope);
         } catch (Exception e) {
             log.error("Failed to process message ID: " + message.getMessageId(), e);
-            // Do NOT delete. Azure will make it visible again after 30s for retry.
-            deleteMessage(message);
+            return null; // Unparseable, remove it
         }
     }
 
+    private Map<String, BotCredential> findCredentials(List<ParsedMessage> parsed) {
+        if (parsed.isEmpty()) {
+            return Map.of();
+        }
+        Set<String> tokens = parsed.stream().map(ParsedMessage::token).collect(Collectors.toSet());
+        return credentialCache.resolveAll(tokens);
+    }
+
     /**
-     * Safely extracts message body, handling Base64 if necessary.
+     * Inserts all signals in a single transaction. With hibernate.jdbc.batch_size
+     * and order_inserts this is one batched INSERT round trip per batch.
+     *
+     * If the batch insert fails, every signal is retried in its own transaction so
+     * one bad row can't block the rest. Rows rejected by the DB (constraint
+     * violations, e.g. a duplicate idempotency key) are moved to {@code rejected};
+     * signals that failed for other reasons (e.g. DB down) are left undeleted so
+     * Azure redelivers them.
+     *
+     * @return the signals that are committed
      */
-    private String getDecodedMessageBody(QueueMessageItem message) {
-        String body = message.getBody().toString();
-
-        // If it looks like JSON (starts with {), return as is.
-        if (body.trim().startsWith("{")) {
-            return body;
+    private List<PendingSignal> persistSignals(List<PendingSignal> pending, List<QueueMessageItem> rejected) {
+        if (pending.isEmpty()) {
+            return List.of();
         }
 
-        // Otherwise, try to decode from Base64
+        TransactionTemplate txTemplate = new TransactionTemplate(transactionManager);
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
         try {
-            byte[] decodedBytes = Base64.getDecoder().decode(body);
-            String decodedString = new String(decodedBytes, StandardCharsets.UTF_8);
-            // Sanity check: Does the decoded string look like JSON?
-            if (decodedString.trim().startsWith("{")) {
-                return decodedString;
+            txTemplate.executeWithoutResult(status -> botSignalRepository.saveAll(
+                    pending.stream().map(PendingSignal::signal).toList()));
+            return pending;
+        } catch (Exception e) {
+            log.warn("⚠️ Batch insert of {} signals failed, retrying one by one: {}", pending.size(), e.getMessage());
+        }
+
+        List<PendingSignal> committed = new ArrayList<>(pending.size());
+        for (PendingSignal signal : pending) {
+            // Id was assigned by the rolled-back persist, start from a clean entity
+            signal.signal().setId(null);
+            try {
+                txTemplate.executeWithoutResult(status -> botSignalRepository.save(signal.signal()));
+                committed.add(signal);
+            } catch (DataIntegrityViolationException e) {
+                // Most likely the idempotency key: stored by another instance or before a restart
+                signalDeduplicator.recordDatabaseDuplicate();
+                log.warn("Rejected signal for Msg ID: {} | Error: {}", signal.message().getMessageId(),
+                        e.getMostSpecificCause().getMessage());
+                rejected.add(signal.message());
+            } catch (Exception e) {
+                // Do NOT delete. Azure will make it visible again after 30s for retry.
+                signalDeduplicator.forget(signal.signal().getIdempotencyKey());
+                log.error("Failed to save signal for Msg ID: {} | Error: {}", signal.message().getMessageId(),
+                        e.getMessage());
             }
-            return body; // Fallback to original if decoding didn't yield JSON
-        } catch (IllegalArgumentException e) {
-            // Not Base64, return original string (might fail JSON parsing later, but that's
-            // handled)
-            return body;
         }
+        return committed;
     }
 
-    private void saveBotSignal(Bot bot, JsonNode payload, String rawJson) {
+    private BotSignal buildBotSignal(BotCredential credential, SignalEnvelope envelope) {
         BotSignal signal = new BotSignal();
-        signal.setBot(bot);
+        // Only the FK is needed, don't load the Bot row
+        signal.setBot(botRepository.getReferenceById(credential.botId()));
 
         // Map Data Fields
-        signal.setCoinSymbol(payload.path("symbol").asText(bot.getCoinSymbol()));
-        signal.setRawPayload(rawJson);
-
-        // --- NEW MAPPING FOR PRICE AND CONFIDENCE ---
-        if (payload.has("price")) {
-            signal.setPrice(payload.get("price").asDouble());
-        }
-
-        if (payload.has("confidence")) {
-            signal.setConfidence(payload.get("confidence").asDouble());
-        }
-        // --------------------------------------------
+        signal.setCoinSymbol(envelope.symbol() != null ? envelope.symbol() : credential.coinSymbol());
+        signal.setRawPayload(envelope.rawJson());
+        signal.setPrice(envelope.price());
+        signal.setConfidence(envelope.confidence());
 
         // Handle Timestamp (Robust parsing)
-        String timeStr = payload.path("timestamp").asText();
+        String timeStr = envelope.timestamp();
         try {
             if (timeStr != null && !timeStr.isEmpty()) {
                 // Handle Python's format, ensuring it works with Java Instant
@@ -196,14 +248,14 @@ public class TradeQueueListener {
                     timeStr += "Z";
                 signal.setSignalTimestamp(Instant.parse(timeStr));
             } else {
-                signal.setSignalTimestamp(Instant.now());
+                signal.setSignalTimestamp(fallbackTimestamp(envelope));
             }
         } catch (Exception e) {
-            signal.setSignalTimestamp(Instant.now()); // Fallback
+            signal.setSignalTimestamp(fallbackTimestamp(envelope)); // Fallback
         }
 
-        // Map Action (LONG -> BUY, SHORT -> SELL)
-        String actionStr = payload.path("action").asText("").toUpperCase();
+        // Map Action (LONG -> BUY, SHORT -> SELL), already validated and upper-cased
+        String actionStr = envelope.action();
         if (actionStr.contains("LONG") || actionStr.contains("BUY")) {
             signal.setAction(BotAction.BUY);
         } else if (actionStr.contains("SHORT") || actionStr.contains("SELL")) {
@@ -214,28 +266,40 @@ public class TradeQueueListener {
             signal.setErrorMessage("Unknown action: " + actionStr);
         }
 
-        BotSignal savedSignal = botSignalRepository.save(signal);
+        signal.setIdempotencyKey(SignalDeduplicator.keyOf(
+                credential.botId(), signal.getSignalTimestamp(), signal.getAction(), signal.getPrice()));
 
-        // log.info("✅ Signal saved. Publishing event for Bot: {}", bot.getName());
-        eventPublisher.publishEvent(new SignalReceivedEvent(this, savedSignal));
+        return signal;
     }
 
     /**
-     * Secure Constant-Time Comparison.
-     * Prevents hackers from guessing the key by measuring how long the CPU takes to
-     * say "No".
+     * receivedAt is stamped once by the webhook, so a redelivered message gets
+     * the same timestamp (and idempotency key); Instant.now() would not.
      */
-    private boolean isSecretValid(String storedSecret, String incomingSecret) {
-        if (storedSecret == null || incomingSecret == null)
-            return false;
-        return MessageDigest.isEqual(storedSecret.getBytes(), incomingSecret.getBytes());
+    private static Instant fallbackTimestamp(SignalEnvelope envelope) {
+        return envelope.receivedAt() > 0 ? Instant.ofEpochMilli(envelope.receivedAt()) : Instant.now();
     }
 
     private void deleteMessage(QueueMessageItem message) {
         try {
-            queueClient.deleteMessage(message.getMessageId(), message.getPopReceipt());
+            signalQueue.delete(message);
         } catch (Exception e) {
             log.warn("Failed to delete message (might already be deleted): {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * A message that passed parsing/validation and is waiting for authentication.
+     */
+    private record ParsedMessage(QueueMessageItem message, SignalEnvelope envelope) {
+        String token() {
+            return envelope.webhookToken();
+        }
+    }
+
+    /**
+     * A signal ready to be inserted, paired with the message to delete after commit.
+     */
+    private record PendingSignal(QueueMessageItem message, BotSignal signal) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.web.TradeApp.feature.ingestion.auth;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+
+import com.web.TradeApp.feature.aibot.enums.BotStatus;
+import com.web.TradeApp.feature.aibot.model.Bot;
+
+/**
+ * Immutable snapshot of the bot fields needed to authenticate a signal.
+ * The secret is kept as bytes so the check is a constant-time array compare.
+ */
+public record BotCredential(UUID botId, String name, byte[] secret, String coinSymbol, BotStatus status) {
+
+    public static BotCredential from(Bot bot) {
+        byte[] secret = bot.getApiSecret() != null
+                ? bot.getApiSecret().getBytes(StandardCharsets.UTF_8)
+                : null;
+        return new BotCredential(bot.getId(), bot.getName(), secret, bot.getCoinSymbol(), bot.getStatus());
+    }
+
+    /**
+     * Secure password check (prevents timing attacks)
+     */
+    public boolean matchesSecret(String incomingSecret) {
+        if (secret == null || incomingSecret == null)
+            return false;
+        return MessageDigest.isEqual(secret, incomingSecret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,154 @@
+package com.web.TradeApp.feature.ingestion.auth;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory webhook token -> {@link BotCredential} cache used to authenticate
+ * queue signals without loading the Bot entity for every message.
+ *
+ * - Known tokens stay cached until the bot is created/updated/deleted
+ * (BotServiceImpl invalidates after commit); positive-ttl is only a safety net
+ * for changes made by other instances or directly in the DB.
+ * - Unknown tokens are cached as a negative entry for negative-ttl so garbage
+ * tokens cost one query per TTL instead of one per message.
+ * - Misses of a whole batch are resolved with a single IN query.
+ *
+ * Exposes cache hit/miss counters as "signal.auth.cache" (tag result).
+ */
+@Component
+@Slf4j
+public class BotCredentialCache {
+
+    private final BotRepository botRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a DB load that started before it
+    // can't put stale data back into the cache
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+
+    @Value("${ingestion.auth.positive-ttl:10m}")
+    private Duration positiveTtl;
+
+    @Value("${ingestion.auth.negative-ttl:30s}")
+    private Duration negativeTtl;
+
+    public BotCredentialCache(BotRepository botRepository, MeterRegistry meterRegistry) {
+        this.botRepository = botRepository;
+        this.hits = meterRegistry.counter("signal.auth.cache", "result", "hit");
+        this.negativeHits = meterRegistry.counter("signal.auth.cache", "result", "negative_hit");
+        this.misses = meterRegistry.counter("signal.auth.cache", "result", "miss");
+        meterRegistry.gaugeMapSize("signal.auth.cache.size", Tags.empty(), entries);
+    }
+
+    /**
+     * Resolves all tokens of a batch. Tokens without a bot are absent from the
+     * returned map.
+     */
+    public Map<String, BotCredential> resolveAll(Collection<String> apiKeys) {
+        Map<String, BotCredential> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        long now = System.nanoTime();
+
+        // 1. Serve what we can from memory
+        for (String apiKey : apiKeys) {
+            Entry entry = entries.get(apiKey);
+            if (entry == null || entry.isExpired(now)) {
+                missing.add(apiKey);
+            } else if (entry.credential() != null) {
+                hits.increment();
+                result.put(apiKey, entry.credential());
+            } else {
+                negativeHits.increment();
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        // 2. One query for every miss of the batch
+        misses.increment(missing.size());
+        long loadGeneration = generation.get();
+        Map<String, BotCredential> loaded = new HashMap<>();
+        for (Bot bot : botRepository.findAllByApiKeyIn(missing)) {
+            loaded.put(bot.getApiKey(), BotCredential.from(bot));
+        }
+
+        // 3. Cache found bots and remember unknown tokens for a short while
+        boolean cacheable = loadGeneration == generation.get();
+        long expiresAt = System.nanoTime();
+        for (String apiKey : missing) {
+            BotCredential credential = loaded.get(apiKey);
+            if (credential != null) {
+                result.put(apiKey, credential);
+            }
+            if (cacheable) {
+                Duration ttl = credential != null ? positiveTtl : negativeTtl;
+                entries.put(apiKey, new Entry(credential, expiresAt + ttl.toNanos()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops the cached credential of a bot once the current transaction commits
+     * (immediately when called outside a transaction).
+     */
+    public void invalidateBot(UUID botId, String apiKey) {
+        runAfterCommit(() -> {
+            generation.incrementAndGet();
+            if (apiKey != null) {
+                entries.remove(apiKey);
+            }
+            if (botId != null) {
+                entries.values().removeIf(e -> e.credential() != null && botId.equals(e.credential().botId()));
+            }
+            log.debug("🔑 Credential cache invalidated for bot {}", botId);
+        });
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * A cached lookup result; credential is null for unknown tokens.
+     */
+    private record Entry(BotCredential credential, long expiresAtNanos) {
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.web.TradeApp.feature.ingestion.dedup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Idempotency layer for incoming signals.
+ *
+ * Azure Queue delivers at-least-once: a message whose commit was slow can
+ * become visible again and be received a second time. Every signal gets an
+ * idempotency key (bot id, signal timestamp, action, price) and:
+ *
+ * 1. this bounded in-memory time window drops duplicates seen by this
+ * instance in O(1), before any DB or trade work;
+ * 2. the unique constraint on bot_signals.idempotency_key catches what the
+ * window can't see (other instances, restarts, evicted keys).
+ *
+ * Counters: "signal.dedup" with result=unique|memory|database.
+ */
+@Component
+public class SignalDeduplicator {
+
+    // key -> first seen (nanoTime); insertion order kept in evictionQueue
+    private final Map<String, Long> seen = new ConcurrentHashMap<>();
+    private final Queue<SeenKey> evictionQueue = new ConcurrentLinkedQueue<>();
+
+    private final Counter unique;
+    private final Counter memoryDuplicates;
+    private final Counter databaseDuplicates;
+
+    @Value("${ingestion.dedup.window:10m}")
+    private Duration window;
+
+    @Value("${ingestion.dedup.max-keys:100000}")
+    private int maxKeys;
+
+    public SignalDeduplicator(MeterRegistry meterRegistry) {
+        this.unique = meterRegistry.counter("signal.dedup", "result", "unique");
+        this.memoryDuplicates = meterRegistry.counter("signal.dedup", "result", "memory");
+        this.databaseDuplicates = meterRegistry.counter("signal.dedup", "result", "database");
+        meterRegistry.gaugeMapSize("signal.dedup.window.size", Tags.empty(), seen);
+    }
+
+    /**
+     * SHA-256 (hex) of bot id | signal timestamp | action | price.
+     */
+    public static String keyOf(UUID botId, Instant signalTimestamp, BotAction action, Double price) {
+        String raw = botId + "|" + signalTimestamp + "|" + action + "|" + price;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Records the key.
+     *
+     * @return true the first time a key is seen inside the window, false for a
+     *         duplicate
+     */
+    public boolean markIfNew(String key) {
+        long now = System.nanoTime();
+        evictExpired(now);
+
+        Long previous = seen.putIfAbsent(key, now);
+        if (previous != null && now - previous <= window.toNanos()) {
+            memoryDuplicates.increment();
+            return false;
+        }
+        if (previous != null) {
+            // Expired but not evicted yet: restart its window
+            seen.put(key, now);
+        }
+        evictionQueue.add(new SeenKey(key, now));
+        unique.increment();
+        return true;
+    }
+
+    /**
+     * Removes a key whose signal was not stored, so a redelivery of the same
+     * message is not treated as a duplicate. Its eviction entry goes too, so
+     * forgotten keys don't pile up in the queue (only called on failed saves, the
+     * linear scan is fine there).
+     */
+    public void forget(String key) {
+        Long seenAt = seen.remove(key);
+        if (seenAt != null) {
+            evictionQueue.remove(new SeenKey(key, seenAt));
+        }
+    }
+
+    /**
+     * Called when the DB unique constraint rejected a signal.
+     */
+    public void recordDatabaseDuplicate() {
+        databaseDuplicates.increment();
+    }
+
+    private void evictExpired(long now) {
+        long windowNanos = window.toNanos();
+        SeenKey head;
+        while ((head = evictionQueue.peek()) != null
+                && (now - head.seenAt() > windowNanos || seen.size() > maxKeys)) {
+            if (evictionQueue.remove(head)) {
+                // Only drop the map entry if it wasn't re-marked later
+                seen.remove(head.key(), head.seenAt());
+            }
+        }
+    }
+
+    private record SeenKey(String key, long seenAt) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.web.TradeApp.feature.ingestion.envelope;
+
+/**
+ * Flat view of a queue message:
+ * { "webhookToken": "...", "receivedAt": 1700000000000,
+ * "payload": { "secret_key": "...", "action": "LONG", "symbol": "BTC",
+ * "price": 42000.5, "confidence": 0.8, "timestamp": "2024-01-01T00:00:00" } }
+ *
+ * Missing fields are null (receivedAt is 0). {@code action} is already
+ * upper-cased. {@code rawJson} is the decoded body, stored on the signal for
+ * debugging.
+ */
+public record SignalEnvelope(
+        String webhookToken,
+        long receivedAt,
+        String secretKey,
+        String action,
+        String symbol,
+        Double price,
+        Double confidence,
+        String timestamp,
+        String rawJson) {
+}
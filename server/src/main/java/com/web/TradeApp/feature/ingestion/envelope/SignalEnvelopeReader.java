@@ -0,0 +1,145 @@
+package com.web.TradeApp.feature.ingestion.envelope;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Parses queue message bodies into {@link SignalEnvelope} with Jackson's
+ * streaming parser, straight from the message bytes.
+ *
+ * Compared to decode-to-String + readTree this skips the intermediate
+ * strings (trim, Base64 text) and the JsonNode tree: only the fields we need
+ * are materialized, everything else is skipped token by token.
+ *
+ * Bodies may be plain JSON or Base64 encoded JSON (depends on how the sender
+ * configured its queue client); the encoding is detected from the first
+ * non-whitespace byte.
+ */
+@Component
+public class SignalEnvelopeReader {
+
+    private final JsonFactory jsonFactory;
+
+    public SignalEnvelopeReader(ObjectMapper objectMapper) {
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    public SignalEnvelope read(byte[] body) throws IOException {
+        byte[] json = decodeIfBase64(body);
+
+        String webhookToken = null;
+        long receivedAt = 0;
+        Payload payload = Payload.EMPTY;
+
+        try (JsonParser parser = jsonFactory.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Message body is not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "webhookToken" -> webhookToken = parser.getValueAsString();
+                    case "receivedAt" -> receivedAt = parser.getValueAsLong(0);
+                    case "payload" -> payload = value == JsonToken.START_OBJECT ? readPayload(parser) : skip(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return new SignalEnvelope(
+                webhookToken,
+                receivedAt,
+                payload.secretKey,
+                payload.action != null ? payload.action.toUpperCase(Locale.ROOT) : "",
+                payload.symbol,
+                payload.price,
+                payload.confidence,
+                payload.timestamp,
+                new String(json, StandardCharsets.UTF_8));
+    }
+
+    private static Payload readPayload(JsonParser parser) throws IOException {
+        Payload payload = new Payload();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "secret_key" -> payload.secretKey = parser.getValueAsString();
+                case "action" -> payload.action = parser.getValueAsString();
+                case "symbol" -> payload.symbol = parser.getValueAsString();
+                case "price" -> payload.price = readDouble(parser, value);
+                case "confidence" -> payload.confidence = readDouble(parser, value);
+                case "timestamp" -> payload.timestamp = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        return payload;
+    }
+
+    private static Double readDouble(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NULL || !value.isScalarValue()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsDouble();
+    }
+
+    private static Payload skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+        return Payload.EMPTY;
+    }
+
+    /**
+     * Plain JSON starts with '{'. Anything else is tried as Base64; if that
+     * fails or doesn't decode to JSON the original bytes are returned and the
+     * JSON parser reports the error.
+     */
+    private static byte[] decodeIfBase64(byte[] body) {
+        int first = firstNonWhitespace(body);
+        if (first < 0 || body[first] == '{') {
+            return body;
+        }
+        try {
+            byte[] decoded = Base64.getDecoder().decode(body);
+            int decodedFirst = firstNonWhitespace(decoded);
+            return decodedFirst >= 0 && decoded[decodedFirst] == '{' ? decoded : body;
+        } catch (IllegalArgumentException e) {
+            return body;
+        }
+    }
+
+    private static int firstNonWhitespace(byte[] bytes) {
+        for (int i = 0; i < bytes.length; i++) {
+            byte b = bytes[i];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Mutable holder while walking the payload object.
+     */
+    private static final class Payload {
+        static final Payload EMPTY = new Payload();
+
+        String secretKey;
+        String action;
+        String symbol;
+        Double price;
+        Double confidence;
+        String timestamp;
+    }
+}
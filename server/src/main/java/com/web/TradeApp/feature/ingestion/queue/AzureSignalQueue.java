@@ -0,0 +1,36 @@
+package com.web.TradeApp.feature.ingestion.queue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.azure.storage.queue.QueueClient;
+import com.azure.storage.queue.models.QueueMessageItem;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * {@link SignalQueue} backed by the {@link QueueClient} bean from AzureConfig.
+ */
+@Component
+@RequiredArgsConstructor
+public class AzureSignalQueue implements SignalQueue {
+
+    // Max time a single receive call may block on the network
+    private static final Duration RECEIVE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final QueueClient queueClient;
+
+    @Override
+    public List<QueueMessageItem> receive(int maxMessages, Duration visibilityTimeout) {
+        return queueClient.receiveMessages(maxMessages, visibilityTimeout, RECEIVE_TIMEOUT, null)
+                .stream()
+                .toList();
+    }
+
+    @Override
+    public void delete(QueueMessageItem message) {
+        queueClient.deleteMessage(message.getMessageId(), message.getPopReceipt());
+    }
+}
@@ -0,0 +1,182 @@
+package com.web.TradeApp.feature.ingestion.queue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.azure.storage.queue.models.QueueMessageItem;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Continuous drain engine for the signal queue.
+ *
+ * One receiver thread pulls batches (up to 32 messages, the Azure maximum) back
+ * to back while the queue is non-empty and hands them to a fixed pool of
+ * virtual-thread consumers through a small bounded buffer. When every consumer
+ * is busy the buffer fills up and the receiver blocks, so we never hold more
+ * messages than we can process inside their visibility timeout.
+ *
+ * When the queue is empty the receiver backs off exponentially (min-backoff up
+ * to max-backoff) and snaps back to zero delay as soon as a message shows up.
+ *
+ * Lifecycle is managed by Spring ({@link SmartLifecycle}): the engine starts
+ * after the context is ready and on shutdown stops receiving, lets consumers
+ * finish the batches already handed over, then exits. Messages that were not
+ * processed simply reappear after their visibility timeout.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class QueueDrainEngine implements SmartLifecycle {
+
+    private final SignalQueue signalQueue;
+    private final SignalBatchHandler batchHandler;
+
+    @Value("${ingestion.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ingestion.queue.batch-size:32}")
+    private int batchSize;
+
+    @Value("${ingestion.queue.consumers:4}")
+    private int consumerCount;
+
+    @Value("${ingestion.queue.visibility-timeout:30s}")
+    private Duration visibilityTimeout;
+
+    @Value("${ingestion.queue.min-backoff:100ms}")
+    private Duration minBackoff;
+
+    @Value("${ingestion.queue.max-backoff:2s}")
+    private Duration maxBackoff;
+
+    @Value("${ingestion.queue.shutdown-timeout:20s}")
+    private Duration shutdownTimeout;
+
+    private volatile boolean running;
+    private BlockingQueue<List<QueueMessageItem>> handoff;
+    private Thread receiver;
+    private final List<Thread> consumers = new ArrayList<>();
+
+    @Override
+    public synchronized void start() {
+        if (running || !enabled) {
+            return;
+        }
+        running = true;
+        // One slot per consumer: enough to keep everybody busy, small enough that
+        // buffered messages don't age past their visibility timeout
+        handoff = new ArrayBlockingQueue<>(Math.max(1, consumerCount));
+
+        ThreadFactory consumerFactory = Thread.ofVirtual().name("queue-consumer-", 0).factory();
+        for (int i = 0; i < Math.max(1, consumerCount); i++) {
+            Thread consumer = consumerFactory.newThread(this::consumeLoop);
+            consumers.add(consumer);
+            consumer.start();
+        }
+        receiver = Thread.ofVirtual().name("queue-receiver").start(this::receiveLoop);
+
+        log.info("📥 Queue drain engine started: {} consumers, batch size {}", consumers.size(), batchSize);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // Receiver may be blocked in a network call or on a full buffer
+        receiver.interrupt();
+
+        long deadline = System.nanoTime() + shutdownTimeout.toNanos();
+        try {
+            receiver.join(remainingMillis(deadline));
+            for (Thread consumer : consumers) {
+                consumer.join(remainingMillis(deadline));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        long stillBusy = consumers.stream().filter(Thread::isAlive).count();
+        if (stillBusy > 0) {
+            log.warn("⚠️ Queue drain engine stopped with {} consumers still busy", stillBusy);
+            consumers.forEach(Thread::interrupt);
+        }
+        consumers.clear();
+        log.info("📥 Queue drain engine stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void receiveLoop() {
+        long backoffMillis = 0;
+        while (running) {
+            try {
+                if (backoffMillis > 0) {
+                    Thread.sleep(backoffMillis);
+                }
+
+                List<QueueMessageItem> batch = signalQueue.receive(batchSize, visibilityTimeout);
+                if (batch.isEmpty()) {
+                    // Empty queue: back off exponentially
+                    backoffMillis = backoffMillis == 0
+                            ? minBackoff.toMillis()
+                            : Math.min(backoffMillis * 2, maxBackoff.toMillis());
+                    continue;
+                }
+
+                // Queue has data: keep pulling without delay
+                backoffMillis = 0;
+                handoff.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                // Log connection errors (e.g. internet down) but keep the loop alive
+                log.error("Error polling Azure Queue: {}", e.getMessage());
+                backoffMillis = maxBackoff.toMillis();
+            }
+        }
+    }
+
+    private void consumeLoop() {
+        // Keep draining after stop() so batches already received are not wasted
+        while (running || !handoff.isEmpty()) {
+            List<QueueMessageItem> batch;
+            try {
+                batch = handoff.poll(250, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                continue;
+            }
+
+            try {
+                batchHandler.handleBatch(batch);
+            } catch (Exception e) {
+                // Undeleted messages are redelivered after the visibility timeout
+                log.error("❌ Failed to process batch of {} messages: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private static long remainingMillis(long deadlineNanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+}
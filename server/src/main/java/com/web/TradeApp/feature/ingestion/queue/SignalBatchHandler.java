@@ -0,0 +1,15 @@
+package com.web.TradeApp.feature.ingestion.queue;
+
+import java.util.List;
+
+import com.azure.storage.queue.models.QueueMessageItem;
+
+/**
+ * Processes one batch of messages received from the {@link SignalQueue}.
+ * The handler owns the messages: it is responsible for deleting them once they
+ * are committed or rejected. Anything left undeleted becomes visible again after
+ * the visibility timeout and is redelivered.
+ */
+public interface SignalBatchHandler {
+    void handleBatch(List<QueueMessageItem> batch);
+}
@@ -0,0 +1,27 @@
+package com.web.TradeApp.feature.ingestion.queue;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.azure.storage.queue.models.QueueMessageItem;
+
+/**
+ * Minimal view of the signal queue used by the ingestion pipeline.
+ * Production wires {@link AzureSignalQueue}; tests can plug in an in-memory
+ * implementation without touching Azure.
+ */
+public interface SignalQueue {
+
+    /**
+     * Receive up to {@code maxMessages} messages and hide them from other
+     * consumers for {@code visibilityTimeout}.
+     * Returns an empty list when the queue is empty.
+     */
+    List<QueueMessageItem> receive(int maxMessages, Duration visibilityTimeout);
+
+    /**
+     * Permanently remove a message (commit). Must be called with the pop receipt
+     * returned by {@link #receive(int, Duration)}.
+     */
+    void delete(QueueMessageItem message);
+}
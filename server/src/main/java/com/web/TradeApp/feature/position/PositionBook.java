@@ -0,0 +1,185 @@
+package com.web.TradeApp.feature.position;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.exception.PriceUnavailableException;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.coin.service.CoinSymbolRegistry;
+import com.web.TradeApp.feature.coin.service.MarketPriceCache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory book of the positions of wallets and bot subscriptions: USDT
+ * balance, coin quantities and net investment. Live equity is computed on read
+ * from the shared price cache, so pages show the current value instead of the
+ * last snapshot (up to one snapshot interval old) and skip the "latest
+ * snapshot" MAX(recordedAt) subqueries.
+ *
+ * - A position is loaded from the DB on first read and kept until its owner
+ * changes: every committed write of a wallet, coin holding or subscription
+ * (trades, deposits, withdrawals, see PositionBookListener) drops the entry
+ * after commit, the next read loads the new state.
+ * - A dropped entry leaves a tombstone, so a read that loaded the old state
+ * before the commit cannot put it back.
+ * - Entries older than max-age are reloaded anyway: writes of other instances
+ * are not seen here.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PositionBook {
+
+    private final WalletRepository walletRepo;
+    private final BotSubscriptionRepository subscriptionRepo;
+    private final CoinSymbolRegistry coinSymbolRegistry;
+    private final MarketPriceCache priceCache;
+
+    private final Map<UUID, Position> wallets = new ConcurrentHashMap<>();
+    private final Map<UUID, Position> subscriptions = new ConcurrentHashMap<>();
+
+    @Value("${position-book.max-age:60s}")
+    private Duration maxAge;
+
+    /**
+     * Position of a wallet, null if the wallet does not exist.
+     */
+    public Position wallet(UUID walletId) {
+        return read(wallets, walletId, this::loadWallet);
+    }
+
+    /**
+     * Position of a bot subscription, null if it does not exist.
+     */
+    public Position subscription(UUID subscriptionId) {
+        return read(subscriptions, subscriptionId, this::loadSubscription);
+    }
+
+    /**
+     * Equity at the current market prices: USDT + sum(quantity x price).
+     *
+     * @throws PriceUnavailableException if a held coin has no fresh price
+     */
+    public BigDecimal equity(Position position) {
+        BigDecimal equity = position.usdt();
+        for (Map.Entry<String, BigDecimal> coin : position.coins().entrySet()) {
+            if (coin.getValue().signum() != 0) {
+                equity = equity.add(coin.getValue().multiply(priceCache.getPrice(coin.getKey())));
+            }
+        }
+        return equity;
+    }
+
+    public void walletChanged(UUID walletId) {
+        afterCommit(() -> evict(wallets, walletId));
+    }
+
+    public void subscriptionChanged(UUID subscriptionId) {
+        afterCommit(() -> evict(subscriptions, subscriptionId));
+    }
+
+    // Expired entries and old tombstones
+    @Scheduled(fixedDelayString = "${position-book.purge-interval:60000}")
+    public void purge() {
+        long now = System.nanoTime();
+        wallets.values().removeIf(position -> !position.isFresh(now, maxAge));
+        subscriptions.values().removeIf(position -> !position.isFresh(now, maxAge));
+    }
+
+    private Position read(Map<UUID, Position> book, UUID id, Function<UUID, Position> loader) {
+        long now = System.nanoTime();
+        Position cached = book.get(id);
+        if (cached != null && !cached.isEvicted() && cached.isFresh(now, maxAge)) {
+            return cached;
+        }
+        Position loaded = loader.apply(id);
+        if (loaded != null) {
+            // Keep whatever happened after our read started (a newer load or a tombstone)
+            book.compute(id, (key, current) -> current != null && current.loadedAtNanos() > loaded.loadedAtNanos()
+                    ? current
+                    : loaded);
+        }
+        return loaded;
+    }
+
+    private Position loadWallet(UUID walletId) {
+        long startNanos = System.nanoTime();
+        List<Wallet> found = walletRepo.findAllByIdInWithCoinHoldings(List.of(walletId));
+        if (found.isEmpty()) {
+            return null;
+        }
+        Wallet wallet = found.get(0);
+        Map<String, BigDecimal> coins = new HashMap<>();
+        for (CoinHolding holding : wallet.getCoinHoldings()) {
+            coins.merge(holding.getCoin().getCoinGeckoId(), holding.getAmount(), BigDecimal::add);
+        }
+        return new Position(wallet.getBalance(), Map.copyOf(coins), wallet.getNetInvestment(), startNanos);
+    }
+
+    private Position loadSubscription(UUID subscriptionId) {
+        long startNanos = System.nanoTime();
+        return subscriptionRepo.findByIdWithBot(subscriptionId)
+                .map(sub -> new Position(sub.getBotWalletBalance(),
+                        Map.of(coinSymbolRegistry.idOf(sub.getBot().getCoinSymbol()), sub.getBotWalletCoin()),
+                        netInvestment(sub), startNanos))
+                .orElse(null);
+    }
+
+    private static BigDecimal netInvestment(BotSubscription sub) {
+        return sub.getNetInvestment() != null ? sub.getNetInvestment() : BigDecimal.ZERO;
+    }
+
+    private static void evict(Map<UUID, Position> book, UUID id) {
+        book.put(id, Position.evicted(System.nanoTime()));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * @param coins coinGeckoId -> quantity
+     */
+    public record Position(BigDecimal usdt, Map<String, BigDecimal> coins, BigDecimal netInvestment,
+            long loadedAtNanos) {
+
+        static Position evicted(long nanos) {
+            return new Position(null, Map.of(), null, nanos);
+        }
+
+        boolean isEvicted() {
+            return usdt == null;
+        }
+
+        boolean isFresh(long now, Duration maxAge) {
+            return now - loadedAtNanos <= maxAge.toNanos();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.web.TradeApp.feature.position;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener of the entities behind the position book: every write path
+ * (single and bulk trades, deposits, withdrawals, admin edits) reaches the
+ * book without having to call it. Bulk HQL updates bypass entity listeners,
+ * none touch these tables.
+ *
+ * Created by Hibernate through Spring, the book is resolved lazily because
+ * the listener exists before the repositories it needs.
+ */
+@Component
+public class PositionBookListener {
+
+    private final ObjectProvider<PositionBook> positionBook;
+
+    public PositionBookListener(ObjectProvider<PositionBook> positionBook) {
+        this.positionBook = positionBook;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Object entity) {
+        PositionBook book = positionBook.getIfAvailable();
+        if (book == null) {
+            return;
+        }
+        switch (entity) {
+            case Wallet wallet -> book.walletChanged(wallet.getId());
+            case CoinHolding holding -> book.walletChanged(holding.getWallet().getId());
+            case BotSubscription subscription -> book.subscriptionChanged(subscription.getId());
+            default -> {
+            }
+        }
+    }
+}
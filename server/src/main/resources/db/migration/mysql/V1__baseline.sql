@@ -0,0 +1,337 @@
+-- Schema as created by Hibernate (ddl-auto: update) before versioned
+-- migrations: the DDL of the entities at that point, unchanged, with the
+-- generated constraint names, so a new database ends up identical to one
+-- created by ddl-auto.
+-- Databases that already have these tables are baselined at version 1
+-- (spring.flyway.baseline-on-migrate), skip this script and run V2+.
+
+create table admin_inventory_history (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    action enum ('ADJUST','DEPOSIT','WITHDRAW'),
+    note varchar(255),
+    quantity_delta decimal(38,18) not null,
+    coin_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table bot_signals (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    action enum ('BUY','SELL') not null,
+    coin_symbol varchar(20) not null,
+    confidence float(53),
+    error_message varchar(1000),
+    price float(53),
+    processed_at datetime(6),
+    raw_payload TEXT,
+    signal_timestamp datetime(6) not null,
+    status enum ('EXECUTED','EXPIRED','FAILED','PENDING','PROCESSING') not null,
+    bot_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table bot_subscriptions (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    is_active bit not null,
+    bot_wallet_balance decimal(18,6) not null,
+    bot_wallet_coin decimal(36,18) not null,
+    max_daily_loss_percentage DECIMAL(5,2),
+    net_investment decimal(18,6) not null,
+    started_at datetime(6) not null,
+    stopped_at datetime(6),
+    trade_percentage decimal(5,4) not null,
+    user_id binary(16) not null,
+    bot_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table bot_trades (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    fee_trade_applied decimal(18,6) not null,
+    notional_value decimal(18,6) not null,
+    price_at_execution decimal(18,8) not null,
+    quantity decimal(36,18) not null,
+    type enum ('BUY','SELL') not null,
+    fee_bot_applied decimal(18,6) not null,
+    coin_id binary(16) not null,
+    wallet_id binary(16) not null,
+    bot_id binary(16) not null,
+    bot_signal_id binary(16),
+    bot_subscription_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table bots (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    api_key varchar(255),
+    api_secret varchar(255),
+    api_url varchar(500),
+    category enum ('AI_PREDICTIVE','ARBITRAGE','DCA','GRID_TRADING','MEAN_REVERSION','SCALPING','TREND_FOLLOWING'),
+    coin_symbol varchar(20) not null,
+    description TEXT,
+    fee decimal(5,4) not null,
+    last_error_message varchar(1000),
+    last_signal_at datetime(6),
+    name varchar(120) not null,
+    risk_level enum ('HIGH','LOW','MEDIUM') not null,
+    status enum ('ACTIVE','ERROR','PAUSED') not null,
+    trading_pair varchar(40),
+    primary key (id)
+) engine=InnoDB;
+
+create table coin_holdings (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    amount decimal(19,8) not null,
+    average_buy_price decimal(19,8),
+    coin_id binary(16) not null,
+    wallet_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table coins (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    coin_gecko_id varchar(255) not null,
+    fee decimal(5,4) not null,
+    name varchar(255),
+    symbol varchar(255) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table subscription_snapshot (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    bot_wallet_balance decimal(18,6) not null,
+    bot_wallet_coin decimal(36,18) not null,
+    net_investment decimal(18,6) not null,
+    pnl decimal(18,6) not null,
+    recorded_at datetime(6) not null,
+    roi decimal(10,4) not null,
+    total_equity decimal(18,6) not null,
+    bot_subscription_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table token (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    expires_at datetime(6),
+    token varchar(255),
+    type enum ('ACTIVATE_CODE','TOKEN_URL') not null,
+    used bit not null,
+    validated_at datetime(6),
+    user_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table transactions (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    fee_trade_applied decimal(18,6) not null,
+    notional_value decimal(18,6) not null,
+    price_at_execution decimal(18,8) not null,
+    quantity decimal(36,18) not null,
+    type enum ('BUY','SELL') not null,
+    source enum ('BOT','MANUAL') not null,
+    coin_id binary(16) not null,
+    wallet_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_roles (
+    user_id binary(16) not null,
+    role enum ('ADMIN','COMPANY','TRADER') not null,
+    primary key (user_id, role)
+) engine=InnoDB;
+
+create table users (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    account_locked bit not null,
+    auth_provider tinyint not null,
+    description text,
+    email varchar(255) not null,
+    enabled bit not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    password varchar(255),
+    phone_num varchar(255),
+    profile_photo_public_id varchar(255),
+    profile_photo_url varchar(255),
+    profile_photo_version bigint,
+    refresh_token text,
+    username varchar(255),
+    primary key (id)
+) engine=InnoDB;
+
+create table wallet_snapshots (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    net_investment decimal(19,8) not null,
+    pnl decimal(19,8) not null,
+    recorded_at datetime(6) not null,
+    roi decimal(5,2) not null,
+    total_coin_value decimal(19,8) not null,
+    total_equity decimal(19,8) not null,
+    wallet_balance decimal(19,8) not null,
+    wallet_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table wallets (
+    id binary(16) not null,
+    created_at datetime(6) not null,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    balance decimal(19,8) not null,
+    net_investment decimal(19,8) not null,
+    user_id binary(16) not null,
+    primary key (id)
+) engine=InnoDB;
+
+alter table coin_holdings
+   add constraint UKovm1a2rtyhbyn9tmxu285xy0k unique (wallet_id, coin_id);
+
+alter table coins
+   add constraint ux_coins_gecko unique (coin_gecko_id);
+
+alter table coins
+   add constraint UKgokfx0d7po0vj7xjycywyu8rl unique (symbol);
+
+create index idx_sub_snapshot_time
+   on subscription_snapshot (bot_subscription_id, recorded_at);
+
+alter table users
+   add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+alter table users
+   add constraint UK6xisn9isn9ojnu0sg9fyhaeks unique (phone_num);
+
+alter table users
+   add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+
+alter table wallets
+   add constraint UKsswfdl9fq40xlkove1y5kc7kv unique (user_id);
+
+alter table admin_inventory_history
+   add constraint FKetvehjdm61a2oolf94viw0oa0
+   foreign key (coin_id)
+   references coins (id);
+
+alter table bot_signals
+   add constraint FKfvakm2y9mxbi5vmyhnxg3wod3
+   foreign key (bot_id)
+   references bots (id);
+
+alter table bot_subscriptions
+   add constraint FKeevxg5i2dfumo1lw5s2m0qug4
+   foreign key (bot_id)
+   references bots (id);
+
+alter table bot_trades
+   add constraint FKdv30mr5ljrwoajdt4tpydkmo1
+   foreign key (coin_id)
+   references coins (id);
+
+alter table bot_trades
+   add constraint FKms9x8t62emir783qx760r8w5i
+   foreign key (wallet_id)
+   references wallets (id);
+
+alter table bot_trades
+   add constraint FKqyhgerdyl0mtn9duog3ciuuhw
+   foreign key (bot_id)
+   references bots (id);
+
+alter table bot_trades
+   add constraint FKlkff61fkivp8p5l3y9vp1nmmc
+   foreign key (bot_signal_id)
+   references bot_signals (id);
+
+alter table bot_trades
+   add constraint FKod4xcnn1s0pv76ddnjn8qvqm6
+   foreign key (bot_subscription_id)
+   references bot_subscriptions (id);
+
+alter table coin_holdings
+   add constraint FK6gn9hkb6abgvsvavswc31u25l
+   foreign key (coin_id)
+   references coins (id);
+
+alter table coin_holdings
+   add constraint FK8k5hr98ulaaj336nhinmvuvm
+   foreign key (wallet_id)
+   references wallets (id);
+
+alter table subscription_snapshot
+   add constraint FKqnria9cmxhdu6k7gb9atunj6b
+   foreign key (bot_subscription_id)
+   references bot_subscriptions (id);
+
+alter table token
+   add constraint FK_token_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+alter table transactions
+   add constraint FKi7dx7j52in5m13nmve8vw4ax6
+   foreign key (coin_id)
+   references coins (id);
+
+alter table transactions
+   add constraint FK23bop5lktue0o5q7kr19ti8h
+   foreign key (wallet_id)
+   references wallets (id);
+
+alter table user_roles
+   add constraint fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+alter table wallet_snapshots
+   add constraint FKcy8kujkwimiqthv328oh4hsxg
+   foreign key (wallet_id)
+   references wallets (id);
+
+alter table wallets
+   add constraint FKc1foyisidw7wqqrkamafuwn4e
+   foreign key (user_id)
+   references users (id);
@@ -0,0 +1,10 @@
+-- Idempotency key of a received signal: a redelivered queue message hits the
+-- unique index and is dropped. Nullable, rows received before have none (a
+-- unique index accepts any number of NULLs).
+ALTER TABLE bot_signals
+    ADD COLUMN idempotency_key varchar(64) NULL,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE bot_signals
+    ADD UNIQUE INDEX ux_bot_signals_idempotency (idempotency_key),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,14 @@
+-- @Version of the balance rows (optimistic locking of trades). Constant
+-- default: existing rows start at 0 and the column is added without a table
+-- rebuild.
+ALTER TABLE wallets
+    ADD COLUMN version bigint NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE coin_holdings
+    ADD COLUMN version bigint NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
+
+ALTER TABLE bot_subscriptions
+    ADD COLUMN version bigint NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
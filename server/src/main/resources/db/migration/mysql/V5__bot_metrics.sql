@@ -0,0 +1,62 @@
+-- Materialized metrics of the bot grid: running metrics per subscription,
+-- aggregated per bot. Filled by the application (backfill on startup).
+CREATE TABLE subscription_metrics (
+    id binary(16) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    bot_subscription_id binary(16) NOT NULL,
+    base_pnl decimal(18,6) NOT NULL,
+    base_net_investment decimal(18,6) NOT NULL,
+    base_pnl_1d decimal(18,6) NOT NULL,
+    base_net_investment_1d decimal(18,6) NOT NULL,
+    base_pnl_7d decimal(18,6) NOT NULL,
+    base_net_investment_7d decimal(18,6) NOT NULL,
+    latest_equity decimal(18,6) NOT NULL,
+    pnl decimal(18,6) NOT NULL,
+    pnl_1d decimal(18,6) NOT NULL,
+    pnl_7d decimal(18,6) NOT NULL,
+    roi decimal(18,6) NOT NULL,
+    roi_1d decimal(18,6) NOT NULL,
+    roi_7d decimal(18,6) NOT NULL,
+    max_drawdown decimal(18,6) NOT NULL,
+    max_drawdown_pct decimal(18,6) NOT NULL,
+    last_recorded_at datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_subscription_metrics_subscription UNIQUE (bot_subscription_id),
+    CONSTRAINT fk_subscription_metrics_subscription FOREIGN KEY (bot_subscription_id)
+        REFERENCES bot_subscriptions (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE bot_metrics (
+    id binary(16) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    bot_id binary(16) NOT NULL,
+    active_subscribers integer NOT NULL,
+    total_net_investment decimal(18,6) NOT NULL,
+    total_equity decimal(18,6) NOT NULL,
+    total_pnl decimal(18,6) NOT NULL,
+    total_pnl_1d decimal(18,6) NOT NULL,
+    total_pnl_7d decimal(18,6) NOT NULL,
+    average_roi decimal(18,6) NOT NULL,
+    average_roi_1d decimal(18,6) NOT NULL,
+    average_roi_7d decimal(18,6) NOT NULL,
+    max_drawdown decimal(18,6) NOT NULL,
+    max_drawdown_pct decimal(18,6) NOT NULL,
+    refreshed_at datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_bot_metrics_bot UNIQUE (bot_id),
+    CONSTRAINT fk_bot_metrics_bot FOREIGN KEY (bot_id) REFERENCES bots (id) ON DELETE CASCADE,
+    -- One per sortable column of the grid
+    INDEX idx_bot_metrics_pnl (total_pnl),
+    INDEX idx_bot_metrics_pnl_1d (total_pnl_1d),
+    INDEX idx_bot_metrics_pnl_7d (total_pnl_7d),
+    INDEX idx_bot_metrics_roi (average_roi),
+    INDEX idx_bot_metrics_roi_1d (average_roi_1d),
+    INDEX idx_bot_metrics_roi_7d (average_roi_7d),
+    INDEX idx_bot_metrics_subscribers (active_subscribers)
+) ENGINE = InnoDB;
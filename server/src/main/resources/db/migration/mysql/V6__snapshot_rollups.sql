@@ -0,0 +1,76 @@
+-- Hourly / daily rollups of the snapshot tables (tiered retention) and the
+-- running drawdown of each wallet.
+CREATE TABLE subscription_snapshot_rollup (
+    id binary(16) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    bot_subscription_id binary(16) NOT NULL,
+    resolution enum ('DAY','HOUR') NOT NULL,
+    bucket_start datetime(6) NOT NULL,
+    open_equity decimal(19,8),
+    min_equity decimal(19,8),
+    max_equity decimal(19,8),
+    close_equity decimal(19,8),
+    open_pnl decimal(19,8),
+    min_pnl decimal(19,8),
+    max_pnl decimal(19,8),
+    close_pnl decimal(19,8),
+    min_pnl_pct decimal(19,8),
+    close_net_investment decimal(19,8),
+    samples integer NOT NULL,
+    last_recorded_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sub_rollup_bucket UNIQUE (bot_subscription_id, resolution, bucket_start),
+    INDEX idx_sub_rollup_resolution_time (resolution, bucket_start),
+    CONSTRAINT fk_sub_rollup_subscription FOREIGN KEY (bot_subscription_id)
+        REFERENCES bot_subscriptions (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE wallet_snapshot_rollup (
+    id binary(16) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    wallet_id binary(16) NOT NULL,
+    resolution enum ('DAY','HOUR') NOT NULL,
+    bucket_start datetime(6) NOT NULL,
+    open_equity decimal(19,8),
+    min_equity decimal(19,8),
+    max_equity decimal(19,8),
+    close_equity decimal(19,8),
+    open_pnl decimal(19,8),
+    min_pnl decimal(19,8),
+    max_pnl decimal(19,8),
+    close_pnl decimal(19,8),
+    min_pnl_pct decimal(19,8),
+    close_net_investment decimal(19,8),
+    samples integer NOT NULL,
+    last_recorded_at datetime(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_rollup_bucket UNIQUE (wallet_id, resolution, bucket_start),
+    INDEX idx_wallet_rollup_resolution_time (resolution, bucket_start),
+    CONSTRAINT fk_wallet_rollup_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE TABLE wallet_metrics (
+    id binary(16) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    wallet_id binary(16) NOT NULL,
+    max_drawdown decimal(19,8) NOT NULL,
+    max_drawdown_pct decimal(19,8) NOT NULL,
+    last_recorded_at datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_metrics_wallet UNIQUE (wallet_id),
+    CONSTRAINT fk_wallet_metrics_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+-- Latest / baseline wallet snapshot per wallet and the wallet rollup scans
+ALTER TABLE wallet_snapshots
+    ADD INDEX idx_wallet_snapshot_time (wallet_id, recorded_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,43 @@
+-- Indexes of the hot read paths. Built online (INPLACE, LOCK=NONE): reads and
+-- writes of the table go on while the index is built.
+-- InnoDB has no INCLUDE: covered columns are trailing key columns, the primary
+-- key is part of every secondary index anyway.
+
+-- findManualTransactions: wallet of the user, source = MANUAL, sorted / filtered by time
+ALTER TABLE transactions
+    ADD INDEX idx_transactions_wallet_source_time (wallet_id, source, created_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- findBotTrades: trades of one subscription, sorted / filtered by time.
+-- bot_signal_id: foreign key check of the signal retention delete
+ALTER TABLE bot_trades
+    ADD INDEX idx_bot_trades_subscription_time (bot_subscription_id, created_at),
+    ADD INDEX idx_bot_trades_signal (bot_signal_id),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- findLastSignalTime (MAX per bot) and deleteBySignalTimestampBefore (retention)
+ALTER TABLE bot_signals
+    ADD INDEX idx_bot_signals_bot_time (bot_id, signal_timestamp),
+    ADD INDEX idx_bot_signals_time (signal_timestamp),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- Active subscribers of a bot (fan-out, bot metrics), subscription of a user to a bot
+ALTER TABLE bot_subscriptions
+    ADD INDEX idx_bot_subscriptions_bot_active (bot_id, is_active),
+    ADD INDEX idx_bot_subscriptions_user_bot (user_id, bot_id),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- Latest / baseline snapshot per owner and charts read equity, PnL and net
+-- investment only: answered from the index without touching the rows.
+-- recorded_at alone serves the rollup and retention range scans.
+ALTER TABLE subscription_snapshot
+    DROP INDEX idx_sub_snapshot_time,
+    ADD INDEX idx_sub_snapshot_time (bot_subscription_id, recorded_at, pnl, net_investment, total_equity),
+    ADD INDEX idx_sub_snapshot_recorded (recorded_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+ALTER TABLE wallet_snapshots
+    DROP INDEX idx_wallet_snapshot_time,
+    ADD INDEX idx_wallet_snapshot_time (wallet_id, recorded_at, pnl, net_investment, total_equity),
+    ADD INDEX idx_wallet_snapshot_recorded (recorded_at),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,5 @@
+-- @Version of subscription_metrics: the snapshot job and the fills update the
+-- same rows. Constant default, added without a table rebuild.
+ALTER TABLE subscription_metrics
+    ADD COLUMN version bigint NOT NULL DEFAULT 0,
+    ALGORITHM = INSTANT;
@@ -0,0 +1,26 @@
+-- Progress of the rollup job per snapshot table. Databases rolled up before
+-- this table existed start again from the newest hourly bucket, the point the
+-- job used to derive from the rollups themselves.
+CREATE TABLE snapshot_rollup_watermarks (
+    id binary(16) NOT NULL,
+    created_at datetime(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetime(6),
+    updated_by varchar(255),
+    source varchar(40) NOT NULL,
+    rolled_up_to datetime(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_rollup_watermark_source UNIQUE (source)
+) ENGINE = InnoDB;
+
+INSERT INTO snapshot_rollup_watermarks (id, created_at, source, rolled_up_to)
+SELECT UNHEX(REPLACE(UUID(), '-', '')), CURRENT_TIMESTAMP(6), 'subscription', MAX(bucket_start)
+FROM subscription_snapshot_rollup
+WHERE resolution = 'HOUR'
+HAVING MAX(bucket_start) IS NOT NULL;
+
+INSERT INTO snapshot_rollup_watermarks (id, created_at, source, rolled_up_to)
+SELECT UNHEX(REPLACE(UUID(), '-', '')), CURRENT_TIMESTAMP(6), 'wallet', MAX(bucket_start)
+FROM wallet_snapshot_rollup
+WHERE resolution = 'HOUR'
+HAVING MAX(bucket_start) IS NOT NULL;
@@ -0,0 +1,337 @@
+-- Schema as created by Hibernate (ddl-auto: update) before versioned
+-- migrations: the DDL of the entities at that point, unchanged, with the
+-- generated constraint names, so a new database ends up identical to one
+-- created by ddl-auto.
+-- Databases that already have these tables are baselined at version 1
+-- (spring.flyway.baseline-on-migrate), skip this script and run V2+.
+
+create table admin_inventory_history (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    action varchar(255) check (action in ('DEPOSIT','WITHDRAW','ADJUST')),
+    note varchar(255),
+    quantity_delta numeric(38,18) not null,
+    coin_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table bot_signals (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    action varchar(10) not null check (action in ('BUY','SELL')),
+    coin_symbol varchar(20) not null,
+    confidence float(53),
+    error_message varchar(1000),
+    price float(53),
+    processed_at datetimeoffset(6),
+    raw_payload TEXT,
+    signal_timestamp datetimeoffset(6) not null,
+    status varchar(20) not null check (status in ('PENDING','PROCESSING','EXECUTED','FAILED','EXPIRED')),
+    bot_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table bot_subscriptions (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    is_active bit not null,
+    bot_wallet_balance numeric(18,6) not null,
+    bot_wallet_coin numeric(36,18) not null,
+    max_daily_loss_percentage DECIMAL(5,2),
+    net_investment numeric(18,6) not null,
+    started_at datetimeoffset(6) not null,
+    stopped_at datetimeoffset(6),
+    trade_percentage numeric(5,4) not null,
+    user_id uniqueidentifier not null,
+    bot_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table bot_trades (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    fee_trade_applied numeric(18,6) not null,
+    notional_value numeric(18,6) not null,
+    price_at_execution numeric(18,8) not null,
+    quantity numeric(36,18) not null,
+    type varchar(10) not null check (type in ('BUY','SELL')),
+    fee_bot_applied numeric(18,6) not null,
+    coin_id uniqueidentifier not null,
+    wallet_id uniqueidentifier not null,
+    bot_id uniqueidentifier not null,
+    bot_signal_id uniqueidentifier,
+    bot_subscription_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table bots (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    api_key varchar(255),
+    api_secret varchar(255),
+    api_url varchar(500),
+    category varchar(20) check (category in ('AI_PREDICTIVE','TREND_FOLLOWING','DCA','SCALPING','GRID_TRADING','MEAN_REVERSION','ARBITRAGE')),
+    coin_symbol varchar(20) not null,
+    description TEXT,
+    fee numeric(5,4) not null,
+    last_error_message varchar(1000),
+    last_signal_at datetimeoffset(6),
+    name varchar(120) not null,
+    risk_level varchar(20) not null check (risk_level in ('LOW','MEDIUM','HIGH')),
+    status varchar(20) not null check (status in ('ACTIVE','PAUSED','ERROR')),
+    trading_pair varchar(40),
+    primary key (id)
+);
+
+create table coin_holdings (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    amount numeric(19,8) not null,
+    average_buy_price numeric(19,8),
+    coin_id uniqueidentifier not null,
+    wallet_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table coins (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    coin_gecko_id varchar(255) not null,
+    fee numeric(5,4) not null,
+    name varchar(255),
+    symbol varchar(255) not null,
+    primary key (id)
+);
+
+create table subscription_snapshot (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    bot_wallet_balance numeric(18,6) not null,
+    bot_wallet_coin numeric(36,18) not null,
+    net_investment numeric(18,6) not null,
+    pnl numeric(18,6) not null,
+    recorded_at datetimeoffset(6) not null,
+    roi numeric(10,4) not null,
+    total_equity numeric(18,6) not null,
+    bot_subscription_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table token (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    expires_at datetimeoffset(6),
+    token varchar(255),
+    type varchar(255) not null check (type in ('TOKEN_URL','ACTIVATE_CODE')),
+    used bit not null,
+    validated_at datetimeoffset(6),
+    user_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table transactions (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    fee_trade_applied numeric(18,6) not null,
+    notional_value numeric(18,6) not null,
+    price_at_execution numeric(18,8) not null,
+    quantity numeric(36,18) not null,
+    type varchar(10) not null check (type in ('BUY','SELL')),
+    source varchar(10) not null check (source in ('MANUAL','BOT')),
+    coin_id uniqueidentifier not null,
+    wallet_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table user_roles (
+    user_id uniqueidentifier not null,
+    role varchar(64) not null check (role in ('TRADER','COMPANY','ADMIN')),
+    primary key (user_id, role)
+);
+
+create table users (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    account_locked bit not null,
+    auth_provider smallint not null check (auth_provider between 0 and 1),
+    description text,
+    email varchar(255) not null,
+    enabled bit not null,
+    first_name varchar(255),
+    last_name varchar(255),
+    password varchar(255),
+    phone_num varchar(255),
+    profile_photo_public_id varchar(255),
+    profile_photo_url varchar(255),
+    profile_photo_version bigint,
+    refresh_token text,
+    username varchar(255),
+    primary key (id)
+);
+
+create table wallet_snapshots (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    net_investment numeric(19,8) not null,
+    pnl numeric(19,8) not null,
+    recorded_at datetimeoffset(6) not null,
+    roi numeric(5,2) not null,
+    total_coin_value numeric(19,8) not null,
+    total_equity numeric(19,8) not null,
+    wallet_balance numeric(19,8) not null,
+    wallet_id uniqueidentifier not null,
+    primary key (id)
+);
+
+create table wallets (
+    id uniqueidentifier not null,
+    created_at datetimeoffset(6) not null,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    balance numeric(19,8) not null,
+    net_investment numeric(19,8) not null,
+    user_id uniqueidentifier not null,
+    primary key (id)
+);
+
+alter table coin_holdings
+   add constraint UKovm1a2rtyhbyn9tmxu285xy0k unique (wallet_id, coin_id);
+
+alter table coins
+   add constraint ux_coins_gecko unique (coin_gecko_id);
+
+alter table coins
+   add constraint UKgokfx0d7po0vj7xjycywyu8rl unique (symbol);
+
+create index idx_sub_snapshot_time
+   on subscription_snapshot (bot_subscription_id, recorded_at);
+
+alter table users
+   add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+
+create unique nonclustered index UK6xisn9isn9ojnu0sg9fyhaeks
+   on users (phone_num) where phone_num is not null;
+
+create unique nonclustered index UKr43af9ap4edm43mmtq01oddj6
+   on users (username) where username is not null;
+
+alter table wallets
+   add constraint UKsswfdl9fq40xlkove1y5kc7kv unique (user_id);
+
+alter table admin_inventory_history
+   add constraint FKetvehjdm61a2oolf94viw0oa0
+   foreign key (coin_id)
+   references coins;
+
+alter table bot_signals
+   add constraint FKfvakm2y9mxbi5vmyhnxg3wod3
+   foreign key (bot_id)
+   references bots;
+
+alter table bot_subscriptions
+   add constraint FKeevxg5i2dfumo1lw5s2m0qug4
+   foreign key (bot_id)
+   references bots;
+
+alter table bot_trades
+   add constraint FKdv30mr5ljrwoajdt4tpydkmo1
+   foreign key (coin_id)
+   references coins;
+
+alter table bot_trades
+   add constraint FKms9x8t62emir783qx760r8w5i
+   foreign key (wallet_id)
+   references wallets;
+
+alter table bot_trades
+   add constraint FKqyhgerdyl0mtn9duog3ciuuhw
+   foreign key (bot_id)
+   references bots;
+
+alter table bot_trades
+   add constraint FKlkff61fkivp8p5l3y9vp1nmmc
+   foreign key (bot_signal_id)
+   references bot_signals;
+
+alter table bot_trades
+   add constraint FKod4xcnn1s0pv76ddnjn8qvqm6
+   foreign key (bot_subscription_id)
+   references bot_subscriptions;
+
+alter table coin_holdings
+   add constraint FK6gn9hkb6abgvsvavswc31u25l
+   foreign key (coin_id)
+   references coins;
+
+alter table coin_holdings
+   add constraint FK8k5hr98ulaaj336nhinmvuvm
+   foreign key (wallet_id)
+   references wallets;
+
+alter table subscription_snapshot
+   add constraint FKqnria9cmxhdu6k7gb9atunj6b
+   foreign key (bot_subscription_id)
+   references bot_subscriptions;
+
+alter table token
+   add constraint FK_token_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+alter table transactions
+   add constraint FKi7dx7j52in5m13nmve8vw4ax6
+   foreign key (coin_id)
+   references coins;
+
+alter table transactions
+   add constraint FK23bop5lktue0o5q7kr19ti8h
+   foreign key (wallet_id)
+   references wallets;
+
+alter table user_roles
+   add constraint fk_user_roles_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE;
+
+alter table wallet_snapshots
+   add constraint FKcy8kujkwimiqthv328oh4hsxg
+   foreign key (wallet_id)
+   references wallets;
+
+alter table wallets
+   add constraint FKc1foyisidw7wqqrkamafuwn4e
+   foreign key (user_id)
+   references users;
@@ -0,0 +1,8 @@
+-- Idempotency key of a received signal: a redelivered queue message hits the
+-- unique index and is dropped. Nullable, rows received before have none; the
+-- index is filtered because a SQL Server unique index accepts a single NULL.
+ALTER TABLE bot_signals ADD idempotency_key varchar(64) NULL;
+
+CREATE UNIQUE NONCLUSTERED INDEX ux_bot_signals_idempotency ON bot_signals (idempotency_key)
+    WHERE idempotency_key IS NOT NULL
+    WITH (ONLINE = ON);
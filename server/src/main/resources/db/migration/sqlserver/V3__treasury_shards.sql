@@ -0,0 +1,14 @@
+-- Admin liquidity striped over N rows per asset (TreasuryService). The shards
+-- are created and seeded by the application on startup.
+CREATE TABLE treasury_shards (
+    id uniqueidentifier NOT NULL,
+    created_at datetimeoffset(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    asset varchar(20) NOT NULL,
+    shard_index int NOT NULL,
+    balance decimal(19,8) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_treasury_asset_shard UNIQUE (asset, shard_index)
+);
@@ -0,0 +1,11 @@
+-- @Version of the balance rows (optimistic locking of trades). Constant
+-- default: existing rows start at 0 and the column is added as a metadata-only
+-- change, without rewriting the table.
+ALTER TABLE wallets
+    ADD version bigint NOT NULL CONSTRAINT df_wallets_version DEFAULT 0;
+
+ALTER TABLE coin_holdings
+    ADD version bigint NOT NULL CONSTRAINT df_coin_holdings_version DEFAULT 0;
+
+ALTER TABLE bot_subscriptions
+    ADD version bigint NOT NULL CONSTRAINT df_bot_subscriptions_version DEFAULT 0;
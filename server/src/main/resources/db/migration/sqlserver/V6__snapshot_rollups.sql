@@ -0,0 +1,75 @@
+-- Hourly / daily rollups of the snapshot tables (tiered retention) and the
+-- running drawdown of each wallet.
+CREATE TABLE subscription_snapshot_rollup (
+    id uniqueidentifier NOT NULL,
+    created_at datetimeoffset(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    bot_subscription_id uniqueidentifier NOT NULL,
+    resolution varchar(10) NOT NULL CHECK (resolution IN ('HOUR','DAY')),
+    bucket_start datetimeoffset(6) NOT NULL,
+    open_equity decimal(19,8),
+    min_equity decimal(19,8),
+    max_equity decimal(19,8),
+    close_equity decimal(19,8),
+    open_pnl decimal(19,8),
+    min_pnl decimal(19,8),
+    max_pnl decimal(19,8),
+    close_pnl decimal(19,8),
+    min_pnl_pct decimal(19,8),
+    close_net_investment decimal(19,8),
+    samples int NOT NULL,
+    last_recorded_at datetimeoffset(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_sub_rollup_bucket UNIQUE (bot_subscription_id, resolution, bucket_start),
+    INDEX idx_sub_rollup_resolution_time (resolution, bucket_start),
+    CONSTRAINT fk_sub_rollup_subscription FOREIGN KEY (bot_subscription_id)
+        REFERENCES bot_subscriptions (id) ON DELETE CASCADE
+);
+
+CREATE TABLE wallet_snapshot_rollup (
+    id uniqueidentifier NOT NULL,
+    created_at datetimeoffset(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    wallet_id uniqueidentifier NOT NULL,
+    resolution varchar(10) NOT NULL CHECK (resolution IN ('HOUR','DAY')),
+    bucket_start datetimeoffset(6) NOT NULL,
+    open_equity decimal(19,8),
+    min_equity decimal(19,8),
+    max_equity decimal(19,8),
+    close_equity decimal(19,8),
+    open_pnl decimal(19,8),
+    min_pnl decimal(19,8),
+    max_pnl decimal(19,8),
+    close_pnl decimal(19,8),
+    min_pnl_pct decimal(19,8),
+    close_net_investment decimal(19,8),
+    samples int NOT NULL,
+    last_recorded_at datetimeoffset(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_rollup_bucket UNIQUE (wallet_id, resolution, bucket_start),
+    INDEX idx_wallet_rollup_resolution_time (resolution, bucket_start),
+    CONSTRAINT fk_wallet_rollup_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id) ON DELETE CASCADE
+);
+
+CREATE TABLE wallet_metrics (
+    id uniqueidentifier NOT NULL,
+    created_at datetimeoffset(6) NOT NULL,
+    created_by varchar(255),
+    updated_at datetimeoffset(6),
+    updated_by varchar(255),
+    wallet_id uniqueidentifier NOT NULL,
+    max_drawdown decimal(19,8) NOT NULL,
+    max_drawdown_pct decimal(19,8) NOT NULL,
+    last_recorded_at datetimeoffset(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_wallet_metrics_wallet UNIQUE (wallet_id),
+    CONSTRAINT fk_wallet_metrics_wallet FOREIGN KEY (wallet_id) REFERENCES wallets (id) ON DELETE CASCADE
+);
+
+-- Latest / baseline wallet snapshot per wallet and the wallet rollup scans
+CREATE INDEX idx_wallet_snapshot_time ON wallet_snapshots (wallet_id, recorded_at)
+    WITH (ONLINE = ON);
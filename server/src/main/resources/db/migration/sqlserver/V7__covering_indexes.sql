@@ -0,0 +1,41 @@
+-- Indexes of the hot read paths. Built online (ONLINE = ON, available on Azure
+-- SQL Database): reads and writes of the table go on while the index is built.
+
+-- findManualTransactions: wallet of the user, source = MANUAL, sorted / filtered by time
+CREATE INDEX idx_transactions_wallet_source_time ON transactions (wallet_id, source, created_at)
+    WITH (ONLINE = ON);
+
+-- findBotTrades: trades of one subscription, sorted / filtered by time
+CREATE INDEX idx_bot_trades_subscription_time ON bot_trades (bot_subscription_id, created_at)
+    WITH (ONLINE = ON);
+-- Foreign key check of the signal retention delete (SQL Server does not index
+-- foreign keys by itself)
+CREATE INDEX idx_bot_trades_signal ON bot_trades (bot_signal_id)
+    WITH (ONLINE = ON);
+
+-- findLastSignalTime (MAX per bot) and deleteBySignalTimestampBefore (retention)
+CREATE INDEX idx_bot_signals_bot_time ON bot_signals (bot_id, signal_timestamp)
+    WITH (ONLINE = ON);
+CREATE INDEX idx_bot_signals_time ON bot_signals (signal_timestamp)
+    WITH (ONLINE = ON);
+
+-- Active subscribers of a bot (fan-out, bot metrics), subscription of a user to a bot
+CREATE INDEX idx_bot_subscriptions_bot_active ON bot_subscriptions (bot_id, is_active)
+    WITH (ONLINE = ON);
+CREATE INDEX idx_bot_subscriptions_user_bot ON bot_subscriptions (user_id, bot_id)
+    WITH (ONLINE = ON);
+
+-- Latest / baseline snapshot per owner and charts read equity, PnL and net
+-- investment only: answered from the index without key lookups.
+-- recorded_at alone serves the rollup and retention range scans.
+CREATE INDEX idx_sub_snapshot_time ON subscription_snapshot (bot_subscription_id, recorded_at)
+    INCLUDE (pnl, net_investment, total_equity)
+    WITH (DROP_EXISTING = ON, ONLINE = ON);
+CREATE INDEX idx_sub_snapshot_recorded ON subscription_snapshot (recorded_at)
+    WITH (ONLINE = ON);
+
+CREATE INDEX idx_wallet_snapshot_time ON wallet_snapshots (wallet_id, recorded_at)
+    INCLUDE (pnl, net_investment, total_equity)
+    WITH (DROP_EXISTING = ON, ONLINE = ON);
+CREATE INDEX idx_wallet_snapshot_recorded ON wallet_snapshots (recorded_at)
+    WITH (ONLINE = ON);
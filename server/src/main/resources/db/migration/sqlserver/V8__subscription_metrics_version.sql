@@ -0,0 +1,4 @@
+-- @Version of subscription_metrics: the snapshot job and the fills update the
+-- same rows. Constant default, added as a metadata-only change.
+ALTER TABLE subscription_metrics
+    ADD version bigint NOT NULL CONSTRAINT df_subscription_metrics_version DEFAULT 0;
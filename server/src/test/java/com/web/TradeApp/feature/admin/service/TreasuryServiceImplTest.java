@@ -0,0 +1,355 @@
+package com.web.TradeApp.feature.admin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.web.TradeApp.exception.InsufficientBalanceException;
+import com.web.TradeApp.feature.admin.entity.TreasuryShard;
+import com.web.TradeApp.feature.admin.repository.TreasuryShardRepository;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+import com.web.TradeApp.feature.user.entity.User;
+
+/**
+ * Treasury behind a real @Transactional proxy, on an in-memory shard table
+ * whose transactions roll back like the DB's.
+ */
+class TreasuryServiceImplTest {
+
+    private static final String BTC = "BTC";
+    private static final String USDT = TreasuryService.CASH_ASSET;
+    private static final int SHARDS = 4;
+
+    private final TreasuryShardRepository shardRepo = mock(TreasuryShardRepository.class);
+    private final AdminService adminService = mock(AdminService.class);
+    private final CoinRepository coinRepo = mock(CoinRepository.class);
+    private final CoinHoldingRepository holdingRepo = mock(CoinHoldingRepository.class);
+    private final FakeTransactionManager transactionManager = new FakeTransactionManager();
+
+    // asset -> shard index -> row
+    private final Map<String, TreeMap<Integer, TreasuryShard>> table = new TreeMap<>();
+
+    private final Coin btc = Coin.builder().symbol(BTC).coinGeckoId("bitcoin").build();
+    private final Wallet adminWallet = Wallet.builder().balance(BigDecimal.ZERO).build();
+    private final CoinHolding adminBtc = CoinHolding.builder().wallet(adminWallet).coin(btc)
+            .amount(BigDecimal.ZERO).averageBuyPrice(BigDecimal.ZERO).build();
+
+    private TreasuryServiceImpl impl;
+    private TreasuryService treasury;
+
+    @BeforeEach
+    void setUp() {
+        stubShardTable();
+
+        User admin = new User();
+        admin.setId(UUID.randomUUID());
+        adminWallet.setId(UUID.randomUUID());
+        adminWallet.setUser(admin);
+        btc.setId(UUID.randomUUID());
+        when(adminService.getAdminWallet()).thenReturn(adminWallet);
+        when(coinRepo.findBySymbol(BTC)).thenReturn(Optional.of(btc));
+        when(coinRepo.findAllSymbols()).thenReturn(List.of(BTC));
+        when(holdingRepo.findByWalletIdAndCoinId(adminWallet.getId(), btc.getId())).thenReturn(Optional.of(adminBtc));
+        when(holdingRepo.findByWallet_User_Id(admin.getId())).thenReturn(List.of(adminBtc));
+        when(holdingRepo.save(any(CoinHolding.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        impl = new TreasuryServiceImpl(shardRepo, adminService, coinRepo, holdingRepo, transactionManager);
+        ReflectionTestUtils.setField(impl, "shardCount", SHARDS);
+
+        ProxyFactory proxyFactory = new ProxyFactory(impl);
+        proxyFactory.addInterface(TreasuryService.class);
+        proxyFactory.addAdvice(new TransactionInterceptor(
+                (TransactionManager) transactionManager, new AnnotationTransactionAttributeSource()));
+        treasury = (TreasuryService) proxyFactory.getProxy();
+    }
+
+    @Test
+    void creditGoesToTheHomeShardOfTheRoutingKey() {
+        shards(BTC, "0", "0", "0", "0");
+        UUID userId = UUID.randomUUID();
+
+        treasury.credit(BTC, new BigDecimal("5"), userId);
+
+        assertThat(balance(BTC, Math.floorMod(userId.hashCode(), SHARDS))).isEqualByComparingTo("5");
+        assertThat(treasury.balanceOf(BTC)).isEqualByComparingTo("5");
+    }
+
+    @Test
+    void creditNeverCreatesShardsAndHoldsASingleConnection() {
+        // Only shard 0 exists (e.g. treasury.shards was just raised)
+        shards(BTC, "1");
+        UUID userId = keyWithHomeShard(3);
+
+        treasury.credit(BTC, new BigDecimal("2"), userId);
+
+        assertThat(balance(BTC, 0)).isEqualByComparingTo("3");
+        verify(shardRepo, never()).saveAndFlush(any());
+        assertThat(transactionManager.maxOpen).isEqualTo(1);
+    }
+
+    @Test
+    void debitIsTakenFromTheHomeShardWhenItCovers() {
+        shards(BTC, "5", "5", "5", "5");
+        UUID userId = keyWithHomeShard(2);
+
+        treasury.debit(BTC, new BigDecimal("4"), userId);
+
+        assertThat(balances(BTC)).containsExactly(bd("5"), bd("5"), bd("1"), bd("5"));
+    }
+
+    @Test
+    void debitNoSingleShardCoversIsSplitOverSeveral() {
+        shards(BTC, "3", "3", "3", "3");
+
+        treasury.debit(BTC, new BigDecimal("10"), keyWithHomeShard(0));
+
+        assertThat(treasury.balanceOf(BTC)).isEqualByComparingTo("2");
+        assertThat(balances(BTC)).allSatisfy(b -> assertThat(b).isNotNegative());
+    }
+
+    @Test
+    void splitDebitRollsBackCompletelyOnShortfall() {
+        shards(BTC, "3", "3", "3", "3");
+
+        assertThatThrownBy(() -> treasury.debit(BTC, new BigDecimal("13"), keyWithHomeShard(0)))
+                .isInstanceOf(InsufficientBalanceException.class);
+
+        // Every shard was debited before the shortfall showed...
+        verify(shardRepo, atLeast(SHARDS + 1)).debit(anyString(), anyInt(), any());
+        // ...and the transaction put them all back
+        assertThat(balances(BTC)).containsExactly(bd("3"), bd("3"), bd("3"), bd("3"));
+    }
+
+    @Test
+    void debitAboveTheShardSumThrowsInsufficientBalance() {
+        shards(BTC, "1", "0", "2", "0");
+
+        assertThatThrownBy(() -> treasury.debit(BTC, new BigDecimal("3.00000001"), null))
+                .isInstanceOf(InsufficientBalanceException.class);
+        assertThat(treasury.balanceOf(BTC)).isEqualByComparingTo("3");
+
+        // Exactly the sum still goes through
+        treasury.debit(BTC, new BigDecimal("3"), null);
+        assertThat(treasury.balanceOf(BTC)).isZero();
+    }
+
+    @Test
+    void rebalanceSpreadsEvenlyAndTheMirrorEqualsTheShardSum() {
+        shards(BTC, "10", "0", "0", "1.5");
+        shards(USDT, "100", "0", "7", "0");
+
+        treasury.rebalance();
+
+        assertThat(balances(BTC)).containsExactly(bd("2.875"), bd("2.875"), bd("2.875"), bd("2.875"));
+        assertThat(adminBtc.getAmount()).isEqualByComparingTo(treasury.balanceOf(BTC)).isEqualByComparingTo("11.5");
+        assertThat(adminWallet.getBalance()).isEqualByComparingTo(treasury.balanceOf(USDT))
+                .isEqualByComparingTo("107");
+    }
+
+    @Test
+    void rebalanceKeepsTheRoundingRemainderOnShardZero() {
+        shards(BTC, "0.00000010", "0", "0", "0");
+
+        treasury.rebalance();
+
+        assertThat(treasury.balanceOf(BTC)).isEqualByComparingTo("0.0000001");
+        assertThat(adminBtc.getAmount()).isEqualByComparingTo("0.0000001");
+        assertThat(balance(BTC, 0)).isGreaterThanOrEqualTo(balance(BTC, 1));
+    }
+
+    @Test
+    void rebalanceCreatesTheShardsOfANewlyListedCoin() {
+        shards(USDT, "0", "0", "0", "0");
+        shards(BTC, "0", "0", "0", "0");
+        when(coinRepo.findAllSymbols()).thenReturn(List.of(BTC, "ETH"));
+
+        treasury.rebalance();
+
+        assertThat(table.get("ETH")).hasSize(SHARDS);
+        assertThat(treasury.balanceOf("ETH")).isZero();
+    }
+
+    @Test
+    void bootstrapMovesTheAdminWalletIntoShardsWithoutNestedTransactions() {
+        adminWallet.setBalance(new BigDecimal("1000"));
+        adminBtc.setAmount(new BigDecimal("100"));
+
+        impl.bootstrap();
+
+        assertThat(table.get(USDT)).hasSize(SHARDS);
+        assertThat(table.get(BTC)).hasSize(SHARDS);
+        assertThat(treasury.balanceOf(USDT)).isEqualByComparingTo("1000");
+        assertThat(treasury.balanceOf(BTC)).isEqualByComparingTo("100");
+        assertThat(transactionManager.maxOpen).isEqualTo(1);
+
+        // A second start doesn't add the admin balances again
+        impl.bootstrap();
+        assertThat(treasury.balanceOf(USDT)).isEqualByComparingTo("1000");
+    }
+
+    private void stubShardTable() {
+        when(shardRepo.credit(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            TreasuryShard shard = row(invocation.getArgument(0), invocation.getArgument(1));
+            if (shard == null)
+                return 0;
+            shard.setBalance(shard.getBalance().add(invocation.getArgument(2)));
+            return 1;
+        });
+        when(shardRepo.debit(anyString(), anyInt(), any())).thenAnswer(invocation -> {
+            TreasuryShard shard = row(invocation.getArgument(0), invocation.getArgument(1));
+            BigDecimal amount = invocation.getArgument(2);
+            if (shard == null || shard.getBalance().compareTo(amount) < 0)
+                return 0;
+            shard.setBalance(shard.getBalance().subtract(amount));
+            return 1;
+        });
+        when(shardRepo.sumBalance(anyString())).thenAnswer(invocation -> rows(invocation.getArgument(0)).stream()
+                .map(TreasuryShard::getBalance).reduce(BigDecimal.ZERO, BigDecimal::add));
+        when(shardRepo.findShardBalances(anyString())).thenAnswer(invocation -> rows(invocation.getArgument(0))
+                .stream().map(s -> new Object[] { s.getShardIndex(), s.getBalance() }).toList());
+        when(shardRepo.lockByAsset(anyString())).thenAnswer(invocation -> rows(invocation.getArgument(0)));
+        when(shardRepo.findShardIndexes(anyString())).thenAnswer(invocation -> rows(invocation.getArgument(0))
+                .stream().map(TreasuryShard::getShardIndex).toList());
+        when(shardRepo.findAllAssets()).thenAnswer(invocation -> List.copyOf(table.keySet()));
+        when(shardRepo.existsByAsset(anyString()))
+                .thenAnswer(invocation -> !rows(invocation.getArgument(0)).isEmpty());
+        when(shardRepo.saveAndFlush(any(TreasuryShard.class))).thenAnswer(invocation -> {
+            TreasuryShard shard = invocation.getArgument(0);
+            if (row(shard.getAsset(), shard.getShardIndex()) != null)
+                throw new DataIntegrityViolationException("ux_treasury_asset_shard");
+            table.computeIfAbsent(shard.getAsset(), a -> new TreeMap<>()).put(shard.getShardIndex(), shard);
+            return shard;
+        });
+    }
+
+    private void shards(String asset, String... balances) {
+        TreeMap<Integer, TreasuryShard> rows = new TreeMap<>();
+        for (int i = 0; i < balances.length; i++) {
+            rows.put(i, TreasuryShard.builder().asset(asset).shardIndex(i).balance(bd(balances[i])).build());
+        }
+        table.put(asset, rows);
+    }
+
+    private TreasuryShard row(String asset, int shard) {
+        TreeMap<Integer, TreasuryShard> rows = table.get(asset);
+        return rows == null ? null : rows.get(shard);
+    }
+
+    private List<TreasuryShard> rows(String asset) {
+        TreeMap<Integer, TreasuryShard> rows = table.get(asset);
+        return rows == null ? List.of() : new ArrayList<>(rows.values());
+    }
+
+    private BigDecimal balance(String asset, int shard) {
+        return row(asset, shard).getBalance();
+    }
+
+    private List<BigDecimal> balances(String asset) {
+        return rows(asset).stream().map(TreasuryShard::getBalance).map(BigDecimal::stripTrailingZeros).toList();
+    }
+
+    private static BigDecimal bd(String value) {
+        return new BigDecimal(value).stripTrailingZeros();
+    }
+
+    private static UUID keyWithHomeShard(int shard) {
+        UUID key;
+        do {
+            key = UUID.randomUUID();
+        } while (Math.floorMod(key.hashCode(), SHARDS) != shard);
+        return key;
+    }
+
+    /**
+     * Snapshots the shard balances when a transaction begins and restores them
+     * on rollback; counts how many transactions (connections) are open at once.
+     */
+    private final class FakeTransactionManager implements PlatformTransactionManager {
+
+        private final Deque<Map<String, Map<Integer, BigDecimal>>> open = new ArrayDeque<>();
+        int maxOpen;
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            int propagation = definition != null ? definition.getPropagationBehavior()
+                    : TransactionDefinition.PROPAGATION_REQUIRED;
+            if (!open.isEmpty() && propagation != TransactionDefinition.PROPAGATION_REQUIRES_NEW) {
+                return new SimpleTransactionStatus(false);
+            }
+            open.push(snapshot());
+            maxOpen = Math.max(maxOpen, open.size());
+            return new SimpleTransactionStatus(true);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            if (!status.isNewTransaction())
+                return;
+            Map<String, Map<Integer, BigDecimal>> before = open.pop();
+            if (status.isRollbackOnly())
+                restore(before);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            if (status.isNewTransaction()) {
+                restore(open.pop());
+            } else {
+                status.setRollbackOnly();
+            }
+        }
+
+        private Map<String, Map<Integer, BigDecimal>> snapshot() {
+            Map<String, Map<Integer, BigDecimal>> copy = new TreeMap<>();
+            table.forEach((asset, rows) -> {
+                Map<Integer, BigDecimal> balances = new TreeMap<>();
+                rows.forEach((index, shard) -> balances.put(index, shard.getBalance()));
+                copy.put(asset, balances);
+            });
+            return copy;
+        }
+
+        private void restore(Map<String, Map<Integer, BigDecimal>> before) {
+            table.keySet().retainAll(before.keySet());
+            before.forEach((asset, balances) -> {
+                TreeMap<Integer, TreasuryShard> rows = table.get(asset);
+                rows.keySet().retainAll(balances.keySet());
+                balances.forEach((index, balance) -> rows.get(index).setBalance(balance));
+            });
+        }
+    }
+}
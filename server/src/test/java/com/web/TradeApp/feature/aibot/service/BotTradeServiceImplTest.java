@@ -0,0 +1,268 @@
+package com.web.TradeApp.feature.aibot.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.web.TradeApp.feature.admin.service.TreasuryService;
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.model.BotTrade;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.service.BotTradeService.BulkTradeResult;
+import com.web.TradeApp.feature.aibot.service.subscription.BotMetricsService;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Transaction;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+import com.web.TradeApp.feature.coin.repository.TransactionRepository;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.common.retry.OptimisticRetryExecutor;
+import com.web.TradeApp.feature.user.entity.User;
+
+/**
+ * executeBatch (one set-based transaction per chunk) must leave every balance
+ * exactly where executeBuy/executeSell one subscriber at a time would.
+ */
+class BotTradeServiceImplTest {
+
+    private static final BigDecimal BUY_PRICE = new BigDecimal("50000");
+    private static final BigDecimal SELL_PRICE = new BigDecimal("60000");
+
+    @Test
+    void bulkBuyMatchesOneBuyPerSubscriber() {
+        Ledger bulk = buyScenario();
+        Ledger single = buyScenario();
+
+        BulkTradeResult result = bulk.service.executeBatch(bulk.subscriptions(), BotAction.BUY, BUY_PRICE);
+        single.executeOneByOne(BotAction.BUY, BUY_PRICE);
+
+        // Below-minimum and underfunded subscriptions are skipped by both
+        assertThat(result).isEqualTo(new BulkTradeResult(2, 2));
+        assertThat(bulk.state()).isEqualTo(single.state());
+        assertThat(bulk.treasuryNet).containsOnlyKeys("USDT", "BTC");
+        assertThat(bulk.treasuryNet.get("USDT")).isEqualByComparingTo("600");
+    }
+
+    @Test
+    void bulkSellMatchesOneSellPerSubscriber() {
+        Ledger bulk = sellScenario();
+        Ledger single = sellScenario();
+
+        BulkTradeResult result = bulk.service.executeBatch(bulk.subscriptions(), BotAction.SELL, SELL_PRICE);
+        single.executeOneByOne(BotAction.SELL, SELL_PRICE);
+
+        assertThat(result).isEqualTo(new BulkTradeResult(2, 2));
+        assertThat(bulk.state()).isEqualTo(single.state());
+        // The real holding (0.015) capped the second sell
+        assertThat(bulk.treasuryNet.get("BTC")).isEqualByComparingTo("0.025");
+    }
+
+    @Test
+    void chunkWithNothingToFillTouchesNoBalance() {
+        Ledger ledger = new Ledger();
+        ledger.subscriber("40", "0.1", "0", "1000", null, null);
+        String before = ledger.state();
+
+        BulkTradeResult result = ledger.service.executeBatch(ledger.subscriptions(), BotAction.BUY, BUY_PRICE);
+
+        assertThat(result).isEqualTo(new BulkTradeResult(0, 1));
+        assertThat(ledger.state()).isEqualTo(before);
+        assertThat(ledger.treasuryNet).isEmpty();
+    }
+
+    private static Ledger buyScenario() {
+        Ledger ledger = new Ledger();
+        ledger.subscriber("1000", "0.1", "0", "5000", null, null); // first holding of the coin
+        ledger.subscriber("1000", "0.5", "0.01", "2000", "0.5", "40000");
+        ledger.subscriber("40", "0.1", "0", "1000", null, null); // 4 USDT, below the minimum
+        ledger.subscriber("1000", "0.5", "0", "100", null, null); // wallet can't cover 500
+        return ledger;
+    }
+
+    private static Ledger sellScenario() {
+        Ledger ledger = new Ledger();
+        ledger.subscriber("100", "0.5", "0.02", "0", "0.5", "40000");
+        ledger.subscriber("100", "1", "0.02", "0", "0.015", "40000"); // virtual > real holding
+        ledger.subscriber("100", "1", "0.00001", "0", "1", "40000"); // 0.6 USDT, below the minimum
+        ledger.subscriber("100", "0.5", "0.02", "0", null, null); // nothing to sell
+        return ledger;
+    }
+
+    /**
+     * Wallets, holdings and subscriptions of one run, behind mocked
+     * repositories; the treasury records its net change per asset.
+     */
+    private static final class Ledger {
+
+        final Coin coin = Coin.builder().symbol("BTC").coinGeckoId("bitcoin").fee(new BigDecimal("0.025")).build();
+        final Bot bot = Bot.builder().name("bot").coinSymbol("BTC").fee(new BigDecimal("0.1")).build();
+
+        final Map<UUID, BotSubscription> subs = new LinkedHashMap<>();
+        final Map<UUID, Wallet> walletsByUser = new LinkedHashMap<>();
+        final Map<UUID, CoinHolding> holdingsByWallet = new LinkedHashMap<>();
+        final List<Transaction> transactions = new ArrayList<>();
+        final List<BotTrade> botTrades = new ArrayList<>();
+        final Map<String, BigDecimal> treasuryNet = new TreeMap<>();
+
+        final BotTradeServiceImpl service;
+        private int next;
+
+        Ledger() {
+            coin.setId(UUID.randomUUID());
+            bot.setId(UUID.randomUUID());
+
+            WalletRepository walletRepo = mock(WalletRepository.class);
+            CoinRepository coinRepo = mock(CoinRepository.class);
+            CoinHoldingRepository holdingRepo = mock(CoinHoldingRepository.class);
+            TransactionRepository transactionRepo = mock(TransactionRepository.class);
+            BotSubscriptionRepository subRepo = mock(BotSubscriptionRepository.class);
+            BotTradeRepository botTradeRepo = mock(BotTradeRepository.class);
+            TreasuryService treasury = mock(TreasuryService.class);
+            OptimisticRetryExecutor retryExecutor = mock(OptimisticRetryExecutor.class);
+
+            when(coinRepo.findBySymbol("BTC")).thenReturn(Optional.of(coin));
+            when(walletRepo.findByUserId(any())).thenAnswer(i -> Optional.ofNullable(walletsByUser.get(i.getArgument(0))));
+            when(walletRepo.findAllByUserIdInWithUser(anyCollection())).thenAnswer(i -> i.<List<UUID>>getArgument(0)
+                    .stream().map(walletsByUser::get).toList());
+            when(walletRepo.save(any(Wallet.class))).thenAnswer(i -> i.getArgument(0));
+            when(holdingRepo.findByWalletIdAndCoinId(any(), any()))
+                    .thenAnswer(i -> Optional.ofNullable(holdingsByWallet.get(i.getArgument(0))));
+            when(holdingRepo.findAllByWalletIdInAndCoinId(anyCollection(), any())).thenAnswer(i -> i
+                    .<List<UUID>>getArgument(0).stream().map(holdingsByWallet::get).filter(h -> h != null).toList());
+            when(holdingRepo.save(any(CoinHolding.class))).thenAnswer(i -> store(i.getArgument(0)));
+            when(holdingRepo.saveAll(anyIterable())).thenAnswer(i -> {
+                i.<Iterable<CoinHolding>>getArgument(0).forEach(this::store);
+                return i.getArgument(0);
+            });
+            when(subRepo.findById(any())).thenAnswer(i -> Optional.ofNullable(subs.get(i.getArgument(0))));
+            when(subRepo.findAllById(anyIterable())).thenAnswer(i -> {
+                List<BotSubscription> found = new ArrayList<>();
+                i.<Iterable<UUID>>getArgument(0).forEach(id -> found.add(subs.get(id)));
+                return found;
+            });
+            when(subRepo.save(any(BotSubscription.class))).thenAnswer(i -> i.getArgument(0));
+            when(transactionRepo.save(any(Transaction.class))).thenAnswer(i -> add(transactions, i.getArgument(0)));
+            when(transactionRepo.saveAll(anyIterable())).thenAnswer(i -> {
+                i.<Iterable<Transaction>>getArgument(0).forEach(transactions::add);
+                return i.getArgument(0);
+            });
+            when(botTradeRepo.save(any(BotTrade.class))).thenAnswer(i -> add(botTrades, i.getArgument(0)));
+            when(botTradeRepo.saveAll(anyIterable())).thenAnswer(i -> {
+                i.<Iterable<BotTrade>>getArgument(0).forEach(botTrades::add);
+                return i.getArgument(0);
+            });
+            doAnswer(i -> treasuryNet.merge(i.getArgument(0), i.getArgument(1), BigDecimal::add))
+                    .when(treasury).credit(anyString(), any(), any());
+            doAnswer(i -> treasuryNet.merge(i.getArgument(0), i.<BigDecimal>getArgument(1).negate(), BigDecimal::add))
+                    .when(treasury).debit(anyString(), any(), any());
+            doAnswer(i -> {
+                i.<Runnable>getArgument(1).run();
+                return null;
+            }).when(retryExecutor).run(anyString(), any(Runnable.class));
+
+            service = new BotTradeServiceImpl(walletRepo, coinRepo, holdingRepo, transactionRepo, subRepo,
+                    botTradeRepo, treasury, retryExecutor, mock(BotMetricsService.class));
+        }
+
+        // Ids are numbered, so two ledgers built the same way line up
+        void subscriber(String botBalance, String tradePercentage, String botCoin, String walletBalance,
+                String holdingAmount, String averageBuyPrice) {
+            User user = new User();
+            user.setId(new UUID(0, ++next));
+            Wallet wallet = Wallet.builder().user(user).balance(new BigDecimal(walletBalance))
+                    .netInvestment(new BigDecimal(walletBalance)).build();
+            wallet.setId(new UUID(1, next));
+            walletsByUser.put(user.getId(), wallet);
+            if (holdingAmount != null) {
+                CoinHolding holding = CoinHolding.builder().wallet(wallet).coin(coin)
+                        .amount(new BigDecimal(holdingAmount)).averageBuyPrice(new BigDecimal(averageBuyPrice)).build();
+                holding.setId(new UUID(2, next));
+                holdingsByWallet.put(wallet.getId(), holding);
+            }
+            BotSubscription sub = BotSubscription.builder().bot(bot).userId(user.getId())
+                    .botWalletBalance(new BigDecimal(botBalance)).botWalletCoin(new BigDecimal(botCoin))
+                    .netInvestment(new BigDecimal(botBalance)).tradePercentage(new BigDecimal(tradePercentage))
+                    .active(true).build();
+            sub.setId(new UUID(3, next));
+            subs.put(sub.getId(), sub);
+        }
+
+        List<BotSubscription> subscriptions() {
+            return List.copyOf(subs.values());
+        }
+
+        void executeOneByOne(BotAction action, BigDecimal price) {
+            for (BotSubscription sub : subscriptions()) {
+                try {
+                    if (action == BotAction.BUY) {
+                        service.executeBuy(sub, price);
+                    } else {
+                        service.executeSell(sub, price);
+                    }
+                } catch (RuntimeException e) {
+                    // e.g. no holding to sell: the fan-out counts it as failed and moves on
+                }
+            }
+        }
+
+        /**
+         * Everything a trade can change, as text so two runs compare with equals.
+         */
+        String state() {
+            StringBuilder out = new StringBuilder();
+            for (BotSubscription sub : subs.values()) {
+                Wallet wallet = walletsByUser.get(sub.getUserId());
+                CoinHolding holding = holdingsByWallet.get(wallet.getId());
+                out.append("sub ").append(plain(sub.getBotWalletBalance())).append(' ')
+                        .append(plain(sub.getBotWalletCoin()))
+                        .append(" | wallet ").append(plain(wallet.getBalance()))
+                        .append(" | holding ")
+                        .append(holding == null ? "-" : plain(holding.getAmount()) + " @ "
+                                + plain(holding.getAverageBuyPrice()))
+                        .append('\n');
+            }
+            treasuryNet.forEach((asset, net) -> out.append("treasury ").append(asset).append(' ')
+                    .append(plain(net)).append('\n'));
+            transactions.forEach(t -> out.append("tx ").append(t.getType()).append(' ')
+                    .append(plain(t.getQuantity())).append(' ').append(plain(t.getFeeTradeApplied())).append('\n'));
+            botTrades.forEach(t -> out.append("trade ").append(t.getType()).append(' ')
+                    .append(plain(t.getQuantity())).append(' ').append(plain(t.getNotionalValue())).append('\n'));
+            return out.toString();
+        }
+
+        private CoinHolding store(CoinHolding holding) {
+            holdingsByWallet.put(holding.getWallet().getId(), holding);
+            return holding;
+        }
+
+        private static <T> T add(List<T> rows, T row) {
+            rows.add(row);
+            return row;
+        }
+
+        private static String plain(BigDecimal value) {
+            return value.stripTrailingZeros().toPlainString();
+        }
+    }
+}
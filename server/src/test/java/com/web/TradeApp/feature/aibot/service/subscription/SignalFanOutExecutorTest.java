@@ -0,0 +1,192 @@
+package com.web.TradeApp.feature.aibot.service.subscription;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.service.BotTradeService;
+import com.web.TradeApp.feature.aibot.service.BotTradeService.BulkTradeResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SignalFanOutExecutorTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final BotRepository botRepo = mock(BotRepository.class);
+    private final BotSubscriptionRepository subRepo = mock(BotSubscriptionRepository.class);
+    private final BotTradeService botTradeService = mock(BotTradeService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Stand-in for bots.last_signal_at
+    private final Map<UUID, Instant> lastSignalAt = new ConcurrentHashMap<>();
+    private SignalFanOutExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        when(botRepo.findById(any())).thenAnswer(invocation -> Optional.of(bot(invocation.getArgument(0))));
+        when(botRepo.advanceLastSignalAt(any(), any())).thenAnswer(invocation -> {
+            UUID botId = invocation.getArgument(0);
+            Instant signalAt = invocation.getArgument(1);
+            Instant previous = lastSignalAt.merge(botId, signalAt, (old, now) -> now.isBefore(old) ? old : now);
+            return previous.equals(signalAt) ? 1 : 0;
+        });
+        when(botTradeService.executeBatch(anyList(), any(), any()))
+                .thenAnswer(invocation -> new BulkTradeResult(invocation.<List<?>>getArgument(0).size(), 0));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void signalsOfOneBotRunOneAfterTheOther() throws Exception {
+        executor = executor(50, 4);
+        UUID botId = UUID.randomUUID();
+        when(subRepo.findByBotIdAndActiveTrueWithBot(botId)).thenReturn(subscriptions(3));
+
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        List<BotAction> order = new CopyOnWriteArrayList<>();
+        when(botTradeService.executeBatch(anyList(), any(), any())).thenAnswer(invocation -> {
+            BotAction action = invocation.getArgument(1);
+            order.add(action);
+            if (action == BotAction.BUY) {
+                firstStarted.countDown();
+                releaseFirst.await(2, TimeUnit.SECONDS);
+            }
+            return new BulkTradeResult(3, 0);
+        });
+
+        var first = executor.submit(signal(botId, BotAction.BUY, T0));
+        assertThat(firstStarted.await(2, TimeUnit.SECONDS)).isTrue();
+        var second = executor.submit(signal(botId, BotAction.SELL, T0.plusSeconds(60)));
+
+        Thread.sleep(100);
+        // The SELL waits for the BUY of the same bot
+        assertThat(order).containsExactly(BotAction.BUY);
+
+        releaseFirst.countDown();
+        second.get(2, TimeUnit.SECONDS);
+        assertThat(first).isCompleted();
+        assertThat(order).containsExactly(BotAction.BUY, BotAction.SELL);
+    }
+
+    @Test
+    void signalOlderThanTheLastOneOfItsBotIsDropped() throws Exception {
+        executor = executor(50, 4);
+        UUID botId = UUID.randomUUID();
+        when(subRepo.findByBotIdAndActiveTrueWithBot(botId)).thenReturn(subscriptions(2));
+
+        // Published newest first, e.g. by two queue consumers racing
+        executor.submit(signal(botId, BotAction.SELL, T0.plusSeconds(60)));
+        executor.submit(signal(botId, BotAction.BUY, T0)).get(2, TimeUnit.SECONDS);
+
+        verify(botTradeService).executeBatch(anyList(), eq(BotAction.SELL), any());
+        verify(botTradeService, never()).executeBatch(anyList(), eq(BotAction.BUY), any());
+        assertThat(meterRegistry.counter("signal.fanout.out_of_order").count()).isEqualTo(1);
+    }
+
+    @Test
+    void chunksNeverExceedTheConcurrencyCap() throws Exception {
+        executor = executor(1, 2);
+        UUID botId = UUID.randomUUID();
+        when(subRepo.findByBotIdAndActiveTrueWithBot(botId)).thenReturn(subscriptions(8));
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(botTradeService.executeBatch(anyList(), any(), any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(30);
+            running.decrementAndGet();
+            return new BulkTradeResult(1, 0);
+        });
+
+        executor.submit(signal(botId, BotAction.BUY, T0)).get(5, TimeUnit.SECONDS);
+
+        verify(botTradeService, times(8)).executeBatch(anyList(), any(), any());
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    void failedBulkChunkFallsBackToOneTradePerSubscriber() throws Exception {
+        executor = executor(50, 4);
+        UUID botId = UUID.randomUUID();
+        List<BotSubscription> subscriptions = subscriptions(3);
+        when(subRepo.findByBotIdAndActiveTrueWithBot(botId)).thenReturn(subscriptions);
+        when(botTradeService.executeBatch(anyList(), any(), any())).thenThrow(new IllegalStateException("liquidity"));
+
+        executor.submit(signal(botId, BotAction.BUY, T0)).get(2, TimeUnit.SECONDS);
+
+        subscriptions.forEach(sub -> verify(botTradeService).executeBuy(eq(sub), any(BigDecimal.class)));
+    }
+
+    private SignalFanOutExecutor executor(int chunkSize, int maxConcurrency) {
+        SignalFanOutExecutor fanOut = new SignalFanOutExecutor(botRepo, subRepo, botTradeService, meterRegistry);
+        ReflectionTestUtils.setField(fanOut, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(fanOut, "maxConcurrency", maxConcurrency);
+        ReflectionTestUtils.setField(fanOut, "bulkEnabled", true);
+        ReflectionTestUtils.setField(fanOut, "shutdownTimeout", Duration.ofSeconds(5));
+        fanOut.init();
+        return fanOut;
+    }
+
+    private static BotSignal signal(UUID botId, BotAction action, Instant at) {
+        BotSignal signal = new BotSignal();
+        signal.setBot(bot(botId));
+        signal.setAction(action);
+        signal.setPrice(100.0);
+        signal.setSignalTimestamp(at);
+        return signal;
+    }
+
+    private static Bot bot(UUID id) {
+        Bot bot = new Bot();
+        bot.setId(id);
+        bot.setName("bot-" + id);
+        return bot;
+    }
+
+    private static List<BotSubscription> subscriptions(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            BotSubscription sub = new BotSubscription();
+            sub.setId(UUID.randomUUID());
+            sub.setUserId(UUID.randomUUID());
+            return sub;
+        }).toList();
+    }
+}
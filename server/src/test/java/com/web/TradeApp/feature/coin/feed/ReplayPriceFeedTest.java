@@ -0,0 +1,130 @@
+package com.web.TradeApp.feature.coin.feed;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
+import com.web.TradeApp.feature.coin.service.CoinSymbolRegistry;
+
+/**
+ * Drives PriceFeedManager with a recorded CSV through ReplayPriceFeed and
+ * checks what ends up in the TickStore.
+ */
+class ReplayPriceFeedTest {
+
+    private static final Duration WINDOW = Duration.ofMinutes(5);
+
+    @TempDir
+    Path dir;
+
+    private final TickStore tickStore = new TickStore();
+    private CoinSymbolRegistry registry;
+    private PriceFeedManager manager;
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.stop();
+        }
+    }
+
+    @Test
+    void replayedTicksOfListedCoinsFeedTheStore() throws Exception {
+        start(4096, """
+                # epochMillis,symbol,price,volume
+                1000,BTC,100,1
+                1001,ETH,10,5
+                1002,btc,110,3
+                1003,DOGE,0.1,100
+                1004,BTC,120
+                """);
+
+        awaitTrue(() -> tickStore.latest("BTC", WINDOW).orElse(0) == 120);
+
+        assertThat(manager.isRunning()).isTrue();
+        assertThat(tickStore.latest("ETH", WINDOW)).hasValue(10);
+        // Not listed: not subscribed, never stored
+        assertThat(tickStore.latest("DOGE", WINDOW)).isEmpty();
+        // (100*1 + 110*3 + 120*1) / (1 + 3 + 1): the tick without volume weighs 1
+        assertThat(tickStore.vwap("BTC", WINDOW)).hasValue(110);
+
+        manager.stop();
+        assertThat(manager.isRunning()).isFalse();
+    }
+
+    @Test
+    void vwapOnlyCoversTheTicksStillInTheRing() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            csv.append(1000 + i).append(",BTC,").append(i).append('\n');
+        }
+        start(4, csv.toString());
+
+        awaitTrue(() -> tickStore.latest("BTC", WINDOW).orElse(0) == 10);
+
+        // Ring of 4: ticks 7..10 only
+        assertThat(tickStore.vwap("BTC", WINDOW)).hasValue(8.5);
+    }
+
+    @Test
+    void snapshotPricesUseTheVwapOfTheIntervalAndQuotesTheLastTick() throws Exception {
+        start(4096, """
+                1000,BTC,100,1
+                1001,BTC,200,3
+                1002,BTC,300,0
+                """);
+        awaitTrue(() -> tickStore.latest("BTC", WINDOW).orElse(0) == 300);
+
+        // Every coin has a live tick: no HTTP call is made
+        CoinGeckoClient client = new CoinGeckoClient(null, new ObjectMapper(), tickStore, registry);
+        ReflectionTestUtils.setField(client, "maxTickAge", Duration.ofSeconds(30));
+
+        assertThat(client.getBatchPrices(List.of("BTC"))).containsEntry("bitcoin", BigDecimal.valueOf(300.0));
+        assertThat(client.getBatchPrices(List.of("BTC"), WINDOW)).containsEntry("bitcoin", BigDecimal.valueOf(200.0));
+    }
+
+    private void start(int ringCapacity, String csv) throws IOException {
+        Path file = dir.resolve("ticks.csv");
+        Files.writeString(file, csv);
+
+        ReflectionTestUtils.setField(tickStore, "capacity", ringCapacity);
+
+        ReplayPriceFeed feed = new ReplayPriceFeed();
+        ReflectionTestUtils.setField(feed, "file", file);
+        ReflectionTestUtils.setField(feed, "speed", 0.0);
+
+        CoinRepository coinRepository = mock(CoinRepository.class);
+        when(coinRepository.findAll()).thenReturn(List.of(
+                Coin.builder().coinGeckoId("bitcoin").symbol("BTC").fee(BigDecimal.ZERO).build(),
+                Coin.builder().coinGeckoId("ethereum").symbol("ETH").fee(BigDecimal.ZERO).build()));
+        registry = new CoinSymbolRegistry(coinRepository);
+
+        manager = new PriceFeedManager(List.of(feed), tickStore, registry);
+        manager.start();
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within 5s").isNegative();
+            Thread.sleep(10);
+        }
+    }
+}
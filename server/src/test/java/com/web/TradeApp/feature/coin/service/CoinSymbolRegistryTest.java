@@ -0,0 +1,114 @@
+package com.web.TradeApp.feature.coin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+
+/**
+ * Lookups against the loaded snapshot and when a refresh becomes visible.
+ */
+class CoinSymbolRegistryTest {
+
+    private final CoinRepository coinRepository = mock(CoinRepository.class);
+    private final CoinSymbolRegistry registry = new CoinSymbolRegistry(coinRepository);
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void mapsSymbolsAndIdsBothWays() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC"), coin("ethereum", "ETH")));
+        registry.refresh();
+
+        assertThat(registry.idOf("BTC")).isEqualTo("bitcoin");
+        assertThat(registry.idOf("eth")).isEqualTo("ethereum");
+        assertThat(registry.symbolOf("bitcoin")).isEqualTo("BTC");
+        assertThat(registry.symbolOf("ETH")).isEqualTo("ETH");
+        assertThat(registry.symbols()).containsExactlyInAnyOrder("BTC", "ETH");
+    }
+
+    @Test
+    void unknownCoinFallsBackToTheLowerCasedId() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC")));
+        registry.refresh();
+
+        assertThat(registry.idOf("Solana")).isEqualTo("solana");
+        assertThat(registry.symbolOf("solana")).isNull();
+    }
+
+    @Test
+    void joinedIdsAreSortedAndFollowTheLatestRefresh() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin("ethereum", "ETH"), coin("bitcoin", "BTC")));
+        registry.refresh();
+        assertThat(registry.joinedIds()).isEqualTo("bitcoin,ethereum");
+
+        when(coinRepository.findAll()).thenReturn(
+                List.of(coin("ethereum", "ETH"), coin("bitcoin", "BTC"), coin("cardano", "ADA")));
+        registry.refresh();
+
+        assertThat(registry.joinedIds()).isEqualTo("bitcoin,cardano,ethereum");
+        assertThat(registry.idOf("ADA")).isEqualTo("cardano");
+        assertThat(registry.symbolOf("cardano")).isEqualTo("ADA");
+    }
+
+    @Test
+    void firstLookupLoadsTheSnapshotOnce() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC")));
+
+        assertThat(registry.idOf("BTC")).isEqualTo("bitcoin");
+        assertThat(registry.joinedIds()).isEqualTo("bitcoin");
+
+        verify(coinRepository, times(1)).findAll();
+    }
+
+    @Test
+    void refreshAfterCommitWaitsForTheCommit() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC")));
+        registry.refresh();
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC"), coin("dogecoin", "DOGE")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        registry.refreshAfterCommit();
+
+        // Still inside the transaction: the new coin is not visible yet
+        assertThat(registry.symbolOf("dogecoin")).isNull();
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(registry.symbolOf("dogecoin")).isEqualTo("DOGE");
+        assertThat(registry.joinedIds()).isEqualTo("bitcoin,dogecoin");
+    }
+
+    @Test
+    void refreshAfterCommitWithoutATransactionRefreshesRightAway() {
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC")));
+        registry.refresh();
+        when(coinRepository.findAll()).thenReturn(List.of(coin("bitcoin", "BTC"), coin("ripple", "XRP")));
+
+        registry.refreshAfterCommit();
+
+        assertThat(registry.idOf("XRP")).isEqualTo("ripple");
+    }
+
+    private static Coin coin(String coinGeckoId, String symbol) {
+        return Coin.builder().coinGeckoId(coinGeckoId).symbol(symbol).fee(BigDecimal.ZERO).build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.web.TradeApp.feature.coin.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.web.TradeApp.exception.PriceUnavailableException;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.feed.TickStore;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+import com.web.TradeApp.feature.common.http.ResilientHttpClient;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs the cache with the real CoinGeckoClient / ResilientHttpClient against a
+ * local HTTP stub of /simple/price.
+ */
+class MarketPriceCacheTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String btcPrice = "65000.5";
+    private volatile int status = 200;
+    private volatile long delayMillis;
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private MarketPriceCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/simple/price", this::handlePrice);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        meterRegistry = new SimpleMeterRegistry();
+        ResilientHttpClient httpClient = ResilientHttpClient.builder()
+                .name("coingecko-stub")
+                .connectTimeout(Duration.ofSeconds(1))
+                .requestTimeout(Duration.ofSeconds(5))
+                .maxRetries(0)
+                .retryBackoff(Duration.ofMillis(10))
+                .rateLimitPerMinute(60_000)
+                .rateLimitBurst(100)
+                .rateLimitWait(Duration.ofSeconds(1))
+                .failureThreshold(100)
+                .openDuration(Duration.ofSeconds(1))
+                .meterRegistry(meterRegistry)
+                .build();
+
+        CoinRepository coinRepository = mock(CoinRepository.class);
+        when(coinRepository.findAll()).thenReturn(List.of(
+                Coin.builder().coinGeckoId("bitcoin").symbol("BTC").fee(BigDecimal.ZERO).build()));
+        CoinSymbolRegistry registry = new CoinSymbolRegistry(coinRepository);
+        registry.refresh();
+
+        CoinGeckoClient client = new CoinGeckoClient(httpClient, new ObjectMapper(), new TickStore(), registry);
+        ReflectionTestUtils.setField(client, "baseUrl", "http://127.0.0.1:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(client, "maxTickAge", Duration.ofSeconds(30));
+
+        cache = new MarketPriceCache(client, meterRegistry);
+        ReflectionTestUtils.setField(cache, "maxStaleness", Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void neverServesAQuoteOlderThanMaxStaleness() throws Exception {
+        ReflectionTestUtils.setField(cache, "maxStaleness", Duration.ofMillis(200));
+        cache.refreshAll();
+        assertThat(requests.get()).isEqualTo(1);
+
+        // Fresh: answered from memory
+        assertThat(cache.getPrice("bitcoin")).isEqualByComparingTo("65000.5");
+        assertThat(requests.get()).isEqualTo(1);
+
+        // Stale: refetched by the reader
+        btcPrice = "66000";
+        Thread.sleep(300);
+        assertThat(cache.getPrice("bitcoin")).isEqualByComparingTo("66000");
+        assertThat(requests.get()).isEqualTo(2);
+
+        // Stale and CoinGecko down: an error, not the old price
+        status = 500;
+        Thread.sleep(300);
+        assertThatThrownBy(() -> cache.getPrice("bitcoin")).isInstanceOf(PriceUnavailableException.class);
+        assertThat(requests.get()).isEqualTo(3);
+    }
+
+    @Test
+    void concurrentMissesOfOneCoinShareASingleRequest() throws Exception {
+        delayMillis = 300;
+        int readers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(readers);
+        try {
+            CountDownLatch go = new CountDownLatch(1);
+            List<Future<BigDecimal>> results = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                results.add(pool.submit(() -> {
+                    go.await();
+                    return cache.getPrice("bitcoin");
+                }));
+            }
+            go.countDown();
+
+            for (Future<BigDecimal> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualByComparingTo("65000.5");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(requests.get()).isEqualTo(1);
+        assertThat(meterRegistry.counter("market.price.cache", "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("market.price.cache", "result", "coalesced").count())
+                .isEqualTo(readers - 1);
+    }
+
+    @Test
+    void failedRefreshKeepsServingTheLastSnapshot() {
+        cache.refreshAll();
+
+        status = 503;
+        btcPrice = "1";
+        cache.refreshAll();
+        assertThat(requests.get()).isEqualTo(2);
+
+        assertThat(cache.getPrice("bitcoin")).isEqualByComparingTo("65000.5");
+        assertThat(requests.get()).isEqualTo(2);
+    }
+
+    private void handlePrice(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = (status == 200 ? "{\"bitcoin\":{\"usd\":" + btcPrice + "}}" : "{\"error\":\"down\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.web.TradeApp.feature.common.chart;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ChartSeriesTest {
+
+    private static final long HOUR = 3600;
+
+    @Test
+    void lttbKeepsShortSeriesAndIgnoresThresholdsBelowThree() {
+        List<ChartPoint> points = series(10);
+
+        assertThat(ChartSeries.lttb(points, 10)).isSameAs(points);
+        assertThat(ChartSeries.lttb(points, 50)).isSameAs(points);
+        assertThat(ChartSeries.lttb(points, 2)).isSameAs(points);
+        assertThat(ChartSeries.lttb(List.of(), 3)).isEmpty();
+    }
+
+    @Test
+    void lttbReturnsThresholdPointsWithFirstAndLastInOrder() {
+        List<ChartPoint> points = series(1000);
+
+        for (int threshold : new int[] { 3, 4, 7, 100, 999 }) {
+            List<ChartPoint> sampled = ChartSeries.lttb(points, threshold);
+
+            assertThat(sampled).hasSize(threshold);
+            assertThat(sampled.get(0)).isSameAs(points.get(0));
+            assertThat(sampled.get(threshold - 1)).isSameAs(points.get(999));
+            for (int i = 1; i < sampled.size(); i++) {
+                assertThat(sampled.get(i).timestamp()).isAfter(sampled.get(i - 1).timestamp());
+            }
+        }
+    }
+
+    @Test
+    void lttbKeepsASpikeOfAFlatSeries() {
+        List<ChartPoint> points = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            points.add(point(i, i == 137 ? 500 : 10));
+        }
+
+        assertThat(ChartSeries.lttb(points, 20)).contains(points.get(137));
+    }
+
+    @Test
+    void fromBucketsReadsInstantTimestampAndBucketNumberKeys() {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<Object[]> rows = List.of(
+                new Object[] { start, new BigDecimal("1.5") },
+                new Object[] { Timestamp.from(start.plusSeconds(HOUR)), new BigDecimal("2") },
+                new Object[] { start.getEpochSecond() / HOUR + 2, 3.25 },
+                new Object[] { null, BigDecimal.ONE },
+                new Object[] { start.plusSeconds(4 * HOUR), null });
+
+        List<ChartPoint> points = ChartSeries.fromBuckets(rows, HOUR, 300);
+
+        assertThat(points).extracting(ChartPoint::timestamp).containsExactly(
+                start, start.plusSeconds(HOUR), start.plusSeconds(2 * HOUR));
+        // AVG as a Double comes back at the scale of the snapshot columns
+        assertThat(points).extracting(ChartPoint::value).containsExactly(
+                new BigDecimal("1.5"), new BigDecimal("2"), new BigDecimal("3.250000"));
+    }
+
+    @Test
+    void fromBucketsCapsTheSeriesAtMaxPoints() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long bucket = 0; bucket < 500; bucket++) {
+            rows.add(new Object[] { bucket, BigDecimal.valueOf(bucket % 17) });
+        }
+
+        List<ChartPoint> points = ChartSeries.fromBuckets(rows, 300, 120);
+
+        assertThat(points).hasSize(120);
+        assertThat(points.get(0).timestamp()).isEqualTo(Instant.EPOCH);
+        assertThat(points.get(119).timestamp()).isEqualTo(Instant.ofEpochSecond(499 * 300));
+    }
+
+    private static List<ChartPoint> series(int size) {
+        List<ChartPoint> points = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            points.add(point(i, Math.sin(i / 10.0) * 100));
+        }
+        return points;
+    }
+
+    private static ChartPoint point(long hour, double value) {
+        return new ChartPoint(Instant.ofEpochSecond(hour * HOUR), BigDecimal.valueOf(value));
+    }
+}
@@ -0,0 +1,123 @@
+package com.web.TradeApp.feature.common.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ResilientHttpClientTest {
+
+    private final List<Long> requestNanos = new CopyOnWriteArrayList<>();
+    // Number of 429 answers before the stub answers 200
+    private final AtomicInteger throttledLeft = new AtomicInteger();
+    private volatile String retryAfter = "1";
+
+    private HttpServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ping", this::handle);
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/ping";
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void waitsForRetryAfterBeforeTheNextCall() {
+        ResilientHttpClient client = client(Duration.ofSeconds(3));
+        throttledLeft.set(1);
+
+        assertThat(client.get(url)).isEqualTo("pong");
+
+        assertThat(requestNanos).hasSize(2);
+        long gapMillis = TimeUnit.NANOSECONDS.toMillis(requestNanos.get(1) - requestNanos.get(0));
+        // Not the 10ms retry backoff
+        assertThat(gapMillis).isGreaterThanOrEqualTo(950);
+    }
+
+    @Test
+    void retryAfterLongerThanTheRateLimitWaitFailsFastForEveryCaller() {
+        ResilientHttpClient client = client(Duration.ofMillis(200));
+        throttledLeft.set(1);
+        retryAfter = "60";
+
+        assertThatThrownBy(() -> client.get(url))
+                .isInstanceOf(ExternalServiceException.class)
+                .hasMessageContaining("rate limit");
+        // The bucket stays drained: the next call doesn't reach the API either
+        assertThatThrownBy(() -> client.get(url)).hasMessageContaining("rate limit");
+        assertThat(requestNanos).hasSize(1);
+    }
+
+    @Test
+    void latencyTimerIsRegisteredOncePerStatus() {
+        ResilientHttpClient client = client(Duration.ofSeconds(3));
+        retryAfter = "0";
+        throttledLeft.set(1);
+
+        for (int i = 0; i < 5; i++) {
+            client.get(url);
+        }
+
+        Timer ok = meterRegistry.get("external.http.requests").tags("client", "stub", "status", "200").timer();
+        Timer throttled = meterRegistry.get("external.http.requests").tags("client", "stub", "status", "429").timer();
+        assertThat(ok.count()).isEqualTo(5);
+        assertThat(throttled.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("external.http.requests").timers()).hasSize(2);
+    }
+
+    private ResilientHttpClient client(Duration rateLimitWait) {
+        return ResilientHttpClient.builder()
+                .name("stub")
+                .connectTimeout(Duration.ofSeconds(1))
+                .requestTimeout(Duration.ofSeconds(5))
+                .maxRetries(1)
+                .retryBackoff(Duration.ofMillis(10))
+                .rateLimitPerMinute(60_000)
+                .rateLimitBurst(100)
+                .rateLimitWait(rateLimitWait)
+                .failureThreshold(100)
+                .openDuration(Duration.ofSeconds(1))
+                .meterRegistry(meterRegistry)
+                .build();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestNanos.add(System.nanoTime());
+        boolean throttled = throttledLeft.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+        byte[] body = (throttled ? "slow down" : "pong").getBytes(StandardCharsets.UTF_8);
+        if (throttled) {
+            exchange.getResponseHeaders().set("Retry-After", retryAfter);
+        }
+        exchange.sendResponseHeaders(throttled ? 429 : 200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.web.TradeApp.feature.common.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.exception.ConflictException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.OptimisticLockException;
+
+class OptimisticRetryExecutorTest {
+
+    private static final String OP = "test-op";
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OptimisticRetryExecutor executor = new OptimisticRetryExecutor(transactionManager, meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        ReflectionTestUtils.setField(executor, "maxAttempts", 3);
+        ReflectionTestUtils.setField(executor, "baseBackoff", Duration.ofMillis(1));
+        ReflectionTestUtils.setField(executor, "maxBackoff", Duration.ofMillis(2));
+    }
+
+    @Test
+    void optimisticLockFailureIsRetriedInANewTransaction() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute(OP, () -> {
+            if (calls.incrementAndGet() == 1)
+                throw new ObjectOptimisticLockingFailureException("BotSubscription", "id");
+            return "done";
+        });
+
+        assertThat(result).isEqualTo("done");
+        assertThat(calls).hasValue(2);
+        verify(transactionManager, times(2)).getTransaction(any());
+        assertThat(count("optimistic.attempts")).isEqualTo(2);
+        assertThat(count("optimistic.conflicts")).isEqualTo(1);
+    }
+
+    @Test
+    void pessimisticLockFailureIsRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        executor.run(OP, () -> {
+            if (calls.incrementAndGet() < 3)
+                throw new CannotAcquireLockException("Deadlock found when trying to get lock");
+        });
+
+        assertThat(calls).hasValue(3);
+        assertThat(count("optimistic.exhausted")).isZero();
+    }
+
+    @Test
+    void conflictWrappedByAnotherExceptionIsRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        executor.run(OP, () -> {
+            if (calls.incrementAndGet() == 1)
+                throw new JpaSystemException(new RuntimeException("flush failed", new OptimisticLockException()));
+        });
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void givesUpAfterMaxAttemptsWithAConflictException() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.run(OP, () -> {
+            calls.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException("Wallet", "id");
+        })).isInstanceOf(ConflictException.class);
+
+        assertThat(calls).hasValue(3);
+        assertThat(count("optimistic.conflicts")).isEqualTo(3);
+        assertThat(count("optimistic.exhausted")).isEqualTo(1);
+    }
+
+    @Test
+    void otherFailuresAreNotRetried() {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> executor.run(OP, () -> {
+            calls.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate key");
+        })).isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void insideAnActiveTransactionRunsOnceWithoutRetry() {
+        AtomicInteger calls = new AtomicInteger();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            // The conflict surfaces as is: only the owner of the outer transaction can retry
+            assertThatThrownBy(() -> executor.run(OP, () -> {
+                calls.incrementAndGet();
+                throw new ObjectOptimisticLockingFailureException("BotSubscription", "id");
+            })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        assertThat(calls).hasValue(1);
+        // Joined the caller's transaction, no new one
+        verify(transactionManager, never()).getTransaction(any());
+        assertThat(count("optimistic.attempts")).isZero();
+    }
+
+    private double count(String name) {
+        return meterRegistry.counter(name, "operation", OP).count();
+    }
+}
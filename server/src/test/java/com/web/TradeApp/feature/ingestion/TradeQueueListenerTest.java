@@ -0,0 +1,238 @@
+package com.web.TradeApp.feature.ingestion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.azure.storage.queue.models.QueueMessageItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+import com.web.TradeApp.feature.ingestion.auth.BotCredentialCache;
+import com.web.TradeApp.feature.ingestion.dedup.SignalDeduplicator;
+import com.web.TradeApp.feature.ingestion.envelope.SignalEnvelopeReader;
+import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
+import com.web.TradeApp.feature.ingestion.queue.InMemorySignalQueue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * handleBatch against an in-memory queue and a fake signal table that enforces
+ * the unique idempotency_key like the DB does.
+ */
+class TradeQueueListenerTest {
+
+    private static final String TOKEN = "token-1";
+    private static final String SECRET = "secret-1";
+
+    private final BotRepository botRepository = mock(BotRepository.class);
+    private final BotSignalRepository botSignalRepository = mock(BotSignalRepository.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final InMemorySignalQueue queue = new InMemorySignalQueue();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // Committed rows, and what the open transaction inserted
+    private final Set<String> storedKeys = new HashSet<>();
+    private final List<BotSignal> pendingRows = new ArrayList<>();
+    private final List<Integer> queueSizeAtCommit = new ArrayList<>();
+
+    private final Bot bot = new Bot();
+    private SignalDeduplicator deduplicator;
+    private TradeQueueListener listener;
+
+    @BeforeEach
+    void setUp() {
+        bot.setId(UUID.randomUUID());
+        bot.setName("bot");
+        bot.setCoinSymbol("BTC");
+        bot.setApiKey(TOKEN);
+        bot.setApiSecret(SECRET);
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenReturn(List.of(bot));
+        when(botRepository.getReferenceById(any())).thenReturn(bot);
+
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            pendingRows.clear();
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> {
+            queueSizeAtCommit.add(queue.size());
+            pendingRows.forEach(row -> storedKeys.add(row.getIdempotencyKey()));
+            pendingRows.clear();
+            return null;
+        }).when(transactionManager).commit(any());
+        doAnswer(invocation -> {
+            pendingRows.clear();
+            return null;
+        }).when(transactionManager).rollback(any());
+
+        when(botSignalRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<BotSignal> rows = new ArrayList<>();
+            invocation.<Iterable<BotSignal>>getArgument(0).forEach(rows::add);
+            rows.forEach(this::insert);
+            return rows;
+        });
+        when(botSignalRepository.save(any(BotSignal.class))).thenAnswer(invocation -> {
+            BotSignal row = invocation.getArgument(0);
+            insert(row);
+            return row;
+        });
+
+        deduplicator = new SignalDeduplicator(meterRegistry);
+        ReflectionTestUtils.setField(deduplicator, "window", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(deduplicator, "maxKeys", 1000);
+
+        BotCredentialCache credentialCache = new BotCredentialCache(botRepository, meterRegistry);
+        ReflectionTestUtils.setField(credentialCache, "positiveTtl", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(credentialCache, "negativeTtl", Duration.ofSeconds(30));
+
+        listener = new TradeQueueListener(botRepository, botSignalRepository,
+                new SignalEnvelopeReader(new ObjectMapper()), queue, eventPublisher, transactionManager,
+                credentialCache, deduplicator);
+    }
+
+    @Test
+    void validBatchIsStoredInOneTransactionAndDeletedAfterTheCommit() {
+        queue.send(signal("LONG", 100.0, "2026-01-01T10:00:00"));
+        queue.send(signal("SHORT", 101.0, "2026-01-01T10:01:00"));
+
+        listener.handleBatch(receive());
+
+        assertThat(storedKeys).hasSize(2);
+        verify(botSignalRepository).saveAll(anyIterable());
+        // Both messages were still in the queue when the transaction committed
+        assertThat(queueSizeAtCommit).containsExactly(2);
+        assertThat(queue.size()).isZero();
+        verify(eventPublisher, times(2)).publishEvent(any(SignalReceivedEvent.class));
+    }
+
+    @Test
+    void duplicateInsideOneBatchIsStoredOnce() {
+        String body = signal("LONG", 100.0, "2026-01-01T10:00:00");
+        queue.send(body);
+        queue.send(body);
+
+        listener.handleBatch(receive());
+
+        assertThat(storedKeys).hasSize(1);
+        assertThat(queue.size()).isZero();
+        verify(eventPublisher).publishEvent(any(SignalReceivedEvent.class));
+    }
+
+    @Test
+    void redeliveryInALaterBatchIsDroppedBeforeAnyDbWork() {
+        String body = signal("LONG", 100.0, "2026-01-01T10:00:00");
+        queue.send(body);
+        listener.handleBatch(receive());
+
+        queue.send(body);
+        listener.handleBatch(receive());
+
+        assertThat(storedKeys).hasSize(1);
+        verify(botSignalRepository).saveAll(anyIterable());
+        assertThat(queue.size()).isZero();
+        assertThat(meterRegistry.counter("signal.dedup", "result", "memory").count()).isEqualTo(1);
+    }
+
+    @Test
+    void duplicateStoredElsewhereFallsBackToSingleInsertsAndSwallowsTheViolation() {
+        // Stored by another instance (or before a restart): not in this window
+        String stored = signal("LONG", 100.0, "2026-01-01T10:00:00");
+        queue.send(stored);
+        listener.handleBatch(receive());
+        SignalDeduplicator freshWindow = new SignalDeduplicator(meterRegistry);
+        ReflectionTestUtils.setField(freshWindow, "window", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(freshWindow, "maxKeys", 1000);
+        ReflectionTestUtils.setField(listener, "signalDeduplicator", freshWindow);
+
+        queue.send(stored);
+        queue.send(signal("SHORT", 101.0, "2026-01-01T10:01:00"));
+        listener.handleBatch(receive());
+
+        // saveAll rolled back, the new signal got in on its own
+        assertThat(storedKeys).hasSize(2);
+        verify(botSignalRepository, times(2)).save(any(BotSignal.class));
+        assertThat(meterRegistry.counter("signal.dedup", "result", "database").count()).isEqualTo(1);
+        // The duplicate is deleted too, nothing is left for redelivery
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void signalThatFailedForAnotherReasonStaysInTheQueueAndIsForgotten() {
+        when(botSignalRepository.saveAll(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        when(botSignalRepository.save(any(BotSignal.class)))
+                .thenThrow(new DataAccessResourceFailureException("db down"));
+        String body = signal("LONG", 100.0, "2026-01-01T10:00:00");
+        queue.send(body);
+
+        listener.handleBatch(receive());
+
+        assertThat(storedKeys).isEmpty();
+        assertThat(queue.size()).isEqualTo(1);
+        verify(eventPublisher, never()).publishEvent(any());
+        // The redelivery is not mistaken for a duplicate
+        String key = SignalDeduplicator.keyOf(bot.getId(), Instant.parse("2026-01-01T10:00:00Z"),
+                BotAction.BUY, 100.0);
+        assertThat(deduplicator.markIfNew(key)).isTrue();
+    }
+
+    @Test
+    void invalidMessagesAreDeletedWithoutBeingStored() {
+        queue.send("not json");
+        queue.send(signal("ERROR", 100.0, "2026-01-01T10:00:00"));
+        queue.send("{\"webhookToken\":\"" + TOKEN + "\",\"payload\":{\"secret_key\":\"wrong\",\"action\":\"LONG\"}}");
+
+        listener.handleBatch(receive());
+
+        assertThat(storedKeys).isEmpty();
+        verify(botSignalRepository, never()).saveAll(anyIterable());
+        assertThat(queue.size()).isZero();
+    }
+
+    private void insert(BotSignal row) {
+        if (storedKeys.contains(row.getIdempotencyKey()) || pendingRows.stream()
+                .anyMatch(p -> p.getIdempotencyKey().equals(row.getIdempotencyKey()))) {
+            throw new DataIntegrityViolationException("Duplicate entry for key 'ux_bot_signals_idempotency_key'");
+        }
+        row.setId(UUID.randomUUID());
+        pendingRows.add(row);
+    }
+
+    private List<QueueMessageItem> receive() {
+        return queue.receive(32, Duration.ofSeconds(30));
+    }
+
+    private static String signal(String action, double price, String timestamp) {
+        return """
+                {"webhookToken":"%s","payload":{"secret_key":"%s","action":"%s","symbol":"BTC",\
+                "price":%s,"timestamp":"%s"}}""".formatted(TOKEN, SECRET, action, price, timestamp);
+    }
+}
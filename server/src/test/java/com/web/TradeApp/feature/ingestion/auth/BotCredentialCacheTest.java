@@ -0,0 +1,132 @@
+package com.web.TradeApp.feature.ingestion.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class BotCredentialCacheTest {
+
+    private static final String TOKEN = "token-1";
+
+    private final BotRepository botRepository = mock(BotRepository.class);
+    private final Bot bot = bot("old-secret");
+    private final BotCredentialCache cache = cache(Duration.ofMinutes(10), Duration.ofSeconds(30));
+
+    @Test
+    void knownTokenIsLoadedOnceAndServedFromMemory() {
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenReturn(List.of(bot));
+
+        assertThat(cache.resolveAll(Set.of(TOKEN))).containsKey(TOKEN);
+        assertThat(cache.resolveAll(Set.of(TOKEN)).get(TOKEN).matchesSecret("old-secret")).isTrue();
+
+        verify(botRepository, times(1)).findAllByApiKeyIn(anyCollection());
+    }
+
+    @Test
+    void unknownTokenIsCachedAsNegativeEntry() {
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenReturn(List.of());
+
+        assertThat(cache.resolveAll(Set.of("garbage"))).isEmpty();
+        assertThat(cache.resolveAll(Set.of("garbage"))).isEmpty();
+
+        verify(botRepository, times(1)).findAllByApiKeyIn(anyCollection());
+    }
+
+    @Test
+    void changedSecretIsPickedUpAfterInvalidation() {
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenReturn(List.of(bot));
+        cache.resolveAll(Set.of(TOKEN));
+
+        bot.setApiSecret("new-secret");
+        // Cached until BotServiceImpl invalidates
+        assertThat(cache.resolveAll(Set.of(TOKEN)).get(TOKEN).matchesSecret("new-secret")).isFalse();
+
+        cache.invalidateBot(bot.getId(), null);
+
+        BotCredential reloaded = cache.resolveAll(Set.of(TOKEN)).get(TOKEN);
+        assertThat(reloaded.matchesSecret("new-secret")).isTrue();
+        assertThat(reloaded.matchesSecret("old-secret")).isFalse();
+    }
+
+    @Test
+    void invalidationInsideATransactionWaitsForTheCommit() {
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenReturn(List.of(bot));
+        cache.resolveAll(Set.of(TOKEN));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bot.setApiSecret("new-secret");
+            cache.invalidateBot(bot.getId(), TOKEN);
+            // Not committed yet: other instances/threads still see the old row
+            assertThat(cache.resolveAll(Set.of(TOKEN)).get(TOKEN).matchesSecret("old-secret")).isTrue();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(cache.resolveAll(Set.of(TOKEN)).get(TOKEN).matchesSecret("new-secret")).isTrue();
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotCached() {
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenAnswer(invocation -> {
+            // Old row read, then the bot is updated and invalidated before the load finishes
+            List<Bot> result = List.of(bot("old-secret", bot.getId()));
+            bot.setApiSecret("new-secret");
+            cache.invalidateBot(bot.getId(), TOKEN);
+            return result;
+        }).thenReturn(List.of(bot));
+
+        // The caller still gets what it loaded...
+        assertThat(cache.resolveAll(Set.of(TOKEN)).get(TOKEN).matchesSecret("old-secret")).isTrue();
+        // ...but the stale credential was not put back into the cache
+        assertThat(cache.resolveAll(Set.of(TOKEN)).get(TOKEN).matchesSecret("new-secret")).isTrue();
+    }
+
+    @Test
+    void expiredEntryIsReloaded() throws Exception {
+        BotCredentialCache shortTtl = cache(Duration.ofMillis(20), Duration.ofMillis(20));
+        when(botRepository.findAllByApiKeyIn(anyCollection())).thenReturn(List.of(bot));
+        shortTtl.resolveAll(Set.of(TOKEN));
+
+        Thread.sleep(40);
+        shortTtl.resolveAll(Set.of(TOKEN));
+
+        verify(botRepository, times(2)).findAllByApiKeyIn(anyCollection());
+    }
+
+    private BotCredentialCache cache(Duration positiveTtl, Duration negativeTtl) {
+        BotCredentialCache credentialCache = new BotCredentialCache(botRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(credentialCache, "positiveTtl", positiveTtl);
+        ReflectionTestUtils.setField(credentialCache, "negativeTtl", negativeTtl);
+        return credentialCache;
+    }
+
+    private static Bot bot(String secret) {
+        return bot(secret, UUID.randomUUID());
+    }
+
+    private static Bot bot(String secret, UUID id) {
+        Bot b = Bot.builder().name("bot").coinSymbol("BTC").apiKey(TOKEN).apiSecret(secret).build();
+        b.setId(id);
+        return b;
+    }
+}
@@ -0,0 +1,98 @@
+package com.web.TradeApp.feature.ingestion.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Queue;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SignalDeduplicatorTest {
+
+    private static final UUID BOT_ID = UUID.randomUUID();
+    private static final Instant TS = Instant.parse("2026-01-01T10:00:00Z");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SignalDeduplicator deduplicator = deduplicator(Duration.ofMinutes(10), 100);
+
+    @Test
+    void keyCoversBotTimestampActionAndPrice() {
+        String key = SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 100.0);
+
+        assertThat(SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 100.0)).isEqualTo(key).hasSize(64);
+        assertThat(SignalDeduplicator.keyOf(UUID.randomUUID(), TS, BotAction.BUY, 100.0)).isNotEqualTo(key);
+        assertThat(SignalDeduplicator.keyOf(BOT_ID, TS.plusMillis(1), BotAction.BUY, 100.0)).isNotEqualTo(key);
+        assertThat(SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.SELL, 100.0)).isNotEqualTo(key);
+        assertThat(SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 100.5)).isNotEqualTo(key);
+    }
+
+    @Test
+    void secondMarkInsideTheWindowIsADuplicate() {
+        String key = SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 100.0);
+
+        assertThat(deduplicator.markIfNew(key)).isTrue();
+        assertThat(deduplicator.markIfNew(key)).isFalse();
+
+        assertThat(count("unique")).isEqualTo(1);
+        assertThat(count("memory")).isEqualTo(1);
+    }
+
+    @Test
+    void keyIsNewAgainOnceTheWindowHasPassed() throws Exception {
+        SignalDeduplicator shortWindow = deduplicator(Duration.ofMillis(20), 100);
+        String key = SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 100.0);
+        shortWindow.markIfNew(key);
+
+        Thread.sleep(40);
+
+        assertThat(shortWindow.markIfNew(key)).isTrue();
+    }
+
+    @Test
+    void oldestKeysAreEvictedAboveMaxKeys() {
+        SignalDeduplicator small = deduplicator(Duration.ofMinutes(10), 2);
+        String first = SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 1.0);
+        small.markIfNew(first);
+        small.markIfNew(SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 2.0));
+        small.markIfNew(SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 3.0));
+        small.markIfNew(SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 4.0));
+
+        // Left to the idempotency_key constraint
+        assertThat(small.markIfNew(first)).isTrue();
+    }
+
+    @Test
+    void forgetRemovesTheKeyFromTheWindowAndTheEvictionQueue() {
+        String key = SignalDeduplicator.keyOf(BOT_ID, TS, BotAction.BUY, 100.0);
+        deduplicator.markIfNew(key);
+
+        deduplicator.forget(key);
+
+        assertThat(evictionQueue(deduplicator)).isEmpty();
+        // The redelivered message goes through again
+        assertThat(deduplicator.markIfNew(key)).isTrue();
+        assertThat(evictionQueue(deduplicator)).hasSize(1);
+    }
+
+    private SignalDeduplicator deduplicator(Duration window, int maxKeys) {
+        SignalDeduplicator dedup = new SignalDeduplicator(meterRegistry);
+        ReflectionTestUtils.setField(dedup, "window", window);
+        ReflectionTestUtils.setField(dedup, "maxKeys", maxKeys);
+        return dedup;
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("signal.dedup", "result", result).count();
+    }
+
+    private static Queue<?> evictionQueue(SignalDeduplicator dedup) {
+        return (Queue<?>) ReflectionTestUtils.getField(dedup, "evictionQueue");
+    }
+}
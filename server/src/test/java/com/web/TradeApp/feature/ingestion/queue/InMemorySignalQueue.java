@@ -0,0 +1,89 @@
+package com.web.TradeApp.feature.ingestion.queue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.azure.core.util.BinaryData;
+import com.azure.storage.queue.models.QueueMessageItem;
+
+/**
+ * In-memory stand-in of the Azure queue with the same delivery contract:
+ * received messages are hidden for the visibility timeout and come back if
+ * they are not deleted, a delete needs the pop receipt of the last receive.
+ */
+public class InMemorySignalQueue implements SignalQueue {
+
+    private static final class Entry {
+        final String id;
+        final String body;
+        long visibleAtNanos;
+        String popReceipt;
+        long dequeueCount;
+
+        Entry(String id, String body) {
+            this.id = id;
+            this.body = body;
+        }
+    }
+
+    private final Map<String, Entry> messages = new LinkedHashMap<>();
+    private final List<Long> receiveNanos = new CopyOnWriteArrayList<>();
+    private long nextId;
+
+    public synchronized void send(String body) {
+        String id = Long.toString(nextId++);
+        messages.put(id, new Entry(id, body));
+    }
+
+    @Override
+    public synchronized List<QueueMessageItem> receive(int maxMessages, Duration visibilityTimeout) {
+        long now = System.nanoTime();
+        receiveNanos.add(now);
+        List<QueueMessageItem> received = new ArrayList<>();
+        for (Entry entry : messages.values()) {
+            if (received.size() == maxMessages) {
+                break;
+            }
+            if (entry.visibleAtNanos - now > 0) {
+                continue;
+            }
+            entry.visibleAtNanos = now + visibilityTimeout.toNanos();
+            entry.popReceipt = UUID.randomUUID().toString();
+            entry.dequeueCount++;
+            received.add(new QueueMessageItem()
+                    .setMessageId(entry.id)
+                    .setPopReceipt(entry.popReceipt)
+                    .setDequeueCount(entry.dequeueCount)
+                    .setBody(BinaryData.fromString(entry.body)));
+        }
+        return received;
+    }
+
+    @Override
+    public synchronized void delete(QueueMessageItem message) {
+        Entry entry = messages.get(message.getMessageId());
+        if (entry == null || !entry.popReceipt.equals(message.getPopReceipt())) {
+            throw new IllegalStateException("Unknown message or stale pop receipt: " + message.getMessageId());
+        }
+        messages.remove(entry.id);
+    }
+
+    /**
+     * Messages not deleted yet, visible or not.
+     */
+    public synchronized int size() {
+        return messages.size();
+    }
+
+    /**
+     * System.nanoTime() of every receive call, in order.
+     */
+    public List<Long> receiveTimes() {
+        return List.copyOf(receiveNanos);
+    }
+}
@@ -0,0 +1,141 @@
+package com.web.TradeApp.feature.ingestion.queue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.azure.storage.queue.models.QueueMessageItem;
+
+class QueueDrainEngineTest {
+
+    private final InMemorySignalQueue queue = new InMemorySignalQueue();
+    private QueueDrainEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    void drainsTheQueueContinuouslyAndHandlesEachMessageOnce() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            queue.send("signal-" + i);
+        }
+        Map<String, Integer> handled = new ConcurrentHashMap<>();
+        engine = engine(batch -> {
+            for (QueueMessageItem message : batch) {
+                handled.merge(message.getBody().toString(), 1, Integer::sum);
+                queue.delete(message);
+            }
+        }, 32, 4, Duration.ofMillis(50), Duration.ofMillis(500));
+
+        engine.start();
+
+        awaitTrue(() -> queue.size() == 0, Duration.ofSeconds(5));
+        assertThat(handled).hasSize(200);
+        assertThat(handled.values()).containsOnly(1);
+        // Full batches are pulled back to back: 7 receives of 32 before the first empty one
+        assertThat(queue.receiveTimes().size()).isLessThan(20);
+    }
+
+    @Test
+    void backsOffExponentiallyOnAnEmptyQueueAndSnapsBackOnNewMessages() throws Exception {
+        AtomicInteger handled = new AtomicInteger();
+        engine = engine(batch -> {
+            batch.forEach(queue::delete);
+            handled.addAndGet(batch.size());
+        }, 32, 1, Duration.ofMillis(10), Duration.ofMillis(80));
+
+        engine.start();
+        Thread.sleep(600);
+
+        List<Long> receives = queue.receiveTimes();
+        // Without back-off this would be thousands of calls
+        assertThat(receives.size()).isBetween(4, 15);
+        long expectedGap = 10;
+        for (int i = 1; i < receives.size(); i++) {
+            long gapMillis = TimeUnit.NANOSECONDS.toMillis(receives.get(i) - receives.get(i - 1));
+            assertThat(gapMillis).isGreaterThanOrEqualTo(expectedGap - 1).isLessThan(80 + 500);
+            expectedGap = Math.min(expectedGap * 2, 80);
+        }
+
+        queue.send("late-signal");
+        awaitTrue(() -> handled.get() == 1, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void stopFinishesBatchesInFlightAndLeavesTheRestForRedelivery() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            queue.send("signal-" + i);
+        }
+        CountDownLatch firstBatchStarted = new CountDownLatch(1);
+        AtomicInteger started = new AtomicInteger();
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+        engine = engine(batch -> {
+            started.incrementAndGet();
+            firstBatchStarted.countDown();
+            sleep(300);
+            batch.forEach(queue::delete);
+            deleted.addAndGet(batch.size());
+            completed.incrementAndGet();
+        }, 5, 1, Duration.ofMillis(10), Duration.ofMillis(80));
+
+        engine.start();
+        assertThat(firstBatchStarted.await(2, TimeUnit.SECONDS)).isTrue();
+
+        engine.stop();
+
+        assertThat(engine.isRunning()).isFalse();
+        // Every batch a consumer took was finished before stop() returned
+        assertThat(completed.get()).isEqualTo(started.get()).isPositive();
+        // Nothing is received after stop
+        int receivesAtStop = queue.receiveTimes().size();
+        Thread.sleep(200);
+        assertThat(queue.receiveTimes()).hasSize(receivesAtStop);
+        // Messages not processed stay in the queue and are redelivered after their visibility timeout
+        assertThat(queue.size()).isEqualTo(20 - deleted.get()).isPositive();
+    }
+
+    private QueueDrainEngine engine(SignalBatchHandler handler, int batchSize, int consumers,
+            Duration minBackoff, Duration maxBackoff) {
+        QueueDrainEngine drainEngine = new QueueDrainEngine(queue, handler);
+        ReflectionTestUtils.setField(drainEngine, "enabled", true);
+        ReflectionTestUtils.setField(drainEngine, "batchSize", batchSize);
+        ReflectionTestUtils.setField(drainEngine, "consumerCount", consumers);
+        ReflectionTestUtils.setField(drainEngine, "visibilityTimeout", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(drainEngine, "minBackoff", minBackoff);
+        ReflectionTestUtils.setField(drainEngine, "maxBackoff", maxBackoff);
+        ReflectionTestUtils.setField(drainEngine, "shutdownTimeout", Duration.ofSeconds(5));
+        return drainEngine;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime() - deadline).as("condition not met within %s", timeout).isNegative();
+            Thread.sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}